@@ -188,7 +188,11 @@ public interface Status
         Terminated( TransientError,
                 "Explicitly terminated by the user." ),
         Interrupted( TransientError,
-                "Interrupted while waiting." );
+                "Interrupted while waiting." ),
+        TransactionMemoryLimit( TransientError,
+                "The transaction state could not be allocated within the configured off-heap memory limits " +
+                "(unsupported.dbms.tx_state.max_off_heap_memory and unsupported.dbms.tx_state.max_transaction_off_heap_memory). " +
+                "Retrying the transaction may succeed once other transactions have released their memory." );
 
         private final Code code;
 
@@ -39,6 +39,12 @@ public enum Group
     LOG_ROTATION( "LogRotation" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
+    /** Appends and forces committing transactions to the transaction log. */
+    TRANSACTION_LOG_WRITER( "TransactionLogWriter" ),
+    /** Applies committed transactions to stores and indexes in parallel. */
+    TRANSACTION_APPLIER( "TransactionApplier" ),
+    /** Decodes the transaction log ahead of applying the recovered transactions. */
+    RECOVERY_LOG_READER( "RecoveryLogReader" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
     /** Terminates kernel transactions that have timed out. */
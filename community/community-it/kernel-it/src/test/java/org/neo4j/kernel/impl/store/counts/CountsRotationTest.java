@@ -188,7 +188,7 @@ public class CountsRotationTest
 
         DependencyResolver resolver = db.getDependencyResolver();
         RecordStorageEngine storageEngine = resolver.resolveDependency( RecordStorageEngine.class );
-        CountsTracker countStore = storageEngine.testAccessNeoStores().getCounts();
+        CountsStore countStore = storageEngine.testAccessNeoStores().getCounts();
 
         AtomicBoolean workerContinueFlag = new AtomicBoolean( true );
         AtomicLong lookupsCounter = new AtomicLong();
@@ -216,7 +216,7 @@ public class CountsRotationTest
         db.shutdown();
     }
 
-    private static ThrowingFunction<CountsTracker,Void,RuntimeException> countStoreLookup(
+    private static ThrowingFunction<CountsStore,Void,RuntimeException> countStoreLookup(
             AtomicBoolean workerContinueFlag, AtomicLong lookups )
     {
         return countsTracker ->
@@ -301,7 +301,7 @@ public class CountsRotationTest
         }
 
         // on the other hand the tracker should read the correct value by merging data on disk and data in memory
-        final CountsTracker tracker = db.getDependencyResolver().resolveDependency( RecordStorageEngine.class )
+        final CountsStore tracker = db.getDependencyResolver().resolveDependency( RecordStorageEngine.class )
                 .testAccessNeoStores().getCounts();
         assertEquals( 1 + 1, tracker.nodeCount( -1, newDoubleLongRegister() ).readSecond() );
 
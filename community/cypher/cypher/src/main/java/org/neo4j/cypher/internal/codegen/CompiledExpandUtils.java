@@ -26,9 +26,7 @@ import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.internal.kernel.api.helpers.RelationshipSelectionCursor;
 
-import static org.neo4j.internal.kernel.api.helpers.Nodes.countAll;
-import static org.neo4j.internal.kernel.api.helpers.Nodes.countIncoming;
-import static org.neo4j.internal.kernel.api.helpers.Nodes.countOutgoing;
+import static org.neo4j.internal.kernel.api.Read.ANY_RELATIONSHIP_TYPE;
 
 @SuppressWarnings( "unused" )
 public abstract class CompiledExpandUtils
@@ -59,7 +57,7 @@ public abstract class CompiledExpandUtils
         if ( fromNodeIsDense && toNodeIsDense )
         {
             //Note that we have already position the cursor at toNode
-            int toDegree = nodeGetDegree( nodeCursor, cursors, direction );
+            int toDegree = nodeGetDegree( nodeCursor, direction );
             long startNode;
             long endNode;
             Direction relDirection;
@@ -159,20 +157,19 @@ public abstract class CompiledExpandUtils
             return NOT_DENSE_DEGREE;
         }
 
-        return nodeGetDegree( nodeCursor, cursors, direction );
+        return nodeGetDegree( nodeCursor, direction );
     }
 
-    private static int nodeGetDegree( NodeCursor nodeCursor, CursorFactory cursors,
-            Direction direction )
+    private static int nodeGetDegree( NodeCursor nodeCursor, Direction direction )
     {
         switch ( direction )
         {
         case OUTGOING:
-            return countOutgoing( nodeCursor, cursors );
+            return nodeCursor.outgoingDegree( ANY_RELATIONSHIP_TYPE );
         case INCOMING:
-            return countIncoming( nodeCursor, cursors );
+            return nodeCursor.incomingDegree( ANY_RELATIONSHIP_TYPE );
         case BOTH:
-            return countAll( nodeCursor, cursors );
+            return nodeCursor.totalDegree( ANY_RELATIONSHIP_TYPE );
         default:
             throw new IllegalStateException( "Unknown direction " + direction );
         }
@@ -191,20 +188,19 @@ public abstract class CompiledExpandUtils
             return NOT_DENSE_DEGREE;
         }
 
-        return nodeGetDegree( nodeCursor, cursors, direction, type );
+        return nodeGetDegree( nodeCursor, direction, type );
     }
 
-    private static int nodeGetDegree( NodeCursor nodeCursor, CursorFactory cursors,
-            Direction direction, int type )
+    private static int nodeGetDegree( NodeCursor nodeCursor, Direction direction, int type )
     {
         switch ( direction )
         {
         case OUTGOING:
-            return countOutgoing( nodeCursor, cursors, type );
+            return nodeCursor.outgoingDegree( type );
         case INCOMING:
-            return countIncoming( nodeCursor, cursors, type );
+            return nodeCursor.incomingDegree( type );
         case BOTH:
-            return countAll( nodeCursor, cursors, type );
+            return nodeCursor.totalDegree( type );
         default:
             throw new IllegalStateException( "Unknown direction " + direction );
         }
@@ -231,7 +227,7 @@ public abstract class CompiledExpandUtils
         int degree = 0;
         for ( int relType : relTypes )
         {
-            degree += nodeGetDegree( nodeCursor, cursors, direction, relType );
+            degree += nodeGetDegree( nodeCursor, direction, relType );
         }
 
         return degree;
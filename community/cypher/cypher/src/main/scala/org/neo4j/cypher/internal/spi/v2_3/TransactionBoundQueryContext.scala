@@ -44,7 +44,6 @@ import org.neo4j.graphdb.security.URLAccessValidationError
 import org.neo4j.graphdb.traversal.{Evaluators, TraversalDescription, Uniqueness}
 import org.neo4j.internal.kernel.api
 import org.neo4j.internal.kernel.api._
-import org.neo4j.internal.kernel.api.helpers.Nodes
 import org.neo4j.internal.kernel.api.helpers.RelationshipSelections.{allCursor, incomingCursor, outgoingCursor}
 import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.api.exceptions.schema.{AlreadyConstrainedException, AlreadyIndexedException}
@@ -385,9 +384,9 @@ final class TransactionBoundQueryContext(tc: TransactionalContextWrapper, val re
     if (!cursor.next()) 0
     else {
       dir match {
-        case OUTGOING => Nodes.countOutgoing(cursor, tc.cursors)
-        case INCOMING => Nodes.countIncoming(cursor, tc.cursors)
-        case BOTH => Nodes.countAll(cursor, tc.cursors)
+        case OUTGOING => cursor.outgoingDegree(Read.ANY_RELATIONSHIP_TYPE)
+        case INCOMING => cursor.incomingDegree(Read.ANY_RELATIONSHIP_TYPE)
+        case BOTH => cursor.totalDegree(Read.ANY_RELATIONSHIP_TYPE)
       }
     }
   }
@@ -398,9 +397,9 @@ final class TransactionBoundQueryContext(tc: TransactionalContextWrapper, val re
     if (!cursor.next()) 0
     else {
       dir match {
-        case OUTGOING => Nodes.countOutgoing(cursor, tc.cursors, relTypeId)
-        case INCOMING => Nodes.countIncoming(cursor, tc.cursors, relTypeId)
-        case BOTH => Nodes.countAll(cursor, tc.cursors, relTypeId)
+        case OUTGOING => cursor.outgoingDegree(relTypeId)
+        case INCOMING => cursor.incomingDegree(relTypeId)
+        case BOTH => cursor.totalDegree(relTypeId)
       }
     }
   }
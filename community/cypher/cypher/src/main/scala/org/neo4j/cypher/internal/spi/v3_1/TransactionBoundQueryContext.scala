@@ -48,7 +48,6 @@ import org.neo4j.graphdb.traversal.{Evaluators, TraversalDescription, Uniqueness
 import org.neo4j.internal.kernel.api
 import org.neo4j.internal.kernel.api._
 import org.neo4j.internal.kernel.api.exceptions.ProcedureException
-import org.neo4j.internal.kernel.api.helpers.Nodes
 import org.neo4j.internal.kernel.api.helpers.RelationshipSelections.{allCursor, incomingCursor, outgoingCursor}
 import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.api._
@@ -388,9 +387,9 @@ final class TransactionBoundQueryContext(txContext: TransactionalContextWrapper,
     if (!cursor.next()) 0
     else {
       dir match {
-        case OUTGOING => Nodes.countOutgoing(cursor, txContext.kernelTransaction.cursors)
-        case INCOMING => Nodes.countIncoming(cursor, txContext.kernelTransaction.cursors)
-        case BOTH => Nodes.countAll(cursor, txContext.kernelTransaction.cursors)
+        case OUTGOING => cursor.outgoingDegree(Read.ANY_RELATIONSHIP_TYPE)
+        case INCOMING => cursor.incomingDegree(Read.ANY_RELATIONSHIP_TYPE)
+        case BOTH => cursor.totalDegree(Read.ANY_RELATIONSHIP_TYPE)
       }
     }
   }
@@ -401,9 +400,9 @@ final class TransactionBoundQueryContext(txContext: TransactionalContextWrapper,
     if (!cursor.next()) 0
     else {
       dir match {
-        case OUTGOING => Nodes.countOutgoing(cursor, txContext.kernelTransaction.cursors, relTypeId)
-        case INCOMING => Nodes.countIncoming(cursor, txContext.kernelTransaction.cursors, relTypeId)
-        case BOTH => Nodes.countAll(cursor, txContext.kernelTransaction.cursors, relTypeId)
+        case OUTGOING => cursor.outgoingDegree(relTypeId)
+        case INCOMING => cursor.incomingDegree(relTypeId)
+        case BOTH => cursor.totalDegree(relTypeId)
       }
     }
   }
@@ -458,7 +458,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       reads().singleNode(node, cursor)
       if (!cursor.next()) 0
-      else Nodes.countOutgoing(cursor, transactionalContext.cursors)
+      else cursor.outgoingDegree(Read.ANY_RELATIONSHIP_TYPE)
     } finally {
      cursor.close()
     }
@@ -469,7 +469,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       reads().singleNode(node, cursor)
       if (!cursor.next()) 0
-      else Nodes.countIncoming(cursor, transactionalContext.cursors)
+      else cursor.incomingDegree(Read.ANY_RELATIONSHIP_TYPE)
     } finally {
       cursor.close()
     }
@@ -480,7 +480,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       reads().singleNode(node, cursor)
       if (!cursor.next()) 0
-      else Nodes.countAll(cursor, transactionalContext.cursors)
+      else cursor.totalDegree(Read.ANY_RELATIONSHIP_TYPE)
     } finally {
       cursor.close()
     }
@@ -491,7 +491,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       reads().singleNode(node, cursor)
       if (!cursor.next()) 0
-      else Nodes.countOutgoing(cursor, transactionalContext.cursors, relationship)
+      else cursor.outgoingDegree(relationship)
     } finally {
       cursor.close()
     }
@@ -502,7 +502,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       reads().singleNode(node, cursor)
       if (!cursor.next()) 0
-      else Nodes.countIncoming(cursor, transactionalContext.cursors, relationship)
+      else cursor.incomingDegree(relationship)
     } finally {
       cursor.close()
     }
@@ -513,7 +513,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       reads().singleNode(node, cursor)
       if (!cursor.next()) 0
-      else Nodes.countAll(cursor, transactionalContext.cursors, relationship)
+      else cursor.totalDegree(relationship)
     } finally {
       cursor.close()
     }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * Fills an empty {@link GBPTree} with key/value pairs, given in ascending key order. The leaves are written
+ * sequentially, at a fill factor, and the internal levels are built on top of them when the bulk loader
+ * is {@link #close() closed}, typically using try-with-resource clause. This is much faster than inserting
+ * the same key/value pairs using a {@link Writer}, and produces a tree without half-full nodes.
+ * <p>
+ * The loaded key/value pairs are visible to readers once the bulk loader has been closed.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Appends given {@code key} and {@code value} to the tree.
+     *
+     * @param key key to append, must be greater than any previously added key.
+     * @param value value to associate with key.
+     * @throws IllegalArgumentException if {@code key} isn't greater than the previously added key.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+}
@@ -30,6 +30,8 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
@@ -37,6 +39,7 @@ import java.util.function.Supplier;
 
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
@@ -346,6 +349,12 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final LongSupplier generationSupplier = () -> generation;
 
+    /**
+     * Lowest internal nodes recently traversed by {@link #seekExact(Object)}, allowing point lookups to skip
+     * the upper levels of the tree.
+     */
+    private final InternalNodeCache<KEY> internalNodeCache;
+
     /**
      * Called on certain events.
      */
@@ -453,6 +462,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
         long rootId = IdSpace.MIN_TREE_NODE_ID;
         setRoot( rootId, Generation.unstableGeneration( generation ) );
         this.layout = layout;
+        this.internalNodeCache = new InternalNodeCache<>( layout, InternalNodeCache.SIZE );
 
         try
         {
@@ -807,7 +817,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
         // This index was created with another page size, re-open with that actual page size
         if ( pageSize != pageCache.pageSize() )
         {
-            if ( pageSize > pageCache.pageSize() || pageSize < 0 )
+            if ( pageSize > pageCache.pageSize() || pageSize <= 0 )
             {
                 throw new MetadataMismatchException(
                         "Tried to create tree with page size %d, but page cache used to open it this time " +
@@ -858,12 +868,28 @@ public class GBPTree<KEY,VALUE> implements Closeable
      * @throws IOException on error reading from index.
      */
     public RawCursor<Hit<KEY,VALUE>,IOException> seek( KEY fromInclusive, KEY toExclusive ) throws IOException
+    {
+        return seek( fromInclusive, toExclusive, false );
+    }
+
+    /**
+     * Seeks hits in this tree, given a key range, like {@link #seek(Object, Object)}.
+     *
+     * @param fromInclusive lower bound of the range to seek (inclusive).
+     * @param toExclusive higher bound of the range to seek (exclusive).
+     * @param readAhead whether or not the seek should {@link PagedFile#PF_READ_AHEAD read ahead} of the pages it visits.
+     * Meant for seeks over large ranges, which visit many leaves that, after bulk loading, are mostly laid out in order.
+     * @return a {@link RawCursor} used to iterate over the hits within the specified key range.
+     * @throws IOException on error reading from index.
+     */
+    public RawCursor<Hit<KEY,VALUE>,IOException> seek( KEY fromInclusive, KEY toExclusive, boolean readAhead ) throws IOException
     {
         long generation = this.generation;
         long stableGeneration = stableGeneration( generation );
         long unstableGeneration = unstableGeneration( generation );
 
-        PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK );
+        int pfFlags = readAhead ? PagedFile.PF_SHARED_READ_LOCK | PagedFile.PF_READ_AHEAD : PagedFile.PF_SHARED_READ_LOCK;
+        PageCursor cursor = pagedFile.io( 0L /*ignored*/, pfFlags );
         long rootGeneration = root.goTo( cursor );
 
         // Returns cursor which is now initiated with left-most leaf node for the specified range
@@ -872,6 +898,101 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 exceptionDecorator, SeekCursor.DEFAULT_MAX_READ_AHEAD );
     }
 
+    /**
+     * Seeks the hit with the given {@code key} in this tree, if any. This is equivalent to calling
+     * {@link #seek(Object, Object)} with {@code key} as both bounds, but is optimized for point lookups:
+     * the descent can start at a recently traversed internal node covering {@code key}, instead of at the root.
+     * <p>
+     * The {@code key} instance may be modified by the returned cursor, as with {@link #seek(Object, Object)}.
+     *
+     * @param key the key to seek.
+     * @return a {@link RawCursor} with at most one hit, the one with the given {@code key}.
+     * @throws IOException on error reading from index.
+     */
+    public RawCursor<Hit<KEY,VALUE>,IOException> seekExact( KEY key ) throws IOException
+    {
+        long generation = this.generation;
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+
+        PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK );
+        InternalNodeCache.Entry<KEY> cached = internalNodeCache.lookup( key, generation );
+        if ( cached != null )
+        {
+            // Start at the cached internal node, as if we had just followed a pointer to it
+            PageCursorUtil.goTo( cursor, "cached internal node", cached.nodeId );
+            return new SeekCursor<>( cursor, bTreeNode, key, key, layout,
+                    stableGeneration, unstableGeneration, generationSupplier, rootCatchup, cached.pointerGeneration,
+                    exceptionDecorator, 1 );
+        }
+
+        long rootGeneration = root.goTo( cursor );
+        return new SeekCursor<>( cursor, bTreeNode, key, key, layout,
+                stableGeneration, unstableGeneration, generationSupplier, rootCatchup, rootGeneration,
+                exceptionDecorator, 1, internalNodeCache );
+    }
+
+    /**
+     * Splits the range between {@code fromInclusive} and {@code toExclusive} into partitions, holding roughly the same
+     * number of entries each, and returns one seeker per partition. Seekers are independent of each other and can
+     * be consumed concurrently by different threads, although each single seeker must only be used by one thread
+     * at a time. Together they return the same hits as {@link #seek(Object, Object)} for the same range would,
+     * each hit returned by exactly one seeker and seekers ordered by their ranges.
+     * <p>
+     * Partition boundaries are picked among keys in internal nodes, so the number of returned seekers may be
+     * lower than desired, e.g. a single seeker if the whole tree fits in one leaf.
+     * Only ranges seeking forward, i.e. where {@code fromInclusive} is not greater than {@code toExclusive}, can be partitioned.
+     *
+     * @param fromInclusive lower bound of the range to seek (inclusive).
+     * @param toExclusive higher bound of the range to seek (exclusive).
+     * @param desiredNumberOfPartitions the number of partitions, and seekers, that the range should be split into.
+     * @return seekers, one for each partition, in the order of their ranges.
+     * @throws IOException on error reading from index.
+     * @throws IllegalArgumentException if {@code desiredNumberOfPartitions} is less than one or
+     * if {@code fromInclusive} is greater than {@code toExclusive}.
+     */
+    public List<RawCursor<Hit<KEY,VALUE>,IOException>> partitionedSeek( KEY fromInclusive, KEY toExclusive,
+            int desiredNumberOfPartitions ) throws IOException
+    {
+        if ( desiredNumberOfPartitions < 1 )
+        {
+            throw new IllegalArgumentException( "Number of partitions must be at least one, was " + desiredNumberOfPartitions );
+        }
+        if ( layout.compare( fromInclusive, toExclusive ) > 0 )
+        {
+            throw new IllegalArgumentException( "Partitioned seek only supports seeking forward, tried to seek from " +
+                    fromInclusive + " to " + toExclusive );
+        }
+
+        List<KEY> splitKeys;
+        long generation = this.generation;
+        try ( PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            root.goTo( cursor );
+            splitKeys = new SeekPartitioner<>( bTreeNode, layout, stableGeneration( generation ), unstableGeneration( generation ) )
+                    .splitKeys( cursor, fromInclusive, toExclusive, desiredNumberOfPartitions );
+        }
+
+        List<RawCursor<Hit<KEY,VALUE>,IOException>> partitions = new ArrayList<>( splitKeys.size() + 1 );
+        try
+        {
+            KEY partitionFrom = fromInclusive;
+            for ( KEY splitKey : splitKeys )
+            {
+                partitions.add( seek( partitionFrom, splitKey ) );
+                // Seekers may modify their from key, which must not move the previous seeker's to key
+                partitionFrom = layout.copyKey( splitKey, layout.newKey() );
+            }
+            partitions.add( seek( partitionFrom, toExclusive ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            IOUtils.closeAllSilently( partitions );
+            throw e;
+        }
+        return partitions;
+    }
+
     /**
      * Checkpoints and flushes any pending changes to storage. After a successful call to this method
      * the data is durable and safe. {@link #writer() Changes} made after this call and until crashing or
@@ -1033,6 +1154,43 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Returns a {@link BulkLoader} able to fill this index, which must be empty, with key/value pairs given in ascending
+     * key order. The bulk loader holds the single {@link Writer} of this index until it's closed, at which point
+     * the loaded key/value pairs become visible to readers.
+     *
+     * @param fillFactor fraction of each tree node to fill, greater than 0 and at most 1. Leaving some space in each node
+     * lets later inserts avoid splitting nodes right away.
+     * @return a {@link BulkLoader} for this index. The returned bulk loader must be {@link BulkLoader#close() closed}.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if this index isn't empty, or if the {@link Writer} is already acquired.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor ) throws IOException
+    {
+        assertRecoveryCleanSuccessful();
+        writer.initialize();
+        boolean success = false;
+        try
+        {
+            if ( !TreeNode.isLeaf( writer.cursor ) || TreeNode.keyCount( writer.cursor ) != 0 )
+            {
+                throw new IllegalStateException( "Can only bulk load into an empty tree, " + this + " isn't empty" );
+            }
+            TreeBulkLoader<KEY,VALUE> treeBulkLoader = new TreeBulkLoader<>( pagedFile, bTreeNode, layout, freeList,
+                    writer.stableGeneration, writer.unstableGeneration, fillFactor );
+            changesSinceLastCheckpoint = true;
+            success = true;
+            return new SingleBulkLoader( treeBulkLoader );
+        }
+        finally
+        {
+            if ( !success )
+            {
+                writer.close();
+            }
+        }
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1364,6 +1522,67 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    private class SingleBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final TreeBulkLoader<KEY,VALUE> treeBulkLoader;
+        private boolean closed;
+
+        SingleBulkLoader( TreeBulkLoader<KEY,VALUE> treeBulkLoader )
+        {
+            this.treeBulkLoader = treeBulkLoader;
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            try
+            {
+                treeBulkLoader.add( key, value );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this +
+                        ", but bulk loader is already closed." );
+            }
+            closed = true;
+            try
+            {
+                long newRootId = treeBulkLoader.finish();
+                if ( newRootId != TreeNode.NO_NODE_FLAG )
+                {
+                    long oldRootId = root.id();
+                    setRoot( newRootId, writer.unstableGeneration );
+                    freeList.releaseId( writer.stableGeneration, writer.unstableGeneration, oldRootId );
+                }
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+            finally
+            {
+                treeBulkLoader.close();
+                writer.close();
+            }
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
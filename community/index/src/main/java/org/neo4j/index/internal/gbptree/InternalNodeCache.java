@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * Small cache of the lowest internal tree nodes, i.e. the parents of leaves, that point lookups have recently
+ * traversed into. Each entry remembers the key range that the internal node covered when it was traversed, which
+ * allows a point lookup for a key within that range to start its descent directly at the cached node,
+ * instead of pinning and searching every internal node from the root and down.
+ * <p>
+ * Starting from a cached node is equivalent to a seek which read the ancestors of that node, and then got
+ * paused for a while before following the pointer to it. Keys are only ever moved from left to right between tree
+ * nodes, so the key we look for is either in the sub-tree of the cached node or to the right of it, which the
+ * leaf scan in {@link SeekCursor} copes with. The cached node may also have gotten a successor, or have been
+ * reused, since it was cached, which {@link SeekCursor} detects just like for any other pointer it follows.
+ * <p>
+ * Entries are only valid for the tree generation in which they were recorded. After a checkpoint most nodes that
+ * are written to get successors, so rather than following those, the cache is simply repopulated.
+ * <p>
+ * The cache is direct mapped on node id and is updated concurrently by readers, without any locking.
+ * Entries are immutable, and a lost update only means a missed opportunity to use the cache.
+ *
+ * @param <KEY> type of keys in the tree.
+ */
+class InternalNodeCache<KEY>
+{
+    /**
+     * Number of internal nodes to cache per tree. Rounded up to the nearest power of two.
+     */
+    static final int SIZE = getInteger( InternalNodeCache.class, "SIZE", 32 );
+
+    private final Layout<KEY,?> layout;
+    private final AtomicReferenceArray<Entry<KEY>> entries;
+    private final int mask;
+
+    InternalNodeCache( Layout<KEY,?> layout, int size )
+    {
+        this.layout = layout;
+        int capacity = Integer.highestOneBit( Math.max( 1, size ) * 2 - 1 );
+        this.entries = new AtomicReferenceArray<>( capacity );
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Finds a cached internal node covering the given {@code key}.
+     *
+     * @param key the key to look up.
+     * @param generation the current generation of the tree, entries recorded in other generations are ignored.
+     * @return the cached internal node covering the given {@code key}, or {@code null} if there is none.
+     */
+    Entry<KEY> lookup( KEY key, long generation )
+    {
+        for ( int i = 0; i < entries.length(); i++ )
+        {
+            Entry<KEY> entry = entries.get( i );
+            if ( entry != null && entry.generation == generation && entry.covers( layout, key ) )
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records an internal node and the key range it covered when it was traversed into.
+     *
+     * @param nodeId id of the internal node.
+     * @param pointerGeneration generation of the pointer that was followed to the internal node.
+     * @param lowInclusive lowest key covered by the node, or {@code null} if unbounded.
+     * @param highExclusive key above the highest key covered by the node, or {@code null} if unbounded.
+     * @param generation generation of the tree when the node was traversed into.
+     */
+    void record( long nodeId, long pointerGeneration, KEY lowInclusive, KEY highExclusive, long generation )
+    {
+        entries.set( (int) (nodeId & mask), new Entry<>( nodeId, pointerGeneration,
+                copy( lowInclusive ), copy( highExclusive ), generation ) );
+    }
+
+    private KEY copy( KEY key )
+    {
+        return key == null ? null : layout.copyKey( key, layout.newKey() );
+    }
+
+    static final class Entry<KEY>
+    {
+        final long nodeId;
+        final long pointerGeneration;
+        private final KEY lowInclusive;
+        private final KEY highExclusive;
+        private final long generation;
+
+        private Entry( long nodeId, long pointerGeneration, KEY lowInclusive, KEY highExclusive, long generation )
+        {
+            this.nodeId = nodeId;
+            this.pointerGeneration = pointerGeneration;
+            this.lowInclusive = lowInclusive;
+            this.highExclusive = highExclusive;
+            this.generation = generation;
+        }
+
+        boolean covers( Layout<KEY,?> layout, KEY key )
+        {
+            return (lowInclusive == null || layout.compare( lowInclusive, key ) <= 0) &&
+                   (highExclusive == null || layout.compare( key, highExclusive ) < 0);
+        }
+    }
+}
@@ -40,6 +40,7 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
 {
     int FIXED_SIZE_KEY = -1;
     int FIXED_SIZE_VALUE = -1;
+    int NO_KEY_PREFIX_COMPRESSION = -1;
 
     /**
      * @return new key instance.
@@ -122,6 +123,22 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
         copyKey( right, into );
     }
 
+    /**
+     * Dynamic size layouts can let keys in a leaf share a common prefix, which is then stored once per leaf instead of once per key.
+     * The prefix is found among the bytes written by {@link #writeKey(PageCursor, Object)} starting at the returned offset,
+     * bytes before it, typically entity id and similar, are always stored with each key. Keys are always read back whole,
+     * so this is only a hint about where keys start to have bytes in common with their neighbours. Keys sharing a prefix
+     * should be next to each other in sort order, e.g. by bytes after the offset being compared in order, for leaves to split well.
+     * The returned offset is part of the persisted format and must not change for a given layout version.
+     *
+     * @return offset into written key bytes where prefix compression starts, or {@link #NO_KEY_PREFIX_COMPRESSION}
+     * if keys shouldn't be prefix compressed.
+     */
+    default int keyPrefixCompressionOffset()
+    {
+        return NO_KEY_PREFIX_COMPRESSION;
+    }
+
     /**
      * Used as verification when loading an index after creation, to verify that the same layout is used,
      * as the one it was initially created with.
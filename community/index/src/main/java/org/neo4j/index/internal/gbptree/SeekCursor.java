@@ -372,6 +372,53 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
      */
     private boolean verifyExpectedFirstAfterGoToNext;
 
+    // ┌── Special variables for recording internal nodes ──┐
+    // v                                                     v
+
+    /**
+     * Cache to record the lowest internal node traversed into by the initial descent in, or {@code null} if this seek
+     * should not record any internal node. Only set while the initial descent is in progress.
+     */
+    private InternalNodeCache<KEY> internalNodeCache;
+
+    /**
+     * Generation of the pointer which was last followed to a node other than a sibling, i.e. the generation of the
+     * pointer leading to the current node during descent.
+     */
+    private long nodePointerGeneration;
+
+    /**
+     * Number of internal nodes traversed since starting from the root.
+     */
+    private int depth;
+
+    /**
+     * Key range covered by the current node, as seen from the internal nodes traversed on the way down to it.
+     * A {@code false} {@code has*Bound} means that the range is unbounded in that direction.
+     */
+    private KEY lowBound;
+    private KEY highBound;
+    private boolean hasLowBound;
+    private boolean hasHighBound;
+
+    /**
+     * Key range covered by the child at {@link #pos} in the current internal node. Read within should retry loop.
+     */
+    private KEY childLowBound;
+    private KEY childHighBound;
+    private boolean childHasLowBound;
+    private boolean childHasHighBound;
+
+    /**
+     * Id, pointer generation and key range of the lowest internal node traversed, other than the root.
+     */
+    private long internalNodeId = TreeNode.NO_NODE_FLAG;
+    private long internalNodePointerGeneration;
+    private KEY internalNodeLowBound;
+    private KEY internalNodeHighBound;
+    private boolean internalNodeHasLowBound;
+    private boolean internalNodeHasHighBound;
+
     /**
      * Whether or not this seeker have been closed.
      */
@@ -387,6 +434,20 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
             Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
             Supplier<Root> rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead )
                     throws IOException
+    {
+        this( cursor, bTreeNode, fromInclusive, toExclusive, layout, stableGeneration, unstableGeneration,
+                generationSupplier, rootCatchup, lastFollowedPointerGeneration, exceptionDecorator, maxReadAhead, null );
+    }
+
+    /**
+     * @param internalNodeCache if not {@code null}, the {@link PageCursor} is expected to be placed at the root and
+     * the lowest internal node traversed into will be recorded in this cache, along with the key range it covers.
+     */
+    @SuppressWarnings( "unchecked" )
+    SeekCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, KEY fromInclusive, KEY toExclusive,
+            Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
+            Supplier<Root> rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead,
+            InternalNodeCache<KEY> internalNodeCache ) throws IOException
     {
         this.cursor = cursor;
         this.fromInclusive = fromInclusive;
@@ -410,10 +471,22 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
         this.stride = seekForward ? 1 : -1;
         this.expectedFirstAfterGoToNext = layout.newKey();
         this.firstKeyInNode = layout.newKey();
+        this.nodePointerGeneration = lastFollowedPointerGeneration;
+        if ( internalNodeCache != null )
+        {
+            this.internalNodeCache = internalNodeCache;
+            this.lowBound = layout.newKey();
+            this.highBound = layout.newKey();
+            this.childLowBound = layout.newKey();
+            this.childHighBound = layout.newKey();
+            this.internalNodeLowBound = layout.newKey();
+            this.internalNodeHighBound = layout.newKey();
+        }
 
         try
         {
             traverseDownToFirstLeaf();
+            recordInternalNode();
         }
         catch ( Throwable e )
         {
@@ -460,6 +533,10 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
                 {
                     pointerId = bTreeNode.childAt( cursor, pos, stableGeneration, unstableGeneration );
                     pointerGeneration = readPointerGenerationOnSuccess( pointerId );
+                    if ( internalNodeCache != null )
+                    {
+                        readChildBounds();
+                    }
                 }
             }
             while ( cursor.shouldRetry() );
@@ -490,6 +567,10 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
 
             if ( isInternal )
             {
+                if ( internalNodeCache != null )
+                {
+                    descendBounds();
+                }
                 goTo( pointerId, pointerGeneration, "child", false );
             }
         }
@@ -506,6 +587,75 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
         cachedLength = 0;
     }
 
+    /**
+     * Reads the key range covered by the child at {@link #pos} in the current internal node.
+     * Called within should retry loop.
+     */
+    private void readChildBounds()
+    {
+        childHasLowBound = pos > 0;
+        if ( childHasLowBound )
+        {
+            bTreeNode.keyAt( cursor, childLowBound, pos - 1, INTERNAL );
+        }
+        childHasHighBound = pos < keyCount;
+        if ( childHasHighBound )
+        {
+            bTreeNode.keyAt( cursor, childHighBound, pos, INTERNAL );
+        }
+    }
+
+    /**
+     * Called when about to follow the child pointer of the current internal node. Remembers the current node,
+     * unless it's the root, as the lowest internal node traversed so far and narrows the key range down to that
+     * of the child.
+     */
+    private void descendBounds()
+    {
+        if ( depth > 0 )
+        {
+            internalNodeId = cursor.getCurrentPageId();
+            internalNodePointerGeneration = nodePointerGeneration;
+            internalNodeHasLowBound = hasLowBound;
+            internalNodeHasHighBound = hasHighBound;
+            if ( hasLowBound )
+            {
+                layout.copyKey( lowBound, internalNodeLowBound );
+            }
+            if ( hasHighBound )
+            {
+                layout.copyKey( highBound, internalNodeHighBound );
+            }
+        }
+        if ( childHasLowBound && (!hasLowBound || layout.compare( childLowBound, lowBound ) > 0) )
+        {
+            layout.copyKey( childLowBound, lowBound );
+            hasLowBound = true;
+        }
+        if ( childHasHighBound && (!hasHighBound || layout.compare( childHighBound, highBound ) < 0) )
+        {
+            layout.copyKey( childHighBound, highBound );
+            hasHighBound = true;
+        }
+        depth++;
+    }
+
+    /**
+     * Records the lowest internal node traversed during the initial descent, if any, in the
+     * {@link #internalNodeCache}. Recording only happens once, after which bounds are no longer tracked.
+     */
+    private void recordInternalNode()
+    {
+        if ( internalNodeCache != null && internalNodeId != TreeNode.NO_NODE_FLAG )
+        {
+            internalNodeCache.record( internalNodeId, internalNodePointerGeneration,
+                    internalNodeHasLowBound ? internalNodeLowBound : null,
+                    internalNodeHasHighBound ? internalNodeHighBound : null,
+                    Generation.generation( stableGeneration, unstableGeneration ) );
+        }
+        internalNodeCache = null;
+    }
+
     @Override
     public boolean next() throws IOException
     {
@@ -781,6 +931,7 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
         {
             TreeNode.goTo( cursor, type, pointerId );
             lastFollowedPointerGeneration = pointerGeneration;
+            nodePointerGeneration = pointerGeneration;
             concurrentWriteHappened = true;
             return true;
         }
@@ -1089,6 +1240,11 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
     {
         generationCatchup();
         lastFollowedPointerGeneration = rootCatchup.get().goTo( cursor );
+        nodePointerGeneration = lastFollowedPointerGeneration;
+        depth = 0;
+        hasLowBound = false;
+        hasHighBound = false;
+        internalNodeId = TreeNode.NO_NODE_FLAG;
         if ( !first )
         {
             layout.copyKey( prevKey, fromInclusive );
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+
+/**
+ * Finds keys which split a key range into a number of partitions holding roughly the same number of entries,
+ * so that the partitions can be seeked independently of each other, typically in parallel.
+ * <p>
+ * Internal nodes are read level by level, from the root and down, collecting the keys within the range until
+ * there are enough of them to pick split keys from. Sub-trees of the same height hold roughly the same number
+ * of entries, so keys on the same level make for evenly sized partitions. Leaves are never read.
+ * <p>
+ * Keys are read without any coordination with writers and are only used as partition boundaries. Every
+ * partition is seeked with a regular {@link SeekCursor}, so a concurrent change can only make partitions
+ * less evenly sized, never make entries go missing or be seen twice. Keys which don't line up, in sort order
+ * and within the range, with the ones already collected are ignored.
+ *
+ * @param <KEY> type of keys in the tree.
+ * @param <VALUE> type of values in the tree.
+ */
+class SeekPartitioner<KEY,VALUE>
+{
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+
+    SeekPartitioner( TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration )
+    {
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+    }
+
+    /**
+     * @param cursor {@link PageCursor} placed at the root of the tree.
+     * @param fromInclusive lower bound of the range, inclusive.
+     * @param toExclusive upper bound of the range, exclusive.
+     * @param desiredNumberOfPartitions number of partitions to split the range into.
+     * @return keys, in sort order and within the range, splitting it into at most {@code desiredNumberOfPartitions}
+     * partitions. The returned list is empty if the range cannot be split, e.g. if the tree only consists of a root leaf.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    List<KEY> splitKeys( PageCursor cursor, KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions ) throws IOException
+    {
+        List<KEY> keys = new ArrayList<>();
+        MutableLongList level = new LongArrayList();
+        level.add( cursor.getCurrentPageId() );
+        while ( keys.size() < desiredNumberOfPartitions - 1 && !level.isEmpty() )
+        {
+            List<KEY> levelKeys = new ArrayList<>();
+            MutableLongList children = new LongArrayList();
+            for ( int i = 0; i < level.size(); i++ )
+            {
+                TreeNode.goTo( cursor, "partition", level.get( i ) );
+                if ( !readInternalNode( cursor, fromInclusive, toExclusive, levelKeys, children ) )
+                {
+                    // Reached the leaves, or something which doesn't look like an internal node
+                    return select( keys, desiredNumberOfPartitions );
+                }
+            }
+            keys = levelKeys;
+            level = children;
+        }
+        return select( keys, desiredNumberOfPartitions );
+    }
+
+    /**
+     * Reads keys and child pointers within the range from the internal node the cursor is placed at.
+     *
+     * @return {@code true} if the node is an internal node, otherwise {@code false}.
+     */
+    private boolean readInternalNode( PageCursor cursor, KEY fromInclusive, KEY toExclusive, List<KEY> keys, MutableLongList children )
+            throws IOException
+    {
+        List<KEY> nodeKeys = new ArrayList<>();
+        long[] nodeChildren;
+        boolean internal;
+        do
+        {
+            nodeKeys.clear();
+            nodeChildren = null;
+            internal = TreeNode.nodeType( cursor ) == TreeNode.NODE_TYPE_TREE_NODE && TreeNode.isInternal( cursor );
+            int keyCount = TreeNode.keyCount( cursor );
+            if ( !internal || !bTreeNode.reasonableKeyCount( keyCount ) )
+            {
+                continue;
+            }
+            nodeChildren = new long[keyCount + 1];
+            for ( int pos = 0; pos < keyCount; pos++ )
+            {
+                nodeKeys.add( bTreeNode.keyAt( cursor, layout.newKey(), pos, INTERNAL ) );
+                nodeChildren[pos] = bTreeNode.childAt( cursor, pos, stableGeneration, unstableGeneration );
+            }
+            nodeChildren[keyCount] = bTreeNode.childAt( cursor, keyCount, stableGeneration, unstableGeneration );
+        }
+        while ( cursor.shouldRetry() );
+        checkOutOfBounds( cursor );
+        cursor.checkAndClearCursorException();
+        if ( !internal || nodeChildren == null )
+        {
+            return false;
+        }
+
+        // Child at pos covers keys between the key before it (inclusive) and the key at pos (exclusive)
+        for ( int pos = 0; pos < nodeChildren.length; pos++ )
+        {
+            boolean childAfterFrom = pos == nodeKeys.size() || layout.compare( nodeKeys.get( pos ), fromInclusive ) > 0;
+            boolean childBeforeTo = pos == 0 || layout.compare( nodeKeys.get( pos - 1 ), toExclusive ) < 0;
+            if ( childAfterFrom && childBeforeTo && GenerationSafePointerPair.isSuccess( nodeChildren[pos] ) )
+            {
+                children.add( GenerationSafePointerPair.pointer( nodeChildren[pos] ) );
+            }
+            if ( pos < nodeKeys.size() )
+            {
+                addIfInOrder( keys, nodeKeys.get( pos ), fromInclusive, toExclusive );
+            }
+        }
+        return true;
+    }
+
+    private void addIfInOrder( List<KEY> keys, KEY key, KEY fromInclusive, KEY toExclusive )
+    {
+        KEY previous = keys.isEmpty() ? fromInclusive : keys.get( keys.size() - 1 );
+        if ( layout.compare( previous, key ) < 0 && layout.compare( key, toExclusive ) < 0 )
+        {
+            keys.add( key );
+        }
+    }
+
+    /**
+     * @return evenly spread keys among the given {@code keys}, at most one less than {@code desiredNumberOfPartitions}.
+     */
+    private static <KEY> List<KEY> select( List<KEY> keys, int desiredNumberOfPartitions )
+    {
+        int numberOfSplits = desiredNumberOfPartitions - 1;
+        if ( keys.size() <= numberOfSplits )
+        {
+            return keys;
+        }
+        List<KEY> selected = new ArrayList<>( numberOfSplits );
+        long intervals = keys.size() + 1;
+        for ( int i = 1; i <= numberOfSplits; i++ )
+        {
+            selected.add( keys.get( (int) (i * intervals / desiredNumberOfPartitions) - 1 ) );
+        }
+        return selected;
+    }
+}
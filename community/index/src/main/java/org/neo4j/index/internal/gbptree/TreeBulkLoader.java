@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Logic for bulk loading key/value pairs, in ascending key order, into new tree nodes. Leaves are appended one
+ * after the other, each one filled up to the fill factor. When all key/value pairs have been added,
+ * {@link #finish()} builds the internal levels bottom up, one level at a time, until there's a single root node.
+ * <p>
+ * The node ids of a level, and the separators between them, are kept in memory while building the level above it.
+ * The separators between leaves are instead computed from the leaves themselves, so the memory used is proportional
+ * to the number of internal nodes, which are few compared to the number of leaves.
+ * <p>
+ * All nodes are written in the unstable generation and are not reachable by readers until the root
+ * returned from {@link #finish()} has been made the root of the tree.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+class TreeBulkLoader<KEY,VALUE>
+{
+    private final PagedFile pagedFile;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final IdProvider idProvider;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+    private final double fillFactor;
+    private final KEY lastKey;
+
+    private PageCursor leafCursor;
+    private long firstLeafId;
+    private int leafCount;
+    private int leafKeyCount;
+    private boolean leafCompacted;
+
+    TreeBulkLoader( PagedFile pagedFile, TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout, IdProvider idProvider,
+            long stableGeneration, long unstableGeneration, double fillFactor )
+    {
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be greater than 0 and at most 1, was " + fillFactor );
+        }
+        this.pagedFile = pagedFile;
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.idProvider = idProvider;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.fillFactor = fillFactor;
+        this.lastKey = layout.newKey();
+    }
+
+    /**
+     * Appends given key/value to the current leaf, or to a new leaf if the current one has reached the fill factor.
+     *
+     * @param key key to append, must be greater than previously appended key.
+     * @param value value to append.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    void add( KEY key, VALUE value ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( leafCount == 0 )
+        {
+            firstLeafId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+            leafCursor = pagedFile.io( firstLeafId, PagedFile.PF_SHARED_WRITE_LOCK );
+            PageCursorUtil.goTo( leafCursor, "first leaf", firstLeafId );
+            bTreeNode.initializeLeaf( leafCursor, stableGeneration, unstableGeneration );
+            leafCount = 1;
+        }
+        else
+        {
+            if ( layout.compare( lastKey, key ) >= 0 )
+            {
+                throw new IllegalArgumentException( "Keys must be added in ascending order, but " + key +
+                        " was added after " + lastKey );
+            }
+            if ( leafFillFactorReached( key, value ) )
+            {
+                long previousLeafId = goToNewSibling( leafCursor );
+                bTreeNode.initializeLeaf( leafCursor, stableGeneration, unstableGeneration );
+                TreeNode.setLeftSibling( leafCursor, previousLeafId, stableGeneration, unstableGeneration );
+                leafKeyCount = 0;
+                leafCompacted = false;
+                leafCount++;
+            }
+        }
+
+        bTreeNode.insertKeyValueAt( leafCursor, key, value, leafKeyCount, leafKeyCount );
+        leafKeyCount++;
+        TreeNode.setKeyCount( leafCursor, leafKeyCount );
+        checkOutOfBounds( leafCursor );
+        layout.copyKey( key, lastKey );
+    }
+
+    /**
+     * A leaf which has reached the fill factor is compacted, once, to see if that makes room for more entries.
+     */
+    private boolean leafFillFactorReached( KEY key, VALUE value )
+    {
+        if ( !bTreeNode.leafFillFactorReached( leafCursor, leafKeyCount, key, value, fillFactor ) )
+        {
+            return false;
+        }
+        if ( leafCompacted )
+        {
+            return true;
+        }
+        bTreeNode.compactLeaf( leafCursor, leafKeyCount );
+        leafCompacted = true;
+        return bTreeNode.leafFillFactorReached( leafCursor, leafKeyCount, key, value, fillFactor );
+    }
+
+    /**
+     * Builds the internal levels on top of the leaves written so far.
+     *
+     * @return id of the root of the new nodes, or {@link TreeNode#NO_NODE_FLAG} if nothing was added.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    long finish() throws IOException
+    {
+        close();
+        if ( leafCount == 0 )
+        {
+            return TreeNode.NO_NODE_FLAG;
+        }
+        if ( leafCount == 1 )
+        {
+            return firstLeafId;
+        }
+
+        Level level;
+        try ( PageCursor cursor = pagedFile.io( firstLeafId, PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            level = buildLevel( new LeafChildren( cursor ), leafCount );
+        }
+        while ( level.nodeIds.size() > 1 )
+        {
+            level = buildLevel( level.children(), level.nodeIds.size() );
+        }
+        return level.nodeIds.get( 0 );
+    }
+
+    /**
+     * Releases the {@link PageCursor} used for writing leaves. Called by {@link #finish()}, or directly when
+     * the bulk load is abandoned.
+     */
+    void close()
+    {
+        if ( leafCursor != null )
+        {
+            leafCursor.close();
+            leafCursor = null;
+        }
+    }
+
+    /**
+     * Builds one internal level by appending the given children, and the separators between them, to new internal nodes.
+     * No internal node is left without keys, i.e. with only a single child.
+     */
+    private Level buildLevel( Children<KEY> children, int childCount ) throws IOException
+    {
+        Level level = new Level();
+        try ( PageCursor cursor = pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            children.next();
+            long nodeId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "first internal node", nodeId );
+            startInternalNode( level, cursor, children.childId() );
+
+            int keyCount = 0;
+            for ( int i = 1; i < childCount; i++ )
+            {
+                children.next();
+                long child = children.childId();
+                KEY separator = children.separator();
+                boolean lastChild = i == childCount - 1;
+                if ( bTreeNode.internalFillFactorReached( cursor, keyCount, separator, fillFactor ) &&
+                     !(lastChild && bTreeNode.internalOverflow( cursor, keyCount, separator ) == TreeNode.Overflow.NO) )
+                {
+                    KEY boundary = layout.newKey();
+                    long firstChild = child;
+                    if ( lastChild )
+                    {
+                        // Bring the last child of this node over to the new node, so that the new node gets a key too
+                        bTreeNode.keyAt( cursor, boundary, keyCount - 1, INTERNAL );
+                        firstChild = GenerationSafePointerPair.pointer(
+                                bTreeNode.childAt( cursor, keyCount, stableGeneration, unstableGeneration ) );
+                        bTreeNode.removeKeyAndRightChildAt( cursor, keyCount - 1, keyCount );
+                        TreeNode.setKeyCount( cursor, keyCount - 1 );
+                    }
+                    else
+                    {
+                        layout.copyKey( separator, boundary );
+                    }
+                    level.separators.add( boundary );
+
+                    long previousNodeId = goToNewSibling( cursor );
+                    startInternalNode( level, cursor, firstChild );
+                    TreeNode.setLeftSibling( cursor, previousNodeId, stableGeneration, unstableGeneration );
+                    keyCount = 0;
+                    if ( !lastChild )
+                    {
+                        continue;
+                    }
+                }
+
+                bTreeNode.insertKeyAndRightChildAt( cursor, separator, child, keyCount, keyCount,
+                        stableGeneration, unstableGeneration );
+                keyCount++;
+                TreeNode.setKeyCount( cursor, keyCount );
+                checkOutOfBounds( cursor );
+            }
+        }
+        return level;
+    }
+
+    private void startInternalNode( Level level, PageCursor cursor, long firstChild )
+    {
+        bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+        bTreeNode.setChildAt( cursor, firstChild, 0, stableGeneration, unstableGeneration );
+        level.nodeIds.add( cursor.getCurrentPageId() );
+    }
+
+    /**
+     * Acquires a new node, links it as right sibling of the node the {@link PageCursor} is at and moves the cursor to it.
+     * The new node is left for the caller to initialize and to link back to the previous node.
+     *
+     * @return id of the node the {@link PageCursor} was at before moving to the new node.
+     */
+    private long goToNewSibling( PageCursor cursor ) throws IOException
+    {
+        long previousId = cursor.getCurrentPageId();
+        long siblingId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        TreeNode.setRightSibling( cursor, siblingId, stableGeneration, unstableGeneration );
+        checkOutOfBounds( cursor );
+        PageCursorUtil.goTo( cursor, "new sibling", siblingId );
+        return previousId;
+    }
+
+    /**
+     * Children to append to the internal nodes of a level, along with the separators between them.
+     */
+    private interface Children<KEY>
+    {
+        void next() throws IOException;
+
+        long childId();
+
+        /**
+         * @return separator between the current child and the previous one.
+         */
+        KEY separator();
+    }
+
+    /**
+     * The leaves, read from left to right by following right sibling pointers. Separators are the minimal
+     * splitters between the last key of one leaf and the first key of the next.
+     */
+    private class LeafChildren implements Children<KEY>
+    {
+        private final PageCursor cursor;
+        private final KEY previousLast = layout.newKey();
+        private final KEY first = layout.newKey();
+        private final KEY separator = layout.newKey();
+        private long childId = TreeNode.NO_NODE_FLAG;
+
+        LeafChildren( PageCursor cursor )
+        {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void next() throws IOException
+        {
+            if ( childId == TreeNode.NO_NODE_FLAG )
+            {
+                childId = firstLeafId;
+            }
+            else
+            {
+                bTreeNode.keyAt( cursor, previousLast, TreeNode.keyCount( cursor ) - 1, LEAF );
+                childId = GenerationSafePointerPair.pointer( TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration ) );
+            }
+            PageCursorUtil.goTo( cursor, "leaf", childId );
+            if ( cursor.getCurrentPageId() != firstLeafId )
+            {
+                bTreeNode.keyAt( cursor, first, 0, LEAF );
+                layout.minimalSplitter( previousLast, first, separator );
+            }
+            checkOutOfBounds( cursor );
+        }
+
+        @Override
+        public long childId()
+        {
+            return childId;
+        }
+
+        @Override
+        public KEY separator()
+        {
+            return separator;
+        }
+    }
+
+    /**
+     * Internal nodes of a built level, which are the children of the level above it.
+     */
+    private class Level
+    {
+        private final MutableLongList nodeIds = new LongArrayList();
+        private final List<KEY> separators = new ArrayList<>();
+
+        Children<KEY> children()
+        {
+            return new Children<KEY>()
+            {
+                private int index = -1;
+
+                @Override
+                public void next()
+                {
+                    index++;
+                }
+
+                @Override
+                public long childId()
+                {
+                    return nodeIds.get( index );
+                }
+
+                @Override
+                public KEY separator()
+                {
+                    return separators.get( index - 1 );
+                }
+            };
+        }
+    }
+}
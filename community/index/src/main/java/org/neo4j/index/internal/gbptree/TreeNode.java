@@ -307,6 +307,22 @@ abstract class TreeNode<KEY,VALUE>
 
     /* SPLIT, MERGE AND REBALANCE */
 
+    /**
+     * Would appending the given key to an internal node, which is being bulk loaded, make the node fuller than the given
+     * {@code fillFactor}, or make it overflow? Appending to an internal node without keys is always accepted.
+     * @param fillFactor the fraction of the node space to fill, greater than 0 and at most 1.
+     * @return true if a new internal node should be started for the key, else false.
+     */
+    abstract boolean internalFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor );
+
+    /**
+     * Would appending the given key/value to a leaf, which is being bulk loaded, make the leaf fuller than the given
+     * {@code fillFactor}, or make it overflow? Appending to an empty leaf is always accepted.
+     * @param fillFactor the fraction of the node space to fill, greater than 0 and at most 1.
+     * @return true if a new leaf should be started for the key/value, else false.
+     */
+    abstract boolean leafFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor );
+
     /**
      * Will internal overflow if inserting new key?
      * @return true if leaf will overflow, else false.
@@ -329,6 +345,15 @@ abstract class TreeNode<KEY,VALUE>
      */
     abstract void defragmentInternal( PageCursor cursor );
 
+    /**
+     * Rewrite leaf in the most compact form this format has, e.g. by sharing common key bytes between entries,
+     * to make room for further appends. Formats without such a form leave the leaf as is.
+     * @param keyCount number of keys in the leaf.
+     */
+    void compactLeaf( PageCursor cursor, int keyCount )
+    {   // no compact form by default
+    }
+
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
     /**
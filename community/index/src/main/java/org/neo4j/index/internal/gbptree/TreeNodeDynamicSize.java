@@ -87,7 +87,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
      */
     private static final int BYTE_POS_ALLOCOFFSET = BASE_HEADER_LENGTH;
     private static final int BYTE_POS_DEADSPACE = BYTE_POS_ALLOCOFFSET + bytesPageOffset();
-    private static final int HEADER_LENGTH_DYNAMIC = BYTE_POS_DEADSPACE + bytesPageOffset();
+    static final int HEADER_LENGTH_DYNAMIC = BYTE_POS_DEADSPACE + bytesPageOffset();
 
     private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
     private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
@@ -97,15 +97,25 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private final int maxKeyCount = pageSize / (bytesKeyOffset() + SIZE_KEY_SIZE + SIZE_VALUE_SIZE);
     private final int[] oldOffset = new int[maxKeyCount];
     private final int[] newOffset = new int[maxKeyCount];
-    private final int totalSpace;
-    private final int halfSpace;
+    private final int headerLength;
+    final int totalSpace;
+    final int halfSpace;
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
 
     TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        this( pageSize, layout, HEADER_LENGTH_DYNAMIC );
+    }
+
+    /**
+     * @param headerLength length of the node header, for formats extending this one with additional header fields.
+     */
+    TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, int headerLength )
     {
         super( pageSize, layout );
-        totalSpace = pageSize - HEADER_LENGTH_DYNAMIC;
+        this.headerLength = headerLength;
+        totalSpace = pageSize - headerLength;
         halfSpace = totalSpace / 2;
         keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
 
@@ -427,6 +437,26 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
                neededSpace < allocSpace + deadSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
     }
 
+    @Override
+    boolean internalFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        return currentKeyCount > 0 &&
+               fillFactorReached( cursor, getAllocSpace( cursor, currentKeyCount, INTERNAL ), totalSpaceOfKeyChild( newKey ), fillFactor );
+    }
+
+    @Override
+    boolean leafFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        return currentKeyCount > 0 &&
+               fillFactorReached( cursor, getAllocSpace( cursor, currentKeyCount, LEAF ), totalSpaceOfKeyValue( newKey, newValue ), fillFactor );
+    }
+
+    boolean fillFactorReached( PageCursor cursor, int allocSpace, int neededSpace, double fillFactor )
+    {
+        int usedSpaceAfter = totalSpace - allocSpace - getDeadSpace( cursor ) + neededSpace;
+        return neededSpace >= allocSpace || usedSpaceAfter > totalSpace * fillFactor;
+    }
+
     @Override
     void defragmentLeaf( PageCursor cursor )
     {
@@ -493,7 +523,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int oldOffsetCursor = 0;
         int newOffsetCursor = 0;
 
-        int aliveRangeOffset = pageSize; // Everything after this point is alive
+        int aliveRangeOffset = keyValueEnd( cursor, type ); // Everything after this point is alive
         int deadRangeOffset; // Everything between this point and aliveRangeOffset is dead space
 
         // Rightmost alive keys does not need to move
@@ -901,7 +931,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return newRightAllocSpace;
     }
 
-    private int getAllocSpace( PageCursor cursor, int keyCount, Type type )
+    int getAllocSpace( PageCursor cursor, int keyCount, Type type )
     {
         int allocOffset = getAllocOffset( cursor );
         int endOfOffsetArray = type == LEAF ? keyPosOffsetLeaf( keyCount ) : keyPosOffsetInternal( keyCount );
@@ -911,7 +941,8 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private void recordDeadAndAliveLeaf( PageCursor cursor, MutableIntStack deadKeysOffset, MutableIntStack aliveKeysOffset )
     {
         int currentOffset = getAllocOffset( cursor );
-        while ( currentOffset < pageSize )
+        int keyValueEnd = keyValueEnd( cursor, LEAF );
+        while ( currentOffset < keyValueEnd )
         {
             cursor.setOffset( currentOffset );
             long keyValueSize = readKeyValueSize( cursor );
@@ -934,7 +965,8 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private void recordDeadAndAliveInternal( PageCursor cursor, MutableIntStack deadKeysOffset, MutableIntStack aliveKeysOffset )
     {
         int currentOffset = getAllocOffset( cursor );
-        while ( currentOffset < pageSize )
+        int keyValueEnd = keyValueEnd( cursor, INTERNAL );
+        while ( currentOffset < keyValueEnd )
         {
             cursor.setOffset( currentOffset );
             long keyValueSize = readKeyValueSize( cursor );
@@ -992,7 +1024,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         zeroPad( fromCursor, childFromOffset, lengthInBytes );
     }
 
-    private void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
+    void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
     {
         fromCursor.setOffset( fromOffset );
         fromCursor.putBytes( lengthInBytes, (byte) 0 );
@@ -1153,7 +1185,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return bytesKeyOffset() + getOverhead( keySize, 0 ) + childSize() + keySize;
     }
 
-    private void setAllocOffset( PageCursor cursor, int allocOffset )
+    void setAllocOffset( PageCursor cursor, int allocOffset )
     {
         PageCursorUtil.putUnsignedShort( cursor, BYTE_POS_ALLOCOFFSET, allocOffset );
     }
@@ -1163,17 +1195,17 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_ALLOCOFFSET );
     }
 
-    private void setDeadSpace( PageCursor cursor, int deadSpace )
+    void setDeadSpace( PageCursor cursor, int deadSpace )
     {
         putUnsignedShort( cursor, BYTE_POS_DEADSPACE, deadSpace );
     }
 
-    private int getDeadSpace( PageCursor cursor )
+    int getDeadSpace( PageCursor cursor )
     {
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_DEADSPACE );
     }
 
-    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
         int keyPosOffset = keyPosOffset( pos, type );
@@ -1183,10 +1215,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int keyOffset = readKeyOffset( cursor );
 
         // Verify offset is reasonable
-        if ( keyOffset >= pageSize || keyOffset < HEADER_LENGTH_DYNAMIC )
+        if ( keyOffset >= pageSize || keyOffset < headerLength )
         {
             cursor.setCursorException( format( "Tried to read key on offset=%d, headerLength=%d, pageSize=%d, pos=%d",
-                    keyOffset, HEADER_LENGTH_DYNAMIC, pageSize, pos ) );
+                    keyOffset, headerLength, pageSize, pos ) );
             return;
         }
 
@@ -1194,13 +1226,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         cursor.setOffset( keyOffset );
     }
 
-    private void readUnreliableKeyValueSize( PageCursor cursor, int keySize, int valueSize, long keyValueSize, int pos )
+    void readUnreliableKeyValueSize( PageCursor cursor, int keySize, int valueSize, long keyValueSize, int pos )
     {
         cursor.setCursorException( format( "Read unreliable key, keySize=%d, valueSize=%d, keyValueSizeCap=%d, keyHasTombstone=%b, pos=%d",
                 keySize, valueSize, keyValueSizeCap(), extractTombstone( keyValueSize ), pos ) );
     }
 
-    private boolean keyValueSizeTooLarge( int keySize, int valueSize )
+    boolean keyValueSizeTooLarge( int keySize, int valueSize )
     {
         return keySize + valueSize > keyValueSizeCap();
     }
@@ -1217,15 +1249,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int keyPosOffsetLeaf( int pos )
+    int keyPosOffsetLeaf( int pos )
     {
-        return HEADER_LENGTH_DYNAMIC + pos * bytesKeyOffset();
+        return headerLength + pos * bytesKeyOffset();
     }
 
     private int keyPosOffsetInternal( int pos )
     {
         // header + childPointer + pos * (keyPosOffsetSize + childPointer)
-        return HEADER_LENGTH_DYNAMIC + childSize() + pos * keyChildSize();
+        return headerLength + childSize() + pos * keyChildSize();
     }
 
     private int keyChildSize()
@@ -1238,7 +1270,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return SIZE_PAGE_REFERENCE;
     }
 
-    private static int bytesKeyOffset()
+    static int bytesKeyOffset()
     {
         return SIZE_OFFSET;
     }
@@ -1254,6 +1286,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return "TreeNodeDynamicSize[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + "]";
     }
 
+    /**
+     * @return offset where the keys and values of the node end, i.e. where the area that
+     * {@link #getAllocOffset(PageCursor) alloc offset} grows downwards from ends.
+     */
+    int keyValueEnd( PageCursor cursor, Type type )
+    {
+        return pageSize;
+    }
+
     private String asString( PageCursor cursor, boolean includeValue, boolean includeAllocSpace,
             long stableGeneration, long unstableGeneration )
     {
@@ -0,0 +1,791 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.SIZE_KEY_SIZE;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.SIZE_VALUE_SIZE;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.putUnsignedShort;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * {@link TreeNodeDynamicSize} where the keys in a leaf share a common prefix, which is stored once at the end of the leaf
+ * instead of once per key. Internal nodes look exactly like in {@link TreeNodeDynamicSize}, with prefix length zero.
+ *
+ * LEAF
+ * [                                   HEADER   88B                                                               ]|[KEY_OFFSETS]####[KEYS_VALUES][PREFIX]
+ * [NODETYPE][TYPE][GENERATION][KEYCOUNT][RIGHTSIBLING][LEFTSIBLING][SUCCESSOR][ALLOCOFFSET][DEADSPACE][PREFIXLENGTH]|[K0*,K1*,K2*]->  <-[KV0,KV2,KV1][P]
+ *  0         1     2           6         10            34           58         82           84         86            88
+ *
+ * Key bytes, as written by {@link Layout#writeKey(PageCursor, Object)}, consists of a head, which is the first
+ * {@link Layout#keyPrefixCompressionOffset()} bytes, then the prefix, which all keys in the leaf have in common, and last the suffix.
+ * Each key entry stores head and suffix and its key size is the size of those, so apart from reading keys
+ * everything in a leaf works like in {@link TreeNodeDynamicSize}.
+ * <p>
+ * A leaf gets its prefix when it's rewritten as part of a split, rebalance, merge or {@link #compactLeaf(PageCursor, int) compaction}.
+ * Inserting a key which doesn't have the prefix of the leaf rewrites the leaf with a shorter prefix.
+ * Keys in internal nodes are suffix truncated by {@link Layout#minimalSplitter(Object, Object, Object)}, as in any format.
+ */
+class TreeNodeDynamicSizeCompressed<KEY, VALUE> extends TreeNodeDynamicSize<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = TreeNodeDynamicSize.FORMAT_IDENTIFIER;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int BYTE_POS_PREFIX_LENGTH = HEADER_LENGTH_DYNAMIC;
+    private static final int HEADER_LENGTH_COMPRESSED = BYTE_POS_PREFIX_LENGTH + Short.BYTES;
+
+    // Keeps entries at least as big as what reasonableKeyCount expects
+    private static final int MIN_STORED_KEY_SIZE = SIZE_KEY_SIZE + SIZE_VALUE_SIZE;
+    private static final int INITIAL_ENTRY_COUNT = 64;
+
+    // Readers are concurrent, so each reading thread puts keys back together in its own buffer
+    private static final ThreadLocal<KeyBuffer> READ_BUFFER = ThreadLocal.withInitial( KeyBuffer::new );
+
+    private final int keyHeadLength;
+    private final int minStoredKeySize;
+    private final KEY tmpKeyLeft;
+    private final KEY tmpKeyRight;
+
+    // Writer state, entries of one or two leaves read into memory whole, i.e. with prefix put back into the keys
+    private final KeyBuffer newKey = new KeyBuffer();
+    private final KeyBuffer entries = new KeyBuffer();
+    private int entryCount;
+    private int[] entryOffset = new int[INITIAL_ENTRY_COUNT];
+    private int[] entryKeySize = new int[INITIAL_ENTRY_COUNT];
+    private int[] entryValueSize = new int[INITIAL_ENTRY_COUNT];
+    // Length of prefix that entry i has in common with entry i + 1
+    private int[] commonPrefixLength = new int[INITIAL_ENTRY_COUNT];
+    // Length of prefix that entries from i and onwards have in common
+    private int[] suffixPrefixLength = new int[INITIAL_ENTRY_COUNT];
+    private int[] spaceSum = new int[INITIAL_ENTRY_COUNT + 1];
+
+    TreeNodeDynamicSizeCompressed( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        super( pageSize, layout, HEADER_LENGTH_COMPRESSED );
+        keyHeadLength = Math.max( 0, layout.keyPrefixCompressionOffset() );
+        minStoredKeySize = Math.max( keyHeadLength, MIN_STORED_KEY_SIZE );
+        tmpKeyLeft = layout.newKey();
+        tmpKeyRight = layout.newKey();
+        entries.ensureCapacity( pageSize * 2 );
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        super.writeAdditionalHeader( cursor );
+        setPrefixLength( cursor, 0 );
+    }
+
+    @Override
+    int keyValueEnd( PageCursor cursor, Type type )
+    {
+        return type == LEAF ? pageSize - prefixLength( cursor ) : pageSize;
+    }
+
+    @Override
+    KEY keyAt( PageCursor cursor, KEY into, int pos, Type type )
+    {
+        int prefixLength = type == LEAF ? prefixLength( cursor ) : 0;
+        if ( prefixLength == 0 )
+        {
+            return super.keyAt( cursor, into, pos, type );
+        }
+        readCompressedKey( cursor, into, pos, prefixLength );
+        return into;
+    }
+
+    @Override
+    void keyValueAt( PageCursor cursor, KEY intoKey, VALUE intoValue, int pos )
+    {
+        int prefixLength = prefixLength( cursor );
+        if ( prefixLength == 0 )
+        {
+            super.keyValueAt( cursor, intoKey, intoValue, pos );
+            return;
+        }
+        int valueSize = readCompressedKey( cursor, intoKey, pos, prefixLength );
+        if ( valueSize != -1 )
+        {
+            layout.readValue( cursor, intoValue, valueSize );
+        }
+    }
+
+    /**
+     * Reads key at given pos by putting its head, the prefix of the leaf and its suffix back together.
+     * @return size of the value, which cursor is placed at, or -1 if key could not be read.
+     */
+    private int readCompressedKey( PageCursor cursor, KEY into, int pos, int prefixLength )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+
+        long keyValueSize = readKeyValueSize( cursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        int wholeKeySize = keySize + prefixLength;
+        if ( keyValueSizeTooLarge( wholeKeySize, valueSize ) || keySize < keyHeadLength || valueSize < 0 )
+        {
+            readUnreliableKeyValueSize( cursor, wholeKeySize, valueSize, keyValueSize, pos );
+            return -1;
+        }
+
+        KeyBuffer buffer = READ_BUFFER.get();
+        buffer.ensureCapacity( wholeKeySize );
+        cursor.getBytes( buffer.bytes, 0, keyHeadLength );
+        int suffixOffset = cursor.getOffset();
+        cursor.setOffset( pageSize - prefixLength );
+        cursor.getBytes( buffer.bytes, keyHeadLength, prefixLength );
+        cursor.setOffset( suffixOffset );
+        cursor.getBytes( buffer.bytes, keyHeadLength + prefixLength, keySize - keyHeadLength );
+        if ( !readKey( buffer.cursor, into, wholeKeySize ) )
+        {
+            cursor.setCursorException( format( "Read unreliable key, keySize=%d, prefixLength=%d, pos=%d", keySize, prefixLength, pos ) );
+            return -1;
+        }
+        return valueSize;
+    }
+
+    /**
+     * Key bytes are put together from a page which may be changing under our feet, so reading them may fail
+     * in ways that reading directly from the page would not. All such failures mean the read should be retried.
+     */
+    private boolean readKey( PageCursor keyCursor, KEY into, int keySize )
+    {
+        keyCursor.setOffset( 0 );
+        try
+        {
+            layout.readKey( keyCursor, into, keySize );
+            keyCursor.checkAndClearCursorException();
+            return true;
+        }
+        catch ( CursorException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e )
+        {
+            return false;
+        }
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount )
+    {
+        int prefixLength = prefixLength( cursor );
+        if ( prefixLength == 0 )
+        {
+            super.insertKeyValueAt( cursor, key, value, pos, keyCount );
+            return;
+        }
+
+        int keySize = writeNewKey( key );
+        if ( newKeyPrefixLength( cursor, keySize, prefixLength ) < prefixLength )
+        {
+            // Key doesn't have the prefix of this leaf, rewrite leaf with the prefix they all have in common
+            clearEntries();
+            appendEntries( cursor, 0, pos );
+            appendEntry( key, value );
+            appendEntries( cursor, pos, keyCount );
+            computeCommonPrefixes();
+            writeEntries( cursor, 0, entryCount );
+            return;
+        }
+
+        // Where to write key?
+        int storedKeySize = keySize - prefixLength;
+        int valueSize = layout.valueSize( value );
+        int newKeyValueOffset = getAllocOffset( cursor ) - storedKeySize - valueSize - getOverhead( storedKeySize, valueSize );
+
+        // Write key, without prefix, and value
+        cursor.setOffset( newKeyValueOffset );
+        putKeyValueSize( cursor, storedKeySize, valueSize );
+        cursor.putBytes( newKey.bytes, 0, keyHeadLength );
+        cursor.putBytes( newKey.bytes, keyHeadLength + prefixLength, storedKeySize - keyHeadLength );
+        layout.writeValue( cursor, value );
+
+        // Update alloc space
+        setAllocOffset( cursor, newKeyValueOffset );
+
+        // Write to offset array
+        insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetLeaf( 0 ), bytesKeyOffset() );
+        cursor.setOffset( keyPosOffsetLeaf( pos ) );
+        putKeyOffset( cursor, newKeyValueOffset );
+    }
+
+    @Override
+    void validateKeyValueSize( KEY key, VALUE value )
+    {
+        super.validateKeyValueSize( key, value );
+        // Two entries must always fit in a leaf, also with the prefix length in the header
+        if ( spaceOfEntry( layout.keySize( key ), layout.valueSize( value ) ) > halfSpace )
+        {
+            throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
+        }
+    }
+
+    @Override
+    Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        Overflow overflow = leafOverflowWithCurrentPrefix( cursor, currentKeyCount, newKey, newValue );
+        if ( overflow == Overflow.YES && compactedSpace( cursor, currentKeyCount, newKey, newValue ) <= totalSpace )
+        {
+            // Compacting the leaf, as part of defragmenting it, makes room for the new entry
+            return Overflow.NO_NEED_DEFRAG;
+        }
+        return overflow;
+    }
+
+    private Overflow leafOverflowWithCurrentPrefix( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        int prefixLength = prefixLength( cursor );
+        if ( prefixLength == 0 )
+        {
+            return super.leafOverflow( cursor, currentKeyCount, newKey, newValue );
+        }
+
+        int keySize = writeNewKey( newKey );
+        int valueSize = layout.valueSize( newValue );
+        int newPrefixLength = newKeyPrefixLength( cursor, keySize, prefixLength );
+        if ( newPrefixLength < prefixLength )
+        {
+            // Leaf will be rewritten with a shorter prefix
+            int neededSpace = spaceWithPrefixLength( cursor, currentKeyCount, prefixLength, newPrefixLength ) +
+                    spaceOfEntry( keySize - newPrefixLength, valueSize );
+            return neededSpace <= totalSpace ? Overflow.NO : Overflow.YES;
+        }
+
+        int deadSpace = getDeadSpace( cursor );
+        int allocSpace = getAllocSpace( cursor, currentKeyCount, LEAF );
+        int neededSpace = spaceOfEntry( keySize - prefixLength, valueSize );
+        return neededSpace < allocSpace ? Overflow.NO :
+               neededSpace < allocSpace + deadSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
+    }
+
+    /**
+     * @return space that keys and values in leaf, together with the new entry, would occupy if leaf was rewritten
+     * with the longest prefix they all have in common.
+     */
+    private int compactedSpace( PageCursor cursor, int keyCount, KEY key, VALUE value )
+    {
+        if ( keyCount == 0 )
+        {
+            return spaceOfEntry( layout.keySize( key ), layout.valueSize( value ) );
+        }
+        clearEntries();
+        appendEntries( cursor, 0, keyCount );
+        computeCommonPrefixes();
+        int keySize = writeNewKey( key );
+        int maxLength = Math.min( prefixLengthOf( 0, entryCount ), keySize - minStoredKeySize );
+        if ( keyCount == 1 )
+        {
+            maxLength = Math.min( entryKeySize[0], keySize ) - minStoredKeySize;
+        }
+        byte[] bytes = entries.bytes;
+        int entryPrefixOffset = entryOffset[0] + keyHeadLength;
+        int prefixLength = 0;
+        while ( prefixLength < maxLength && bytes[entryPrefixOffset + prefixLength] == newKey.bytes[keyHeadLength + prefixLength] )
+        {
+            prefixLength++;
+        }
+        return spaceOf( 0, entryCount, prefixLength ) + spaceOfEntry( keySize - prefixLength, layout.valueSize( value ) );
+    }
+
+    @Override
+    boolean leafFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        int prefixLength = prefixLength( cursor );
+        if ( prefixLength == 0 )
+        {
+            return super.leafFillFactorReached( cursor, currentKeyCount, newKey, newValue, fillFactor );
+        }
+
+        int keySize = writeNewKey( newKey );
+        int valueSize = layout.valueSize( newValue );
+        int newPrefixLength = newKeyPrefixLength( cursor, keySize, prefixLength );
+        if ( newPrefixLength < prefixLength )
+        {
+            int usedSpaceAfter = spaceWithPrefixLength( cursor, currentKeyCount, prefixLength, newPrefixLength ) +
+                    spaceOfEntry( keySize - newPrefixLength, valueSize );
+            return usedSpaceAfter > totalSpace * fillFactor;
+        }
+        return fillFactorReached( cursor, getAllocSpace( cursor, currentKeyCount, LEAF ),
+                spaceOfEntry( keySize - prefixLength, valueSize ), fillFactor );
+    }
+
+    @Override
+    void defragmentLeaf( PageCursor cursor )
+    {
+        compactLeaf( cursor, keyCount( cursor ) );
+    }
+
+    @Override
+    void compactLeaf( PageCursor cursor, int keyCount )
+    {
+        clearEntries();
+        appendEntries( cursor, 0, keyCount );
+        computeCommonPrefixes();
+        writeEntries( cursor, 0, keyCount );
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        loadEntries( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+        if ( spaceOf( 0, entryCount ) <= totalSpace )
+        {
+            // We can merge
+            return -1;
+        }
+        int leftSpace = spaceOf( 0, leftKeyCount );
+        int rightSpace = spaceOf( leftKeyCount, entryCount );
+        if ( leftSpace < rightSpace )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        // Move one key at the time as long as it brings the two closer to each other in size
+        int keysToMove = 0;
+        int currentDelta = Math.abs( leftSpace - rightSpace );
+        while ( keysToMove < leftKeyCount - 1 )
+        {
+            int fromPos = leftKeyCount - keysToMove - 1;
+            int nextLeftSpace = spaceOf( 0, fromPos );
+            int nextRightSpace = spaceOf( fromPos, entryCount );
+            int nextDelta = Math.abs( nextLeftSpace - nextRightSpace );
+            if ( nextDelta >= currentDelta )
+            {
+                break;
+            }
+            keysToMove++;
+            leftSpace = nextLeftSpace;
+            rightSpace = nextRightSpace;
+            currentDelta = nextDelta;
+        }
+
+        boolean canRebalance = leftSpace > halfSpace && rightSpace > halfSpace && leftSpace <= totalSpace && rightSpace <= totalSpace;
+        return canRebalance ? keysToMove : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        loadEntries( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+        return spaceOf( 0, entryCount ) <= totalSpace;
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            VALUE newValue, KEY newSplitter )
+    {
+        clearEntries();
+        appendEntries( leftCursor, 0, insertPos );
+        appendEntry( newKey, newValue );
+        appendEntries( leftCursor, insertPos, leftKeyCount );
+        computeCommonPrefixes();
+
+        int middlePos = middlePosOfEntries();
+        readEntryKey( middlePos - 1, tmpKeyLeft );
+        readEntryKey( middlePos, tmpKeyRight );
+        layout.minimalSplitter( tmpKeyLeft, tmpKeyRight, newSplitter );
+
+        writeEntries( rightCursor, middlePos, entryCount );
+        writeEntries( leftCursor, 0, middlePos );
+        TreeNode.setKeyCount( leftCursor, middlePos );
+        TreeNode.setKeyCount( rightCursor, entryCount - middlePos );
+    }
+
+    @Override
+    void moveKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount,
+            int fromPosInLeftNode )
+    {
+        loadEntries( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+        writeEntries( rightCursor, fromPosInLeftNode, entryCount );
+        writeEntries( leftCursor, 0, fromPosInLeftNode );
+        setKeyCount( leftCursor, fromPosInLeftNode );
+        setKeyCount( rightCursor, entryCount - fromPosInLeftNode );
+    }
+
+    @Override
+    void copyKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        loadEntries( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+        writeEntries( rightCursor, 0, entryCount );
+        setKeyCount( rightCursor, entryCount );
+    }
+
+    /**
+     * Calculates the position, among the loaded entries, where to split them into a left and right leaf.
+     * Of the positions where both leaves fit, the one where they are closest to each other in size is selected.
+     * Sizes are first estimated using the overhead of whole keys, which is never smaller than the overhead of keys
+     * with prefix removed, and only calculated exactly when the estimate is too big, but may not be.
+     */
+    private int middlePosOfEntries()
+    {
+        spaceSum[0] = 0;
+        for ( int i = 0; i < entryCount; i++ )
+        {
+            spaceSum[i + 1] = spaceSum[i] + spaceOfEntry( entryKeySize[i], entryValueSize[i] );
+        }
+        suffixPrefixLength[entryCount - 1] = 0;
+        for ( int i = entryCount - 2; i >= 0; i-- )
+        {
+            suffixPrefixLength[i] = i == entryCount - 2 ? commonPrefixLength[i] : Math.min( commonPrefixLength[i], suffixPrefixLength[i + 1] );
+        }
+
+        int middlePos = -1;
+        int smallestDelta = Integer.MAX_VALUE;
+        int leftPrefixLength = Integer.MAX_VALUE;
+        for ( int pos = 1; pos < entryCount; pos++ )
+        {
+            if ( pos >= 2 )
+            {
+                leftPrefixLength = Math.min( leftPrefixLength, commonPrefixLength[pos - 2] );
+            }
+            int leftSpace = fittingSpace( 0, pos, pos >= 2 ? leftPrefixLength : 0 );
+            int rightSpace = fittingSpace( pos, entryCount, suffixPrefixLength[pos] );
+            if ( leftSpace <= totalSpace && rightSpace <= totalSpace )
+            {
+                int delta = Math.abs( leftSpace - rightSpace );
+                if ( delta < smallestDelta )
+                {
+                    smallestDelta = delta;
+                    middlePos = pos;
+                }
+            }
+        }
+        if ( middlePos == -1 )
+        {
+            throw new IllegalStateException(
+                    format( "There's not enough space to insert new key, even when splitting the leaf. Space needed:%d, max space allowed:%d",
+                            spaceOf( 0, entryCount ), totalSpace * 2 ) );
+        }
+        return middlePos;
+    }
+
+    /**
+     * @return estimated space of entries in range, or exact space if estimate doesn't fit, but exact space may.
+     */
+    private int fittingSpace( int from, int to, int prefixLength )
+    {
+        int count = to - from;
+        int estimate = prefixLength + spaceSum[to] - spaceSum[from] - count * prefixLength;
+        if ( estimate > totalSpace && estimate - count <= totalSpace )
+        {
+            return spaceOf( from, to, prefixLength );
+        }
+        return estimate;
+    }
+
+    /**
+     * Loads entries of two sibling leaves, left then right.
+     */
+    private void loadEntries( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        clearEntries();
+        appendEntries( leftCursor, 0, leftKeyCount );
+        appendEntries( rightCursor, 0, rightKeyCount );
+        computeCommonPrefixes();
+    }
+
+    private void clearEntries()
+    {
+        entryCount = 0;
+    }
+
+    /**
+     * Reads entries in leaf, from fromPos (inclusive) to toPos (exclusive), with prefix put back into keys.
+     */
+    private void appendEntries( PageCursor cursor, int fromPos, int toPos )
+    {
+        int prefixLength = prefixLength( cursor );
+        int prefixOffset = pageSize - prefixLength;
+        for ( int pos = fromPos; pos < toPos; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            long keyValueSize = readKeyValueSize( cursor );
+            int keySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            int offset = allocateEntry( keySize + prefixLength, valueSize );
+            byte[] bytes = entries.bytes;
+            if ( prefixLength == 0 )
+            {
+                cursor.getBytes( bytes, offset, keySize + valueSize );
+            }
+            else
+            {
+                cursor.getBytes( bytes, offset, keyHeadLength );
+                int suffixOffset = cursor.getOffset();
+                cursor.setOffset( prefixOffset );
+                cursor.getBytes( bytes, offset + keyHeadLength, prefixLength );
+                cursor.setOffset( suffixOffset );
+                cursor.getBytes( bytes, offset + keyHeadLength + prefixLength, keySize - keyHeadLength + valueSize );
+            }
+        }
+    }
+
+    private void appendEntry( KEY key, VALUE value )
+    {
+        int offset = allocateEntry( layout.keySize( key ), layout.valueSize( value ) );
+        PageCursor entryCursor = entries.cursor;
+        entryCursor.setOffset( offset );
+        layout.writeKey( entryCursor, key );
+        layout.writeValue( entryCursor, value );
+    }
+
+    private int allocateEntry( int keySize, int valueSize )
+    {
+        if ( entryCount == entryOffset.length )
+        {
+            int length = entryCount * 2;
+            entryOffset = Arrays.copyOf( entryOffset, length );
+            entryKeySize = Arrays.copyOf( entryKeySize, length );
+            entryValueSize = Arrays.copyOf( entryValueSize, length );
+            commonPrefixLength = Arrays.copyOf( commonPrefixLength, length );
+            suffixPrefixLength = Arrays.copyOf( suffixPrefixLength, length );
+            spaceSum = Arrays.copyOf( spaceSum, length + 1 );
+        }
+        int offset = entryCount == 0 ? 0 : entryOffset[entryCount - 1] + entryKeySize[entryCount - 1] + entryValueSize[entryCount - 1];
+        entries.ensureCapacity( offset + keySize + valueSize );
+        entryOffset[entryCount] = offset;
+        entryKeySize[entryCount] = keySize;
+        entryValueSize[entryCount] = valueSize;
+        entryCount++;
+        return offset;
+    }
+
+    private void readEntryKey( int entry, KEY into )
+    {
+        PageCursor entryCursor = entries.cursor;
+        entryCursor.setOffset( entryOffset[entry] );
+        layout.readKey( entryCursor, into, entryKeySize[entry] );
+    }
+
+    private void computeCommonPrefixes()
+    {
+        byte[] bytes = entries.bytes;
+        for ( int i = 0; i < entryCount - 1; i++ )
+        {
+            int maxLength = Math.min( entryKeySize[i], entryKeySize[i + 1] ) - minStoredKeySize;
+            int leftOffset = entryOffset[i] + keyHeadLength;
+            int rightOffset = entryOffset[i + 1] + keyHeadLength;
+            int length = 0;
+            while ( length < maxLength && bytes[leftOffset + length] == bytes[rightOffset + length] )
+            {
+                length++;
+            }
+            commonPrefixLength[i] = length;
+        }
+    }
+
+    /**
+     * @return length of prefix which entries in range have in common. Prefixes are only shared between two or more keys.
+     */
+    private int prefixLengthOf( int from, int to )
+    {
+        if ( to - from < 2 )
+        {
+            return 0;
+        }
+        int prefixLength = Integer.MAX_VALUE;
+        for ( int i = from; i < to - 1; i++ )
+        {
+            prefixLength = Math.min( prefixLength, commonPrefixLength[i] );
+        }
+        return prefixLength;
+    }
+
+    private int spaceOf( int from, int to )
+    {
+        return spaceOf( from, to, prefixLengthOf( from, to ) );
+    }
+
+    private int spaceOf( int from, int to, int prefixLength )
+    {
+        int space = prefixLength;
+        for ( int i = from; i < to; i++ )
+        {
+            space += spaceOfEntry( entryKeySize[i] - prefixLength, entryValueSize[i] );
+        }
+        return space;
+    }
+
+    /**
+     * Writes entries in range to the leaf, replacing everything in it, with the prefix they all have in common.
+     * Does NOT update key count.
+     */
+    private void writeEntries( PageCursor cursor, int from, int to )
+    {
+        int prefixLength = prefixLengthOf( from, to );
+        byte[] bytes = entries.bytes;
+        int allocOffset = pageSize - prefixLength;
+        if ( prefixLength > 0 )
+        {
+            cursor.setOffset( allocOffset );
+            cursor.putBytes( bytes, entryOffset[from] + keyHeadLength, prefixLength );
+        }
+        for ( int i = from; i < to; i++ )
+        {
+            int keySize = entryKeySize[i] - prefixLength;
+            int valueSize = entryValueSize[i];
+            int offset = entryOffset[i];
+            allocOffset -= getOverhead( keySize, valueSize ) + keySize + valueSize;
+            cursor.setOffset( allocOffset );
+            putKeyValueSize( cursor, keySize, valueSize );
+            if ( prefixLength == 0 )
+            {
+                cursor.putBytes( bytes, offset, keySize + valueSize );
+            }
+            else
+            {
+                cursor.putBytes( bytes, offset, keyHeadLength );
+                cursor.putBytes( bytes, offset + keyHeadLength + prefixLength, keySize - keyHeadLength + valueSize );
+            }
+            cursor.setOffset( keyPosOffsetLeaf( i - from ) );
+            putKeyOffset( cursor, allocOffset );
+        }
+
+        // Zero pad alloc space
+        int endOfOffsetArray = keyPosOffsetLeaf( to - from );
+        zeroPad( cursor, endOfOffsetArray, allocOffset - endOfOffsetArray );
+
+        setAllocOffset( cursor, allocOffset );
+        setDeadSpace( cursor, 0 );
+        setPrefixLength( cursor, prefixLength );
+    }
+
+    /**
+     * Writes key into {@link #newKey} buffer.
+     * @return size of key.
+     */
+    private int writeNewKey( KEY key )
+    {
+        int keySize = layout.keySize( key );
+        newKey.ensureCapacity( keySize );
+        newKey.cursor.setOffset( 0 );
+        layout.writeKey( newKey.cursor, key );
+        return keySize;
+    }
+
+    /**
+     * @return length of the prefix of the leaf that the key in {@link #newKey} buffer has in common with it.
+     */
+    private int newKeyPrefixLength( PageCursor cursor, int keySize, int prefixLength )
+    {
+        int maxLength = Math.min( prefixLength, keySize - minStoredKeySize );
+        int prefixOffset = pageSize - prefixLength;
+        int length = 0;
+        while ( length < maxLength && cursor.getByte( prefixOffset + length ) == newKey.bytes[keyHeadLength + length] )
+        {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @return space that keys and values in leaf would occupy if rewritten with a shorter prefix.
+     */
+    private int spaceWithPrefixLength( PageCursor cursor, int keyCount, int prefixLength, int newPrefixLength )
+    {
+        int keySizeGrowth = prefixLength - newPrefixLength;
+        int space = newPrefixLength;
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            long keyValueSize = readKeyValueSize( cursor );
+            space += spaceOfEntry( extractKeySize( keyValueSize ) + keySizeGrowth, extractValueSize( keyValueSize ) );
+        }
+        return space;
+    }
+
+    private static int spaceOfEntry( int keySize, int valueSize )
+    {
+        return bytesKeyOffset() + getOverhead( keySize, valueSize ) + keySize + valueSize;
+    }
+
+    static int prefixLength( PageCursor cursor )
+    {
+        return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_PREFIX_LENGTH );
+    }
+
+    private static void setPrefixLength( PageCursor cursor, int prefixLength )
+    {
+        putUnsignedShort( cursor, BYTE_POS_PREFIX_LENGTH, prefixLength );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizeCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() +
+                ", keyPrefixCompressionOffset:" + keyHeadLength + "]";
+    }
+
+    @SuppressWarnings( "unused" )
+    @Override
+    void printNode( PageCursor cursor, boolean includeValue, boolean includeAllocSpace, long stableGeneration, long unstableGeneration )
+    {
+        if ( isInternal( cursor ) || prefixLength( cursor ) == 0 )
+        {
+            super.printNode( cursor, includeValue, includeAllocSpace, stableGeneration, unstableGeneration );
+            return;
+        }
+
+        int currentOffset = cursor.getOffset();
+        KEY readKey = layout.newKey();
+        VALUE readValue = layout.newValue();
+        StringJoiner keys = new StringJoiner( " " );
+        int keyCount = keyCount( cursor );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            keyValueAt( cursor, readKey, readValue, pos );
+            keys.add( includeValue ? readKey + "|" + readValue : readKey.toString() );
+        }
+        cursor.setOffset( currentOffset );
+        System.out.println( "{" + cursor.getCurrentPageId() + "} [allocOffset=" + getAllocOffset( cursor ) + " deadSpace=" +
+                getDeadSpace( cursor ) + " prefixLength=" + prefixLength( cursor ) + "] " + keys );
+    }
+
+    /**
+     * Growable byte array, with a {@link PageCursor} for layouts to read keys from and write keys to.
+     */
+    private static class KeyBuffer
+    {
+        private byte[] bytes = new byte[0];
+        private PageCursor cursor = ByteArrayPageCursor.wrap( bytes );
+
+        void ensureCapacity( int capacity )
+        {
+            if ( bytes.length < capacity )
+            {
+                bytes = Arrays.copyOf( bytes, Math.max( capacity, bytes.length * 2 ) );
+                cursor = ByteArrayPageCursor.wrap( bytes );
+            }
+        }
+    }
+}
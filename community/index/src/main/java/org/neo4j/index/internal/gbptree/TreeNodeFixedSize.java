@@ -324,6 +324,18 @@ class TreeNodeFixedSize<KEY,VALUE> extends TreeNode<KEY,VALUE>
         return currentKeyCount + 1 > leafMaxKeyCount() ? Overflow.YES : Overflow.NO;
     }
 
+    @Override
+    boolean internalFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        return currentKeyCount > 0 && currentKeyCount + 1 > Math.max( 1, (int) (internalMaxKeyCount() * fillFactor) );
+    }
+
+    @Override
+    boolean leafFillFactorReached( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        return currentKeyCount > 0 && currentKeyCount + 1 > Math.max( 1, (int) (leafMaxKeyCount() * fillFactor) );
+    }
+
     @Override
     void defragmentLeaf( PageCursor cursor )
     {   // no-op
@@ -20,6 +20,7 @@
 package org.neo4j.index.internal.gbptree;
 
 import static java.lang.String.format;
+import static org.neo4j.util.FeatureToggles.flag;
 
 /**
  * Able to select implementation of {@link TreeNode} to use in different scenarios, should be used in favor of directly
@@ -27,6 +28,12 @@ import static java.lang.String.format;
  */
 class TreeNodeSelector
 {
+    /**
+     * Whether or not new trees with a {@link Layout#keyPrefixCompressionOffset() prefix compressing} layout
+     * will be created with {@link TreeNodeDynamicSizeCompressed} format. Existing trees keep the format they were created with.
+     */
+    private static final boolean COMPRESS_KEYS = flag( TreeNodeSelector.class, "compressKeys", true );
+
     /**
      * Creates {@link TreeNodeFixedSize} instances.
      */
@@ -75,6 +82,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizeCompressed} instances.
+     */
+    static Factory DYNAMIC_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout )
+        {
+            return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -84,7 +115,37 @@ class TreeNodeSelector
     static Factory selectByLayout( Layout<?,?> layout )
     {
         // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return COMPRESS_KEYS && layout.keyPrefixCompressionOffset() != Layout.NO_KEY_PREFIX_COMPRESSION ? DYNAMIC_COMPRESSED : DYNAMIC;
+    }
+
+    /**
+     * Checks whether or not a tree created with the given format can be opened with the given {@link Layout}.
+     * A layout can open trees of the format {@link #selectByLayout(Layout) selected} for it, but also trees of the
+     * dynamic size formats which it may have been selected for by an earlier version, or configuration.
+     *
+     * @param layout {@link Layout} the tree is opened with.
+     * @param formatIdentifier format identifier, see {@link Meta#getFormatIdentifier()}
+     * @param formatVersion format version, see {@link Meta#getFormatVersion()}.
+     * @return whether or not the layout can open a tree of the given format.
+     */
+    static boolean canOpen( Layout<?,?> layout, byte formatIdentifier, byte formatVersion )
+    {
+        Factory formatByLayout = selectByLayout( layout );
+        if ( formatByLayout.formatIdentifier() == formatIdentifier && formatByLayout.formatVersion() == formatVersion )
+        {
+            return true;
+        }
+        if ( layout.fixedSize() || formatIdentifier != TreeNodeDynamicSize.FORMAT_IDENTIFIER )
+        {
+            return false;
+        }
+        return formatVersion == TreeNodeDynamicSize.FORMAT_VERSION ||
+               formatVersion == TreeNodeDynamicSizeCompressed.FORMAT_VERSION &&
+               layout.keyPrefixCompressionOffset() != Layout.NO_KEY_PREFIX_COMPRESSION;
     }
 
     /**
@@ -106,6 +167,11 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER &&
+                  formatVersion == TreeNodeDynamicSizeCompressed.FORMAT_VERSION )
+        {
+            return DYNAMIC_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
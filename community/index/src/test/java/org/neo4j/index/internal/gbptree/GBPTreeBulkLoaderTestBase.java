@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public abstract class GBPTreeBulkLoaderTestBase<KEY,VALUE>
+{
+    private static final int INDEX_PAGE_SIZE = 512;
+
+    private RandomRule random = new RandomRule();
+    private PageCacheAndDependenciesRule deps = new PageCacheAndDependenciesRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( random ).around( deps );
+
+    private TestLayout<KEY,VALUE> layout;
+    private File indexFile;
+
+    @Before
+    public void setUp()
+    {
+        indexFile = deps.directory().file( "index" );
+        layout = getLayout();
+    }
+
+    abstract TestLayout<KEY,VALUE> getLayout();
+
+    @Test
+    public void shouldBulkLoadSingleLeaf() throws Exception
+    {
+        shouldBulkLoad( 3, 1.0 );
+    }
+
+    @Test
+    public void shouldBulkLoadMultipleLevels() throws Exception
+    {
+        shouldBulkLoad( 20_000, 1.0 );
+    }
+
+    @Test
+    public void shouldBulkLoadWithLowFillFactor() throws Exception
+    {
+        shouldBulkLoad( 5_000, 0.1 );
+    }
+
+    @Test
+    public void shouldBulkLoadRandomCountAndFillFactor() throws Exception
+    {
+        shouldBulkLoad( random.nextInt( 1, 10_000 ), 0.5 + random.nextDouble() / 2 );
+    }
+
+    @Test
+    public void shouldWriteToBulkLoadedTree() throws Exception
+    {
+        // GIVEN
+        int count = 5_000;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, count, 0.7 );
+
+            // WHEN
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( int i = 0; i < count; i += 2 )
+                {
+                    assertEqualsValue( value( i ), writer.remove( key( i * 2 ) ) );
+                    writer.put( key( i * 2 + 1 ), value( i * 2 + 1 ) );
+                }
+            }
+
+            // THEN
+            try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    long seed = i % 2 == 0 ? i * 2 + 1 : i * 2;
+                    assertTrue( cursor.next() );
+                    assertEqualsKey( key( seed ), cursor.get().key() );
+                }
+                assertFalse( cursor.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldKeepBulkLoadedEntriesAfterRestart() throws Exception
+    {
+        // GIVEN
+        int count = 5_000;
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, count, 1.0 );
+            index.checkpoint( IOLimiter.UNLIMITED );
+        }
+
+        // WHEN
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // THEN
+            assertEntries( index, count );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldBulkLoadNothing() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // WHEN
+            index.bulkLoader( 1.0 ).close();
+
+            // THEN
+            assertEntries( index, 0 );
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+            }
+            assertEntries( index, 1 );
+        }
+    }
+
+    @Test
+    public void shouldNotBulkLoadIntoNonEmptyTree() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // GIVEN
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+            }
+
+            // WHEN
+            try ( BulkLoader<KEY,VALUE> ignored = index.bulkLoader( 1.0 ) )
+            {
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // THEN good
+            }
+
+            // and the writer should still be available
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 2 ), value( 1 ) );
+            }
+            assertEntries( index, 2 );
+        }
+    }
+
+    @Test
+    public void shouldNotAcceptKeysOutOfOrder() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // GIVEN
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0 ) )
+            {
+                bulkLoader.add( key( 0 ), value( 0 ) );
+                bulkLoader.add( key( 2 ), value( 2 ) );
+
+                // WHEN
+                try
+                {
+                    bulkLoader.add( key( 1 ), value( 1 ) );
+                    fail( "Should have failed" );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    // THEN good
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotAllowWriterWhileBulkLoading() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index();
+              BulkLoader<KEY,VALUE> ignored = index.bulkLoader( 1.0 ) )
+        {
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // good
+            }
+        }
+    }
+
+    private void shouldBulkLoad( int count, double fillFactor ) throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // WHEN
+            bulkLoad( index, count, fillFactor );
+
+            // THEN
+            assertEntries( index, count );
+            assertTrue( index.consistencyCheck() );
+            for ( int i = 0; i < count; i++ )
+            {
+                try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( i * 2 ), key( i * 2 ) ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertEqualsValue( value( i ), cursor.get().value() );
+                    assertFalse( cursor.next() );
+                }
+            }
+        }
+    }
+
+    private void bulkLoad( GBPTree<KEY,VALUE> index, int count, double fillFactor ) throws IOException
+    {
+        try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( fillFactor ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                bulkLoader.add( key( i * 2 ), value( i ) );
+            }
+        }
+    }
+
+    private void assertEntries( GBPTree<KEY,VALUE> index, int count ) throws IOException
+    {
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( i * 2, layout.keySeed( cursor.get().key() ) );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    private GBPTree<KEY,VALUE> index() throws IOException
+    {
+        return new GBPTreeBuilder<>( deps.pageCache(), indexFile, layout ).withIndexPageSize( INDEX_PAGE_SIZE ).build();
+    }
+
+    private VALUE value( long seed )
+    {
+        return layout.value( seed );
+    }
+
+    private KEY key( long seed )
+    {
+        return layout.key( seed );
+    }
+
+    private void assertEqualsKey( KEY expected, KEY actual )
+    {
+        assertEquals( String.format( "expected equal, expected=%s, actual=%s", expected.toString(), actual.toString() ), 0,
+                layout.compare( expected, actual ) );
+    }
+
+    private void assertEqualsValue( VALUE expected, VALUE actual )
+    {
+        assertEquals( String.format( "expected equal, expected=%s, actual=%s", expected, actual ), 0,
+                layout.compareValue( expected, actual ) );
+    }
+}
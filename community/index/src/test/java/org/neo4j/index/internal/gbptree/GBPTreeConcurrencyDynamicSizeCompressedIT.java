@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.neo4j.test.rule.RandomRule;
+
+public class GBPTreeConcurrencyDynamicSizeCompressedIT extends GBPTreeConcurrencyITBase<RawBytes,RawBytes>
+{
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout( RandomRule random )
+    {
+        return new SimpleByteArrayLayout( true, 0 );
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.io.IOUtils;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GBPTreePartitionedSeekTest
+{
+    private static final int INDEX_PAGE_SIZE = 512;
+
+    private final RandomRule random = new RandomRule();
+    private final PageCacheAndDependenciesRule deps = new PageCacheAndDependenciesRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( random ).around( deps );
+
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    @Test
+    public void shouldReturnSinglePartitionForRootLeaf() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index() )
+        {
+            // given
+            insert( index, 0, 3 );
+
+            // when
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions = index.partitionedSeek( key( 0 ), key( 3 ), 4 );
+
+            // then
+            assertEquals( 1, partitions.size() );
+            assertPartitions( partitions, 0, 3 );
+        }
+    }
+
+    @Test
+    public void shouldSplitRangeIntoDesiredNumberOfPartitions() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index() )
+        {
+            // given
+            int count = 20_000;
+            insert( index, 0, count );
+
+            // when
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions = index.partitionedSeek( key( 0 ), key( count ), 8 );
+
+            // then
+            assertEquals( 8, partitions.size() );
+            assertPartitions( partitions, 0, count );
+        }
+    }
+
+    @Test
+    public void shouldPartitionSubRange() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index() )
+        {
+            // given
+            int count = 20_000;
+            insert( index, 0, count );
+            long from = random.nextInt( count );
+            long to = from + random.nextInt( count - (int) from ) + 1;
+            int desiredNumberOfPartitions = random.nextInt( 1, 20 );
+
+            // when
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions =
+                    index.partitionedSeek( key( from ), key( to ), desiredNumberOfPartitions );
+
+            // then
+            assertTrue( partitions.size() <= desiredNumberOfPartitions );
+            assertPartitions( partitions, from, to );
+        }
+    }
+
+    @Test
+    public void shouldSeeChangesMadeAfterPartitioning() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index() )
+        {
+            // given
+            int count = 10_000;
+            insert( index, 0, count );
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions = index.partitionedSeek( key( 0 ), key( count * 2 ), 4 );
+
+            // when
+            insert( index, count, count * 2 );
+
+            // then
+            assertPartitions( partitions, 0, count * 2 );
+        }
+    }
+
+    @Test
+    public void shouldNotPartitionBackwardsRange() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index() )
+        {
+            try
+            {
+                index.partitionedSeek( key( 10 ), key( 0 ), 2 );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // good
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotPartitionIntoZeroPartitions() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index() )
+        {
+            try
+            {
+                index.partitionedSeek( key( 0 ), key( 10 ), 0 );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // good
+            }
+        }
+    }
+
+    private void assertPartitions( List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions, long from, long to )
+            throws IOException
+    {
+        try
+        {
+            long expected = from;
+            for ( RawCursor<Hit<MutableLong,MutableLong>,IOException> partition : partitions )
+            {
+                while ( partition.next() )
+                {
+                    assertEquals( expected, partition.get().key().longValue() );
+                    expected++;
+                }
+            }
+            assertEquals( to, expected );
+        }
+        finally
+        {
+            IOUtils.closeAll( partitions );
+        }
+    }
+
+    private void insert( GBPTree<MutableLong,MutableLong> index, long from, long to ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+        {
+            for ( long i = from; i < to; i++ )
+            {
+                writer.put( key( i ), layout.value( i ) );
+            }
+        }
+    }
+
+    private GBPTree<MutableLong,MutableLong> index() throws IOException
+    {
+        return new GBPTreeBuilder<>( deps.pageCache(), deps.directory().file( "index" ), layout ).withIndexPageSize( INDEX_PAGE_SIZE ).build();
+    }
+
+    private MutableLong key( long seed )
+    {
+        return layout.key( seed );
+    }
+}
@@ -35,6 +35,7 @@ import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
@@ -382,6 +383,99 @@ public class GBPTreeTest
         }
     }
 
+    @Test
+    public void shouldSeekExactKeysInDeepTree() throws Exception
+    {
+        // GIVEN
+        int count = 5_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i * 2 ), new MutableLong( i ) );
+                }
+            }
+
+            // WHEN/THEN the second round of lookups will start from cached internal nodes
+            for ( int round = 0; round < 2; round++ )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    assertSeekExact( index, i * 2, i );
+                    assertSeekExactMiss( index, i * 2 + 1 );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldSeekExactKeysAfterTreeChangedSinceInternalNodesWereCached() throws Exception
+    {
+        // GIVEN
+        int count = 1_000;
+        int stride = 10;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i * stride ), new MutableLong( i * stride ) );
+                }
+            }
+            for ( long i = 0; i < count; i++ )
+            {
+                assertSeekExact( index, i * stride, i * stride );
+            }
+
+            for ( int round = 0; round < 2; round++ )
+            {
+                // WHEN splitting and merging the nodes that were cached, in the same generation
+                List<Long> keys = new ArrayList<>();
+                for ( long i = 0; i < count * stride; i++ )
+                {
+                    if ( i % stride != 0 )
+                    {
+                        keys.add( i );
+                    }
+                }
+                Collections.shuffle( keys, random.random() );
+                try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+                {
+                    for ( long key : keys )
+                    {
+                        if ( round == 0 )
+                        {
+                            writer.put( new MutableLong( key ), new MutableLong( key ) );
+                        }
+                        else
+                        {
+                            writer.remove( new MutableLong( key ) );
+                        }
+                    }
+                }
+
+                // THEN
+                for ( long i = 0; i < count * stride; i++ )
+                {
+                    if ( round == 0 || i % stride == 0 )
+                    {
+                        assertSeekExact( index, i, i );
+                    }
+                    else
+                    {
+                        assertSeekExactMiss( index, i );
+                    }
+                }
+
+                // and WHEN starting a new generation, whose first writes create successors to the cached nodes
+                index.checkpoint( UNLIMITED );
+            }
+        }
+    }
+
     /* Lifecycle tests */
 
     @Test
@@ -1735,6 +1829,25 @@ public class GBPTreeTest
         }
     }
 
+    private static void assertSeekExact( GBPTree<MutableLong,MutableLong> index, long key, long value ) throws IOException
+    {
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seekExact( new MutableLong( key ) ) )
+        {
+            assertTrue( "Expected to find " + key, seek.next() );
+            assertEquals( key, seek.get().key().longValue() );
+            assertEquals( value, seek.get().value().longValue() );
+            assertFalse( seek.next() );
+        }
+    }
+
+    private static void assertSeekExactMiss( GBPTree<MutableLong,MutableLong> index, long key ) throws IOException
+    {
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seekExact( new MutableLong( key ) ) )
+        {
+            assertFalse( "Expected not to find " + key, seek.next() );
+        }
+    }
+
     private void shouldWait( Future<?> future ) throws InterruptedException, ExecutionException
     {
         try
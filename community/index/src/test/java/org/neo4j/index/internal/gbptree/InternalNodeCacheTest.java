@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.index.internal.gbptree.SimpleLongLayout.longLayout;
+
+class InternalNodeCacheTest
+{
+    private final Layout<MutableLong,MutableLong> layout = longLayout().build();
+    private final InternalNodeCache<MutableLong> cache = new InternalNodeCache<>( layout, 4 );
+
+    @Test
+    void shouldFindNodeCoveringKey()
+    {
+        // given
+        cache.record( 10, 3, key( 100 ), key( 200 ), 5 );
+        cache.record( 11, 3, key( 200 ), null, 5 );
+
+        // then
+        assertEquals( 10, cache.lookup( key( 100 ), 5 ).nodeId );
+        assertEquals( 10, cache.lookup( key( 199 ), 5 ).nodeId );
+        assertEquals( 11, cache.lookup( key( 200 ), 5 ).nodeId );
+        assertEquals( 11, cache.lookup( key( Long.MAX_VALUE ), 5 ).nodeId );
+        assertNull( cache.lookup( key( 99 ), 5 ) );
+    }
+
+    @Test
+    void shouldNotFindNodeRecordedInOtherGeneration()
+    {
+        // given
+        cache.record( 10, 3, null, null, 5 );
+
+        // then
+        assertEquals( 3, cache.lookup( key( 0 ), 5 ).pointerGeneration );
+        assertNull( cache.lookup( key( 0 ), 6 ) );
+    }
+
+    @Test
+    void shouldCopyBoundsWhenRecording()
+    {
+        // given
+        MutableLong low = key( 100 );
+        cache.record( 10, 3, low, null, 5 );
+
+        // when
+        low.setValue( 0 );
+
+        // then
+        assertNull( cache.lookup( key( 50 ), 5 ) );
+    }
+
+    @Test
+    void shouldReplaceEntryOfSameNode()
+    {
+        // given
+        cache.record( 10, 3, key( 100 ), key( 200 ), 5 );
+
+        // when
+        cache.record( 10, 3, key( 300 ), key( 400 ), 5 );
+
+        // then
+        assertNull( cache.lookup( key( 150 ), 5 ) );
+        assertEquals( 10, cache.lookup( key( 350 ), 5 ).nodeId );
+    }
+
+    private static MutableLong key( long value )
+    {
+        return new MutableLong( value );
+    }
+}
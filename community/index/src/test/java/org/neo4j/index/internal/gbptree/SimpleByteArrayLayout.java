@@ -27,6 +27,7 @@ import org.neo4j.io.pagecache.PageCursor;
 public class SimpleByteArrayLayout extends TestLayout<RawBytes,RawBytes>
 {
     private final boolean useFirstLongAsSeed;
+    private final int keyPrefixCompressionOffset;
 
     SimpleByteArrayLayout()
     {
@@ -34,8 +35,14 @@ public class SimpleByteArrayLayout extends TestLayout<RawBytes,RawBytes>
     }
 
     SimpleByteArrayLayout( boolean useFirstLongAsSeed )
+    {
+        this( useFirstLongAsSeed, NO_KEY_PREFIX_COMPRESSION );
+    }
+
+    SimpleByteArrayLayout( boolean useFirstLongAsSeed, int keyPrefixCompressionOffset )
     {
         this.useFirstLongAsSeed = useFirstLongAsSeed;
+        this.keyPrefixCompressionOffset = keyPrefixCompressionOffset;
     }
 
     @Override
@@ -210,6 +217,12 @@ public class SimpleByteArrayLayout extends TestLayout<RawBytes,RawBytes>
         return Integer.compare( a.length, b.length );
     }
 
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        return keyPrefixCompressionOffset;
+    }
+
     @Override
     public RawBytes key( long seed )
     {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+public class TreeNodeDynamicSizeCompressedTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private SimpleByteArrayLayout layout = new SimpleByteArrayLayout( true, 0 );
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout )
+    {
+        return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        int currentAllocSpace = ((TreeNodeDynamicSize) node).getAllocOffset( cursor );
+        int prefixLength = TreeNodeDynamicSizeCompressed.prefixLength( cursor );
+
+        // Then
+        assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+        assertEquals( 0, prefixLength, "no shared prefix in new node" );
+    }
+
+    @Test
+    void compactLeafMustStoreSharedPrefixOnce()
+    {
+        // Given
+        TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 10;
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            node.insertKeyValueAt( cursor, layout.key( i ), layout.value( i ), i, i );
+        }
+        int allocSpaceBefore = node.getAllocSpace( cursor, keyCount, LEAF );
+
+        // When
+        node.compactLeaf( cursor, keyCount );
+
+        // Then
+        assertTrue( TreeNodeDynamicSizeCompressed.prefixLength( cursor ) > 0, "keys share a prefix" );
+        assertTrue( node.getAllocSpace( cursor, keyCount, LEAF ) > allocSpaceBefore, "compacted leaf has more space" );
+        RawBytes key = layout.newKey();
+        RawBytes value = layout.newValue();
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            node.keyValueAt( cursor, key, value, i );
+            assertEquals( 0, layout.compare( layout.key( i ), key ) );
+            assertEquals( i, layout.valueSeed( value ) );
+        }
+    }
+}
@@ -28,14 +28,33 @@ import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * The grabs can optionally be aligned to, and sized in multiples of, the huge page size. This way every huge page
+ * the operating system backs a grab with is fully used by the allocator, and no huge page straddles two grabs.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
+    /**
+     * The size of the huge pages we align grabs to, when asked to, which is the x86-64 transparent huge page size.
+     */
+    static final long HUGE_PAGE_SIZE = mebiBytes( 2 );
+    /**
+     * The amount of memory, in bytes, to grab in each Grab, by default.
+     */
+    static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
+    /**
+     * The amount of memory, in bytes, to grab in each Grab, when the grabs are aligned to huge pages. Each such grab
+     * is allocated with up to a huge page of padding in front of it to align it, so grabs are kept large.
+     */
+    static final long HUGE_PAGE_GRAB_SIZE = HUGE_PAGE_SIZE *
+            getInteger( GrabAllocator.class, "HUGE_PAGES_PER_GRAB", 64 );
+
     private static final Object globalCleanerInstance = globalCleaner();
 
     private final Grabs grabs;
@@ -52,7 +71,23 @@ public final class GrabAllocator implements MemoryAllocator
      */
     GrabAllocator( long expectedMaxMemory, MemoryAllocationTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this( expectedMaxMemory, GRAB_SIZE, 1, memoryTracker );
+    }
+
+    /**
+     * Create a new GrabAllocator that will allocate the given amount of memory, in grabs of the given size and
+     * alignment, to pointers that are aligned to the given alignment size.
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
+     * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
+     * @param grabSize The amount of memory to allocate from the operating system at a time.
+     * @param grabAlignment The alignment of the grabs allocated from the operating system. The size of every grab is
+     * rounded up to a multiple of it. The padding needed to align a grab is included in what is reported to the
+     * {@code memoryTracker}.
+     * @param memoryTracker memory usage tracker
+     */
+    GrabAllocator( long expectedMaxMemory, long grabSize, long grabAlignment, MemoryAllocationTracker memoryTracker )
+    {
+        this.grabs = new Grabs( expectedMaxMemory, grabSize, grabAlignment, memoryTracker );
         try
         {
             CleanerHandles handles = findCleanerHandles();
@@ -99,30 +134,38 @@ public final class GrabAllocator implements MemoryAllocator
     private static class Grab
     {
         public final Grab next;
+        // The memory we got from the operating system, which can be more than we use, when the grab is aligned.
+        private final long allocatedAddress;
+        private final long allocatedSize;
         private final long address;
         private final long limit;
         private final MemoryAllocationTracker memoryTracker;
         private long nextPointer;
 
-        Grab( Grab next, long size, MemoryAllocationTracker memoryTracker )
+        Grab( Grab next, long size, long grabAlignment, MemoryAllocationTracker memoryTracker )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
+            this.allocatedSize = grabAlignment == 1 ? size : size + grabAlignment - 1;
+            this.allocatedAddress = UnsafeUtil.allocateMemory( allocatedSize, memoryTracker );
+            this.address = nextAligned( allocatedAddress, grabAlignment );
             this.limit = address + size;
             this.memoryTracker = memoryTracker;
             nextPointer = address;
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryAllocationTracker memoryTracker )
+        Grab( Grab next, long allocatedAddress, long allocatedSize, long address, long limit, long nextPointer,
+                MemoryAllocationTracker memoryTracker )
         {
             this.next = next;
+            this.allocatedAddress = allocatedAddress;
+            this.allocatedSize = allocatedSize;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
             this.memoryTracker = memoryTracker;
         }
 
-        private long nextAligned( long pointer, long alignment )
+        private static long nextAligned( long pointer, long alignment )
         {
             if ( alignment == 1 )
             {
@@ -145,7 +188,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            UnsafeUtil.free( allocatedAddress, allocatedSize, memoryTracker );
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -155,7 +198,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, allocatedAddress, allocatedSize, address, limit, nextPointer, memoryTracker );
         }
 
         @Override
@@ -170,18 +213,17 @@ public final class GrabAllocator implements MemoryAllocator
 
     private static final class Grabs
     {
-        /**
-         * The amount of memory, in bytes, to grab in each Grab.
-         */
-        private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
-
+        private final long grabSize;
+        private final long grabAlignment;
         private final MemoryAllocationTracker memoryTracker;
         private long expectedMaxMemory;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryAllocationTracker memoryTracker )
+        Grabs( long expectedMaxMemory, long grabSize, long grabAlignment, MemoryAllocationTracker memoryTracker )
         {
             this.expectedMaxMemory = expectedMaxMemory;
+            this.grabSize = grabSize;
+            this.grabAlignment = grabAlignment;
             this.memoryTracker = memoryTracker;
         }
 
@@ -226,20 +268,20 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            long grabSize = roundUpToGrabAlignment( Math.min( this.grabSize, expectedMaxMemory ) );
             try
             {
-                if ( bytes > GRAB_SIZE )
+                if ( bytes > this.grabSize )
                 {
                     // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
-                    grabSize = bytes;
+                    grabSize = roundUpToGrabAlignment( bytes );
                     Grab nextGrab = head == null ? null : head.next;
-                    Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    Grab allocationGrab = new Grab( nextGrab, grabSize, grabAlignment, memoryTracker );
                     if ( !allocationGrab.canAllocate( bytes, alignment ) )
                     {
                         allocationGrab.free();
-                        grabSize = bytes + alignment;
-                        allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                        grabSize = roundUpToGrabAlignment( bytes + alignment );
+                        allocationGrab = new Grab( nextGrab, grabSize, grabAlignment, memoryTracker );
                     }
                     long allocation = allocationGrab.allocate( bytes, alignment );
                     head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -251,8 +293,8 @@ public final class GrabAllocator implements MemoryAllocator
                 {
                     if ( grabSize < bytes )
                     {
-                        grabSize = bytes;
-                        Grab grab = new Grab( head, grabSize, memoryTracker );
+                        grabSize = roundUpToGrabAlignment( bytes );
+                        Grab grab = new Grab( head, grabSize, grabAlignment, memoryTracker );
                         if ( grab.canAllocate( bytes, alignment ) )
                         {
                             expectedMaxMemory -= grabSize;
@@ -260,9 +302,9 @@ public final class GrabAllocator implements MemoryAllocator
                             return head.allocate( bytes, alignment );
                         }
                         grab.free();
-                        grabSize = bytes + alignment;
+                        grabSize = roundUpToGrabAlignment( bytes + alignment );
                     }
-                    head = new Grab( head, grabSize, memoryTracker );
+                    head = new Grab( head, grabSize, grabAlignment, memoryTracker );
                     expectedMaxMemory -= grabSize;
                 }
                 return head.allocate( bytes, alignment );
@@ -276,6 +318,12 @@ public final class GrabAllocator implements MemoryAllocator
             }
         }
 
+        private long roundUpToGrabAlignment( long size )
+        {
+            long remainder = size % grabAlignment;
+            return remainder == 0 ? size : size + grabAlignment - remainder;
+        }
+
         private static void initCause( NativeMemoryAllocationRefusedError error, OutOfMemoryError cause )
         {
             try
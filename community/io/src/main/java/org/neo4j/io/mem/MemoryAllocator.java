@@ -32,6 +32,16 @@ public interface MemoryAllocator
         return new GrabAllocator( ByteUnit.parse( expectedMemory ), memoryTracker );
     }
 
+    /**
+     * Create an allocator that allocates its memory in regions that are aligned to, and sized in multiples of, the
+     * 2 MiB huge page size, such that the operating system can back them with transparent huge pages.
+     */
+    static MemoryAllocator createHugePageAllocator( String expectedMemory, MemoryAllocationTracker memoryTracker )
+    {
+        return new GrabAllocator( ByteUnit.parse( expectedMemory ), GrabAllocator.HUGE_PAGE_GRAB_SIZE,
+                GrabAllocator.HUGE_PAGE_SIZE, memoryTracker );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
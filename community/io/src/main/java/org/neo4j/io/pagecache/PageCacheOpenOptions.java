@@ -33,5 +33,13 @@ public enum PageCacheOpenOptions implements OpenOption
      * If so, the given file page size will be ignored and a {@link PagedFile} will be returned that uses the
      * file page size of the existing mapping.
      */
-    ANY_PAGE_SIZE
+    ANY_PAGE_SIZE,
+
+    /**
+     * Admit pages that are faulted into this file through a scan resistant admission policy. Pages that are only
+     * accessed once, for instance by a large scan, will then be evicted before the pages that are accessed
+     * repeatedly, instead of pushing the hot pages out of the cache.
+     * This option only has an effect when the file is not already mapped.
+     */
+    SCAN_RESISTANT
 }
@@ -60,8 +60,12 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * Cursors with this flag will fault in a batch of the following file pages, along with every page they fault.
+     * Cursors without this flag only read ahead when they detect that they are scanning the file sequentially, and only
+     * if that has been enabled with the {@code sequentialReadAhead} feature toggle.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
      * Do not load in the page if it is not loaded already. The methods {@link PageCursor#next()} and
      * {@link PageCursor#next(long)} will always return {@code true} for pages that are within the range of the file,
@@ -81,6 +85,11 @@ public interface PagedFile extends AutoCloseable
      */
     int PF_EAGER_FLUSH = 1 << 6;
 
+    /**
+     * The highest access heat a page can have, as reported by {@link #visitPageHeat(PageHeatVisitor)}.
+     */
+    int MAX_PAGE_HEAT = 5;
+
     /**
      * Initiate an IO interaction with the contents of the paged file.
      * <p>
@@ -174,6 +183,32 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Load the given run of adjacent pages into memory, if they are not there already.
+     * <p>
+     * The pages are read with as few and as large IO operations as possible, but unlike cursors that read ahead, no
+     * pages outside of the given run are loaded. This is intended for warming up the page cache.
+     *
+     * @param startPageId The file page id of the first page in the run.
+     * @param pageCount The number of pages in the run.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    void prefetch( long startPageId, int pageCount ) throws IOException;
+
+    /**
+     * Report the access heat of the pages of this file that are currently in memory.
+     * <p>
+     * The heat of a page is a number between 1 and {@link #MAX_PAGE_HEAT}, where higher numbers mean that the page
+     * has been accessed more frequently and recently. Pages that are not in memory are not reported. The report is
+     * only a snapshot: pages can be faulted in and evicted concurrently with this call, and such pages may or may not
+     * be reported.
+     *
+     * @param visitor The visitor that will receive the file page id and heat of every page in memory, in ascending
+     * file page id order.
+     * @throws IOException if this file has been unmapped.
+     */
+    void visitPageHeat( PageHeatVisitor visitor ) throws IOException;
+
     /**
      * Release a handle to a paged file.
      * <p>
@@ -188,4 +223,12 @@ public interface PagedFile extends AutoCloseable
     @Override
     void close() throws IOException;
 
+    /**
+     * Receives the pages reported by {@link #visitPageHeat(PageHeatVisitor)}.
+     */
+    @FunctionalInterface
+    interface PageHeatVisitor
+    {
+        void visit( long filePageId, int heat ) throws IOException;
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+
+/**
+ * A {@link SingleFilePageSwapper} that does not perform vectored reads and writes as a single blocking system call.
+ * Instead, the pages of the vectored IO are spread over a number of IO threads, that each do positional IO on their
+ * share of the pages. This way, a single page cache thread can have many IOs in flight at the same time, for instance
+ * when flushing during a check point, or when reading ahead. This can greatly improve throughput on devices that need
+ * deep IO queues to reach their full bandwidth, such as NVMe drives.
+ * <p>
+ * The calling thread always takes a share of the pages itself, and then waits for the IO threads to finish the rest,
+ * before returning. Single page reads and writes are performed directly by the calling thread.
+ */
+class AsyncPageSwapper extends SingleFilePageSwapper
+{
+    private final Executor executor;
+    private final int parallelism;
+
+    AsyncPageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction,
+            Executor executor, int parallelism ) throws IOException
+    {
+        super( file, fs, filePageSize, onEviction );
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length )
+            throws IOException
+    {
+        if ( length < 2 )
+        {
+            return super.read( startFilePageId, bufferAddresses, bufferSize, arrayOffset, length );
+        }
+        checkBounds( bufferAddresses, arrayOffset, length );
+        return submit( startFilePageId, bufferAddresses, arrayOffset, length,
+                ( filePageId, bufferAddress ) -> read( filePageId, bufferAddress, bufferSize ) );
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        if ( length < 2 )
+        {
+            return super.write( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+        checkBounds( bufferAddresses, arrayOffset, length );
+        return submit( startFilePageId, bufferAddresses, arrayOffset, length, this::write );
+    }
+
+    private static void checkBounds( long[] bufferAddresses, int arrayOffset, int length )
+    {
+        if ( arrayOffset < 0 || arrayOffset + length > bufferAddresses.length )
+        {
+            throw new ArrayIndexOutOfBoundsException( "Buffer addresses [" + arrayOffset + ", " +
+                    (arrayOffset + length) + ") out of bounds for array of length " + bufferAddresses.length );
+        }
+    }
+
+    private long submit( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length, PageIO io )
+            throws IOException
+    {
+        int shares = Math.min( length, parallelism );
+        Batch batch = new Batch( shares );
+        for ( int share = 1; share < shares; share++ )
+        {
+            Runnable task = batch.task( io, startFilePageId, bufferAddresses, arrayOffset, length, share );
+            try
+            {
+                executor.execute( task );
+            }
+            catch ( RejectedExecutionException e )
+            {
+                // The IO threads have been shut down, so we will have to do this share ourselves.
+                task.run();
+            }
+        }
+        batch.task( io, startFilePageId, bufferAddresses, arrayOffset, length, 0 ).run();
+        return batch.awaitCompletion();
+    }
+
+    @FunctionalInterface
+    private interface PageIO
+    {
+        long apply( long filePageId, long bufferAddress ) throws IOException;
+    }
+
+    /**
+     * Tracks the progress of the shares of a single vectored IO operation.
+     */
+    private static final class Batch
+    {
+        private final int shares;
+        private final CountDownLatch remaining;
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Batch( int shares )
+        {
+            this.shares = shares;
+            this.remaining = new CountDownLatch( shares );
+        }
+
+        Runnable task( PageIO io, long startFilePageId, long[] bufferAddresses, int arrayOffset, int length,
+                int share )
+        {
+            return () ->
+            {
+                try
+                {
+                    long sum = 0;
+                    for ( int i = share; i < length; i += shares )
+                    {
+                        sum += io.apply( startFilePageId + i, bufferAddresses[arrayOffset + i] );
+                    }
+                    bytes.addAndGet( sum );
+                }
+                catch ( Throwable e )
+                {
+                    if ( !failure.compareAndSet( null, e ) )
+                    {
+                        failure.get().addSuppressed( e );
+                    }
+                }
+                finally
+                {
+                    remaining.countDown();
+                }
+            };
+        }
+
+        long awaitCompletion() throws IOException
+        {
+            // The IO threads are using the page buffers of the caller, so we cannot return before they are done,
+            // not even if we are interrupted. The interrupt status is restored before we return.
+            boolean interrupted = false;
+            for (;;)
+            {
+                try
+                {
+                    remaining.await();
+                    break;
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            Throwable throwable = failure.get();
+            if ( throwable == null )
+            {
+                return bytes.get();
+            }
+            if ( throwable instanceof IOException )
+            {
+                throw (IOException) throwable;
+            }
+            if ( throwable instanceof RuntimeException )
+            {
+                throw (RuntimeException) throwable;
+            }
+            if ( throwable instanceof Error )
+            {
+                throw (Error) throwable;
+            }
+            throw new IOException( throwable );
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A factory for {@link AsyncPageSwapper} instances, which all share a pool of IO threads owned by this factory.
+ * <p>
+ * The IO threads are started on demand, and stop again when they have been idle for a while.
+ *
+ * @see org.neo4j.io.pagecache.impl.AsyncPageSwapper
+ */
+public class AsyncPageSwapperFactory implements PageSwapperFactory
+{
+    // The maximum number of page IOs that can be in flight at the same time, for all the swappers from this factory.
+    private static final int ioThreads = getInteger( AsyncPageSwapperFactory.class, "ioThreads",
+            Math.max( 8, Runtime.getRuntime().availableProcessors() * 2 ) );
+    private static final long ioThreadKeepAliveSeconds = 10;
+
+    private FileSystemAbstraction fs;
+    private ThreadPoolExecutor executor;
+
+    @Override
+    public void open( FileSystemAbstraction fs, Configuration config )
+    {
+        // Re-opening must not leave the IO threads of the previous executor behind
+        close();
+        this.fs = fs;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor( ioThreads, ioThreads, ioThreadKeepAliveSeconds, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable ->
+        {
+            Thread thread = new Thread( runnable, "PageSwapperIO-" + threadCounter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        this.executor.allowCoreThreadTimeOut( true );
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            if ( createIfNotExist )
+            {
+                fs.create( file ).close();
+            }
+            else
+            {
+                throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+            }
+        }
+        return new AsyncPageSwapper( file, fs, filePageSize, onEviction, executor, ioThreads );
+    }
+
+    @Override
+    public void syncDevice()
+    {
+        // Nothing do to, since we `fsync` files individually in `force()`.
+    }
+
+    @Override
+    public void close()
+    {
+        if ( executor != null )
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return "async";
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return 1;
+    }
+}
@@ -104,6 +104,27 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Install and return a latch for the given identifier, like {@link #takeOrAwaitLatch(long)}, but only if there is
+     * no latch currently installed for the given (or any colliding) identifier. Otherwise {@code null} is returned
+     * right away, without waiting on the installed latch.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        if ( getLatch( index ) == null )
+        {
+            Latch latch = new Latch();
+            if ( compareAndSetLatch( index, null, latch ) )
+            {
+                latch.latchMap = this;
+                latch.index = index;
+                return latch;
+            }
+        }
+        return null;
+    }
+
     private int index( long identifier )
     {
         return (int) (mix( identifier ) & faultLockMask);
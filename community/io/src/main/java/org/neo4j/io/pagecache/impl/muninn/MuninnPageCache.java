@@ -43,6 +43,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -126,6 +127,11 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // Use the scan resistant eviction policy for all mapped files, as if they were all mapped with the
+    // PageCacheOpenOptions.SCAN_RESISTANT option.
+    private static final boolean scanResistantEviction = flag(
+            MuninnPageCache.class, "scanResistantEviction", false );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -180,6 +186,16 @@ public class MuninnPageCache implements PageCache
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
+    // The admission policy used for scan resistant files, or null if no such files have been mapped yet.
+    // Only ever assigned once, while synchronized(this), but read by the eviction algorithms without synchronization.
+    private volatile ScanResistance scanResistance;
+
+    // The partitions that have been added to this page cache, and the partitions of the mapped files, indexed by their
+    // swapper ids. The latter is null when there are no partitions, so the eviction algorithms can quickly skip the
+    // partition checks. Both arrays are only ever replaced while synchronized(this).
+    private volatile PageCachePartition[] partitions = new PageCachePartition[0];
+    private volatile PageCachePartition[] swapperPartitions;
+
     // The thread that runs the eviction algorithm. We unpark this when we've run out of
     // free pages to grab.
     private volatile Thread evictionThread;
@@ -288,6 +304,10 @@ public class MuninnPageCache implements PageCache
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
+        if ( scanResistantEviction )
+        {
+            this.scanResistance = new ScanResistance( maxPages );
+        }
 
         setFreelistHead( new AtomicInteger() );
     }
@@ -339,6 +359,7 @@ public class MuninnPageCache implements PageCache
         boolean truncateExisting = false;
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
+        boolean scanResistant = scanResistantEviction;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -357,6 +378,10 @@ public class MuninnPageCache implements PageCache
             {
                 anyPageSize = true;
             }
+            else if ( option.equals( PageCacheOpenOptions.SCAN_RESISTANT ) )
+            {
+                scanResistant = true;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
@@ -398,6 +423,11 @@ public class MuninnPageCache implements PageCache
                     Long.BYTES + " bytes" );
         }
 
+        if ( scanResistant && scanResistance == null )
+        {
+            scanResistance = new ScanResistance( pages.getPageCount() );
+        }
+
         // there was no existing mapping
         MuninnPagedFile pagedFile = new MuninnPagedFile(
                 file,
@@ -408,16 +438,91 @@ public class MuninnPageCache implements PageCache
                 pageCursorTracerSupplier,
                 versionContextSupplier,
                 createIfNotExists,
-                truncateExisting );
+                truncateExisting,
+                scanResistant,
+                findPartition( file ) );
         pagedFile.incrementRefCount();
         pagedFile.markDeleteOnClose( deleteOnClose );
         current = new FileMapping( file, pagedFile );
         current.next = mappedFiles;
         mappedFiles = current;
         pageCacheTracer.mappedFile( file );
+        bindPartition( pagedFile );
         return pagedFile;
     }
 
+    /**
+     * Add a partition to this page cache. Files that are mapped after this call, will be placed in the given partition
+     * if it is the first partition that matches them.
+     *
+     * @param partition The partition to add.
+     * @throws IllegalArgumentException if the total reservation of all the partitions would reach 100% of the cache.
+     */
+    public synchronized void addPartition( PageCachePartition partition )
+    {
+        int totalReservedPercentage = partition.reservedPercentage();
+        for ( PageCachePartition existing : partitions )
+        {
+            totalReservedPercentage += existing.reservedPercentage();
+        }
+        if ( totalReservedPercentage >= 100 )
+        {
+            throw new IllegalArgumentException( "Cannot add " + partition + ", because the page cache partitions " +
+                    "would reserve " + totalReservedPercentage + "% of the cache, leaving no pages for eviction." );
+        }
+        partition.bind( pages.getPageCount() );
+        PageCachePartition[] newPartitions = Arrays.copyOf( partitions, partitions.length + 1 );
+        newPartitions[partitions.length] = partition;
+        partitions = newPartitions;
+        if ( swapperPartitions == null )
+        {
+            swapperPartitions = new PageCachePartition[0];
+        }
+    }
+
+    /**
+     * @return The partitions that have been added to this page cache.
+     */
+    public List<PageCachePartition> partitions()
+    {
+        return Arrays.asList( partitions );
+    }
+
+    private PageCachePartition findPartition( File file )
+    {
+        for ( PageCachePartition partition : partitions )
+        {
+            if ( partition.matches( file ) )
+            {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    private void bindPartition( MuninnPagedFile pagedFile )
+    {
+        PageCachePartition[] current = swapperPartitions;
+        if ( current != null )
+        {
+            int swapperId = pagedFile.swapperId;
+            PageCachePartition[] updated = Arrays.copyOf( current, Math.max( current.length, swapperId + 1 ) );
+            updated[swapperId] = pagedFile.partition;
+            swapperPartitions = updated;
+        }
+    }
+
+    private void unbindPartition( MuninnPagedFile pagedFile )
+    {
+        PageCachePartition[] current = swapperPartitions;
+        if ( current != null && pagedFile.swapperId < current.length )
+        {
+            PageCachePartition[] updated = current.clone();
+            updated[pagedFile.swapperId] = null;
+            swapperPartitions = updated;
+        }
+    }
+
     @Override
     public synchronized Optional<PagedFile> getExistingMapping( File file ) throws IOException
     {
@@ -524,6 +629,7 @@ public class MuninnPageCache implements PageCache
                         prev.next = current.next;
                     }
                     pageCacheTracer.unmappedFile( current.file );
+                    unbindPartition( file );
                     flushAndCloseWithoutFail( file );
                     break;
                 }
@@ -779,19 +885,49 @@ public class MuninnPageCache implements PageCache
         // to check and see if it is the shutdownSignal instance. If that's the
         // case, then the page cache has been shut down, and we should throw an
         // exception from our page fault routine.
-        Object current;
         for (;;)
         {
             assertHealthy();
+            long pageRef = pollFreelist();
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+            unparkEvictor();
+            pageRef = cooperativelyEvict( faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #grabFreeAndExclusivelyLockedPage(PageFaultEvent)}, except this method will never evict pages.
+     * This is used for speculative page faults, like read-ahead, which are not worth evicting other pages for.
+     *
+     * @return The page ref of a free and exclusively locked page, or zero if the freelist is empty.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage() throws IOException
+    {
+        assertHealthy();
+        long pageRef = pollFreelist();
+        if ( pageRef == 0 )
+        {
+            unparkEvictor();
+        }
+        return pageRef;
+    }
+
+    private long pollFreelist()
+    {
+        Object current;
+        for (;;)
+        {
             current = getFreelistHead();
             if ( current == null )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
-                {
-                    return pageRef;
-                }
+                return 0;
             }
             else if ( current instanceof AtomicInteger )
             {
@@ -823,8 +959,36 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Decide how a page that was just faulted into a scan resistant file, is admitted into the cache.
+     * The page must still be exclusively locked by the page fault.
+     */
+    void admitScanResistantPage( long pageRef, int swapperId, long filePageId )
+    {
+        if ( scanResistance.admit( pages.toId( pageRef ), PageList.bindingKey( swapperId, filePageId ) ) )
+        {
+            // The page was re-referenced shortly after it was evicted, so give it a head start on the clock.
+            pages.incrementUsage( pageRef );
+            pageCacheTracer.ghostHits( 1 );
+        }
+        else
+        {
+            pageCacheTracer.probationaryAdmissions( 1 );
+        }
+    }
+
     private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
     {
+        ScanResistance scanResistance = this.scanResistance;
+        if ( scanResistance != null )
+        {
+            long pageRef = scanResistance.evictProbationaryPage( pages, faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
+
         int iterations = 0;
         int pageCount = pages.getPageCount();
         int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
@@ -849,9 +1013,9 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef ) )
             {
-                evicted = pages.tryEvict( pageRef, faultEvent );
+                evicted = tryEvict( pageRef, scanResistance, faultEvent );
             }
             clockArm++;
         }
@@ -974,6 +1138,7 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        ScanResistance scanResistance = this.scanResistance;
         while ( pageCountToEvict > 0 && !closed )
         {
             if ( clockArm == pages.getPageCount() )
@@ -987,37 +1152,103 @@ public class MuninnPageCache implements PageCache
                 return 0;
             }
 
-            long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            try
             {
-                try
+                if ( scanResistance != null )
                 {
-                    pageCountToEvict--;
-                    if ( pages.tryEvict( pageRef, evictionRunEvent ) )
+                    // Probationary pages are evicted before we start decrementing the usage counters of the
+                    // pages in the rest of the cache. We don't move the clock arm when this happens.
+                    long pageRef = scanResistance.evictProbationaryPage( pages, evictionRunEvent );
+                    if ( pageRef != 0 )
                     {
+                        pageCountToEvict--;
                         clearEvictorException();
                         addFreePageToFreelist( pageRef );
+                        continue;
                     }
                 }
-                catch ( IOException e )
+
+                long pageRef = pages.deref( clockArm );
+                if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef ) )
                 {
-                    evictorException = e;
+                    pageCountToEvict--;
+                    if ( tryEvict( pageRef, scanResistance, evictionRunEvent ) )
+                    {
+                        clearEvictorException();
+                        addFreePageToFreelist( pageRef );
+                    }
                 }
-                catch ( OutOfMemoryError oom )
+            }
+            catch ( IOException e )
+            {
+                evictorException = e;
+            }
+            catch ( OutOfMemoryError oom )
+            {
+                evictorException = oomException;
+            }
+            catch ( Throwable th )
+            {
+                evictorException = new IOException(
+                        "Eviction thread encountered a problem", th );
+            }
+
+            clockArm++;
+        }
+
+        return clockArm;
+    }
+
+    /**
+     * Decide if the clock should evict the given loaded page. Normally, this decrements the usage counter of the page,
+     * and the page is a candidate when its usage counter reaches zero. However, pages that belong to partitions that
+     * are within their reservations are never candidates, and pages that belong to partitions that are over their
+     * quotas are always candidates.
+     */
+    private boolean isEvictionCandidate( long pageRef )
+    {
+        PageCachePartition[] partitionsBySwapperId = swapperPartitions;
+        if ( partitionsBySwapperId != null )
+        {
+            int swapperId = pages.getSwapperId( pageRef );
+            PageCachePartition partition = swapperId < partitionsBySwapperId.length ?
+                                           partitionsBySwapperId[swapperId] : null;
+            if ( partition != null )
+            {
+                if ( partition.isWithinReservation() )
                 {
-                    evictorException = oomException;
+                    return false;
                 }
-                catch ( Throwable th )
+                if ( partition.isOverQuota() )
                 {
-                    evictorException = new IOException(
-                            "Eviction thread encountered a problem", th );
+                    pages.decrementUsage( pageRef );
+                    return true;
                 }
             }
-
-            clockArm++;
         }
+        return pages.decrementUsage( pageRef );
+    }
 
-        return clockArm;
+    private boolean tryEvict( long pageRef, ScanResistance scanResistance, EvictionEventOpportunity evictionOpportunity )
+            throws IOException
+    {
+        if ( scanResistance == null )
+        {
+            return pages.tryEvict( pageRef, evictionOpportunity );
+        }
+        long bindingKey = pages.getBindingKey( pageRef );
+        if ( bindingKey == 0 )
+        {
+            // The page is loaded, but not bound, because its page fault failed.
+            return pages.tryEvict( pageRef, evictionOpportunity );
+        }
+        if ( pages.tryEvictIfBoundTo( pageRef, bindingKey, evictionOpportunity ) )
+        {
+            // Remember the evicted page, so we can tell if it is re-referenced soon.
+            scanResistance.addGhost( bindingKey );
+            return true;
+        }
+        return false;
     }
 
     void addFreePageToFreelist( long pageRef )
@@ -38,9 +38,11 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -49,6 +51,14 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // Whether or not cursors should read ahead when they detect sequential access, even without PF_READ_AHEAD.
+    // Off by default, since the read-ahead is done inline with the page fault of the cursor that triggered it.
+    private static final boolean sequentialReadAhead = flag( MuninnPageCursor.class, "sequentialReadAhead", false );
+    // The number of consecutive file pages a cursor must pin, before its access pattern is considered sequential.
+    private static final int readAheadTrigger = getInteger( MuninnPageCursor.class, "readAheadTrigger", 4 );
+    // The maximum number of pages that are read ahead, in the same vectored read as the page being faulted.
+    private static final int readAheadPages = getInteger( MuninnPageCursor.class, "readAheadPages", 15 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -67,6 +77,7 @@ abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean readAheadHint;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -78,6 +89,21 @@ abstract class MuninnPageCursor extends PageCursor
     private int mark;
     private boolean outOfBounds;
     private boolean isLinkedCursor;
+    // Access pattern tracking, and the read-ahead window that was faulted in by this cursor.
+    private long lastPinnedPageId;
+    private int sequentialPins;
+    private long readAheadNextPageId;
+    // The last file page id this cursor may read ahead to, see MuninnPagedFile.prefetch.
+    private long readAheadLimit;
+    private int readAheadWindow;
+    private int readAheadRemaining;
+    // Scratch space for read-ahead page faults. Index zero is the page being faulted, and the read-ahead pages follow.
+    private int readAheadReserved;
+    private long[] readAheadPageRefs;
+    private long[] readAheadBufferAddresses;
+    private int[][] readAheadChunks;
+    private long[] readAheadChunkOffsets;
+    private LatchMap.Latch[] readAheadLatches;
     // This is a String with the exception message if usePreciseCursorErrorStackTraces is false, otherwise it is a
     // CursorExceptionWithPreciseStackTrace with the message and stack trace pointing more or less directly at the
     // offending code.
@@ -106,6 +132,18 @@ abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.readAheadHint = isFlagRaised( pf_flags, PF_READ_AHEAD );
+        this.readAheadLimit = Long.MAX_VALUE;
+        this.lastPinnedPageId = UNBOUND_PAGE_ID;
+        this.sequentialPins = 0;
+    }
+
+    /**
+     * Make sure this cursor does not read ahead past the given file page id.
+     */
+    final void limitReadAhead( long lastPageId )
+    {
+        readAheadLimit = lastPageId;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -188,6 +226,7 @@ abstract class MuninnPageCursor extends PageCursor
         while ( cursor != null && cursor.pagedFile != null )
         {
             cursor.unpinCurrentPage();
+            cursor.endReadAheadWindow();
             // We null out the pagedFile field to allow it and its (potentially big) translation table to be garbage
             // collected when the file is unmapped, since the cursors can stick around in thread local caches, etc.
             cursor.pagedFile = null;
@@ -273,6 +312,7 @@ abstract class MuninnPageCursor extends PageCursor
     protected void pin( long filePageId, boolean writeLock ) throws IOException
     {
         pinEvent = tracer.beginPin( writeLock, filePageId, swapper );
+        trackAccessPattern( filePageId );
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
         // this, we can access the array slot with Unsafe.
@@ -305,6 +345,10 @@ abstract class MuninnPageCursor extends PageCursor
                 {
                     pinCursorToPage( pageRef, filePageId, swapper );
                     pinEvent.hit();
+                    if ( readAheadRemaining > 0 )
+                    {
+                        readAheadHit( filePageId );
+                    }
                     return;
                 }
                 if ( locked )
@@ -370,6 +414,7 @@ abstract class MuninnPageCursor extends PageCursor
         // If we manage to get a free page to fault into, then we will also be taking a write lock on that page, to
         // protect it against concurrent eviction as we assigning a binding to the page. If anything goes wrong, then
         // we must make sure to release that write lock as well.
+        endReadAheadWindow();
         PageFaultEvent faultEvent = pinEvent.beginPageFault();
         long pageRef;
         try
@@ -395,12 +440,28 @@ abstract class MuninnPageCursor extends PageCursor
             // here, so the unmapping would have already happened. We do this
             // check before page.fault(), because that would otherwise reopen
             // the file channel.
-            assertPagedFileStillMappedAndGetIdOfLastPage();
+            long lastPageId = assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
-            pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            if ( readAheadHint || (sequentialReadAhead && sequentialPins >= readAheadTrigger) )
+            {
+                reserveReadAhead( filePageId, lastPageId );
+            }
+            if ( readAheadReserved == 0 )
+            {
+                pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            }
+            else
+            {
+                readAheadPageRefs[0] = pageRef;
+                pagedFile.fault( readAheadPageRefs, readAheadBufferAddresses, readAheadReserved + 1,
+                        swapper, pagedFile.swapperId, filePageId, faultEvent );
+            }
+            pagedFile.admitFaultedPage( pageRef, filePageId );
         }
         catch ( Throwable throwable )
         {
+            // Give up on any read-ahead we have reserved, and release the pages and latches involved.
+            abortReadAhead();
             // Make sure to unlock the page, so the eviction thread can pick up our trash.
             pagedFile.unlockExclusive( pageRef );
             // Make sure to unstuck the page fault latch.
@@ -410,6 +471,7 @@ abstract class MuninnPageCursor extends PageCursor
         // Put the page in the translation table before we undo the exclusive lock, as we could otherwise race with
         // eviction, and the onEvict callback expects to find a MuninnPage object in the table.
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, pagedFile.toId( pageRef ) );
+        publishReadAhead( filePageId );
         // Once we page has been published to the translation table, we can convert our exclusive lock to whatever we
         // need for the page cursor.
         convertPageFaultLock( pageRef );
@@ -428,6 +490,160 @@ abstract class MuninnPageCursor extends PageCursor
         pinEvent.done();
     }
 
+    private void trackAccessPattern( long filePageId )
+    {
+        if ( filePageId != lastPinnedPageId )
+        {
+            sequentialPins = filePageId == lastPinnedPageId + 1 ? sequentialPins + 1 : 0;
+            lastPinnedPageId = filePageId;
+        }
+    }
+
+    /**
+     * Reserve the unmapped file pages that immediately follow the given file page, for read-ahead. For every such
+     * page, we take its page fault latch, and grab a free page to fault it into. We stop at the first page that is
+     * already mapped, or being faulted by someone else, or when we run out of free pages. Read-ahead is speculative,
+     * so we never wait for latches, and never evict pages, to make room for it.
+     */
+    private void reserveReadAhead( long filePageId, long lastPageId ) throws IOException
+    {
+        if ( readAheadPageRefs == null )
+        {
+            int capacity = readAheadPages + 1;
+            readAheadPageRefs = new long[capacity];
+            readAheadBufferAddresses = new long[capacity];
+            readAheadChunks = new int[capacity][];
+            readAheadChunkOffsets = new long[capacity];
+            readAheadLatches = new LatchMap.Latch[capacity];
+        }
+        int[][] tt = pagedFile.translationTable;
+        long maxPageId = Math.min( Math.min( lastPageId, readAheadLimit ), filePageId + readAheadPages );
+        for ( long id = filePageId + 1; id <= maxPageId; id++ )
+        {
+            int chunkId = MuninnPagedFile.computeChunkId( id );
+            if ( chunkId >= tt.length )
+            {
+                return;
+            }
+            int[] chunk = tt[chunkId];
+            long chunkOffset = MuninnPagedFile.computeChunkOffset( id );
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                return;
+            }
+            LatchMap.Latch latch = pagedFile.pageFaultLatches.tryTakeLatch( id );
+            if ( latch == null )
+            {
+                return;
+            }
+            long pageRef;
+            try
+            {
+                // Double-check the translation table now that we have the latch, just like in uncommonPin.
+                pageRef = UnsafeUtil.getIntVolatile( chunk, chunkOffset ) == UNMAPPED_TTE
+                          ? pagedFile.tryGrabFreeAndExclusivelyLockedPage() : 0;
+            }
+            catch ( Throwable throwable )
+            {
+                latch.release();
+                throw throwable;
+            }
+            if ( pageRef == 0 )
+            {
+                latch.release();
+                return;
+            }
+            int index = ++readAheadReserved;
+            readAheadPageRefs[index] = pageRef;
+            readAheadChunks[index] = chunk;
+            readAheadChunkOffsets[index] = chunkOffset;
+            readAheadLatches[index] = latch;
+            pagedFile.initBuffer( pageRef );
+        }
+    }
+
+    /**
+     * Publish the read-ahead pages that were faulted together with the given file page, and open a new read-ahead
+     * window for them.
+     */
+    private void publishReadAhead( long filePageId )
+    {
+        int count = readAheadReserved;
+        if ( count == 0 )
+        {
+            return;
+        }
+        for ( int i = 1; i <= count; i++ )
+        {
+            long pageRef = readAheadPageRefs[i];
+            pagedFile.admitFaultedPage( pageRef, filePageId + i );
+            UnsafeUtil.putIntVolatile( readAheadChunks[i], readAheadChunkOffsets[i], pagedFile.toId( pageRef ) );
+            pagedFile.unlockExclusive( pageRef );
+            releaseReadAheadLatch( i );
+        }
+        readAheadReserved = 0;
+        pagedFile.reportReadAhead( count );
+        readAheadNextPageId = filePageId + 1;
+        readAheadWindow = count;
+        readAheadRemaining = count;
+    }
+
+    private void abortReadAhead()
+    {
+        for ( int i = 1; i <= readAheadReserved; i++ )
+        {
+            // The translation table entries were never changed, so we only need to get rid of the pages. Loaded
+            // pages are unlocked, so the eviction thread can pick up our trash, while the rest are still free.
+            long pageRef = readAheadPageRefs[i];
+            if ( pagedFile.isLoaded( pageRef ) )
+            {
+                pagedFile.unlockExclusive( pageRef );
+            }
+            else
+            {
+                pagedFile.returnFreePage( pageRef );
+            }
+            releaseReadAheadLatch( i );
+        }
+        readAheadReserved = 0;
+    }
+
+    private void releaseReadAheadLatch( int index )
+    {
+        readAheadLatches[index].release();
+        // Don't hold on to chunks and latches, as the translation table might otherwise be kept from being collected.
+        readAheadLatches[index] = null;
+        readAheadChunks[index] = null;
+    }
+
+    private void readAheadHit( long filePageId )
+    {
+        if ( filePageId == readAheadNextPageId )
+        {
+            readAheadNextPageId++;
+            readAheadRemaining--;
+            if ( readAheadRemaining == 0 )
+            {
+                endReadAheadWindow();
+            }
+        }
+        else if ( filePageId != readAheadNextPageId - 1 )
+        {
+            // The cursor has moved away from the read-ahead window, which means the rest of it was wasted.
+            endReadAheadWindow();
+        }
+    }
+
+    private void endReadAheadWindow()
+    {
+        if ( readAheadWindow > 0 )
+        {
+            pagedFile.reportReadAheadOutcome( readAheadWindow - readAheadRemaining, readAheadRemaining );
+            readAheadWindow = 0;
+            readAheadRemaining = 0;
+        }
+    }
+
     long assertPagedFileStillMappedAndGetIdOfLastPage() throws FileIsNotMappedException
     {
         return pagedFile.getLastPageId();
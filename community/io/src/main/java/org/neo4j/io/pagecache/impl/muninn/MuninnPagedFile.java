@@ -24,6 +24,7 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
@@ -71,6 +72,11 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     final PageSwapper swapper;
     final int swapperId;
     private final CursorPool cursorPool;
+    // True if pages faulted into this file are admitted through the scan resistant admission policy.
+    private final boolean scanResistant;
+    // The page cache partition this file belongs to, if any, and the number of pages this file holds in it.
+    final PageCachePartition partition;
+    private final AtomicLong partitionPages = new AtomicLong();
 
     // Guarded by the monitor lock on MuninnPageCache (map and unmap)
     private boolean deleteOnClose;
@@ -113,15 +119,20 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * access to thread local version context
      * @param createIfNotExists should create file if it does not exists
      * @param truncateExisting should truncate file if it exists
+     * @param scanResistant should admit faulted pages through the scan resistant admission policy of the page cache
+     * @param partition the page cache partition this file belongs to, or null if it does not belong to any partition
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( File file, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory,
             PageCacheTracer pageCacheTracer, PageCursorTracerSupplier pageCursorTracerSupplier,
-            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting ) throws IOException
+            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting,
+            boolean scanResistant, PageCachePartition partition ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
         this.filePageSize = filePageSize;
+        this.scanResistant = scanResistant;
+        this.partition = partition;
         this.cursorPool = new CursorPool( this, pageCursorTracerSupplier, pageCacheTracer, versionContextSupplier );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
@@ -253,6 +264,11 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             // We cannot reuse those swapper ids until there are no more pages using them.
             pageCache.vacuum( getSwappers() );
         }
+        if ( partition != null )
+        {
+            // The pages that are still bound to this file are garbage now, so they no longer count for the partition.
+            partition.pagesRemoved( partitionPages.getAndSet( 0 ) );
+        }
     }
 
     @Override
@@ -538,6 +554,51 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return state & headerStateLastPageIdMask;
     }
 
+    @Override
+    public void prefetch( long startPageId, int pageCount ) throws IOException
+    {
+        long lastPageId = startPageId + pageCount - 1;
+        try ( MuninnPageCursor cursor = (MuninnPageCursor) io( startPageId, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            // The first page fault reads ahead, so the rest of the run is mostly pinned without faulting.
+            cursor.limitReadAhead( lastPageId );
+            long pageId = startPageId;
+            while ( pageId <= lastPageId && cursor.next() )
+            {
+                pageId++;
+            }
+        }
+    }
+
+    @Override
+    public void visitPageHeat( PageHeatVisitor visitor ) throws IOException
+    {
+        if ( refCountOf( getHeaderState() ) == 0 )
+        {
+            throw fileIsNotMappedException();
+        }
+        long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
+        int[][] tt = this.translationTable;
+        for ( int[] chunk : tt )
+        {
+            for ( int i = 0; i < chunk.length; i++ )
+            {
+                filePageId++;
+                int pageId = UnsafeUtil.getIntVolatile( chunk, computeChunkOffset( filePageId ) );
+                if ( pageId != UNMAPPED_TTE )
+                {
+                    long pageRef = deref( pageId );
+                    // The usage counter goes from 0 to 4, but even the coldest page in memory has some heat.
+                    int heat = getUsageCounter( pageRef ) + 1;
+                    if ( isBoundTo( pageRef, swapperId, filePageId ) )
+                    {
+                        visitor.visit( filePageId, heat );
+                    }
+                }
+            }
+        }
+    }
+
     private FileIsNotMappedException fileIsNotMappedException()
     {
         FileIsNotMappedException exception = new FileIsNotMappedException( file() );
@@ -660,6 +721,61 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Grab a free page for the purpose of a speculative page fault, such as read-ahead. This never blocks, and never
+     * evicts any pages.
+     * @return The free page, or zero if none are immediately available.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage() throws IOException
+    {
+        return pageCache.tryGrabFreeAndExclusivelyLockedPage();
+    }
+
+    /**
+     * Give an exclusively locked page back to the freelist, if it was grabbed for a speculative page fault that was
+     * aborted before the page was loaded.
+     */
+    void returnFreePage( long pageRef )
+    {
+        pageCache.addFreePageToFreelist( pageRef );
+    }
+
+    /**
+     * Report that the given number of pages were read ahead of a sequential page cursor.
+     */
+    void reportReadAhead( long pages )
+    {
+        pageCacheTracer.readAheadPages( pages );
+    }
+
+    /**
+     * Report how many of the pages in a read-ahead window were pinned by the cursor that read them, and how many were
+     * not.
+     */
+    void reportReadAheadOutcome( long hits, long waste )
+    {
+        pageCacheTracer.readAheadHits( hits );
+        pageCacheTracer.readAheadWaste( waste );
+    }
+
+    /**
+     * Admit a freshly faulted page into the cache. The page must still be exclusively locked by the page fault.
+     * @param pageRef The page that was faulted into.
+     * @param filePageId The file page that the page is now bound to.
+     */
+    void admitFaultedPage( long pageRef, long filePageId )
+    {
+        if ( scanResistant )
+        {
+            pageCache.admitScanResistantPage( pageRef, swapperId, filePageId );
+        }
+        if ( partition != null )
+        {
+            partitionPages.incrementAndGet();
+            partition.pagesAdded( 1 );
+        }
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -674,6 +790,26 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        if ( partition != null && decrementPartitionPages() )
+        {
+            partition.pagesRemoved( 1 );
+        }
+    }
+
+    private boolean decrementPartitionPages()
+    {
+        // We might race with closeSwapper, which hands all our remaining pages back to the partition at once.
+        long pages;
+        do
+        {
+            pages = partitionPages.get();
+            if ( pages == 0 )
+            {
+                return false;
+            }
+        }
+        while ( !partitionPages.compareAndSet( pages, pages - 1 ) );
+        return true;
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
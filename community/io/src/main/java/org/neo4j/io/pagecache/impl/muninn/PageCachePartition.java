@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A partition of the pages in a {@link MuninnPageCache}, for a group of files.
+ * <p>
+ * A partition can <em>reserve</em> a percentage of the cache pages for its files. Pages of those files are protected
+ * from eviction, for as long as the partition holds no more pages than its reservation. This way, files in one
+ * partition cannot push the pages of small but hot files in another partition out of the cache.
+ * <p>
+ * A partition can also have a <em>quota</em>, as a percentage of the cache pages. When a partition holds more pages
+ * than its quota, then its pages are evicted regardless of how recently they have been used. The quota is enforced by
+ * the eviction, so a partition can temporarily go over its quota, if it is faulting in pages faster than the eviction
+ * can keep up with.
+ * <p>
+ * Partitions are added to the page cache with {@link MuninnPageCache#addPartition(PageCachePartition)}, and files
+ * belong to the first partition that matches them, when they are mapped.
+ */
+public final class PageCachePartition
+{
+    private final String name;
+    private final Predicate<File> files;
+    private final int reservedPercentage;
+    private final int maxPercentage;
+    private final AtomicLong residentPages = new AtomicLong();
+    private long reservedPages;
+    private long maxPages;
+
+    /**
+     * @param name The name of the partition, used for monitoring.
+     * @param files Decides what files belong to this partition.
+     * @param reservedPercentage The percentage of the cache pages that are reserved for the files in this partition.
+     * @param maxPercentage The percentage of the cache pages that the files in this partition can use.
+     */
+    public PageCachePartition( String name, Predicate<File> files, int reservedPercentage, int maxPercentage )
+    {
+        if ( reservedPercentage < 0 || reservedPercentage > maxPercentage || maxPercentage > 100 )
+        {
+            throw new IllegalArgumentException( "Invalid page cache partition '" + name + "'. The reservation (" +
+                    reservedPercentage + "%) and the quota (" + maxPercentage + "%) must satisfy " +
+                    "0 <= reservation <= quota <= 100." );
+        }
+        this.name = requireNonNull( name );
+        this.files = requireNonNull( files );
+        this.reservedPercentage = reservedPercentage;
+        this.maxPercentage = maxPercentage;
+    }
+
+    public String name()
+    {
+        return name;
+    }
+
+    int reservedPercentage()
+    {
+        return reservedPercentage;
+    }
+
+    /**
+     * @return The number of cache pages currently holding pages of the files in this partition.
+     */
+    public long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    /**
+     * @return The number of cache pages reserved for this partition.
+     */
+    public long reservedPages()
+    {
+        return reservedPages;
+    }
+
+    /**
+     * @return The maximum number of cache pages this partition should use.
+     */
+    public long maxPages()
+    {
+        return maxPages;
+    }
+
+    void bind( int cachePageCount )
+    {
+        reservedPages = (long) cachePageCount * reservedPercentage / 100;
+        maxPages = (long) cachePageCount * maxPercentage / 100;
+    }
+
+    boolean matches( File file )
+    {
+        return files.test( file );
+    }
+
+    boolean isWithinReservation()
+    {
+        return residentPages.get() <= reservedPages;
+    }
+
+    boolean isOverQuota()
+    {
+        return residentPages.get() > maxPages;
+    }
+
+    void pagesAdded( long count )
+    {
+        residentPages.addAndGet( count );
+    }
+
+    void pagesRemoved( long count )
+    {
+        residentPages.addAndGet( -count );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageCachePartition[" + name + ", reserved=" + reservedPercentage + "%, max=" + maxPercentage + "%]";
+    }
+}
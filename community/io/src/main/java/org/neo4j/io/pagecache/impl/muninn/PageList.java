@@ -301,7 +301,7 @@ class PageList
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return (byte) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
     }
@@ -402,11 +402,36 @@ class PageList
     }
 
     boolean isBoundTo( long pageRef, int swapperId, long filePageId )
+    {
+        return isBoundTo( pageRef, bindingKey( swapperId, filePageId ) );
+    }
+
+    private boolean isBoundTo( long pageRef, long bindingKey )
     {
         long address = offPageBinding( pageRef );
-        long expectedBinding = (filePageId << SHIFT_PARTIAL_FILE_PAGE_ID) + swapperId;
         long actualBinding = UnsafeUtil.getLong( address ) >>> SHIFT_SWAPPER_ID;
-        return expectedBinding == actualBinding;
+        return bindingKey == actualBinding;
+    }
+
+    /**
+     * Compute a key that identifies the given file page, independently of which cache page it might be bound to.
+     * The key is never zero, because zero is not a valid swapper id.
+     */
+    static long bindingKey( int swapperId, long filePageId )
+    {
+        return (filePageId << SHIFT_PARTIAL_FILE_PAGE_ID) + swapperId;
+    }
+
+    /**
+     * Get the {@link #bindingKey(int, long) binding key} of the file page that the given cache page is currently bound
+     * to, or zero if the page is not bound. This is a volatile read without any locking, so the caller must be able to
+     * tolerate the binding changing at any time.
+     */
+    long getBindingKey( long pageRef )
+    {
+        long binding = UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) >>> SHIFT_SWAPPER_ID;
+        // The swapper id is only assigned once the page fault has completed, and it is zero for unbound pages.
+        return (binding & MASK_SHIFTED_SWAPPER_ID) == 0 ? 0 : binding;
     }
 
     void fault( long pageRef, PageSwapper swapper, int swapperId, long filePageId, PageFaultEvent event )
@@ -437,6 +462,53 @@ class PageList
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault a run of adjacent file pages into the given cache pages, using a single vectored read.
+     * <p>
+     * The same requirements apply to every page, as for {@link #fault(long, PageSwapper, int, long, PageFaultEvent)}.
+     *
+     * @param pageRefs The cache pages to fault into, in file page order.
+     * @param bufferAddresses Scratch array for the buffer addresses of the cache pages. Must be at least
+     * {@code length} long.
+     * @param length The number of pages to fault.
+     * @param startFilePageId The file page id of the first page in the run.
+     */
+    void fault( long[] pageRefs, long[] bufferAddresses, int length, PageSwapper swapper, int swapperId,
+            long startFilePageId, PageFaultEvent event ) throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( startFilePageId == PageCursor.UNBOUND_PAGE_ID || !isExclusivelyLocked( pageRef )
+                 || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException(
+                        pageRef, swapper, swapperId, startFilePageId + i, currentSwapper, currentFilePageId );
+            }
+        }
+        // Just like for single page faults, the file page ids are assigned before the swapping, and the swapper ids
+        // are assigned after the swapping has succeeded.
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            setFilePageId( pageRef, startFilePageId + i ); // Page now considered isLoaded()
+            bufferAddresses[i] = getAddress( pageRef );
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, cachePageSize, 0, length );
+        event.addBytesRead( bytesRead );
+        event.setCachePageId( toId( pageRefs[0] ) );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        }
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
@@ -471,6 +543,28 @@ class PageList
         return false;
     }
 
+    /**
+     * Like {@link #tryEvict(long, EvictionEventOpportunity)}, but only evict the page if it is still bound to the file
+     * page given by the {@link #bindingKey(int, long) binding key}, once we have the exclusive lock.
+     */
+    boolean tryEvictIfBoundTo( long pageRef, long bindingKey, EvictionEventOpportunity evictionOpportunity )
+            throws IOException
+    {
+        if ( tryExclusiveLock( pageRef ) )
+        {
+            if ( isBoundTo( pageRef, bindingKey ) )
+            {
+                try ( EvictionEvent evictionEvent = evictionOpportunity.beginEviction() )
+                {
+                    evict( pageRef, evictionEvent );
+                    return true;
+                }
+            }
+            unlockExclusive( pageRef );
+        }
+        return false;
+    }
+
     private void evict( long pageRef, EvictionEvent evictionEvent ) throws IOException
     {
         long filePageId = getFilePageId( pageRef );
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A 2Q-style admission policy that makes the page cache resistant to large scans.
+ * <p>
+ * Pages that are faulted in for the first time are admitted on <em>probation</em>. Probationary pages are kept in a
+ * FIFO queue, and when that queue grows beyond its target size, the eviction algorithms will evict the oldest
+ * probationary pages before they start sweeping the clock over the rest of the cache. This means that a large scan
+ * will mostly just recycle its own pages, rather than evicting the hot working set.
+ * <p>
+ * Evicted pages are remembered in a <em>ghost list</em>, which only holds the identity of the file pages, and not
+ * their contents. If a page fault hits a page in the ghost list, then the page has been re-referenced shortly after
+ * it was evicted, and it is admitted directly into the main part of the cache instead of going on probation.
+ * <p>
+ * Both the probation queue and the ghost list are lossy. Concurrent producers may overwrite each others entries, and
+ * entries may go stale when pages are evicted by the clock, or bound to other file pages. Every entry is therefore
+ * validated against the page binding, while holding the exclusive lock, before anything is evicted. A lost entry
+ * just means that the given page will be handled by the normal clock sweep instead.
+ */
+final class ScanResistance
+{
+    // The percentage of the cache pages that can be on probation, before probationary pages are preferred for eviction.
+    private static final int probationPercentage = getInteger( ScanResistance.class, "probationPercentage", 25 );
+    // The size of the ghost list, as a percentage of the number of cache pages.
+    private static final int ghostPercentage = getInteger( ScanResistance.class, "ghostPercentage", 50 );
+
+    private static final long NO_KEY = 0;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final int probationTarget;
+    private final int probationMask;
+    private final AtomicIntegerArray probationPageIds;
+    private final AtomicLongArray probationKeys;
+    private final AtomicLong probationHead = new AtomicLong();
+    private final AtomicLong probationTail = new AtomicLong();
+
+    private final int ghostShift;
+    private final AtomicLongArray ghosts;
+
+    ScanResistance( int pageCount )
+    {
+        probationTarget = (int) Math.max( 1, (long) pageCount * probationPercentage / 100 );
+        int probationCapacity = ceilingPowerOfTwo( probationTarget + 1 );
+        probationMask = probationCapacity - 1;
+        probationPageIds = new AtomicIntegerArray( probationCapacity );
+        probationKeys = new AtomicLongArray( probationCapacity );
+
+        int ghostCapacity = ceilingPowerOfTwo( (int) Math.max( 2, (long) pageCount * ghostPercentage / 100 ) );
+        ghostShift = Long.SIZE - Integer.numberOfTrailingZeros( ghostCapacity );
+        ghosts = new AtomicLongArray( ghostCapacity );
+    }
+
+    private static int ceilingPowerOfTwo( int value )
+    {
+        int powerOfTwo = Integer.highestOneBit( value );
+        return powerOfTwo == value ? value : Math.min( powerOfTwo << 1, 1 << 30 );
+    }
+
+    /**
+     * Decide how a freshly faulted page is admitted into the cache. The page must be exclusively locked, and bound.
+     *
+     * @param pageId The id of the cache page that was faulted into.
+     * @param bindingKey The {@link PageList#bindingKey(int, long) binding key} of the faulted file page.
+     * @return {@code true} if the file page was found in the ghost list, and is therefore admitted directly to the main
+     * part of the cache, or {@code false} if the page was put on probation.
+     */
+    boolean admit( int pageId, long bindingKey )
+    {
+        if ( removeGhost( bindingKey ) )
+        {
+            return true;
+        }
+        long sequence = probationTail.getAndIncrement();
+        int index = (int) (sequence & probationMask);
+        probationKeys.set( index, bindingKey );
+        probationPageIds.set( index, pageId );
+        return false;
+    }
+
+    /**
+     * Evict the oldest probationary page, if the probation queue has grown beyond its target size.
+     * The evicted page is added to the ghost list.
+     *
+     * @return The page ref of the evicted page, which is still exclusively locked, or zero if no page was evicted.
+     */
+    long evictProbationaryPage( PageList pages, EvictionEventOpportunity evictionOpportunity ) throws IOException
+    {
+        for (;;)
+        {
+            long head = probationHead.get();
+            long size = probationTail.get() - head;
+            if ( size <= probationTarget )
+            {
+                return 0;
+            }
+            if ( size > probationMask + 1 )
+            {
+                // The producers have lapped us, so the oldest entries have been overwritten.
+                probationHead.compareAndSet( head, head + size - probationMask - 1 );
+                continue;
+            }
+            int index = (int) (head & probationMask);
+            int pageId = probationPageIds.get( index );
+            long bindingKey = probationKeys.get( index );
+            if ( probationHead.compareAndSet( head, head + 1 ) && bindingKey != NO_KEY )
+            {
+                long pageRef = pages.deref( pageId );
+                if ( pages.tryEvictIfBoundTo( pageRef, bindingKey, evictionOpportunity ) )
+                {
+                    addGhost( bindingKey );
+                    return pageRef;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remember that the file page with the given binding key was recently evicted.
+     */
+    void addGhost( long bindingKey )
+    {
+        if ( bindingKey != NO_KEY )
+        {
+            ghosts.lazySet( ghostIndex( bindingKey ), bindingKey );
+        }
+    }
+
+    private boolean removeGhost( long bindingKey )
+    {
+        int index = ghostIndex( bindingKey );
+        return ghosts.get( index ) == bindingKey && ghosts.compareAndSet( index, bindingKey, NO_KEY );
+    }
+
+    private int ghostIndex( long bindingKey )
+    {
+        return (int) ((bindingKey * GOLDEN_RATIO) >>> ghostShift);
+    }
+}
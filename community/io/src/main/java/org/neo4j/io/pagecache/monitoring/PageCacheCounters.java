@@ -80,6 +80,32 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of pages that have been faulted into scan resistant files, and admitted on probation.
+     */
+    long probationaryAdmissions();
+
+    /**
+     * @return The number of pages that have been faulted into scan resistant files, and admitted directly to the main
+     * part of the cache, because they were re-referenced shortly after having been evicted.
+     */
+    long ghostHits();
+
+    /**
+     * @return The number of pages that have been faulted in ahead of sequential page cursors.
+     */
+    long readAheadPages();
+
+    /**
+     * @return The number of read-ahead pages that were subsequently pinned by the cursor that read them.
+     */
+    long readAheadHits();
+
+    /**
+     * @return The number of read-ahead pages that were never pinned by the cursor that read them.
+     */
+    long readAheadWaste();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
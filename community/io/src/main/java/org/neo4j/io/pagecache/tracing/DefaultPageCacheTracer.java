@@ -43,6 +43,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder probationaryAdmissions = new LongAdder();
+    protected final LongAdder ghostHits = new LongAdder();
+    protected final LongAdder readAheadPages = new LongAdder();
+    protected final LongAdder readAheadHits = new LongAdder();
+    protected final LongAdder readAheadWaste = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
@@ -233,6 +238,36 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long probationaryAdmissions()
+    {
+        return probationaryAdmissions.sum();
+    }
+
+    @Override
+    public long ghostHits()
+    {
+        return ghostHits.sum();
+    }
+
+    @Override
+    public long readAheadPages()
+    {
+        return readAheadPages.sum();
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return readAheadHits.sum();
+    }
+
+    @Override
+    public long readAheadWaste()
+    {
+        return readAheadWaste.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -299,6 +334,36 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.flushes.add( flushes );
     }
 
+    @Override
+    public void probationaryAdmissions( long probationaryAdmissions )
+    {
+        this.probationaryAdmissions.add( probationaryAdmissions );
+    }
+
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+        this.ghostHits.add( ghostHits );
+    }
+
+    @Override
+    public void readAheadPages( long readAheadPages )
+    {
+        this.readAheadPages.add( readAheadPages );
+    }
+
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+        this.readAheadHits.add( readAheadHits );
+    }
+
+    @Override
+    public void readAheadWaste( long readAheadWaste )
+    {
+        this.readAheadWaste.add( readAheadWaste );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
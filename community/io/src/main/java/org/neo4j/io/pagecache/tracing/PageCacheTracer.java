@@ -130,6 +130,36 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long probationaryAdmissions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long ghostHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadWaste()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -187,6 +217,31 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void probationaryAdmissions( long probationaryAdmissions )
+        {
+        }
+
+        @Override
+        public void ghostHits( long ghostHits )
+        {
+        }
+
+        @Override
+        public void readAheadPages( long readAheadPages )
+        {
+        }
+
+        @Override
+        public void readAheadHits( long readAheadHits )
+        {
+        }
+
+        @Override
+        public void readAheadWaste( long readAheadWaste )
+        {
+        }
+
         @Override
         public void maxPages( long maxPages )
         {
@@ -282,6 +337,36 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void flushes( long flushes );
 
+    /**
+     * Report number of pages admitted on probation by the scan resistant admission policy
+     * @param probationaryAdmissions number of probationary admissions
+     */
+    void probationaryAdmissions( long probationaryAdmissions );
+
+    /**
+     * Report number of page faults that hit the ghost list of the scan resistant admission policy
+     * @param ghostHits number of ghost hits
+     */
+    void ghostHits( long ghostHits );
+
+    /**
+     * Report number of pages that were read ahead of sequential page cursors
+     * @param readAheadPages number of pages read ahead
+     */
+    void readAheadPages( long readAheadPages );
+
+    /**
+     * Report number of read-ahead pages that were pinned by the cursor that read them
+     * @param readAheadHits number of read-ahead hits
+     */
+    void readAheadHits( long readAheadHits );
+
+    /**
+     * Report number of read-ahead pages that were not pinned by the cursor that read them
+     * @param readAheadWaste number of wasted read-ahead pages
+     */
+    void readAheadWaste( long readAheadWaste );
+
     /**
      * Sets the number of available pages.
      * @param maxPages the total number of available pages.
@@ -100,6 +100,21 @@ public class AdversarialPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public void prefetch( long startPageId, int pageCount ) throws IOException
+    {
+        adversary.injectFailure( FileNotFoundException.class, IOException.class, SecurityException.class,
+                IllegalStateException.class );
+        delegate.prefetch( startPageId, pageCount );
+    }
+
+    @Override
+    public void visitPageHeat( PageHeatVisitor visitor ) throws IOException
+    {
+        adversary.injectFailure( IllegalStateException.class );
+        delegate.visitPageHeat( visitor );
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -170,4 +170,54 @@ class MemoryAllocatorTest
         allocator.close();
         assertEquals( 0, memoryTracker.usedDirectMemory() );
     }
+
+    @Test
+    void hugePageAllocatorMustAlignGrabsToHugePages()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        MemoryAllocator mman = MemoryAllocator.createHugePageAllocator( "64m", memoryTracker );
+        try
+        {
+            // Each grab is aligned to a huge page, and the first allocation in a grab lands right at its start.
+            long grabSize = GrabAllocator.HUGE_PAGE_GRAB_SIZE;
+            long first = mman.allocateAligned( 1, 1 );
+            assertThat( first % GrabAllocator.HUGE_PAGE_SIZE, is( 0L ) );
+            mman.allocateAligned( grabSize - 1, 1 );
+            long second = mman.allocateAligned( PageCache.PAGE_SIZE, UnsafeUtil.pageSize() );
+            assertThat( second % GrabAllocator.HUGE_PAGE_SIZE, is( 0L ) );
+            assertThat( mman.usedMemory(), is( grabSize + PageCache.PAGE_SIZE ) );
+        }
+        finally
+        {
+            mman.close();
+        }
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+
+    @Test
+    void hugePageAllocatorMustRoundGrabsToHugePages()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        long hugePage = GrabAllocator.HUGE_PAGE_SIZE;
+        MemoryAllocator mman = MemoryAllocator.createHugePageAllocator( "3m", memoryTracker );
+        try
+        {
+            // The grab limited by the expected memory is rounded up to whole huge pages, plus padding to align it.
+            mman.allocateAligned( 1, 1 );
+            long lastGrab = 2 * hugePage + hugePage - 1;
+            assertEquals( lastGrab, memoryTracker.usedDirectMemory() );
+
+            // So is a huge allocation, that gets its own grab.
+            long hugeAllocation = GrabAllocator.HUGE_PAGE_GRAB_SIZE + 1;
+            long address = mman.allocateAligned( hugeAllocation, 1 );
+            assertThat( address % hugePage, is( 0L ) );
+            long hugeGrab = GrabAllocator.HUGE_PAGE_GRAB_SIZE + hugePage + hugePage - 1;
+            assertEquals( lastGrab + hugeGrab, memoryTracker.usedDirectMemory() );
+        }
+        finally
+        {
+            mman.close();
+        }
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
 }
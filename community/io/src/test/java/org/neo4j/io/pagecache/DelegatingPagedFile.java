@@ -49,6 +49,18 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public void prefetch( long startPageId, int pageCount ) throws IOException
+    {
+        delegate.prefetch( startPageId, pageCount );
+    }
+
+    @Override
+    public void visitPageHeat( PageHeatVisitor visitor ) throws IOException
+    {
+        delegate.visitPageHeat( visitor );
+    }
+
     @Override
     public int pageSize()
     {
@@ -85,6 +85,16 @@ public class StubPagedFile implements PagedFile
         return lastPageId;
     }
 
+    @Override
+    public void prefetch( long startPageId, int pageCount )
+    {
+    }
+
+    @Override
+    public void visitPageHeat( PageHeatVisitor visitor )
+    {
+    }
+
     @Override
     public void close()
     {
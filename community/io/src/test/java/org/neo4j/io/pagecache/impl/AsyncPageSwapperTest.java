@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+public class AsyncPageSwapperTest extends SingleFilePageSwapperTest
+{
+    private final List<AsyncPageSwapperFactory> factories = new ArrayList<>();
+
+    @AfterEach
+    void closeFactories()
+    {
+        factories.forEach( AsyncPageSwapperFactory::close );
+        factories.clear();
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        AsyncPageSwapperFactory factory = new AsyncPageSwapperFactory();
+        factory.open( getFs(), Configuration.EMPTY );
+        factories.add( factory );
+        return factory;
+    }
+}
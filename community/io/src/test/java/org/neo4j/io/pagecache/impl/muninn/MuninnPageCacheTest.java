@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
@@ -59,14 +60,18 @@ import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 
 import static java.time.Duration.ofMillis;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
@@ -711,6 +716,217 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void mustPinPagesReadAheadWhenHintedCursorScansSequentially() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File file = file( "a" );
+            writePageIdsTo( file, 50 );
+            try ( PagedFile pagedFile = pageCache.map( file, filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                for ( long pageId = 0; pageId < 50; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( pageId, cursor.getCurrentPageId() );
+                    assertEquals( pageId, readLong( cursor ) );
+                }
+                assertFalse( cursor.next() );
+            }
+        }
+        assertThat( tracer.readAheadPages(), greaterThan( 0L ) );
+        assertEquals( tracer.readAheadPages(), tracer.readAheadHits() );
+        assertEquals( 0, tracer.readAheadWaste() );
+    }
+
+    @Test
+    void mustReadAheadFromFirstPageFaultWithReadAheadHint() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File file = file( "a" );
+            writePageIdsTo( file, 50 );
+            try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 10, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( 10, readLong( cursor ) );
+                }
+                long readAheadPages = tracer.readAheadPages();
+                assertThat( readAheadPages, greaterThan( 0L ) );
+                assertEquals( readAheadPages, tracer.readAheadWaste() );
+
+                // The pages that were read ahead, must now be in the cache with the right contents.
+                try ( PageCursor cursor = pagedFile.io( 11, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+                {
+                    for ( long pageId = 11; pageId <= 10 + readAheadPages; pageId++ )
+                    {
+                        assertTrue( cursor.next() );
+                        assertEquals( pageId, cursor.getCurrentPageId() );
+                        assertEquals( pageId, readLong( cursor ) );
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void mustNotReadAheadWithoutReadAheadHintByDefault() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File file = file( "a" );
+            writePageIdsTo( file, 50 );
+            try ( PagedFile pagedFile = pageCache.map( file, filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId = 0; pageId < 50; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( pageId, readLong( cursor ) );
+                }
+            }
+        }
+        assertEquals( 0, tracer.readAheadPages() );
+    }
+
+    @Test
+    void mustNotReadAheadWhenCursorAccessesPagesRandomly() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File file = file( "a" );
+            writePageIdsTo( file, 50 );
+            try ( PagedFile pagedFile = pageCache.map( file, filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId = 0; pageId < 50; pageId += 2 )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    assertEquals( pageId, readLong( cursor ) );
+                }
+            }
+        }
+        assertEquals( 0, tracer.readAheadPages() );
+    }
+
+    @Test
+    void mustNotEvictPagesOfPartitionsWithinTheirReservation() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File hotFile = file( "hot" );
+            File coldFile = file( "cold" );
+            PageCachePartition partition = new PageCachePartition( "hot", hotFile::equals, 25, 100 );
+            pageCache.addPartition( partition );
+            assertEquals( 5, partition.reservedPages() );
+            writePageIdsTo( hotFile, 4 );
+            writePageIdsTo( coldFile, 100 );
+
+            try ( PagedFile hot = pageCache.map( hotFile, filePageSize );
+                  PagedFile cold = pageCache.map( coldFile, filePageSize ) )
+            {
+                readPages( hot, 4 );
+                assertEquals( 4, partition.residentPages() );
+                readPages( cold, 100 );
+
+                long faults = tracer.faults() + tracer.readAheadPages();
+                readPages( hot, 4 );
+                assertEquals( faults, tracer.faults() + tracer.readAheadPages() );
+            }
+            assertEquals( 0, partition.residentPages() );
+        }
+    }
+
+    @Test
+    void mustNotAllowPartitionsToReserveTheWholePageCache() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL,
+                DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            pageCache.addPartition( new PageCachePartition( "a", file -> true, 60, 100 ) );
+            assertThrows( IllegalArgumentException.class,
+                    () -> pageCache.addPartition( new PageCachePartition( "b", file -> true, 40, 100 ) ) );
+            assertEquals( 1, pageCache.partitions().size() );
+        }
+    }
+
+    @Test
+    void prefetchMustLoadExactlyTheGivenRunOfPages() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, tracer, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File file = file( "a" );
+            writePageIdsTo( file, 50 );
+            try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+            {
+                pagedFile.prefetch( 10, 5 );
+                // The first page is faulted, and the rest of the run is read ahead along with it.
+                assertEquals( 4, tracer.readAheadPages() );
+
+                List<Long> pageIds = new ArrayList<>();
+                pagedFile.visitPageHeat( ( filePageId, heat ) -> pageIds.add( filePageId ) );
+                assertEquals( Arrays.asList( 10L, 11L, 12L, 13L, 14L ), pageIds );
+            }
+        }
+    }
+
+    @Test
+    void visitPageHeatMustReportPagesInMemoryByUsage() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL,
+                DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            File file = file( "a" );
+            writePageIdsTo( file, 10 );
+            try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 2, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                for ( int i = 0; i < PagedFile.MAX_PAGE_HEAT; i++ )
+                {
+                    try ( PageCursor cursor = pagedFile.io( 7, PF_SHARED_READ_LOCK ) )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                }
+                List<Long> pageIds = new ArrayList<>();
+                List<Integer> heats = new ArrayList<>();
+                pagedFile.visitPageHeat( ( filePageId, heat ) ->
+                {
+                    pageIds.add( filePageId );
+                    heats.add( heat );
+                } );
+                assertEquals( Arrays.asList( 2L, 7L ), pageIds );
+                assertThat( heats.get( 0 ), greaterThan( 0 ) );
+                assertEquals( PagedFile.MAX_PAGE_HEAT, (int) heats.get( 1 ) );
+                assertThat( heats.get( 1 ), greaterThan( heats.get( 0 ) ) );
+            }
+        }
+    }
+
+    private static void readPages( PagedFile pagedFile, int pageCount ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( pageId, readLong( cursor ) );
+            }
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -766,6 +982,31 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    private void writePageIdsTo( File file, int pageCount ) throws IOException
+    {
+        try ( StoreChannel channel = fs.create( file ) )
+        {
+            ByteBuffer buf = ByteBuffer.allocate( filePageSize );
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                buf.clear();
+                buf.putLong( 0, pageId );
+                channel.writeAll( buf );
+            }
+        }
+    }
+
+    private static long readLong( PageCursor cursor ) throws IOException
+    {
+        long value;
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+
     private ByteBuffer readIntoBuffer( String fileName ) throws IOException
     {
         ByteBuffer buffer = ByteBuffer.allocate( 16 );
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.tracing.DummyPageSwapper;
+import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanResistanceTest
+{
+    private static final int PAGE_COUNT = 8; // Gives a probation target of 2 pages.
+
+    private PageList pages;
+    private int swapperId;
+    private ScanResistance scanResistance;
+
+    @BeforeEach
+    void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "1 MiB", GlobalMemoryTracker.INSTANCE );
+        SwapperSet swappers = new SwapperSet();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, GlobalMemoryTracker.INSTANCE );
+        pages = new PageList( PAGE_COUNT, pageSize, mman, swappers, victimPage, Long.BYTES );
+        swapperId = swappers.allocate( new DummyPageSwapper( "file", pageSize ) );
+        scanResistance = new ScanResistance( PAGE_COUNT );
+    }
+
+    @Test
+    void mustNotEvictProbationaryPagesWhileProbationIsWithinTarget() throws Exception
+    {
+        faultAndAdmit( 0, 10 );
+        faultAndAdmit( 1, 11 );
+
+        assertEquals( 0, scanResistance.evictProbationaryPage( pages, EvictionRunEvent.NULL ) );
+        assertTrue( pages.isBoundTo( pages.deref( 0 ), swapperId, 10 ) );
+        assertTrue( pages.isBoundTo( pages.deref( 1 ), swapperId, 11 ) );
+    }
+
+    @Test
+    void mustEvictOldestProbationaryPagesFirst() throws Exception
+    {
+        faultAndAdmit( 0, 10 );
+        faultAndAdmit( 1, 11 );
+        faultAndAdmit( 2, 12 );
+        faultAndAdmit( 3, 13 );
+
+        assertEvicted( 0 );
+        assertEvicted( 1 );
+        assertEquals( 0, scanResistance.evictProbationaryPage( pages, EvictionRunEvent.NULL ) );
+    }
+
+    @Test
+    void mustAdmitRecentlyEvictedPagesDirectlyToMainCache() throws Exception
+    {
+        faultAndAdmit( 0, 10 );
+        faultAndAdmit( 1, 11 );
+        faultAndAdmit( 2, 12 );
+        assertEvicted( 0 );
+
+        assertTrue( scanResistance.admit( 4, PageList.bindingKey( swapperId, 10 ) ) );
+        // The ghost is consumed by the admission.
+        assertFalse( scanResistance.admit( 5, PageList.bindingKey( swapperId, 10 ) ) );
+    }
+
+    @Test
+    void mustAdmitPagesOnProbationWhenTheyAreNotGhosts() throws Exception
+    {
+        scanResistance.addGhost( PageList.bindingKey( swapperId, 10 ) );
+        assertFalse( scanResistance.admit( 0, PageList.bindingKey( swapperId, 11 ) ) );
+    }
+
+    @Test
+    void mustSkipProbationaryPagesThatHaveBeenEvictedOrReboundSinceAdmission() throws Exception
+    {
+        faultAndAdmit( 0, 10 );
+        faultAndAdmit( 1, 11 );
+        faultAndAdmit( 2, 12 );
+        faultAndAdmit( 3, 13 );
+
+        // Page 0 gets evicted by someone else, and bound to another file page.
+        long pageRef = pages.deref( 0 );
+        assertTrue( pages.tryEvict( pageRef, EvictionRunEvent.NULL ) );
+        fault( 0, 20 );
+
+        assertEvicted( 1 );
+        assertTrue( pages.isBoundTo( pageRef, swapperId, 20 ) );
+    }
+
+    @Test
+    void mustSkipProbationaryPagesThatAreLocked() throws Exception
+    {
+        faultAndAdmit( 0, 10 );
+        faultAndAdmit( 1, 11 );
+        faultAndAdmit( 2, 12 );
+        faultAndAdmit( 3, 13 );
+
+        long pageRef = pages.deref( 0 );
+        assertTrue( pages.tryWriteLock( pageRef ) );
+        assertEvicted( 1 );
+        pages.unlockWrite( pageRef );
+        assertTrue( pages.isBoundTo( pageRef, swapperId, 10 ) );
+    }
+
+    private void assertEvicted( int pageId ) throws IOException
+    {
+        long pageRef = scanResistance.evictProbationaryPage( pages, EvictionRunEvent.NULL );
+        assertEquals( pages.deref( pageId ), pageRef );
+        assertFalse( pages.isLoaded( pageRef ) );
+        pages.unlockExclusive( pageRef );
+    }
+
+    private void faultAndAdmit( int pageId, long filePageId ) throws IOException
+    {
+        fault( pageId, filePageId );
+        assertFalse( scanResistance.admit( pageId, PageList.bindingKey( swapperId, filePageId ) ) );
+    }
+
+    private void fault( int pageId, long filePageId ) throws IOException
+    {
+        long pageRef = pages.deref( pageId );
+        // Pages are exclusively locked when the page list is created, and after they have been evicted.
+        pages.initBuffer( pageRef );
+        pages.fault( pageRef, new DummyPageSwapper( "file", pages.getCachePageSize() ), swapperId, filePageId,
+                PageFaultEvent.NULL );
+        pages.unlockExclusive( pageRef );
+    }
+}
@@ -121,6 +121,66 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.usageRatio();
     }
 
+    @Override
+    public long probationaryAdmissions()
+    {
+        return delegate.probationaryAdmissions();
+    }
+
+    @Override
+    public long ghostHits()
+    {
+        return delegate.ghostHits();
+    }
+
+    @Override
+    public long readAheadPages()
+    {
+        return delegate.readAheadPages();
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return delegate.readAheadHits();
+    }
+
+    @Override
+    public long readAheadWaste()
+    {
+        return delegate.readAheadWaste();
+    }
+
+    @Override
+    public void probationaryAdmissions( long probationaryAdmissions )
+    {
+        delegate.probationaryAdmissions( probationaryAdmissions );
+    }
+
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+        delegate.ghostHits( ghostHits );
+    }
+
+    @Override
+    public void readAheadPages( long readAheadPages )
+    {
+        delegate.readAheadPages( readAheadPages );
+    }
+
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+        delegate.readAheadHits( readAheadHits );
+    }
+
+    @Override
+    public void readAheadWaste( long readAheadWaste )
+    {
+        delegate.readAheadWaste( readAheadWaste );
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -161,6 +161,61 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0d;
     }
 
+    @Override
+    public long probationaryAdmissions()
+    {
+        return 0;
+    }
+
+    @Override
+    public long ghostHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadWaste()
+    {
+        return 0;
+    }
+
+    @Override
+    public void probationaryAdmissions( long probationaryAdmissions )
+    {
+    }
+
+    @Override
+    public void ghostHits( long ghostHits )
+    {
+    }
+
+    @Override
+    public void readAheadPages( long readAheadPages )
+    {
+    }
+
+    @Override
+    public void readAheadHits( long readAheadHits )
+    {
+    }
+
+    @Override
+    public void readAheadWaste( long readAheadWaste )
+    {
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -32,6 +32,15 @@ public interface NodeCursor extends Cursor
 
     void relationships( RelationshipGroupCursor cursor );
 
+    /**
+     * Like {@link #relationships(RelationshipGroupCursor)}, but only positions the group cursor on groups of the given
+     * types, which lets the store skip reading the groups of other types.
+     *
+     * @param cursor the group cursor to initialize.
+     * @param types the relationship types of the groups to visit, or {@code null} for all types.
+     */
+    void relationships( RelationshipGroupCursor cursor, int[] types );
+
     void allRelationships( RelationshipTraversalCursor relationships );
 
     void properties( PropertyCursor cursor );
@@ -43,4 +52,31 @@ public interface NodeCursor extends Cursor
     long propertiesReference();
 
     boolean isDense();
+
+    /**
+     * Counts the outgoing relationships, including loops, of the node where this cursor is positioned. For dense nodes
+     * this reads the degrees stored with the relationship groups instead of traversing the relationships.
+     *
+     * @param type the type of the relationships to count, or {@link Read#ANY_RELATIONSHIP_TYPE} to count all of them.
+     * @return the number of outgoing relationships of the given type.
+     */
+    int outgoingDegree( int type );
+
+    /**
+     * Counts the incoming relationships, including loops, of the node where this cursor is positioned.
+     *
+     * @param type the type of the relationships to count, or {@link Read#ANY_RELATIONSHIP_TYPE} to count all of them.
+     * @return the number of incoming relationships of the given type.
+     * @see #outgoingDegree(int)
+     */
+    int incomingDegree( int type );
+
+    /**
+     * Counts all relationships of the node where this cursor is positioned, where each loop is counted once.
+     *
+     * @param type the type of the relationships to count, or {@link Read#ANY_RELATIONSHIP_TYPE} to count all of them.
+     * @return the number of relationships of the given type.
+     * @see #outgoingDegree(int)
+     */
+    int totalDegree( int type );
 }
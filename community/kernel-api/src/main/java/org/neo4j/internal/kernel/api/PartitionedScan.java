@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+
+/**
+ * A scan split into partitions, which together cover the same entries as the corresponding non-partitioned scan,
+ * each entry in exactly one partition. Partitions are reserved one at a time into a cursor, which then
+ * iterates over the entries of that partition. Different threads can reserve and iterate over partitions concurrently,
+ * as long as each uses its own cursor.
+ * <p>
+ * The scan is only valid while the statement it was created in is open.
+ *
+ * @param <CURSOR> type of cursor the partitions are read with.
+ */
+public interface PartitionedScan<CURSOR extends Cursor>
+{
+    /**
+     * @return the number of partitions in this scan, which may differ from the desired number of partitions.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Reserves the next partition of this scan, not yet reserved by any caller, and initializes the given {@code cursor} with it.
+     * Safe to call concurrently.
+     *
+     * @param cursor the cursor to iterate over the entries of the reserved partition with.
+     * @return {@code true} if a partition was reserved, or {@code false} if all partitions have already been reserved.
+     * @throws KernelException if the partition could not be read.
+     */
+    boolean reservePartition( CURSOR cursor ) throws KernelException;
+}
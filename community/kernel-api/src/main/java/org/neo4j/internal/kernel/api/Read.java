@@ -66,6 +66,20 @@ public interface Read
      */
     void nodeIndexScan( IndexReference index, NodeValueIndexCursor cursor, IndexOrder indexOrder, boolean needsValues ) throws KernelException;
 
+    /**
+     * Scan all values in an index, split into partitions which can be scanned in parallel,
+     * see {@link PartitionedScan}. Partitioned scans are only supported in transactions without changes.
+     *
+     * @param index {@link IndexReference} referencing index to scan.
+     * @param desiredNumberOfPartitions the number of partitions to split the scan into. This is only a hint,
+     * the actual number of partitions is decided by the index.
+     * @param needsValues if the index should fetch property values together with node ids for index queries
+     * @return a {@link PartitionedScan} over all values in the index.
+     * @throws IllegalStateException if the transaction has changes.
+     */
+    PartitionedScan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+            throws KernelException;
+
     void nodeLabelScan( int label, NodeLabelIndexCursor cursor );
 
     /**
@@ -202,7 +202,7 @@ public final class RelationshipSelections
         RelationshipTraversalCursor traversalCursor = cursors.allocateRelationshipTraversalCursor();
         try
         {
-            node.relationships( groupCursor );
+            node.relationships( groupCursor, types );
             denseSelection.outgoing( groupCursor, traversalCursor, types );
         }
         catch ( Throwable t )
@@ -221,7 +221,7 @@ public final class RelationshipSelections
         RelationshipTraversalCursor traversalCursor = cursors.allocateRelationshipTraversalCursor();
         try
         {
-            node.relationships( groupCursor );
+            node.relationships( groupCursor, types );
             denseSelection.incoming( groupCursor, traversalCursor, types );
         }
         catch ( Throwable t )
@@ -240,7 +240,7 @@ public final class RelationshipSelections
         RelationshipTraversalCursor traversalCursor = cursors.allocateRelationshipTraversalCursor();
         try
         {
-            node.relationships( groupCursor );
+            node.relationships( groupCursor, types );
             denseSelection.all( groupCursor, traversalCursor, types );
         }
         catch ( Throwable t )
@@ -58,4 +58,11 @@ public interface StorageRelationshipGroupCursor extends AutoCloseable
     long groupReference();
 
     void init( long nodeReference, long reference );
+
+    /**
+     * Like {@link #init(long, long)}, but only visits groups of the given relationship types.
+     *
+     * @param types relationship types of the groups to visit, or {@code null} for all types.
+     */
+    void init( long nodeReference, long reference, int[] types );
 }
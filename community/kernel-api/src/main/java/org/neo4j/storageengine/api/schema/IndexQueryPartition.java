@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api.schema;
+
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
+
+/**
+ * One partition of the result of an index query, see {@link IndexReader#partitionedQuery(int, boolean, IndexQuery...)}.
+ * Partitions of the same query can be progressed independently of each other, e.g. by different threads,
+ * but each single partition is meant to be initialized once and then progressed by one thread at a time.
+ */
+@FunctionalInterface
+public interface IndexQueryPartition
+{
+    /**
+     * Starts progressing this partition, by initializing the given {@code client} with a progressor over the entries
+     * of this partition, see {@link IndexProgressor.NodeValueClient#initialize(IndexDescriptor, IndexProgressor, IndexQuery[], boolean)}.
+     *
+     * @param client the client which will control the progression through the entries of this partition.
+     * @throws IndexNotApplicableKernelException if the query of this partition isn't applicable to the index.
+     */
+    void initialize( IndexProgressor.NodeValueClient client ) throws IndexNotApplicableKernelException;
+}
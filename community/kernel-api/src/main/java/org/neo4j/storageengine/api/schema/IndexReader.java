@@ -19,6 +19,9 @@
  */
 package org.neo4j.storageengine.api.schema;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.neo4j.collection.PrimitiveLongResourceCollections;
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.graphdb.Resource;
@@ -59,6 +62,25 @@ public interface IndexReader extends Resource
     void query( IndexProgressor.NodeValueClient client, IndexOrder indexOrder, boolean needsValues, IndexQuery... query )
             throws IndexNotApplicableKernelException;
 
+    /**
+     * Queries the index for the given {@link IndexQuery} predicates, splitting the result into partitions
+     * which can be progressed independently of each other, e.g. by different threads. Together the partitions
+     * cover the same entries as {@link #query(IndexProgressor.NodeValueClient, IndexOrder, boolean, IndexQuery...)}
+     * with {@link IndexOrder#NONE} would, each entry in exactly one of them.
+     * <p>
+     * The number of partitions is only a hint. Indexes that cannot be partitioned return a single partition.
+     *
+     * @param desiredNumberOfPartitions number of partitions to split the result into.
+     * @param needsValues if the index should fetch property values together with node ids for index queries
+     * @param query the query to serve.
+     * @return partitions of the query result.
+     */
+    default List<IndexQueryPartition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+            throws IndexNotApplicableKernelException
+    {
+        return Collections.singletonList( client -> query( client, IndexOrder.NONE, needsValues, query ) );
+    }
+
     /**
      * @param predicates query to determine whether or not index has full value precision for.
      * @return whether or not this reader will only return 100% matching results from {@link #query(IndexQuery...)}.
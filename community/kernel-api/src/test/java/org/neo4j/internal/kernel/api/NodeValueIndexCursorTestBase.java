@@ -36,6 +36,7 @@ import org.neo4j.values.storable.Values;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -592,6 +593,35 @@ public abstract class NodeValueIndexCursorTestBase<G extends KernelAPIReadTestSu
         }
     }
 
+    @Test
+    public void shouldPerformPartitionedIndexScan() throws Exception
+    {
+        // given
+        int label = token.nodeLabel( "Node" );
+        int prop = token.propertyKey( "prop" );
+        IndexReference index = schemaRead.index( label, prop );
+        try ( NodeValueIndexCursor node = cursors.allocateNodeValueIndexCursor() )
+        {
+            MutableLongSet uniqueIds = new LongHashSet();
+
+            // when
+            PartitionedScan<NodeValueIndexCursor> scan = read.nodeIndexScan( index, 4, false );
+            int count = 0;
+            while ( scan.reservePartition( node ) )
+            {
+                while ( node.next() )
+                {
+                    assertTrue( "duplicate node " + node.nodeReference(), uniqueIds.add( node.nodeReference() ) );
+                    count++;
+                }
+            }
+
+            // then
+            assertThat( scan.getNumberOfPartitions(), greaterThan( 0 ) );
+            assertEquals( TOTAL_NODE_COUNT, count );
+        }
+    }
+
     @Test
     public void shouldRespectOrderCapabilitiesForNumbers() throws Exception
     {
@@ -19,7 +19,9 @@
  */
 package org.neo4j.internal.kernel.api;
 
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.Test;
 
@@ -1075,6 +1077,160 @@ public abstract class RelationshipTransactionStateTestBase<G extends KernelAPIWr
         }
     }
 
+    @Test
+    public void shouldCountDegreesOfSparseNodeFromStoreAndTxState() throws Exception
+    {
+        assertDegrees( 1 );
+    }
+
+    @Test
+    public void shouldCountDegreesOfDenseNodeFromStoreAndTxState() throws Exception
+    {
+        assertDegrees( 100 );
+    }
+
+    private void assertDegrees( int count ) throws Exception
+    {
+        long start;
+        long removed;
+        int onlyInTx;
+        int stored;
+        int storedAndTx;
+        int unused;
+        try ( Transaction tx = beginTransaction() )
+        {
+            Write write = tx.dataWrite();
+            TokenWrite tokenWrite = tx.tokenWrite();
+            onlyInTx = tokenWrite.relationshipTypeGetOrCreateForName( "A" );
+            stored = tokenWrite.relationshipTypeGetOrCreateForName( "B" );
+            storedAndTx = tokenWrite.relationshipTypeGetOrCreateForName( "C" );
+            unused = tokenWrite.relationshipTypeGetOrCreateForName( "D" );
+            start = write.nodeCreate();
+            removed = write.relationshipCreate( start, stored, write.nodeCreate() );
+            for ( int i = 1; i < count; i++ )
+            {
+                write.relationshipCreate( start, stored, write.nodeCreate() );
+            }
+            for ( int i = 0; i < count; i++ )
+            {
+                write.relationshipCreate( write.nodeCreate(), stored, start );
+            }
+            write.relationshipCreate( start, storedAndTx, start );
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction();
+              NodeCursor node = tx.cursors().allocateNodeCursor() )
+        {
+            tx.dataRead().singleNode( start, node );
+            assertTrue( node.next() );
+            assertDegrees( node, onlyInTx, 0, 0, 0 );
+            assertDegrees( node, stored, count, count, 2 * count );
+            assertDegrees( node, storedAndTx, 1, 1, 1 );
+            assertDegrees( node, unused, 0, 0, 0 );
+            assertDegrees( node, Read.ANY_RELATIONSHIP_TYPE, count + 1, count + 1, 2 * count + 1 );
+        }
+
+        try ( Transaction tx = beginTransaction();
+              NodeCursor node = tx.cursors().allocateNodeCursor() )
+        {
+            Write write = tx.dataWrite();
+            write.relationshipCreate( start, onlyInTx, write.nodeCreate() );
+            write.relationshipCreate( start, storedAndTx, write.nodeCreate() );
+            write.relationshipDelete( removed );
+
+            tx.dataRead().singleNode( start, node );
+            assertTrue( node.next() );
+            assertDegrees( node, onlyInTx, 1, 0, 1 );
+            assertDegrees( node, stored, count - 1, count, 2 * count - 1 );
+            assertDegrees( node, storedAndTx, 2, 1, 2 );
+            assertDegrees( node, unused, 0, 0, 0 );
+            assertDegrees( node, Read.ANY_RELATIONSHIP_TYPE, count + 2, count + 1, 2 * count + 2 );
+        }
+    }
+
+    @Test
+    public void shouldOnlyVisitGroupsOfGivenTypesOfNodeWithManyTypes() throws Exception
+    {
+        int[] types = new int[100];
+        long[] relationships = new long[types.length];
+        long start;
+        try ( Transaction tx = beginTransaction() )
+        {
+            Write write = tx.dataWrite();
+            start = write.nodeCreate();
+            for ( int i = 0; i < types.length; i++ )
+            {
+                types[i] = tx.tokenWrite().relationshipTypeGetOrCreateForName( "R" + i );
+                relationships[i] = write.relationshipCreate( start, types[i], write.nodeCreate() );
+            }
+            tx.success();
+        }
+        int[] requested = {types[99], types[10], types[50]};
+
+        // the first rounds walk the groups of the node, later ones may find them without walking
+        for ( int round = 0; round < 3; round++ )
+        {
+            assertGroupTypes( start, requested, types[10], types[50], types[99] );
+        }
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            tx.dataWrite().relationshipDelete( relationships[50] );
+            tx.success();
+        }
+        for ( int round = 0; round < 3; round++ )
+        {
+            assertGroupTypes( start, requested, types[10], types[99] );
+        }
+
+        try ( Transaction tx = beginTransaction();
+              NodeCursor node = tx.cursors().allocateNodeCursor();
+              RelationshipGroupCursor group = tx.cursors().allocateRelationshipGroupCursor() )
+        {
+            Write write = tx.dataWrite();
+            write.relationshipCreate( start, types[50], write.nodeCreate() );
+            write.relationshipCreate( start, types[20], write.nodeCreate() );
+
+            tx.dataRead().singleNode( start, node );
+            assertTrue( node.next() );
+            node.relationships( group, requested );
+            assertGroupTypes( group, types[10], types[50], types[99] );
+            assertEquals( 1, node.outgoingDegree( types[50] ) );
+            assertEquals( 1, node.outgoingDegree( types[99] ) );
+        }
+    }
+
+    private void assertGroupTypes( long start, int[] requested, int... expected ) throws Exception
+    {
+        try ( Transaction tx = beginTransaction();
+              NodeCursor node = tx.cursors().allocateNodeCursor();
+              RelationshipGroupCursor group = tx.cursors().allocateRelationshipGroupCursor() )
+        {
+            tx.dataRead().singleNode( start, node );
+            assertTrue( node.next() );
+            node.relationships( group, requested );
+            assertGroupTypes( group, expected );
+        }
+    }
+
+    private static void assertGroupTypes( RelationshipGroupCursor group, int... expected )
+    {
+        MutableIntSet types = new IntHashSet();
+        while ( group.next() )
+        {
+            assertTrue( types.add( group.type() ) );
+        }
+        assertEquals( IntHashSet.newSetWith( expected ), types );
+    }
+
+    private static void assertDegrees( NodeCursor node, int type, int outgoing, int incoming, int total )
+    {
+        assertEquals( outgoing, node.outgoingDegree( type ) );
+        assertEquals( incoming, node.incomingDegree( type ) );
+        assertEquals( total, node.totalDegree( type ) );
+    }
+
     private void assertRelationships( RelationshipDirection direction, RelationshipGroupCursor group,
             RelationshipTraversalCursor traversal, long... relationships )
     {
@@ -106,6 +106,12 @@ public class StubNodeCursor implements NodeCursor
         ((StubGroupCursor) cursor).rewind();
     }
 
+    @Override
+    public void relationships( RelationshipGroupCursor cursor, int[] types )
+    {
+        relationships( cursor );
+    }
+
     @Override
     public void allRelationships( RelationshipTraversalCursor relationships )
     {
@@ -150,6 +156,24 @@ public class StubNodeCursor implements NodeCursor
         return dense;
     }
 
+    @Override
+    public int outgoingDegree( int type )
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
+    @Override
+    public int incomingDegree( int type )
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
+    @Override
+    public int totalDegree( int type )
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
     @Override
     public boolean next()
     {
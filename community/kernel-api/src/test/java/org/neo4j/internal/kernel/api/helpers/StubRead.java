@@ -25,6 +25,7 @@ import org.neo4j.internal.kernel.api.IndexReference;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
 import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
 import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.internal.kernel.api.RelationshipGroupCursor;
@@ -54,6 +55,12 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public PartitionedScan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void nodeLabelScan( int label, NodeLabelIndexCursor cursor )
     {
@@ -444,6 +444,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Duration> counts_store_rotation_timeout =
             setting( "unsupported.dbms.counts_store_rotation_timeout", DURATION, "10m" );
 
+    @Description( "Keep the counts store in a GB+Tree, where check points only write the counts that changed since " +
+            "the previous check point, instead of in key/value files which are rewritten as a whole on every " +
+            "rotation. Switching this setting rebuilds the counts store on next startup." )
+    @Internal
+    public static final Setting<Boolean> counts_store_gbptree =
+            setting( "unsupported.dbms.counts_store_gbptree_enabled", BOOLEAN, FALSE );
+
     @Description( "Minimum time interval after last rotation of the debug log before it may be rotated again." )
     public static final Setting<Duration> store_internal_log_rotation_delay =
             setting( "dbms.logs.debug.rotation.delay", DURATION, "300s" );
@@ -455,12 +462,15 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Description( "Configures the general policy for when check-points should occur. The default policy is the " +
                   "'periodic' check-point policy, as specified by the 'dbms.checkpoint.interval.tx' and " +
                   "'dbms.checkpoint.interval.time' settings. " +
-                  "The Neo4j Enterprise Edition provides two alternative policies: " +
+                  "The Neo4j Enterprise Edition provides three alternative policies: " +
                   "The first is the 'continuous' check-point policy, which will ignore those settings and run the " +
                   "check-point process all the time. " +
                   "The second is the 'volumetric' check-point policy, which makes a best-effort at check-pointing " +
                   "often enough so that the database doesn't get too far behind on deleting old transaction logs in " +
-                  "accordance with the 'dbms.tx_log.rotation.retention_policy' setting." )
+                  "accordance with the 'dbms.tx_log.rotation.retention_policy' setting. " +
+                  "The third is the 'adaptive' check-point policy, which runs the check-point process all the time, " +
+                  "like the 'continuous' policy, but continuously adjusts how much IO it may use, up to the " +
+                  "'dbms.checkpoint.iops.limit' setting, based on how long forcing the transaction log takes." )
     public static final Setting<String> check_point_policy = setting( "dbms.checkpoint", STRING, "periodic" );
 
     @Description( "Configures the transaction interval between check-points. The database will not check-point more " +
@@ -500,6 +510,19 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "Set this to -1 to disable the IOPS limit." )
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "300" );
 
+    @Internal
+    @Description( "With the 'adaptive' check-point policy, the check-pointer is given less IO while forcing the " +
+                  "transaction log takes longer than this, on average." )
+    public static final Setting<Duration> check_point_adaptive_log_force_latency_target =
+            setting( "unsupported.dbms.checkpoint.adaptive.log_force_latency_target", DURATION, "10ms" );
+
+    @Internal
+    @Description( "With the 'adaptive' check-point policy, the check-pointer isn't limited at all while the last " +
+                  "completed check-point started longer ago than this, since that is how far back in the transaction " +
+                  "log recovery would have to start." )
+    public static final Setting<Duration> check_point_adaptive_recovery_window_target =
+            setting( "unsupported.dbms.checkpoint.adaptive.recovery_window_target", DURATION, "5m" );
+
     // Auto Indexing
     @Description( "Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting." )
@@ -660,6 +683,63 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> logical_log_rotation_threshold =
             buildSetting( "dbms.tx_log.rotation.size", BYTES, "250M" ).constraint( min( ByteUnit.mebiBytes( 1 ) ) ).build();
 
+    @Internal
+    @Description( "Append transactions to the transaction log from a dedicated log writer thread. Committing " +
+                  "transactions are handed over to the writer, which appends and forces them in batches, instead of " +
+                  "competing with each other for appending and forcing the log. This can improve throughput when " +
+                  "there are many concurrent committers." )
+    public static final Setting<Boolean> tx_log_append_pipelined =
+            setting( "unsupported.dbms.tx_log.append.pipelined", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "The maximum time the transaction log writer waits for more transactions to arrive before " +
+                  "forcing the log, if fewer than `unsupported.dbms.tx_log.append.max_batch_size` transactions are " +
+                  "waiting. Waiting adds to the commit latency, but can reduce the number of forces. " +
+                  "Only used when `unsupported.dbms.tx_log.append.pipelined` is enabled." )
+    public static final Setting<Duration> tx_log_append_max_batch_delay =
+            setting( "unsupported.dbms.tx_log.append.max_batch_delay", DURATION, "0ms" );
+
+    @Internal
+    @Description( "The maximum number of transactions the transaction log writer appends to the log before " +
+                  "forcing it. Only used when `unsupported.dbms.tx_log.append.pipelined` is enabled." )
+    public static final Setting<Integer> tx_log_append_max_batch_size =
+            buildSetting( "unsupported.dbms.tx_log.append.max_batch_size", INTEGER, "1000" ).constraint( min( 1 ) ).build();
+
+    @Internal
+    @Description( "Compress the commands of each transaction appended to the transaction log, when that makes " +
+                  "them smaller. Transaction logs written with this enabled can't be read by earlier versions." )
+    public static final Setting<Boolean> tx_log_compression =
+            setting( "unsupported.dbms.tx_log.compression", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "Read transactions from rotated transaction log files through memory mapping them, instead of " +
+                  "copying their contents through a read buffer. Used for recovery, catchup and backup." )
+    public static final Setting<Boolean> tx_log_memory_mapped_reads =
+            setting( "unsupported.dbms.tx_log.read.memory_mapped", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "Apply committed transactions to the stores and indexes using a shared thread pool. The counts " +
+                  "store is updated concurrently with the record stores, and the label scan store and each schema " +
+                  "index are updated concurrently with each other. This can reduce commit latency for write heavy " +
+                  "workloads with many indexes." )
+    public static final Setting<Boolean> parallel_transaction_apply =
+            setting( "unsupported.dbms.tx_apply.parallel", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "Recover transactions using multiple threads. The transaction log is decoded ahead of application " +
+                  "on a separate thread, recovered transactions are applied in batches, the commands of each " +
+                  "transaction are applied to the different record stores concurrently, and each schema index is " +
+                  "updated concurrently with the others. Transactions that change the schema or create tokens are " +
+                  "always applied on their own." )
+    public static final Setting<Boolean> parallel_recovery =
+            setting( "unsupported.dbms.recovery.parallel", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "The maximum number of recovered transactions applied together in one batch. " +
+                  "Only used when `unsupported.dbms.recovery.parallel` is enabled." )
+    public static final Setting<Integer> parallel_recovery_batch_size =
+            buildSetting( "unsupported.dbms.recovery.parallel.batch_size", INTEGER, "100" ).constraint( min( 1 ) ).build();
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
@@ -672,6 +752,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Boolean> rebuild_idgenerators_fast =
             setting( "unsupported.dbms.id_generator_fast_rebuild_enabled", BOOLEAN, TRUE );
 
+    @Description( "Use id generators that hand out ids without synchronizing, by reserving small ranges of new ids " +
+            "per thread and keeping free ids in a lock-free pool. Helps workloads where many threads create " +
+            "nodes and relationships concurrently." )
+    @Internal
+    public static final Setting<Boolean> concurrent_id_generators =
+            setting( "unsupported.dbms.id_generator_concurrent_enabled", BOOLEAN, FALSE );
+
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
     @Internal
@@ -701,11 +788,49 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> pagecache_memory =
             buildSetting( "dbms.memory.pagecache.size", STRING, null ).build();
 
-    @Description( "Specify which page swapper to use for doing paged IO. " +
-                  "This is only used when integrating with proprietary storage technology." )
+    @Internal
+    @Description( "Allocate the page cache memory in regions that are aligned to, and sized in multiples of, the " +
+                  "2 MiB huge page size. This allows the operating system to back the page cache with transparent " +
+                  "huge pages, which reduces TLB misses when the page cache is large. Transparent huge pages must be " +
+                  "enabled in the operating system for this to have any effect." )
+    public static final Setting<Boolean> pagecache_huge_pages =
+            setting( "unsupported.dbms.memory.pagecache.huge_pages", BOOLEAN, FALSE );
+
+    @Description( "Specify which page swapper to use for doing paged IO. The `async` page swapper spreads batched " +
+                  "page IO over a pool of IO threads, which can improve throughput on devices that benefit from deep " +
+                  "IO queues, such as NVMe drives. Other page swappers are only used when integrating with " +
+                  "proprietary storage technology." )
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, null );
 
+    @Description( "The percentage of the page cache that is reserved for index files, such as the native schema " +
+                  "indexes, the label scan store and the counts store. The pages of index files are protected from " +
+                  "eviction, for as long as the index files use no more than this share of the page cache." )
+    public static final Setting<Integer> pagecache_indexes_reserved =
+            buildSetting( "dbms.memory.pagecache.partition.indexes.reserved", INTEGER, "0" )
+                    .constraint( range( 0, 99 ) ).build();
+
+    @Description( "The maximum percentage of the page cache that index files, such as the native schema indexes, " +
+                  "the label scan store and the counts store, should use. When index files use more than this share " +
+                  "of the page cache, their pages are evicted before other pages." )
+    public static final Setting<Integer> pagecache_indexes_max =
+            buildSetting( "dbms.memory.pagecache.partition.indexes.max", INTEGER, "100" )
+                    .constraint( range( 0, 100 ) ).build();
+
+    @Description( "The percentage of the page cache that is reserved for the record store files, such as the node, " +
+                  "relationship and property stores. The pages of record store files are protected from eviction, " +
+                  "for as long as the record store files use no more than this share of the page cache." )
+    public static final Setting<Integer> pagecache_record_stores_reserved =
+            buildSetting( "dbms.memory.pagecache.partition.record_stores.reserved", INTEGER, "0" )
+                    .constraint( range( 0, 99 ) ).build();
+
+    @Description( "The maximum percentage of the page cache that record store files, such as the node, relationship " +
+                  "and property stores, should use. When record store files use more than this share of the page " +
+                  "cache, their pages are evicted before other pages." )
+    public static final Setting<Integer> pagecache_record_stores_max =
+            buildSetting( "dbms.memory.pagecache.partition.record_stores.max", INTEGER, "100" )
+                    .constraint( range( 0, 100 ) ).build();
+
     @Internal
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
                   "warmup after a restart, reducing the mean time to performance. " +
@@ -720,6 +845,23 @@ public class GraphDatabaseSettings implements LoadableConfig
             "This feature available in Neo4j Enterprise Edition." )
     public static final Setting<Boolean> pagecache_warmup_enabled = setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, TRUE );
 
+    @Internal
+    @Description( "The maximum time the page cache warmup may take, after which it stops even if not all profiled " +
+                  "pages have been loaded. The warmup loads the hottest pages first, so stopping early still leaves " +
+                  "the most valuable pages in the cache. Zero means that there is no time limit. " +
+                  "This feature available in Neo4j Enterprise Edition." )
+    public static final Setting<Duration> pagecache_warmup_budget_time =
+            setting( "unsupported.dbms.memory.pagecache.warmup.budget.time", DURATION, "0s" );
+
+    @Internal
+    @Description( "The maximum number of pages the page cache warmup may load, after which it stops even if not all " +
+                  "profiled pages have been loaded. The warmup loads the hottest pages first, so stopping early still " +
+                  "leaves the most valuable pages in the cache. Zero means that there is no page limit. " +
+                  "This feature available in Neo4j Enterprise Edition." )
+    public static final Setting<Long> pagecache_warmup_budget_pages =
+            buildSetting( "unsupported.dbms.memory.pagecache.warmup.budget.pages", LONG, "0" )
+                    .constraint( min( 0L ) ).build();
+
     @Description( "Allows the enabling or disabling of the file watcher service." +
             " This is an auxiliary service but should be left enabled in almost all cases." )
     public static final Setting<Boolean> filewatcher_enabled = setting( "dbms.filewatcher.enabled", BOOLEAN, TRUE );
@@ -785,6 +927,12 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> dense_node_threshold =
             buildSetting( "dbms.relationship_grouping_threshold", INTEGER, "50" ).constraint( min( 1 ) ).build();
 
+    @Description( "Number of relationship types a dense node must have for its relationship groups to be looked up through an " +
+            "in-memory directory, instead of by walking all the groups of the node. 0 disables the directory." )
+    @Internal
+    public static final Setting<Integer> relationship_group_directory_min_types =
+            buildSetting( "unsupported.dbms.relationship_group_directory_min_types", INTEGER, "64" ).constraint( min( 0 ) ).build();
+
     @Description( "Log executed queries that take longer than the configured threshold, dbms.logs.query.threshold. " +
             "Log entries are by default written to the file _query.log_ located in the Logs directory. " +
             "For location of the Logs directory, see <<file-locations>>. " +
@@ -1027,6 +1175,24 @@ public class GraphDatabaseSettings implements LoadableConfig
             options( TransactionStateMemoryAllocation.class, true ),
             TransactionStateMemoryAllocation.ON_HEAP.name() ).build();
 
+    @Internal
+    @Description( "[Experimental] Max amount of off-heap memory that transaction state of all transactions together may allocate, " +
+            "including freed blocks kept around for reuse, or 0 for unlimited. Only applies when transaction state is allocated off-heap." )
+    public static final Setting<Long> tx_state_max_off_heap_memory = buildSetting(
+            "unsupported.dbms.tx_state.max_off_heap_memory", BYTES, "0" ).constraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "[Experimental] Max amount of off-heap memory that transaction state of a single transaction may allocate, " +
+            "or 0 for unlimited. Only applies when transaction state is allocated off-heap." )
+    public static final Setting<Long> tx_state_max_transaction_off_heap_memory = buildSetting(
+            "unsupported.dbms.tx_state.max_transaction_off_heap_memory", BYTES, "0" ).constraint( min( 0L ) ).build();
+
+    @Internal
+    @Description( "[Experimental] Directory where the largest parts of off-heap transaction state are spilled, " +
+            "when allocating them would exceed the off-heap memory limits." )
+    public static final Setting<File> tx_state_spill_directory = derivedSetting( "unsupported.dbms.tx_state.spill_directory",
+            data_directory, data -> new File( data, "tx-state" ), PATH );
+
     // Needed to validate config, accessed via reflection
     @SuppressWarnings( "unused" )
     public static final HttpConnectorValidator httpValidator = new HttpConnectorValidator();
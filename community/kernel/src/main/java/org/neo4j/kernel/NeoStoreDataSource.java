@@ -95,11 +95,13 @@ import org.neo4j.kernel.impl.storemigration.participant.StoreMigrator;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.LogForceMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.LogVersionUpgradeChecker;
 import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.PipelinedTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
@@ -141,6 +143,7 @@ import org.neo4j.kernel.recovery.CorruptedLogsTruncator;
 import org.neo4j.kernel.recovery.DefaultRecoveryService;
 import org.neo4j.kernel.recovery.LogTailScanner;
 import org.neo4j.kernel.recovery.LoggingLogTailScannerMonitor;
+import org.neo4j.kernel.recovery.ParallelRecoveryService;
 import org.neo4j.kernel.recovery.Recovery;
 import org.neo4j.kernel.recovery.RecoveryMonitor;
 import org.neo4j.kernel.recovery.RecoveryService;
@@ -149,6 +152,7 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.resources.CpuClock;
 import org.neo4j.resources.HeapAllocation;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreFileMetadata;
@@ -517,12 +521,11 @@ public class NeoStoreDataSource extends LifecycleAdapter
         final LogRotation logRotation =
                 new LogRotationImpl( monitors.newMonitor( LogRotation.Monitor.class ), logFiles, databaseHealth );
 
-        final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
-                databaseHealth ) );
+        final TransactionAppender appender = life.add( createTransactionAppender( logFiles, logRotation,
+                transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors,
-                        failOnCorruptedLogFiles );
+                        failOnCorruptedLogFiles, config.get( GraphDatabaseSettings.tx_log_memory_mapped_reads ) );
 
         CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
 
@@ -541,6 +544,24 @@ public class NeoStoreDataSource extends LifecycleAdapter
                 logRotation, checkPointer, appender, explicitIndexTransactionOrdering );
     }
 
+    private BatchingTransactionAppender createTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            SynchronizedArrayIdOrderingQueue explicitIndexTransactionOrdering )
+    {
+        if ( config.get( GraphDatabaseSettings.tx_log_append_pipelined ) )
+        {
+            return new PipelinedTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore,
+                    explicitIndexTransactionOrdering, databaseHealth, scheduler.threadFactory( Group.TRANSACTION_LOG_WRITER ),
+                    config.get( GraphDatabaseSettings.tx_log_append_max_batch_delay ).toNanos(), TimeUnit.NANOSECONDS,
+                    config.get( GraphDatabaseSettings.tx_log_append_max_batch_size ),
+                    config.get( GraphDatabaseSettings.tx_log_compression ), monitors.newMonitor( LogForceMonitor.class ),
+                    monitors.newMonitor( PipelinedTransactionAppender.Monitor.class ) );
+        }
+        return new BatchingTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore,
+                explicitIndexTransactionOrdering, databaseHealth, config.get( GraphDatabaseSettings.tx_log_compression ),
+                monitors.newMonitor( LogForceMonitor.class ) );
+    }
+
     private void buildRecovery(
             final FileSystemAbstraction fileSystemAbstraction,
             TransactionIdStore transactionIdStore,
@@ -552,14 +573,31 @@ public class NeoStoreDataSource extends LifecycleAdapter
             LogicalTransactionStore logicalTransactionStore,
             LogVersionRepository logVersionRepository )
     {
-        RecoveryService recoveryService = new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                logicalTransactionStore, logVersionRepository, positionMonitor );
+        RecoveryService recoveryService = createRecoveryService( transactionIdStore, tailScanner, recoveryMonitor, positionMonitor,
+                storageEngine, logicalTransactionStore, logVersionRepository );
         CorruptedLogsTruncator logsTruncator = new CorruptedLogsTruncator( databaseLayout.databaseDirectory(), logFiles, fileSystemAbstraction );
         ProgressReporter progressReporter = new LogProgressReporter( logService.getInternalLog( Recovery.class ) );
         Recovery recovery = new Recovery( recoveryService, logsTruncator, recoveryMonitor, progressReporter, failOnCorruptedLogFiles );
         life.add( recovery );
     }
 
+    private RecoveryService createRecoveryService( TransactionIdStore transactionIdStore, LogTailScanner tailScanner,
+            RecoveryMonitor recoveryMonitor, RecoveryStartInformationProvider.Monitor positionMonitor, StorageEngine storageEngine,
+            LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository )
+    {
+        // Recovered transactions are applied in batches, so when failing to apply one of them it's not known which of
+        // the transactions before it in the same batch that have been applied. That is fine when failing recovery,
+        // but not when truncating the log after the failing transaction and carrying on.
+        if ( config.get( GraphDatabaseSettings.parallel_recovery ) && failOnCorruptedLogFiles )
+        {
+            return new ParallelRecoveryService( storageEngine, tailScanner, transactionIdStore, logicalTransactionStore,
+                    logVersionRepository, positionMonitor, recoveryMonitor, config.get( GraphDatabaseSettings.parallel_recovery_batch_size ),
+                    scheduler.threadFactory( Group.RECOVERY_LOG_READER ) );
+        }
+        return new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
+                logicalTransactionStore, logVersionRepository, positionMonitor );
+    }
+
     private NeoStoreKernelModule buildKernel( LogFiles logFiles, TransactionAppender appender,
             IndexingService indexingService, DatabaseSchemaState databaseSchemaState, LabelScanStore labelScanStore,
             StorageEngine storageEngine, IndexConfigStore indexConfigStore, TransactionIdStore transactionIdStore,
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+import org.neo4j.storageengine.api.CommandsToApply;
+
+/**
+ * Applies a batch of transactions to a wrapped {@link BatchTransactionApplier} on an {@link Executor}, concurrently
+ * with the other appliers of the batch. Transactions are handed over in {@link #startTx(CommandsToApply)} and applied
+ * one at a time, in the order they were handed over, by a single task. {@link #close()} waits for all of them to be
+ * applied before closing the wrapped applier.
+ * <p>
+ * Only appliers which don't depend on the changes of other appliers, and don't need the {@link
+ * org.neo4j.kernel.impl.locking.LockGroup} of the transaction, can be wrapped like this.
+ */
+public class ConcurrentBatchTransactionApplier extends BatchTransactionApplier.Adapter
+{
+    private final BatchTransactionApplier applier;
+    private final Executor executor;
+    private final Queue<CommandsToApply> transactions = new ConcurrentLinkedQueue<>();
+    // One permit per handed over transaction, plus one when closing, which the task sees as an empty queue
+    private final Semaphore handedOver = new Semaphore( 0 );
+    private FutureTask<Void> task;
+
+    public ConcurrentBatchTransactionApplier( BatchTransactionApplier applier, Executor executor )
+    {
+        this.applier = applier;
+        this.executor = executor;
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction )
+    {
+        transactions.add( transaction );
+        handedOver.release();
+        if ( task == null )
+        {
+            task = new FutureTask<>( () ->
+            {
+                applyTransactions();
+                return null;
+            } );
+            executor.execute( task );
+        }
+        return TransactionApplier.EMPTY;
+    }
+
+    private void applyTransactions() throws Exception
+    {
+        while ( true )
+        {
+            handedOver.acquire();
+            CommandsToApply transaction = transactions.poll();
+            if ( transaction == null )
+            {
+                return;
+            }
+            try ( TransactionApplier txApplier = applier.startTx( transaction ) )
+            {
+                transaction.accept( txApplier );
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        handedOver.release();
+        try
+        {
+            if ( task != null )
+            {
+                task.get();
+            }
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof Exception )
+            {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+        finally
+        {
+            applier.close();
+        }
+    }
+}
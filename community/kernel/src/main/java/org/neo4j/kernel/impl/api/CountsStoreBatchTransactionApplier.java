@@ -22,17 +22,17 @@ package org.neo4j.kernel.impl.api;
 import java.io.IOException;
 import java.util.Optional;
 
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
 public class CountsStoreBatchTransactionApplier extends BatchTransactionApplier.Adapter
 {
-    private final CountsTracker countsTracker;
-    private CountsTracker.Updater countsUpdater;
+    private final CountsStore countsTracker;
+    private CountsAccessor.Updater countsUpdater;
     private final TransactionApplicationMode mode;
 
-    public CountsStoreBatchTransactionApplier( CountsTracker countsTracker, TransactionApplicationMode mode )
+    public CountsStoreBatchTransactionApplier( CountsStore countsTracker, TransactionApplicationMode mode )
     {
         this.countsTracker = countsTracker;
         this.mode = mode;
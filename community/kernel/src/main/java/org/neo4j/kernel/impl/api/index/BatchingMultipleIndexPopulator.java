@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.api.index;
 
 import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -54,12 +55,16 @@ import static org.neo4j.helpers.NamedThreadFactory.daemon;
  * concurrent updates are flushed after the store scan in {@link MultipleIndexPopulator#flipAfterPopulation(boolean)}.
  * <p>
  * Inner {@link ExecutorService executor} is shut down after the store scan completes.
+ * <p>
+ * The store scan itself can be partitioned over {@link #SCAN_WORKERS} threads, which is disabled by default. The threads
+ * scanning alongside the populating one are run by the given scan executor.
  */
 public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
 {
     static final String TASK_QUEUE_SIZE_NAME = "task_queue_size";
     static final String AWAIT_TIMEOUT_MINUTES_NAME = "await_timeout_minutes";
     private static final String MAXIMUM_NUMBER_OF_WORKERS_NAME = "population_workers_maximum";
+    static final String SCAN_WORKERS_NAME = "population_scan_workers";
 
     private static final String EOL = System.lineSeparator();
     private static final String FLUSH_THREAD_NAME_PREFIX = "Index Population Flush Thread";
@@ -69,9 +74,11 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     private final int TASK_QUEUE_SIZE = FeatureToggles.getInteger( getClass(), TASK_QUEUE_SIZE_NAME,
             getNumberOfPopulationWorkers() * 2 );
     private final int AWAIT_TIMEOUT_MINUTES = FeatureToggles.getInteger( getClass(), AWAIT_TIMEOUT_MINUTES_NAME, 30 );
+    private final int SCAN_WORKERS = FeatureToggles.getInteger( BatchingMultipleIndexPopulator.class, SCAN_WORKERS_NAME, 1 );
 
     private final AtomicLong activeTasks = new AtomicLong();
     private final ExecutorService executor;
+    private final Executor scanExecutor;
 
     /**
      * Creates a new multi-threaded populator for the given store view.
@@ -79,12 +86,14 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
      * @param logProvider the log provider
      * @param type entity type to populate
      * @param schemaState the schema state
+     * @param scanExecutor runs the threads a partitioned store scan uses alongside the populating one
      */
     BatchingMultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type,
-                                    SchemaState schemaState )
+                                    SchemaState schemaState, Executor scanExecutor )
     {
         super( storeView, logProvider, type, schemaState );
         this.executor = createThreadPool();
+        this.scanExecutor = scanExecutor;
     }
 
     /**
@@ -93,7 +102,7 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
      * <b>NOTE:</b> for testing only.
      *
      * @param storeView the view of the store as a visitable of nodes
-     * @param executor the thread pool to use for batched index insertions
+     * @param executor the thread pool to use for batched index insertions and partitioned store scans
      * @param logProvider the log provider
      * @param schemaState the schema state
      */
@@ -102,6 +111,7 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     {
         super( storeView, logProvider, EntityType.NODE, schemaState );
         this.executor = executor;
+        this.scanExecutor = executor;
     }
 
     @Override
@@ -111,6 +121,18 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
         return new BatchingStoreScan<>( storeScan );
     }
 
+    @Override
+    protected int scanWorkers()
+    {
+        return SCAN_WORKERS;
+    }
+
+    @Override
+    protected Executor scanExecutor()
+    {
+        return scanExecutor;
+    }
+
     @Override
     protected void populateFromUpdateQueue( long currentlyIndexedNodeId )
     {
@@ -159,12 +181,12 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
      * Insert the given batch of updates into the index defined by the given {@link IndexPopulation}.
      *
      * @param population the index population.
+     * @param batch the updates to insert.
      */
     @Override
-    protected void flush( IndexPopulation population )
+    protected void flush( IndexPopulation population, Collection<IndexEntryUpdate<?>> batch )
     {
         activeTasks.incrementAndGet();
-        Collection<IndexEntryUpdate<?>> batch = population.takeCurrentBatch();
 
         executor.execute( () ->
         {
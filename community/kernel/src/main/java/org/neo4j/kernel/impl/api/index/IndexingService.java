@@ -34,14 +34,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
 
 import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.TokenNameLookup;
@@ -68,6 +72,7 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.register.Registers;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
@@ -111,6 +116,8 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     private final Monitor monitor;
     private final SchemaState schemaState;
     private final IndexPopulationJobController populationJobController;
+    private final Executor parallelApplyExecutor;
+    private final Executor parallelRecoveryExecutor;
     private final Map<Long,IndexProxy> indexesToDropAfterCompletedRecovery = new HashMap<>();
 
     enum State
@@ -177,7 +184,9 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
             SchemaState schemaState,
             MultiPopulatorFactory multiPopulatorFactory,
             LogProvider logProvider,
-            Monitor monitor )
+            Monitor monitor,
+            boolean parallelApply,
+            boolean parallelRecovery )
     {
         this.indexProxyCreator = indexProxyCreator;
         this.providerMap = providerMap;
@@ -191,6 +200,8 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         this.logProvider = logProvider;
         this.monitor = monitor;
         this.populationJobController = new IndexPopulationJobController( scheduler );
+        this.parallelApplyExecutor = parallelApply ? scheduler.executor( Group.TRANSACTION_APPLIER ) : null;
+        this.parallelRecoveryExecutor = parallelRecovery ? scheduler.executor( Group.TRANSACTION_APPLIER ) : parallelApplyExecutor;
         this.log = logProvider.getLog( getClass() );
     }
 
@@ -513,6 +524,12 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
 
     private void apply( Iterable<IndexEntryUpdate<SchemaDescriptor>> updates, IndexUpdateMode updateMode ) throws IndexEntryConflictException
     {
+        Executor parallelExecutor = updateMode == IndexUpdateMode.RECOVERY ? parallelRecoveryExecutor : parallelApplyExecutor;
+        if ( parallelExecutor != null )
+        {
+            applyInParallel( updates, updateMode, parallelExecutor );
+            return;
+        }
         try ( IndexUpdaterMap updaterMap = indexMapRef.createIndexUpdaterMap( updateMode ) )
         {
             for ( IndexEntryUpdate<SchemaDescriptor> indexUpdate : updates )
@@ -522,6 +539,82 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         }
     }
 
+    /**
+     * Applies the updates of each index on its own thread. Every index sees its updates in the same order as when
+     * applying them sequentially, and each updater is created, used and closed by one and the same thread.
+     */
+    private void applyInParallel( Iterable<IndexEntryUpdate<SchemaDescriptor>> updates, IndexUpdateMode updateMode,
+            Executor parallelExecutor ) throws IndexEntryConflictException
+    {
+        Map<SchemaDescriptor,List<IndexEntryUpdate<SchemaDescriptor>>> updatesByIndex = new LinkedHashMap<>();
+        for ( IndexEntryUpdate<SchemaDescriptor> indexUpdate : updates )
+        {
+            updatesByIndex.computeIfAbsent( indexUpdate.indexKey().schema(), schema -> new ArrayList<>() ).add( indexUpdate );
+        }
+
+        IndexMap indexMap = indexMapRef.indexMapSnapshot();
+        List<FutureTask<Void>> tasks = new ArrayList<>( updatesByIndex.size() );
+        for ( Map.Entry<SchemaDescriptor,List<IndexEntryUpdate<SchemaDescriptor>>> indexUpdates : updatesByIndex.entrySet() )
+        {
+            IndexProxy indexProxy = indexMap.getIndexProxy( indexUpdates.getKey() );
+            if ( indexProxy != null )
+            {
+                tasks.add( new FutureTask<>( () ->
+                {
+                    try ( IndexUpdater updater = indexProxy.newUpdater( updateMode ) )
+                    {
+                        for ( IndexEntryUpdate<SchemaDescriptor> indexUpdate : indexUpdates.getValue() )
+                        {
+                            updater.process( indexUpdate );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+        }
+
+        // Let this thread update one of the indexes, instead of just waiting for the others
+        for ( int i = 1; i < tasks.size(); i++ )
+        {
+            parallelExecutor.execute( tasks.get( i ) );
+        }
+        if ( !tasks.isEmpty() )
+        {
+            tasks.get( 0 ).run();
+        }
+
+        Throwable failure = null;
+        for ( FutureTask<Void> task : tasks )
+        {
+            try
+            {
+                task.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failure = Exceptions.chain( failure, e );
+            }
+            catch ( ExecutionException e )
+            {
+                failure = Exceptions.chain( failure, e.getCause() );
+            }
+        }
+        if ( failure instanceof IndexEntryConflictException )
+        {
+            throw (IndexEntryConflictException) failure;
+        }
+        if ( failure instanceof UncheckedIOException )
+        {
+            throw new UnderlyingStorageException( failure );
+        }
+        if ( failure != null )
+        {
+            Exceptions.throwIfUnchecked( failure );
+            throw new UnderlyingStorageException( failure );
+        }
+    }
+
     @Override
     public Iterable<IndexEntryUpdate<SchemaDescriptor>> convertToIndexUpdates( EntityUpdates entityUpdates, EntityType type )
     {
@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.internal.kernel.api.TokenNameLookup;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.SchemaState;
@@ -49,7 +50,7 @@ public class IndexingServiceFactory
                                           SchemaState schemaState )
     {
         IndexSamplingConfig samplingConfig = new IndexSamplingConfig( config );
-        MultiPopulatorFactory multiPopulatorFactory = MultiPopulatorFactory.forConfig( config );
+        MultiPopulatorFactory multiPopulatorFactory = MultiPopulatorFactory.forConfig( config, scheduler );
         IndexMapReference indexMapRef = new IndexMapReference();
         IndexSamplingControllerFactory factory =
                 new IndexSamplingControllerFactory( samplingConfig, storeView, scheduler, tokenNameLookup, logProvider );
@@ -59,6 +60,7 @@ public class IndexingServiceFactory
 
         return new IndexingService( proxySetup, providerMap, indexMapRef, storeView, indexRules,
                 indexSamplingController, tokenNameLookup, scheduler, schemaState,
-                multiPopulatorFactory, logProvider, monitor );
+                multiPopulatorFactory, logProvider, monitor, config.get( GraphDatabaseSettings.parallel_transaction_apply ),
+                config.get( GraphDatabaseSettings.parallel_recovery ) );
     }
 }
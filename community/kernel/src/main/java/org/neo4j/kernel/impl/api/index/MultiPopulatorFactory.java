@@ -23,6 +23,8 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 
 /**
@@ -40,10 +42,10 @@ public abstract class MultiPopulatorFactory
     public abstract MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
                                                    EntityType type, SchemaState schemaState );
 
-    public static MultiPopulatorFactory forConfig( Config config )
+    public static MultiPopulatorFactory forConfig( Config config, JobScheduler scheduler )
     {
         boolean multiThreaded = config.get( GraphDatabaseSettings.multi_threaded_schema_index_population_enabled );
-        return multiThreaded ? new MultiThreadedPopulatorFactory() : new SingleThreadedPopulatorFactory();
+        return multiThreaded ? new MultiThreadedPopulatorFactory( scheduler ) : new SingleThreadedPopulatorFactory();
     }
 
     private static class SingleThreadedPopulatorFactory extends MultiPopulatorFactory
@@ -58,11 +60,19 @@ public abstract class MultiPopulatorFactory
 
     private static class MultiThreadedPopulatorFactory extends MultiPopulatorFactory
     {
+        private final JobScheduler scheduler;
+
+        MultiThreadedPopulatorFactory( JobScheduler scheduler )
+        {
+            this.scheduler = scheduler;
+        }
+
         @Override
         public MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
                                               EntityType type, SchemaState schemaState )
         {
-            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState );
+            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState,
+                    scheduler.executor( Group.INDEX_POPULATION ) );
         }
     }
 }
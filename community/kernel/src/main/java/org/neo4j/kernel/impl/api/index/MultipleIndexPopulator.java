@@ -28,7 +28,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntPredicate;
@@ -74,6 +76,8 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * {@link #indexAllEntities()} and incorporated into that data stream. Calls to this method may come from any number
  * of concurrent threads.</li>
  * </ul>
+ * If the store scan can be {@link StoreScan#parallelize(int, Executor) partitioned} over {@link #scanWorkers()} threads, each
+ * scanning thread batches its updates separately and queued updates are incorporated while the scan is paused.
  *
  * Usage of this class should be something like:
  * <ol>
@@ -108,6 +112,7 @@ public class MultipleIndexPopulator implements IndexPopulator
     private final EntityType type;
     private final SchemaState schemaState;
     private StoreScan<IndexPopulationFailedKernelException> storeScan;
+    private boolean parallelScan;
 
     public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState )
     {
@@ -178,12 +183,30 @@ public class MultipleIndexPopulator implements IndexPopulator
             @Override
             public void run() throws IndexPopulationFailedKernelException
             {
+                parallelScan = parallelize( scanWorkers(), scanExecutor() );
                 super.run();
                 flushAll();
             }
         };
     }
 
+    /**
+     * @return the number of threads the store scan may be partitioned over.
+     */
+    protected int scanWorkers()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the executor running the threads, other than the populating one, that the store scan is partitioned over.
+     */
+    protected Executor scanExecutor()
+    {
+        // Not partitioned, so there are no other threads
+        return Runnable::run;
+    }
+
     /**
      * Queues an update to be fed into the index populators. These updates come from changes being made
      * to storage while a concurrent scan is happening to keep populators up to date with all latest changes.
@@ -360,7 +383,14 @@ public class MultipleIndexPopulator implements IndexPopulator
     {
         if ( isUpdateQueueThresholdReached() )
         {
-            populateFromUpdateQueue( currentlyIndexedNodeId );
+            if ( parallelScan )
+            {
+                storeScan.runPaused( () -> populateFromUpdateQueue( currentlyIndexedNodeId ) );
+            }
+            else
+            {
+                populateFromUpdateQueue( currentlyIndexedNodeId );
+            }
         }
     }
 
@@ -376,14 +406,25 @@ public class MultipleIndexPopulator implements IndexPopulator
 
     void flushAll()
     {
-        populations.forEach( this::flush );
+        for ( IndexPopulation population : populations )
+        {
+            flush( population, population.takeCurrentBatch() );
+            for ( Thread worker : population.workerBatches.keySet() )
+            {
+                Collection<IndexEntryUpdate<?>> batch = population.takeWorkerBatch( worker );
+                if ( !batch.isEmpty() )
+                {
+                    flush( population, batch );
+                }
+            }
+        }
     }
 
-    protected void flush( IndexPopulation population )
+    protected void flush( IndexPopulation population, Collection<IndexEntryUpdate<?>> batch )
     {
         try
         {
-            population.populator.add( population.takeCurrentBatch() );
+            population.populator.add( batch );
         }
         catch ( Throwable failure )
         {
@@ -501,6 +542,8 @@ public class MultipleIndexPopulator implements IndexPopulator
         private final ReentrantLock populatorLock = new ReentrantLock();
 
         List<IndexEntryUpdate<?>> batchedUpdates;
+        // Used instead of batchedUpdates by the threads of a partitioned store scan, one batch per thread
+        final Map<Thread,List<IndexEntryUpdate<?>>> workerBatches = new ConcurrentHashMap<>();
 
         IndexPopulation( IndexPopulator populator, CapableIndexDescriptor capableIndexDescriptor, FlippableIndexProxy flipper,
                 FailedIndexProxyFactory failedIndexProxyFactory, String indexUserDescription )
@@ -557,10 +600,22 @@ public class MultipleIndexPopulator implements IndexPopulator
 
         private void onUpdate( IndexEntryUpdate<?> update )
         {
+            if ( parallelScan )
+            {
+                Thread worker = Thread.currentThread();
+                List<IndexEntryUpdate<?>> batch = workerBatches.computeIfAbsent( worker, thread -> new ArrayList<>( BATCH_SIZE ) );
+                batch.add( update );
+                if ( batch.size() >= BATCH_SIZE )
+                {
+                    flush( this, takeWorkerBatch( worker ) );
+                }
+                return;
+            }
+
             populator.includeSample( update );
             if ( batch( update ) )
             {
-                flush( this );
+                flush( this, takeCurrentBatch() );
             }
         }
 
@@ -636,6 +691,24 @@ public class MultipleIndexPopulator implements IndexPopulator
             batchedUpdates = new ArrayList<>( BATCH_SIZE );
             return batch;
         }
+
+        Collection<IndexEntryUpdate<?>> takeWorkerBatch( Thread worker )
+        {
+            List<IndexEntryUpdate<?>> batch = workerBatches.put( worker, new ArrayList<>( BATCH_SIZE ) );
+            includeSamples( batch );
+            return batch;
+        }
+
+        /**
+         * Samples a batch from one of the threads of a partitioned store scan, one thread at a time since samplers aren't thread-safe.
+         */
+        private synchronized void includeSamples( Collection<IndexEntryUpdate<?>> batch )
+        {
+            for ( IndexEntryUpdate<?> update : batch )
+            {
+                populator.includeSample( update );
+            }
+        }
     }
 
     private class EntityPopulationVisitor implements Visitor<EntityUpdates,
@@ -692,5 +765,17 @@ public class MultipleIndexPopulator implements IndexPopulator
         {
             return delegate.getProgress();
         }
+
+        @Override
+        public boolean parallelize( int workers, Executor executor )
+        {
+            return delegate.parallelize( workers, executor );
+        }
+
+        @Override
+        public void runPaused( Runnable action )
+        {
+            delegate.runPaused( action );
+        }
     }
 }
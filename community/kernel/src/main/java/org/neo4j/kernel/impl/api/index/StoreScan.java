@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.util.concurrent.Executor;
+
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 
@@ -32,4 +34,31 @@ public interface StoreScan<FAILURE extends Exception>
             long currentlyIndexedNodeId );
 
     PopulationProgress getProgress();
+
+    /**
+     * Lets this scan run on up to {@code workers} threads, each scanning its own ranges of entity ids and calling the
+     * visitors of this scan concurrently with the others. Visitors of such a scan must be thread-safe and must use
+     * {@link #runPaused(Runnable)} for anything depending on which entities have been scanned so far, e.g. applying
+     * queued updates through {@link #acceptUpdate(MultipleIndexPopulator.MultipleIndexUpdater, IndexEntryUpdate, long)}.
+     * Must be called before {@link #run()}.
+     *
+     * @param workers maximum number of threads to scan with.
+     * @param executor runs the threads scanning alongside the one calling {@link #run()}.
+     * @return {@code true} if this scan will be partitioned, or {@code false} if it will only run on the calling thread.
+     */
+    default boolean parallelize( int workers, Executor executor )
+    {
+        return false;
+    }
+
+    /**
+     * Runs the given action while no entity is being processed by this scan. When called by one of the threads of a
+     * {@link #parallelize(int, Executor) partitioned} scan the action is deferred until that thread is done with its current entities.
+     *
+     * @param action the action to run.
+     */
+    default void runPaused( Runnable action )
+    {
+        action.run();
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.storageengine.api.RelationshipVisitor;
+
+/**
+ * Type, start node and end node of the relationships created in a transaction, kept as records in primitive maps
+ * from the {@link CollectionsFactory} instead of as one object per relationship. With transaction state allocated
+ * off-heap, creating relationships, which is what most of a large transaction does, then puts nothing on the heap.
+ * {@link RelationshipStateImpl} objects are only created for relationships that have their properties changed.
+ */
+class CreatedRelationshipRecords
+{
+    private static final long NO_TYPE = -1;
+
+    private final MutableLongLongMap types;
+    private final MutableLongLongMap startNodes;
+    private final MutableLongLongMap endNodes;
+
+    CreatedRelationshipRecords( CollectionsFactory collectionsFactory )
+    {
+        this.types = collectionsFactory.newLongLongMap();
+        this.startNodes = collectionsFactory.newLongLongMap();
+        this.endNodes = collectionsFactory.newLongLongMap();
+    }
+
+    void add( long id, int type, long startNode, long endNode )
+    {
+        types.put( id, type );
+        startNodes.put( id, startNode );
+        endNodes.put( id, endNode );
+    }
+
+    void remove( long id )
+    {
+        if ( types.removeKeyIfAbsent( id, NO_TYPE ) != NO_TYPE )
+        {
+            startNodes.removeKey( id );
+            endNodes.removeKey( id );
+        }
+    }
+
+    boolean contains( long id )
+    {
+        return types.containsKey( id );
+    }
+
+    <EX extends Exception> boolean accept( long id, RelationshipVisitor<EX> visitor ) throws EX
+    {
+        long type = types.getIfAbsent( id, NO_TYPE );
+        if ( type == NO_TYPE )
+        {
+            return false;
+        }
+        visitor.visit( id, (int) type, startNodes.get( id ), endNodes.get( id ) );
+        return true;
+    }
+}
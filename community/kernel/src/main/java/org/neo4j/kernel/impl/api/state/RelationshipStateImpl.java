@@ -84,30 +84,17 @@ class RelationshipStateImpl extends PropertyContainerStateImpl implements Relati
         }
     };
 
-    private long startNode = -1;
-    private long endNode = -1;
-    private int type = -1;
+    private final CreatedRelationshipRecords createdRelationships;
 
-    RelationshipStateImpl( long id, CollectionsFactory collectionsFactory )
+    RelationshipStateImpl( long id, CollectionsFactory collectionsFactory, CreatedRelationshipRecords createdRelationships )
     {
         super( id, collectionsFactory );
-    }
-
-    void setMetaData( long startNode, long endNode, int type )
-    {
-        this.startNode = startNode;
-        this.endNode = endNode;
-        this.type = type;
+        this.createdRelationships = createdRelationships;
     }
 
     @Override
     public <EX extends Exception> boolean accept( RelationshipVisitor<EX> visitor ) throws EX
     {
-        if ( type != -1 )
-        {
-            visitor.visit( getId(), type, startNode, endNode );
-            return true;
-        }
-        return false;
+        return createdRelationships.accept( getId(), visitor );
     }
 }
@@ -84,6 +84,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     private MutableLongObjectMap<MutableLongDiffSets> labelStatesMap;
     private MutableLongObjectMap<NodeStateImpl> nodeStatesMap;
     private MutableLongObjectMap<RelationshipStateImpl> relationshipStatesMap;
+    private CreatedRelationshipRecords createdRelationships;
 
     private MutableLongObjectMap<String> createdLabelTokens;
     private MutableLongObjectMap<String> createdPropertyKeyTokens;
@@ -298,7 +299,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
             getOrCreateNodeState( endNodeId ).addRelationship( id, relationshipTypeId, RelationshipDirection.INCOMING );
         }
 
-        getOrCreateRelationshipState( id ).setMetaData( startNodeId, endNodeId, relationshipTypeId );
+        createdRelationships().add( id, relationshipTypeId, startNodeId, endNodeId );
 
         dataChanged();
     }
@@ -332,6 +333,10 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
                 removed.clear();
             }
         }
+        if ( createdRelationships != null )
+        {
+            createdRelationships.remove( id );
+        }
 
         dataChanged();
     }
@@ -339,7 +344,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void relationshipDoDeleteAddedInThisTx( long relationshipId )
     {
-        getRelationshipState( relationshipId ).accept( this::relationshipDoDelete );
+        relationshipVisit( relationshipId, this::relationshipDoDelete );
     }
 
     @Override
@@ -476,12 +481,17 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public RelationshipState getRelationshipState( long id )
     {
-        if ( relationshipStatesMap == null )
+        final RelationshipStateImpl relationshipState = relationshipStatesMap == null ? null : relationshipStatesMap.get( id );
+        if ( relationshipState != null )
+        {
+            return relationshipState;
+        }
+        if ( createdRelationships != null && createdRelationships.contains( id ) )
         {
-            return RelationshipStateImpl.EMPTY;
+            // Created relationships without property changes have no state object, only a record
+            return new RelationshipStateImpl( id, collectionsFactory, createdRelationships );
         }
-        final RelationshipStateImpl relationshipState = relationshipStatesMap.get( id );
-        return relationshipState == null ? RelationshipStateImpl.EMPTY : relationshipState;
+        return RelationshipStateImpl.EMPTY;
     }
 
     @Override
@@ -610,7 +620,17 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         {
             relationshipStatesMap = new LongObjectHashMap<>();
         }
-        return relationshipStatesMap.getIfAbsentPut( relationshipId, () -> new RelationshipStateImpl( relationshipId, collectionsFactory ) );
+        return relationshipStatesMap.getIfAbsentPut( relationshipId,
+                () -> new RelationshipStateImpl( relationshipId, collectionsFactory, createdRelationships() ) );
+    }
+
+    private CreatedRelationshipRecords createdRelationships()
+    {
+        if ( createdRelationships == null )
+        {
+            createdRelationships = new CreatedRelationshipRecords( collectionsFactory );
+        }
+        return createdRelationships;
     }
 
     private GraphStateImpl getOrCreateGraphState()
@@ -815,7 +835,7 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public <EX extends Exception> boolean relationshipVisit( long relId, RelationshipVisitor<EX> visitor ) throws EX
     {
-        return getRelationshipState( relId ).accept( visitor );
+        return createdRelationships != null && createdRelationships.accept( relId, visitor );
     }
 
     @Override
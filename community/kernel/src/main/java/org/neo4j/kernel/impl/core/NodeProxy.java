@@ -52,7 +52,6 @@ import org.neo4j.internal.kernel.api.exceptions.explicitindex.AutoIndexingKernel
 import org.neo4j.internal.kernel.api.exceptions.schema.ConstraintValidationException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IllegalTokenNameException;
 import org.neo4j.internal.kernel.api.exceptions.schema.TooManyLabelsException;
-import org.neo4j.internal.kernel.api.helpers.Nodes;
 import org.neo4j.internal.kernel.api.helpers.RelationshipFactory;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.SilentTokenNameLookup;
@@ -64,6 +63,7 @@ import org.neo4j.values.storable.Values;
 
 import static java.lang.String.format;
 import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.internal.kernel.api.Read.ANY_RELATIONSHIP_TYPE;
 import static org.neo4j.internal.kernel.api.TokenRead.NO_TOKEN;
 import static org.neo4j.internal.kernel.api.helpers.RelationshipSelections.allIterator;
 import static org.neo4j.internal.kernel.api.helpers.RelationshipSelections.incomingIterator;
@@ -666,7 +666,7 @@ public class NodeProxy implements Node, RelationshipFactory<Relationship>
             NodeCursor nodes = transaction.ambientNodeCursor();
             singleNode( transaction, nodes );
 
-            return Nodes.countAll( nodes, transaction.cursors() );
+            return nodes.totalDegree( ANY_RELATIONSHIP_TYPE );
         }
     }
 
@@ -685,7 +685,7 @@ public class NodeProxy implements Node, RelationshipFactory<Relationship>
             NodeCursor nodes = transaction.ambientNodeCursor();
             singleNode( transaction, nodes );
 
-            return Nodes.countAll( nodes, transaction.cursors(), typeId );
+            return nodes.totalDegree( typeId );
         }
     }
 
@@ -701,11 +701,11 @@ public class NodeProxy implements Node, RelationshipFactory<Relationship>
             switch ( direction )
             {
             case OUTGOING:
-                return Nodes.countOutgoing( nodes, transaction.cursors() );
+                return nodes.outgoingDegree( ANY_RELATIONSHIP_TYPE );
             case INCOMING:
-                return Nodes.countIncoming( nodes, transaction.cursors() );
+                return nodes.incomingDegree( ANY_RELATIONSHIP_TYPE );
             case BOTH:
-                return Nodes.countAll( nodes, transaction.cursors() );
+                return nodes.totalDegree( ANY_RELATIONSHIP_TYPE );
             default:
                 throw new IllegalStateException( "Unknown direction " + direction );
             }
@@ -729,11 +729,11 @@ public class NodeProxy implements Node, RelationshipFactory<Relationship>
             switch ( direction )
             {
             case OUTGOING:
-                return Nodes.countOutgoing( nodes, transaction.cursors(), typeId );
+                return nodes.outgoingDegree( typeId );
             case INCOMING:
-                return Nodes.countIncoming( nodes, transaction.cursors(), typeId );
+                return nodes.incomingDegree( typeId );
             case BOTH:
-                return Nodes.countAll( nodes, transaction.cursors(), typeId );
+                return nodes.totalDegree( typeId );
             default:
                 throw new IllegalStateException( "Unknown direction " + direction );
             }
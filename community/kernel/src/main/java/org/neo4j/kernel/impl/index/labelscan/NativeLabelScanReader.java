@@ -150,7 +150,7 @@ class NativeLabelScanReader implements LabelScanReader
     {
         LabelScanKey from = new LabelScanKey( labelId, 0 );
         LabelScanKey to = new LabelScanKey( labelId, Long.MAX_VALUE );
-        return index.seek( from, to );
+        return index.seek( from, to, true );
     }
 
     private void ensureOpenCursorsClosed() throws IOException
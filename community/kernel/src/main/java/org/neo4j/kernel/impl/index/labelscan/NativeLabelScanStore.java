@@ -257,7 +257,7 @@ public class NativeLabelScanStore implements LabelScanStore
             {
                 return index.seek(
                         new LabelScanKey().set( labelId, 0 ),
-                        new LabelScanKey().set( labelId, Long.MAX_VALUE ) );
+                        new LabelScanKey().set( labelId, Long.MAX_VALUE ), true );
             }
             catch ( IOException e )
             {
@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.neo4j.index.internal.gbptree.BulkLoader;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.impl.transaction.log.ReadAheadChannel;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.kernel.impl.api.index.UpdateMode.ADDED;
+
+/**
+ * Buffers entries added to an empty {@link GBPTree} during index population, to later sort them and
+ * {@link GBPTree#bulkLoader(double) bulk load} them into the tree in one go. Bulk loading produces a tree with evenly filled
+ * nodes, as opposed to inserting entries in scan order, which splits nodes all over the tree and leaves them half full.
+ * <p>
+ * At most {@link #MAX_ENTRIES} entries are kept on heap. Whenever that many have been added they are sorted and spilled
+ * to a run file next to the tree file. When flushed the runs are merged, at most {@link #MERGE_FACTOR} at a time, and
+ * the last merge feeds the bulk loader, so that the tree is written sequentially however big the index is.
+ * <p>
+ * Updates from populating updaters can be {@link #defer(Collection) deferred} so that they don't force the buffer to be
+ * flushed early. They are handed back by {@link #flush()}, to be applied after the bulk load.
+ * <p>
+ * Bulk loading requires the tree to be empty and so the buffer can only be flushed once. After that, or as soon as
+ * anything but additions are to be added, {@link #add(Collection)} declines further entries and they'll have to be
+ * written to the tree as usual.
+ *
+ * @param <KEY> type of {@link NativeIndexKey}.
+ * @param <VALUE> type of {@link NativeIndexValue}.
+ */
+class BulkLoadBuffer<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
+{
+    static final int MAX_ENTRIES = FeatureToggles.getInteger( BulkLoadBuffer.class, "maxEntries", 100_000 );
+    static final int MERGE_FACTOR = FeatureToggles.getInteger( BulkLoadBuffer.class, "mergeFactor", 64 );
+    static final double FILL_FACTOR = FeatureToggles.getDouble( BulkLoadBuffer.class, "fillFactor", 0.9 );
+    private static final String RUN_FILE_SUFFIX = ".run-";
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+
+    private final GBPTree<KEY,VALUE> tree;
+    private final Layout<KEY,VALUE> layout;
+    private final FileSystemAbstraction fs;
+    private final File treeFile;
+    private final int maxEntries;
+    private final int mergeFactor;
+    private List<KEY> keys = new ArrayList<>();
+    private final List<Run> runs = new ArrayList<>();
+    private final List<IndexEntryUpdate<?>> deferredUpdates = new ArrayList<>();
+    private int nextRunId;
+    private int ongoingSpills;
+
+    BulkLoadBuffer( GBPTree<KEY,VALUE> tree, Layout<KEY,VALUE> layout, FileSystemAbstraction fs, File treeFile )
+    {
+        this( tree, layout, fs, treeFile, MAX_ENTRIES, MERGE_FACTOR );
+    }
+
+    BulkLoadBuffer( GBPTree<KEY,VALUE> tree, Layout<KEY,VALUE> layout, FileSystemAbstraction fs, File treeFile, int maxEntries, int mergeFactor )
+    {
+        this.tree = tree;
+        this.layout = layout;
+        this.fs = fs;
+        this.treeFile = treeFile;
+        this.maxEntries = maxEntries;
+        this.mergeFactor = Math.max( 2, mergeFactor );
+    }
+
+    /**
+     * Deletes run files left behind by a population of the given tree file which didn't get to complete.
+     */
+    static void deleteRunFiles( FileSystemAbstraction fs, File treeFile )
+    {
+        File[] runFiles = fs.listFiles( treeFile.getParentFile(), ( dir, name ) -> name.startsWith( treeFile.getName() + RUN_FILE_SUFFIX ) );
+        if ( runFiles != null )
+        {
+            for ( File runFile : runFiles )
+            {
+                fs.deleteFile( runFile );
+            }
+        }
+    }
+
+    /**
+     * Buffers the given updates, if they are all additions and the buffer hasn't been flushed yet.
+     *
+     * @param updates updates to buffer.
+     * @return {@code true} if the updates were buffered, otherwise {@code false} and the buffer must be {@link #flush() flushed}
+     * before the updates are applied to the tree.
+     */
+    boolean add( Collection<? extends IndexEntryUpdate<?>> updates )
+    {
+        List<KEY> fullKeys;
+        File runFile;
+        synchronized ( this )
+        {
+            if ( keys == null )
+            {
+                return false;
+            }
+            for ( IndexEntryUpdate<?> update : updates )
+            {
+                if ( update.updateMode() != ADDED )
+                {
+                    return false;
+                }
+            }
+
+            for ( IndexEntryUpdate<?> update : updates )
+            {
+                KEY key = layout.newKey();
+                NativeIndexUpdater.initializeKeyFromUpdate( key, update.getEntityId(), update.values() );
+                keys.add( key );
+            }
+            if ( keys.size() < maxEntries )
+            {
+                return true;
+            }
+            fullKeys = keys;
+            keys = new ArrayList<>();
+            runFile = nextRunFile();
+            ongoingSpills++;
+        }
+
+        // Sort and spill outside of the monitor, so that other threads can keep adding meanwhile
+        Run run = null;
+        try
+        {
+            fullKeys.sort( layout );
+            run = writeRun( runFile, fullKeys );
+        }
+        finally
+        {
+            synchronized ( this )
+            {
+                if ( run != null )
+                {
+                    runs.add( run );
+                }
+                ongoingSpills--;
+                notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the given updates from a populating updater, to be applied after the bulk load. Updates are only deferred
+     * while the buffer hasn't been flushed and while they are fewer than {@link #MAX_ENTRIES}, to bound heap usage.
+     *
+     * @param updates updates to defer.
+     * @return {@code true} if the updates were deferred, otherwise {@code false} and the buffer must be {@link #flush() flushed}
+     * before the updates are applied to the tree.
+     */
+    synchronized boolean defer( Collection<? extends IndexEntryUpdate<?>> updates )
+    {
+        if ( keys == null || deferredUpdates.size() + updates.size() > maxEntries )
+        {
+            return false;
+        }
+        deferredUpdates.addAll( updates );
+        return true;
+    }
+
+    /**
+     * Sorts and bulk loads the buffered entries into the tree, unless already flushed.
+     * Entries added after this call must be written to the tree as usual.
+     *
+     * @return the {@link #defer(Collection) deferred} updates, which must be applied to the tree before anything else.
+     */
+    synchronized Collection<IndexEntryUpdate<?>> flush()
+    {
+        if ( keys == null )
+        {
+            return Collections.emptyList();
+        }
+        awaitOngoingSpills();
+        List<KEY> sortedKeys = keys;
+        sortedKeys.sort( layout );
+        keys = null;
+
+        try
+        {
+            if ( runs.isEmpty() )
+            {
+                if ( !sortedKeys.isEmpty() )
+                {
+                    try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( FILL_FACTOR ) )
+                    {
+                        loadDistinct( sortedKeys, bulkLoader );
+                    }
+                }
+            }
+            else
+            {
+                if ( !sortedKeys.isEmpty() )
+                {
+                    runs.add( writeRun( nextRunFile(), sortedKeys ) );
+                }
+                while ( runs.size() > mergeFactor )
+                {
+                    List<Run> merged = new ArrayList<>( runs.subList( 0, mergeFactor ) );
+                    Run run = mergeRuns( merged );
+                    runs.removeAll( merged );
+                    runs.add( run );
+                }
+                try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( FILL_FACTOR ) )
+                {
+                    merge( runs, bulkLoader::add );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            deleteRuns();
+        }
+
+        List<IndexEntryUpdate<?>> updates = new ArrayList<>( deferredUpdates );
+        deferredUpdates.clear();
+        return updates;
+    }
+
+    /**
+     * Discards buffered entries and deferred updates, for when the population is abandoned.
+     */
+    synchronized void clear()
+    {
+        keys = null;
+        deferredUpdates.clear();
+        awaitOngoingSpills();
+        deleteRuns();
+    }
+
+    private void awaitOngoingSpills()
+    {
+        boolean interrupted = false;
+        while ( ongoingSpills > 0 )
+        {
+            try
+            {
+                wait();
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private File nextRunFile()
+    {
+        return new File( treeFile.getParentFile(), treeFile.getName() + RUN_FILE_SUFFIX + nextRunId++ );
+    }
+
+    private void loadDistinct( List<KEY> sortedKeys, BulkLoader<KEY,VALUE> bulkLoader )
+    {
+        VALUE value = layout.newValue();
+        KEY previous = null;
+        for ( KEY key : sortedKeys )
+        {
+            // The same entity can be scanned twice, but it's only a single entry in the tree
+            if ( previous == null || layout.compare( previous, key ) != 0 )
+            {
+                bulkLoader.add( key, value );
+            }
+            previous = key;
+        }
+    }
+
+    private Run writeRun( File runFile, List<KEY> sortedKeys )
+    {
+        try ( RunWriter writer = new RunWriter( runFile ) )
+        {
+            KEY previous = null;
+            for ( KEY key : sortedKeys )
+            {
+                if ( previous == null || layout.compare( previous, key ) != 0 )
+                {
+                    writer.write( key );
+                }
+                previous = key;
+            }
+            return writer.run;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private Run mergeRuns( List<Run> runsToMerge ) throws IOException
+    {
+        try ( RunWriter writer = new RunWriter( nextRunFile() ) )
+        {
+            merge( runsToMerge, ( key, value ) -> writer.write( key ) );
+            for ( Run run : runsToMerge )
+            {
+                fs.deleteFile( run.file );
+            }
+            return writer.run;
+        }
+    }
+
+    /**
+     * K-way merge of the given runs, giving each distinct key to the given sink in ascending order.
+     */
+    private void merge( List<Run> runsToMerge, KeySink<KEY,VALUE> sink ) throws IOException
+    {
+        Comparator<RunReader> byCurrentKey = ( left, right ) -> layout.compare( left.current, right.current );
+        PriorityQueue<RunReader> readers = new PriorityQueue<>( runsToMerge.size(), byCurrentKey );
+        try
+        {
+            for ( Run run : runsToMerge )
+            {
+                RunReader reader = new RunReader( run );
+                if ( reader.next() )
+                {
+                    readers.add( reader );
+                }
+                else
+                {
+                    reader.close();
+                }
+            }
+
+            VALUE value = layout.newValue();
+            KEY previous = layout.newKey();
+            boolean first = true;
+            while ( !readers.isEmpty() )
+            {
+                RunReader reader = readers.poll();
+                if ( first || layout.compare( previous, reader.current ) != 0 )
+                {
+                    sink.accept( reader.current, value );
+                    layout.copyKey( reader.current, previous );
+                    first = false;
+                }
+                if ( reader.next() )
+                {
+                    readers.add( reader );
+                }
+                else
+                {
+                    reader.close();
+                }
+            }
+        }
+        finally
+        {
+            for ( RunReader reader : readers )
+            {
+                reader.close();
+            }
+        }
+    }
+
+    private void deleteRuns()
+    {
+        for ( Run run : runs )
+        {
+            fs.deleteFile( run.file );
+        }
+        runs.clear();
+    }
+
+    @FunctionalInterface
+    private interface KeySink<KEY,VALUE>
+    {
+        void accept( KEY key, VALUE value ) throws IOException;
+    }
+
+    /**
+     * A file of distinct keys in ascending order, each written as its size followed by the key itself.
+     */
+    private static class Run
+    {
+        private final File file;
+        private long entries;
+
+        Run( File file )
+        {
+            this.file = file;
+        }
+    }
+
+    private class RunWriter implements AutoCloseable
+    {
+        private final Run run;
+        private final StoreChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate( RUN_BUFFER_SIZE );
+        private byte[] keyBytes = new byte[0];
+        private PageCursor keyCursor;
+
+        RunWriter( File file ) throws IOException
+        {
+            this.run = new Run( file );
+            this.channel = fs.open( file, OpenMode.READ_WRITE );
+            channel.truncate( 0 );
+        }
+
+        void write( KEY key ) throws IOException
+        {
+            int keySize = layout.keySize( key );
+            if ( keyBytes.length < keySize )
+            {
+                keyBytes = new byte[keySize];
+                keyCursor = ByteArrayPageCursor.wrap( keyBytes );
+            }
+            keyCursor.setOffset( 0 );
+            layout.writeKey( keyCursor, key );
+            if ( buffer.remaining() < Integer.BYTES + keySize )
+            {
+                flushBuffer();
+            }
+            buffer.putInt( keySize );
+            if ( keySize > buffer.remaining() )
+            {
+                // Only a key larger than the whole buffer would get here
+                flushBuffer();
+                channel.writeAll( ByteBuffer.wrap( keyBytes, 0, keySize ) );
+            }
+            else
+            {
+                buffer.put( keyBytes, 0, keySize );
+            }
+            run.entries++;
+        }
+
+        private void flushBuffer() throws IOException
+        {
+            buffer.flip();
+            channel.writeAll( buffer );
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                flushBuffer();
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+    }
+
+    private class RunReader implements AutoCloseable
+    {
+        private final ReadAheadChannel<StoreChannel> channel;
+        private final KEY current = layout.newKey();
+        private long remaining;
+        private byte[] keyBytes = new byte[0];
+        private PageCursor keyCursor;
+
+        RunReader( Run run ) throws IOException
+        {
+            this.channel = new ReadAheadChannel<>( fs.open( run.file, OpenMode.READ ), RUN_BUFFER_SIZE );
+            this.remaining = run.entries;
+        }
+
+        boolean next() throws IOException
+        {
+            if ( remaining == 0 )
+            {
+                return false;
+            }
+            remaining--;
+            int keySize = channel.getInt();
+            if ( keyBytes.length < keySize )
+            {
+                keyBytes = new byte[keySize];
+                keyCursor = ByteArrayPageCursor.wrap( keyBytes );
+            }
+            channel.get( keyBytes, keySize );
+            keyCursor.setOffset( 0 );
+            layout.readKey( keyCursor, current, keySize );
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+}
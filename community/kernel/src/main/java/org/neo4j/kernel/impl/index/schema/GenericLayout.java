@@ -27,6 +27,7 @@ import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.values.storable.ValueGroup;
 
 import static java.util.Comparator.comparing;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.ENTITY_ID_SIZE;
 
 class GenericLayout extends IndexLayout<CompositeGenericKey>
 {
@@ -68,6 +69,9 @@ class GenericLayout extends IndexLayout<CompositeGenericKey>
         }
     }
 
+    // Entity id, type of first value and, for text, its length are stored with each key, bytes after that can be shared
+    private static final int KEY_PREFIX_COMPRESSION_OFFSET = ENTITY_ID_SIZE + Byte.BYTES + Short.BYTES;
+
     static final Type[] TYPES = Type.values();
     static final Type[] TYPE_BY_ID = new Type[TYPES.length];
     static final Type LOWEST_TYPE_BY_VALUE_GROUP = Collections.min( Arrays.asList( TYPES ), TYPE_COMPARATOR );
@@ -135,4 +139,10 @@ class GenericLayout extends IndexLayout<CompositeGenericKey>
     {
         CompositeGenericKey.minimalSplitter( left, right, into );
     }
+
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        return KEY_PREFIX_COMPRESSION_OFFSET;
+    }
 }
@@ -80,6 +80,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
 
     private WorkSync<IndexUpdateApply<KEY,VALUE>,IndexUpdateWork<KEY,VALUE>> additionsWorkSync;
     private WorkSync<IndexUpdateApply<KEY,VALUE>,IndexUpdateWork<KEY,VALUE>> updatesWorkSync;
+    private BulkLoadBuffer<KEY,VALUE> bulkLoadBuffer;
 
     private byte[] failureBytes;
     private boolean dropped;
@@ -124,6 +125,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         assertNotClosed();
 
         deleteFileIfPresent( fileSystem, storeFile );
+        BulkLoadBuffer.deleteRunFiles( fileSystem, storeFile );
         instantiateTree( RecoveryCleanupWorkCollector.immediate(), headerWriter );
 
         // true:  tree uniqueness is (value,entityId)
@@ -134,6 +136,9 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         // for updates we have to have uniqueness on (value,entityId) to allow for intermediary violating updates.
         // there are added conflict checks after updates have been applied.
         updatesWorkSync = new WorkSync<>( new IndexUpdateApply<>( tree, treeKey, treeValue, new ConflictDetectingValueMerger<>( true ) ) );
+
+        // Uniqueness conflicts must be reported by add, which bulk loading can't do since it happens later
+        bulkLoadBuffer = compareIds ? new BulkLoadBuffer<>( tree, layout, fileSystem, storeFile ) : null;
     }
 
     @Override
@@ -141,8 +146,10 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
     {
         try
         {
+            clearBulkLoadBuffer();
             closeTree();
             deleteFileIfPresent( fileSystem, storeFile );
+            BulkLoadBuffer.deleteRunFiles( fileSystem, storeFile );
         }
         finally
         {
@@ -154,6 +161,14 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
     @Override
     public void add( Collection<? extends IndexEntryUpdate<?>> updates ) throws IndexEntryConflictException
     {
+        if ( bulkLoadBuffer != null )
+        {
+            if ( bulkLoadBuffer.add( updates ) )
+            {
+                return;
+            }
+            flushBulkLoadBuffer();
+        }
         applyWithWorkSync( additionsWorkSync, updates );
     }
 
@@ -181,7 +196,12 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
             @Override
             public void close() throws IndexEntryConflictException
             {
-                applyWithWorkSync( updatesWorkSync, updates );
+                // Keep the bulk load going and apply these updates after it, if possible
+                if ( bulkLoadBuffer == null || !bulkLoadBuffer.defer( updates ) )
+                {
+                    flushBulkLoadBuffer();
+                    applyWithWorkSync( updatesWorkSync, updates );
+                }
                 closed = true;
             }
 
@@ -218,10 +238,20 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
             if ( populationCompletedSuccessfully )
             {
                 assertPopulatorOpen();
+                try
+                {
+                    flushBulkLoadBuffer();
+                }
+                catch ( IndexEntryConflictException e )
+                {
+                    // Deferred updates are applied with conflict detection on (value,entityId) and so can't conflict
+                    throw new IllegalStateException( e );
+                }
                 markTreeAsOnline();
             }
             else
             {
+                clearBulkLoadBuffer();
                 assertNotDropped();
                 ensureTreeInstantiated();
                 markTreeAsFailed();
@@ -234,6 +264,26 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         }
     }
 
+    private void flushBulkLoadBuffer() throws IndexEntryConflictException
+    {
+        if ( bulkLoadBuffer != null )
+        {
+            Collection<IndexEntryUpdate<?>> deferredUpdates = bulkLoadBuffer.flush();
+            if ( !deferredUpdates.isEmpty() )
+            {
+                applyWithWorkSync( updatesWorkSync, deferredUpdates );
+            }
+        }
+    }
+
+    private void clearBulkLoadBuffer()
+    {
+        if ( bulkLoadBuffer != null )
+        {
+            bulkLoadBuffer.clear();
+        }
+    }
+
     private void applyWithWorkSync( WorkSync<IndexUpdateApply<KEY,VALUE>,IndexUpdateWork<KEY,VALUE>> workSync,
             Collection<? extends IndexEntryUpdate<?>> updates ) throws IndexEntryConflictException
     {
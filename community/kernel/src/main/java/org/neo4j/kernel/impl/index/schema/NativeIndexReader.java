@@ -21,8 +21,12 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.collection.PrimitiveLongResourceCollections;
 import org.neo4j.collection.PrimitiveLongResourceIterator;
@@ -36,11 +40,13 @@ import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexQueryPartition;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+import static org.neo4j.storageengine.api.schema.IndexDescriptor.Type.UNIQUE;
 
 abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
         implements IndexReader
@@ -48,6 +54,10 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     protected final IndexDescriptor descriptor;
     final Layout<KEY,VALUE> layout;
     final Set<RawCursor<Hit<KEY,VALUE>,IOException>> openSeekers;
+    /**
+     * Seekers of partitions handed out by {@link #partitionedQuery(int, boolean, IndexQuery...)}, which may be closed concurrently.
+     */
+    private Set<RawCursor<Hit<KEY,VALUE>,IOException>> openPartitionSeekers;
     private final GBPTree<KEY,VALUE> tree;
     private final IndexSamplingConfig samplingConfig;
 
@@ -95,7 +105,7 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
             treeKeyFrom.initFromValue( i, propertyValues[i], NEUTRAL );
             treeKeyTo.initFromValue( i, propertyValues[i], NEUTRAL );
         }
-        try ( RawCursor<Hit<KEY,VALUE>,IOException> seeker = tree.seek( treeKeyFrom, treeKeyTo ) )
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> seeker = tree.seekExact( treeKeyFrom ) )
         {
             long count = 0;
             while ( seeker.next() )
@@ -128,10 +138,10 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
             return PrimitiveLongResourceCollections.emptyIterator();
         }
 
+        compareValuesOnlyIfUniqueExact( treeKeyFrom, treeKeyTo, predicates, needFilter );
         try
         {
-            RawCursor<Hit<KEY,VALUE>,IOException> seeker = tree.seek( treeKeyFrom, treeKeyTo );
-            openSeekers.add( seeker );
+            RawCursor<Hit<KEY,VALUE>,IOException> seeker = makeIndexSeeker( treeKeyFrom, treeKeyTo );
             return getHitIterator( seeker, needFilter, predicates );
         }
         catch ( IOException e )
@@ -161,6 +171,45 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         startSeekForInitializedRange( cursor, treeKeyFrom, treeKeyTo, predicates, needFilter, needsValues );
     }
 
+    @Override
+    public List<IndexQueryPartition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        validateQuery( IndexOrder.NONE, query );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+
+        treeKeyFrom.initialize( Long.MIN_VALUE );
+        treeKeyTo.initialize( Long.MAX_VALUE );
+
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, query );
+        if ( isBackwardsSeek( treeKeyFrom, treeKeyTo ) )
+        {
+            return Collections.singletonList( client -> client.initialize( descriptor, IndexProgressor.EMPTY, query, needsValues ) );
+        }
+
+        if ( openPartitionSeekers == null )
+        {
+            openPartitionSeekers = ConcurrentHashMap.newKeySet();
+        }
+        try
+        {
+            List<RawCursor<Hit<KEY,VALUE>,IOException>> seekers = tree.partitionedSeek( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions );
+            openPartitionSeekers.addAll( seekers );
+            List<IndexQueryPartition> partitions = new ArrayList<>( seekers.size() );
+            for ( RawCursor<Hit<KEY,VALUE>,IOException> seeker : seekers )
+            {
+                partitions.add( client -> client.initialize( descriptor,
+                        getIndexProgressor( seeker, client, needFilter, query, openPartitionSeekers ), query, needsValues ) );
+            }
+            return partitions;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     @Override
     public abstract boolean hasFullValuePrecision( IndexQuery... predicates );
 
@@ -179,10 +228,11 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
             client.initialize( descriptor, IndexProgressor.EMPTY, query, needsValues );
             return;
         }
+        compareValuesOnlyIfUniqueExact( treeKeyFrom, treeKeyTo, query, needFilter );
         try
         {
             RawCursor<Hit<KEY,VALUE>,IOException> seeker = makeIndexSeeker( treeKeyFrom, treeKeyTo );
-            IndexProgressor hitProgressor = getIndexProgressor( seeker, client, needFilter, query );
+            IndexProgressor hitProgressor = getIndexProgressor( seeker, client, needFilter, query, openSeekers );
             client.initialize( descriptor, hitProgressor, query, needsValues );
         }
         catch ( IOException e )
@@ -193,16 +243,40 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
 
     RawCursor<Hit<KEY,VALUE>,IOException> makeIndexSeeker( KEY treeKeyFrom, KEY treeKeyTo ) throws IOException
     {
-        RawCursor<Hit<KEY,VALUE>,IOException> seeker = tree.seek( treeKeyFrom, treeKeyTo );
+        // A range which can only hold a single key is better served by a point lookup
+        RawCursor<Hit<KEY,VALUE>,IOException> seeker = layout.compare( treeKeyFrom, treeKeyTo ) == 0
+                                                       ? tree.seekExact( treeKeyFrom )
+                                                       : tree.seek( treeKeyFrom, treeKeyTo );
         openSeekers.add( seeker );
         return seeker;
     }
 
+    /**
+     * A unique index holds at most one entry per value, so an unfiltered range matching exact values on all properties
+     * can be sought comparing values alone, which makes it a point lookup in {@link #makeIndexSeeker(NativeIndexKey, NativeIndexKey)}.
+     */
+    private void compareValuesOnlyIfUniqueExact( KEY treeKeyFrom, KEY treeKeyTo, IndexQuery[] predicates, boolean needFilter )
+    {
+        if ( needFilter || descriptor.type() != UNIQUE )
+        {
+            return;
+        }
+        for ( IndexQuery predicate : predicates )
+        {
+            if ( predicate.type() != IndexQuery.IndexQueryType.exact )
+            {
+                return;
+            }
+        }
+        treeKeyFrom.setCompareId( false );
+        treeKeyTo.setCompareId( false );
+    }
+
     private IndexProgressor getIndexProgressor( RawCursor<Hit<KEY,VALUE>,IOException> seeker, IndexProgressor.NodeValueClient client, boolean needFilter,
-            IndexQuery[] query )
+            IndexQuery[] query, Set<RawCursor<Hit<KEY,VALUE>,IOException>> toRemoveFromOnClose )
     {
-        return needFilter ? new FilteringNativeHitIndexProgressor<>( seeker, client, openSeekers, query )
-                          : new NativeHitIndexProgressor<>( seeker, client, openSeekers );
+        return needFilter ? new FilteringNativeHitIndexProgressor<>( seeker, client, toRemoveFromOnClose, query )
+                          : new NativeHitIndexProgressor<>( seeker, client, toRemoveFromOnClose );
     }
 
     private boolean isBackwardsSeek( KEY treeKeyFrom, KEY treeKeyTo )
@@ -216,6 +290,11 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         {
             IOUtils.closeAll( openSeekers );
             openSeekers.clear();
+            if ( openPartitionSeekers != null )
+            {
+                IOUtils.closeAll( openPartitionSeekers );
+                openPartitionSeekers.clear();
+            }
         }
         catch ( IOException e )
         {
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
@@ -38,6 +39,7 @@ import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
 import org.neo4j.kernel.impl.api.schema.BridgingIndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexQueryPartition;
 import org.neo4j.values.storable.Value;
 
 import org.neo4j.values.storable.ValueGroup;
@@ -81,6 +83,13 @@ public class SpatialIndexPartReader<VALUE extends NativeIndexValue> extends Nati
         return nodeValueIterator;
     }
 
+    @Override
+    public List<IndexQueryPartition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        // Queries can span multiple ranges of the space filling curve, serve them all in one partition
+        return Collections.singletonList( client -> query( client, IndexOrder.NONE, needsValues, query ) );
+    }
+
     @Override
     public void query( IndexProgressor.NodeValueClient cursor, IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
     {
@@ -90,6 +90,13 @@ class StringLayout extends IndexLayout<StringIndexKey>
         into.copyFrom( right, targetLength );
     }
 
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        // Entity id is stored with each key, string bytes can be shared
+        return ENTITY_ID_SIZE;
+    }
+
     static int firstPosToDiffer( byte[] leftBytes, int leftLength, byte[] rightBytes, int rightLength )
     {
         int maxLength = Math.min( leftLength, rightLength );
@@ -19,7 +19,9 @@
  */
 package org.neo4j.kernel.impl.index.schema.fusion;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.graphdb.Resource;
@@ -30,6 +32,7 @@ import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelE
 import org.neo4j.kernel.impl.api.schema.BridgingIndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexQueryPartition;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
 import org.neo4j.values.storable.Value;
@@ -115,6 +118,39 @@ class FusionIndexReader extends FusionIndexBase<IndexReader> implements IndexRea
         }
     }
 
+    @Override
+    public List<IndexQueryPartition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+            throws IndexNotApplicableKernelException
+    {
+        IndexSlot slot = slotSelector.selectSlot( query, IndexQuery::valueGroup );
+        if ( slot != null )
+        {
+            return instanceSelector.select( slot ).partitionedQuery( desiredNumberOfPartitions, needsValues, query );
+        }
+
+        // Partitions of one part never overlap with partitions of another, so they can simply be handed out together
+        List<IndexQueryPartition> partitions = new ArrayList<>();
+        try
+        {
+            instanceSelector.forAll( reader ->
+            {
+                try
+                {
+                    partitions.addAll( reader.partitionedQuery( desiredNumberOfPartitions, needsValues, query ) );
+                }
+                catch ( IndexNotApplicableKernelException e )
+                {
+                    throw new InnerException( e );
+                }
+            } );
+        }
+        catch ( InnerException e )
+        {
+            throw e.getCause();
+        }
+        return partitions;
+    }
+
     private static final class InnerException extends RuntimeException
     {
         private InnerException( IndexNotApplicableKernelException e )
@@ -34,6 +34,7 @@ import org.neo4j.kernel.api.txstate.TransactionState;
 import org.neo4j.storageengine.api.StorageNodeCursor;
 import org.neo4j.storageengine.api.txstate.LongDiffSets;
 
+import static org.neo4j.internal.kernel.api.Read.ANY_RELATIONSHIP_TYPE;
 import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
 
 class DefaultNodeCursor implements NodeCursor
@@ -135,6 +136,12 @@ class DefaultNodeCursor implements NodeCursor
         ((DefaultRelationshipGroupCursor) cursor).init( nodeReference(), relationshipGroupReference(), read );
     }
 
+    @Override
+    public void relationships( RelationshipGroupCursor cursor, int[] types )
+    {
+        ((DefaultRelationshipGroupCursor) cursor).init( nodeReference(), relationshipGroupReference(), types, read );
+    }
+
     @Override
     public void allRelationships( RelationshipTraversalCursor cursor )
     {
@@ -171,6 +178,53 @@ class DefaultNodeCursor implements NodeCursor
         return storeCursor.isDense();
     }
 
+    @Override
+    public int outgoingDegree( int type )
+    {
+        return degree( type, true, false );
+    }
+
+    @Override
+    public int incomingDegree( int type )
+    {
+        return degree( type, false, true );
+    }
+
+    @Override
+    public int totalDegree( int type )
+    {
+        return degree( type, true, true );
+    }
+
+    private int degree( int type, boolean outgoing, boolean incoming )
+    {
+        if ( isDense() )
+        {
+            // The first relationship in each chain of a group knows the length of that chain
+            try ( DefaultRelationshipGroupCursor groups = pool.allocateRelationshipGroupCursor() )
+            {
+                relationships( groups, type == ANY_RELATIONSHIP_TYPE ? null : new int[]{type} );
+                return groups.degree( outgoing, incoming );
+            }
+        }
+
+        try ( DefaultRelationshipTraversalCursor relationships = pool.allocateRelationshipTraversalCursor() )
+        {
+            allRelationships( relationships );
+            long node = nodeReference();
+            int degree = 0;
+            while ( relationships.next() )
+            {
+                if ( (type == ANY_RELATIONSHIP_TYPE || relationships.type() == type) &&
+                     (outgoing && relationships.sourceNodeReference() == node || incoming && relationships.targetNodeReference() == node) )
+                {
+                    degree++;
+                }
+            }
+            return degree;
+        }
+    }
+
     @Override
     public boolean next()
     {
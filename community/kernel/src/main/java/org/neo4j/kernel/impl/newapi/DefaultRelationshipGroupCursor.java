@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.newapi;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.eclipse.collections.api.iterator.IntIterator;
 import org.eclipse.collections.api.iterator.LongIterator;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
@@ -29,7 +30,6 @@ import org.neo4j.internal.kernel.api.RelationshipTraversalCursor;
 import org.neo4j.storageengine.api.RelationshipDirection;
 import org.neo4j.storageengine.api.StorageRelationshipGroupCursor;
 import org.neo4j.storageengine.api.txstate.NodeState;
-import org.neo4j.storageengine.api.txstate.RelationshipState;
 
 import static org.neo4j.kernel.impl.newapi.RelationshipReferenceEncoding.encodeNoIncomingRels;
 import static org.neo4j.kernel.impl.newapi.RelationshipReferenceEncoding.encodeNoLoopRels;
@@ -45,6 +45,7 @@ class DefaultRelationshipGroupCursor implements RelationshipGroupCursor
     private boolean hasCheckedTxState;
     private final MutableIntSet txTypes = new IntHashSet();
     private IntIterator txTypeIterator;
+    private int[] types;
 
     DefaultRelationshipGroupCursor( DefaultCursors pool, StorageRelationshipGroupCursor storeCursor )
     {
@@ -54,7 +55,13 @@ class DefaultRelationshipGroupCursor implements RelationshipGroupCursor
 
     void init( long nodeReference, long reference, Read read )
     {
-        storeCursor.init( nodeReference, reference );
+        init( nodeReference, reference, null, read );
+    }
+
+    void init( long nodeReference, long reference, int[] types, Read read )
+    {
+        storeCursor.init( nodeReference, reference, types );
+        this.types = types;
         this.txTypes.clear();
         this.txTypeIterator = null;
         this.hasCheckedTxState = false;
@@ -131,8 +138,13 @@ class DefaultRelationshipGroupCursor implements RelationshipGroupCursor
             LongIterator addedRelationships = nodeState.getAddedRelationships();
             while ( addedRelationships.hasNext() )
             {
-                RelationshipState relationshipState = read.txState().getRelationshipState( addedRelationships.next() );
-                relationshipState.accept( ( relationshipId, typeId, startNodeId, endNodeId ) -> txTypes.add( typeId ) );
+                read.txState().relationshipVisit( addedRelationships.next(), ( relationshipId, typeId, startNodeId, endNodeId ) ->
+                {
+                    if ( types == null || ArrayUtils.contains( types, typeId ) )
+                    {
+                        txTypes.add( typeId );
+                    }
+                } );
             }
         }
     }
@@ -186,6 +198,34 @@ class DefaultRelationshipGroupCursor implements RelationshipGroupCursor
 
     }
 
+    /**
+     * Sums up the degrees of all groups this cursor visits.
+     */
+    int degree( boolean outgoing, boolean incoming )
+    {
+        int degree = 0;
+        while ( next() )
+        {
+            degree += currentDegree( outgoing, incoming );
+        }
+        return degree;
+    }
+
+    private int currentDegree( boolean outgoing, boolean incoming )
+    {
+        // Only read the chains that are asked for, each one costs a relationship record read
+        int degree = loopCount();
+        if ( outgoing )
+        {
+            degree += outgoingCount();
+        }
+        if ( incoming )
+        {
+            degree += incomingCount();
+        }
+        return degree;
+    }
+
     @Override
     public void outgoing( RelationshipTraversalCursor cursor )
     {
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
+import org.neo4j.storageengine.api.schema.IndexQueryPartition;
+
+/**
+ * {@link PartitionedScan} over the {@link IndexQueryPartition partitions} of an index query, handing out
+ * each partition to the first cursor reserving it.
+ */
+class PartitionedNodeIndexScan implements PartitionedScan<NodeValueIndexCursor>
+{
+    static final PartitionedScan<NodeValueIndexCursor> EMPTY = new PartitionedNodeIndexScan( null, Collections.emptyList() );
+
+    private final Read read;
+    private final List<IndexQueryPartition> partitions;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+
+    PartitionedNodeIndexScan( Read read, List<IndexQueryPartition> partitions )
+    {
+        this.read = read;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public int getNumberOfPartitions()
+    {
+        return partitions.size();
+    }
+
+    @Override
+    public boolean reservePartition( NodeValueIndexCursor cursor ) throws IndexNotApplicableKernelException
+    {
+        int partition = nextPartition.getAndIncrement();
+        if ( partition >= partitions.size() )
+        {
+            return false;
+        }
+
+        DefaultNodeValueIndexCursor cursorImpl = (DefaultNodeValueIndexCursor) cursor;
+        cursorImpl.setRead( read, null );
+        partitions.get( partition ).initialize( cursorImpl );
+        return true;
+    }
+}
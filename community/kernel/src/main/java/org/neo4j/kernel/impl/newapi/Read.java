@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.newapi;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.neo4j.internal.kernel.api.IndexOrder;
 import org.neo4j.internal.kernel.api.IndexQuery;
@@ -28,6 +29,7 @@ import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.NodeExplicitIndexCursor;
 import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
 import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PartitionedScan;
 import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.RelationshipExplicitIndexCursor;
 import org.neo4j.internal.kernel.api.RelationshipGroupCursor;
@@ -53,6 +55,7 @@ import org.neo4j.kernel.impl.locking.ResourceTypes;
 import org.neo4j.storageengine.api.lock.LockTracer;
 import org.neo4j.storageengine.api.lock.ResourceType;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.IndexQueryPartition;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.values.storable.Value;
@@ -210,6 +213,27 @@ abstract class Read implements TxStateHolder,
         indexReader( index, false ).query( (DefaultNodeValueIndexCursor) cursor, indexOrder, needsValues, IndexQuery.exists( firstProperty ) );
     }
 
+    @Override
+    public final PartitionedScan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+            throws KernelException
+    {
+        ktx.assertOpen();
+        if ( hasTxStateWithChanges() )
+        {
+            throw new IllegalStateException( "Transaction contains changes, partitioned index scans are only supported in transactions without changes" );
+        }
+        if ( hasForbiddenProperties( index ) )
+        {
+            return PartitionedNodeIndexScan.EMPTY;
+        }
+
+        // as for a non-partitioned scan, we query for existence of the first property
+        int firstProperty = index.properties()[0];
+        List<IndexQueryPartition> partitions =
+                indexReader( index, false ).partitionedQuery( desiredNumberOfPartitions, needsValues, IndexQuery.exists( firstProperty ) );
+        return new PartitionedNodeIndexScan( this, partitions );
+    }
+
     private boolean hasForbiddenProperties( IndexReference index )
     {
         AccessMode mode = ktx.securityContext().mode();
@@ -19,6 +19,10 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.io.File;
+import java.util.function.Predicate;
+
+import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.Service;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -28,6 +32,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCachePartition;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
@@ -36,12 +41,21 @@ import org.neo4j.logging.Log;
 import org.neo4j.memory.GlobalMemoryTracker;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_indexes_max;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_indexes_reserved;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_record_stores_max;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_record_stores_reserved;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.kernel.configuration.Settings.BYTES;
 
 public class ConfiguringPageCacheFactory
 {
+    private static final String LABEL_SCAN_STORE_NAME = "neostore.labelscanstore.db";
+    private static final String COUNTS_STORE_NAME_PREFIX = "neostore.counts.db";
+    private static final String RECORD_STORE_NAME_PREFIX = "neostore";
+
     private PageSwapperFactory swapperFactory;
     private final FileSystemAbstraction fs;
     private final Config config;
@@ -87,8 +101,49 @@ public class ConfiguringPageCacheFactory
     {
         checkPageSize( config );
         MemoryAllocator memoryAllocator = buildMemoryAllocator( config );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
-                versionContextSupplier );
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer,
+                pageCursorTracerSupplier, versionContextSupplier );
+        addPartition( pageCache, "indexes", ConfiguringPageCacheFactory::isIndexFile,
+                pagecache_indexes_reserved, pagecache_indexes_max );
+        addPartition( pageCache, "record_stores", ConfiguringPageCacheFactory::isRecordStoreFile,
+                pagecache_record_stores_reserved, pagecache_record_stores_max );
+        return pageCache;
+    }
+
+    private void addPartition( MuninnPageCache pageCache, String name, Predicate<File> files,
+            Setting<Integer> reservedSetting, Setting<Integer> maxSetting )
+    {
+        int reserved = config.get( reservedSetting );
+        int max = config.get( maxSetting );
+        if ( reserved > 0 || max < 100 )
+        {
+            PageCachePartition partition = new PageCachePartition( name, files, reserved, max );
+            pageCache.addPartition( partition );
+            log.info( "Configured page cache partition: " + partition );
+        }
+    }
+
+    private static boolean isIndexFile( File file )
+    {
+        String name = file.getName();
+        if ( name.equals( LABEL_SCAN_STORE_NAME ) || name.startsWith( COUNTS_STORE_NAME_PREFIX ) )
+        {
+            return true;
+        }
+        // Native schema indexes live in the schema/index directory, in sub-directories per index provider and index.
+        for ( File dir = file.getParentFile(); dir != null && dir.getParentFile() != null; dir = dir.getParentFile() )
+        {
+            if ( dir.getName().equals( "index" ) && dir.getParentFile().getName().equals( "schema" ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRecordStoreFile( File file )
+    {
+        return file.getName().startsWith( RECORD_STORE_NAME_PREFIX ) && !isIndexFile( file );
     }
 
     private MemoryAllocator buildMemoryAllocator( Config config )
@@ -104,6 +159,10 @@ public class ConfiguringPageCacheFactory
             pageCacheMemorySetting = "" + heuristic;
         }
 
+        if ( config.get( pagecache_huge_pages ) )
+        {
+            return MemoryAllocator.createHugePageAllocator( pageCacheMemorySetting, GlobalMemoryTracker.INSTANCE );
+        }
         return MemoryAllocator.createAllocator( pageCacheMemorySetting, GlobalMemoryTracker.INSTANCE );
     }
 
@@ -19,12 +19,15 @@
  */
 package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
 
+import java.util.Arrays;
+
 import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
 import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
 
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.impl.newapi.RelationshipReferenceEncoding;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordRelationshipTraversalCursor.Record;
+import org.neo4j.kernel.impl.store.RelationshipGroupDirectory;
 import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
@@ -41,9 +44,26 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
 {
     private final RelationshipStore relationshipStore;
     private final RelationshipGroupStore groupStore;
+    private final RelationshipGroupDirectory directory;
     private final RelationshipRecord edge = new RelationshipRecord( NO_ID );
 
     private BufferedGroup bufferedGroup;
+    // the requested types, sorted, or null for all types
+    private int[] types;
+    private int[] typesBuffer = new int[0];
+    private long nodeReference;
+    private long firstGroup;
+    // directory of the node, groups are then read directly instead of by walking the chain
+    private RelationshipGroupDirectory.Entry directoryEntry;
+    private int typeIndex;
+    // lowest type to return when walking the chain, after falling back from the directory
+    private int fromType;
+    // types and ids of the groups seen while walking the chain, to build a directory from
+    private boolean collecting;
+    private long stamp;
+    private int seen;
+    private int[] seenTypes = new int[0];
+    private long[] seenIds = new long[0];
     private PageCursor page;
     private PageCursor edgePage;
     private boolean open;
@@ -53,11 +73,19 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
         super( NO_ID );
         this.relationshipStore = relationshipStore;
         this.groupStore = groupStore;
+        this.directory = groupStore.getDirectory();
     }
 
     @Override
     public void init( long nodeReference, long reference )
     {
+        init( nodeReference, reference, null );
+    }
+
+    @Override
+    public void init( long nodeReference, long reference, int[] types )
+    {
+        setTypes( types );
         // the relationships for this node are not grouped in the store
         if ( reference != NO_ID && isRelationship( reference ) )
         {
@@ -70,6 +98,22 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
         open = true;
     }
 
+    private void setTypes( int[] types )
+    {
+        if ( types == null )
+        {
+            this.types = null;
+            return;
+        }
+        if ( typesBuffer.length != types.length )
+        {
+            typesBuffer = new int[types.length];
+        }
+        System.arraycopy( types, 0, typesBuffer, 0, types.length );
+        Arrays.sort( typesBuffer );
+        this.types = typesBuffer;
+    }
+
     /**
      * Sparse node, i.e. fake groups by reading the whole chain and buffering it.
      */
@@ -78,6 +122,8 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
         setOwningNode( nodeReference );
         setId( NO_ID );
         setNext( NO_ID );
+        directoryEntry = null;
+        collecting = false;
 
         try ( PageCursor edgePage = relationshipStore.openPageCursorForReading( relationshipReference ) )
         {
@@ -132,6 +178,30 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
         {
             page = groupPage( reference );
         }
+        this.nodeReference = nodeReference;
+        this.firstGroup = reference;
+        this.fromType = Integer.MIN_VALUE;
+        this.directoryEntry = null;
+        this.collecting = false;
+        if ( reference != NO_ID && directory.isEnabled() )
+        {
+            RelationshipGroupDirectory.Entry entry = directory.get( nodeReference );
+            if ( entry != null )
+            {
+                // a full walk reads the chain anyway, but the entry is still valid so there is nothing to collect
+                if ( types != null )
+                {
+                    directoryEntry = entry;
+                    typeIndex = 0;
+                }
+            }
+            else
+            {
+                collecting = true;
+                stamp = directory.stamp( nodeReference );
+                seen = 0;
+            }
+        }
     }
 
     @Override
@@ -139,7 +209,11 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
     {
         if ( isBuffered() )
         {
-            bufferedGroup = bufferedGroup.next;
+            do
+            {
+                bufferedGroup = bufferedGroup.next;
+            }
+            while ( bufferedGroup != null && !isWanted( bufferedGroup.label ) );
             if ( bufferedGroup != null )
             {
                 loadFromBuffer();
@@ -147,18 +221,103 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
             }
         }
 
-        do
+        if ( directoryEntry != null )
+        {
+            return nextFromDirectory();
+        }
+
+        while ( true )
         {
             if ( getNext() == NO_ID )
             {
                 //We have now run out of groups from the store, however there may still
                 //be new types that was added in the transaction that we haven't visited yet.
+                publish();
                 return false;
             }
             group( this, getNext(), page );
-        } while ( !inUse() );
+            if ( !inUse() )
+            {
+                continue;
+            }
+            int type = getType();
+            if ( collecting )
+            {
+                collect( type, getId() );
+            }
+            if ( types != null && (types.length == 0 || type > types[types.length - 1]) )
+            {
+                // groups are sorted by type, so there are no more groups of the requested types. Keep walking only
+                // if this node has enough groups to be worth a directory.
+                if ( !collecting || seen < directory.minTypes() )
+                {
+                    collecting = false;
+                    setNext( NO_ID );
+                    return false;
+                }
+                continue;
+            }
+            if ( type >= fromType && isWanted( type ) )
+            {
+                return true;
+            }
+        }
+    }
 
-        return true;
+    private boolean nextFromDirectory()
+    {
+        while ( typeIndex < types.length )
+        {
+            int type = types[typeIndex++];
+            long groupId = directoryEntry.groupId( type );
+            if ( groupId == NO_ID )
+            {
+                continue;
+            }
+            group( this, groupId, page );
+            if ( inUse() && getOwningNode() == nodeReference && getType() == type )
+            {
+                return true;
+            }
+            // the groups of this node changed after the directory was read, walk the chain for the remaining types
+            directoryEntry = null;
+            clear();
+            setOwningNode( nodeReference );
+            setNext( firstGroup );
+            fromType = type;
+            return next();
+        }
+        return false;
+    }
+
+    private boolean isWanted( int type )
+    {
+        return types == null || Arrays.binarySearch( types, type ) >= 0;
+    }
+
+    private void collect( int type, long groupId )
+    {
+        if ( seen == seenTypes.length )
+        {
+            int size = Math.max( 16, seen * 2 );
+            seenTypes = Arrays.copyOf( seenTypes, size );
+            seenIds = Arrays.copyOf( seenIds, size );
+        }
+        seenTypes[seen] = type;
+        seenIds[seen] = groupId;
+        seen++;
+    }
+
+    private void publish()
+    {
+        if ( collecting )
+        {
+            collecting = false;
+            if ( seen >= directory.minTypes() )
+            {
+                directory.put( nodeReference, stamp, Arrays.copyOf( seenTypes, seen ), Arrays.copyOf( seenIds, seen ) );
+            }
+        }
     }
 
     @Override
@@ -185,6 +344,8 @@ class RecordRelationshipGroupCursor extends RelationshipGroupRecord implements S
         {
             open = false;
             bufferedGroup = null;
+            directoryEntry = null;
+            collecting = false;
             setId( NO_ID );
             clear();
         }
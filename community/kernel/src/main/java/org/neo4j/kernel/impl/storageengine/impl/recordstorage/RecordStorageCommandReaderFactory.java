@@ -36,13 +36,15 @@ public class RecordStorageCommandReaderFactory implements CommandReaderFactory
 
     public RecordStorageCommandReaderFactory()
     {
-        readers = new CommandReader[11]; // pessimistic size
+        readers = new CommandReader[12]; // pessimistic size
         readers[-LogEntryVersion.V2_3.byteCode()] = new PhysicalLogCommandReaderV2_2_4();
         readers[-LogEntryVersion.V3_0.byteCode()] = new PhysicalLogCommandReaderV3_0();
         readers[-LogEntryVersion.V2_3_5.byteCode()] = new PhysicalLogCommandReaderV2_2_10();
         readers[-LogEntryVersion.V3_0_2.byteCode()] = new PhysicalLogCommandReaderV3_0_2();
         // The 3_0_10 version bump is only to prevent mixed-version clusters; format is otherwise backwards compatible.
         readers[-LogEntryVersion.V3_0_10.byteCode()] = new PhysicalLogCommandReaderV3_0_2();
+        // The 3_5 version is only used for compressed command entries, the commands in them use the 3_0_10 version.
+        readers[-LogEntryVersion.V3_5.byteCode()] = new PhysicalLogCommandReaderV3_0_2();
 
         // A little extra safety check so that we got 'em all
         LogEntryVersion[] versions = LogEntryVersion.values();
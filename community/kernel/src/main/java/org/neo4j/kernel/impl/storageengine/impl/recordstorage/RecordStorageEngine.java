@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
@@ -47,6 +48,7 @@ import org.neo4j.kernel.api.txstate.TransactionCountingStateVisitor;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.BatchTransactionApplier;
 import org.neo4j.kernel.impl.api.BatchTransactionApplierFacade;
+import org.neo4j.kernel.impl.api.ConcurrentBatchTransactionApplier;
 import org.neo4j.kernel.impl.api.CountsRecordState;
 import org.neo4j.kernel.impl.api.CountsStoreBatchTransactionApplier;
 import org.neo4j.kernel.impl.api.ExplicitBatchIndexApplier;
@@ -88,6 +90,7 @@ import org.neo4j.kernel.impl.transaction.command.IndexBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.command.IndexUpdatesWork;
 import org.neo4j.kernel.impl.transaction.command.LabelUpdateWork;
 import org.neo4j.kernel.impl.transaction.command.NeoStoreBatchTransactionApplier;
+import org.neo4j.kernel.impl.transaction.command.ParallelNeoStoreBatchTransactionApplier;
 import org.neo4j.kernel.impl.transaction.state.IntegrityValidator;
 import org.neo4j.kernel.impl.transaction.state.storeview.DynamicIndexStoreView;
 import org.neo4j.kernel.impl.transaction.state.storeview.NeoStoreIndexStoreView;
@@ -98,6 +101,7 @@ import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.kernel.spi.explicitindex.IndexImplementation;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.CommandsToApply;
@@ -120,6 +124,9 @@ import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_REC
 
 public class RecordStorageEngine implements StorageEngine, Lifecycle
 {
+    // Recovered transactions smaller than this are applied to the record stores sequentially, even in parallel recovery
+    private static final int MIN_RECORD_COMMANDS_TO_PARTITION = 100;
+
     private final IndexingService indexingService;
     private final NeoStores neoStores;
     private final TokenHolders tokenHolders;
@@ -145,6 +152,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final IdController idController;
     private final int denseNodeThreshold;
     private final int recordIdBatchSize;
+    // Pool for applying to independent stores and indexes in parallel, or null for applying everything on the committing thread
+    private final Executor parallelApplyExecutor;
+    // Pool for applying recovered transactions in parallel, or null for applying them like committed transactions
+    private final Executor parallelRecoveryExecutor;
 
     public RecordStorageEngine(
             DatabaseLayout databaseLayout,
@@ -217,6 +228,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             commandReaderFactory = new RecordStorageCommandReaderFactory();
             indexUpdatesSync = new WorkSync<>( indexingService );
 
+            parallelApplyExecutor = config.get( GraphDatabaseSettings.parallel_transaction_apply )
+                                    ? scheduler.executor( Group.TRANSACTION_APPLIER ) : null;
+            parallelRecoveryExecutor = config.get( GraphDatabaseSettings.parallel_recovery )
+                                       ? scheduler.executor( Group.TRANSACTION_APPLIER ) : null;
+
             denseNodeThreshold = config.get( GraphDatabaseSettings.dense_node_threshold );
             recordIdBatchSize = config.get( GraphDatabaseSettings.record_id_batch_size );
         }
@@ -320,7 +336,16 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         ArrayList<BatchTransactionApplier> appliers = new ArrayList<>();
         // Graph store application. The order of the decorated store appliers is irrelevant
-        appliers.add( new NeoStoreBatchTransactionApplier( mode.version(), neoStores, cacheAccess, lockService( mode ) ) );
+        if ( mode == RECOVERY && parallelRecoveryExecutor != null )
+        {
+            appliers.add( new ParallelNeoStoreBatchTransactionApplier( mode.version(), neoStores, cacheAccess, lockService( mode ),
+                    parallelRecoveryExecutor, MIN_RECORD_COMMANDS_TO_PARTITION ) );
+        }
+        else
+        {
+            appliers.add( new NeoStoreBatchTransactionApplier( mode.version(), neoStores, cacheAccess, lockService( mode ) ) );
+        }
+        Executor parallelExecutor = mode == RECOVERY && parallelRecoveryExecutor != null ? parallelRecoveryExecutor : parallelApplyExecutor;
         if ( mode.needsHighIdTracking() )
         {
             appliers.add( new HighIdBatchTransactionApplier( neoStores ) );
@@ -332,12 +357,14 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         if ( mode.needsAuxiliaryStores() )
         {
             // Counts store application
-            appliers.add( new CountsStoreBatchTransactionApplier( neoStores.getCounts(), mode ) );
+            BatchTransactionApplier countsApplier = new CountsStoreBatchTransactionApplier( neoStores.getCounts(), mode );
+            appliers.add( parallelExecutor == null ? countsApplier
+                                                   : new ConcurrentBatchTransactionApplier( countsApplier, parallelExecutor ) );
 
             // Schema index application
             appliers.add( new IndexBatchTransactionApplier( indexingService, labelScanStoreSync, indexUpdatesSync,
                     neoStores.getNodeStore(), neoStores.getRelationshipStore(),
-                    indexUpdatesConverter ) );
+                    indexUpdatesConverter, parallelExecutor ) );
 
             // Explicit index application
             appliers.add(
@@ -43,7 +43,7 @@ import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.SchemaStorage;
 import org.neo4j.kernel.impl.store.StoreType;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.register.Register;
 import org.neo4j.register.Register.DoubleLongRegister;
@@ -78,7 +78,7 @@ public class RecordStorageReader implements StorageReader
     private final RelationshipGroupStore relationshipGroupStore;
     private final PropertyStore propertyStore;
     private final SchemaStorage schemaStorage;
-    private final CountsTracker counts;
+    private final CountsStore counts;
     private final SchemaCache schemaCache;
 
     private final Supplier<IndexReaderFactory> indexReaderFactorySupplier;
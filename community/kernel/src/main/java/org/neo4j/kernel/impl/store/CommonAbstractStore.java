@@ -424,11 +424,25 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
      */
     @Override
     public PageCursor openPageCursorForReading( long id )
+    {
+        return openPageCursor( id, PF_SHARED_READ_LOCK );
+    }
+
+    /**
+     * DANGER: make sure to always close this cursor.
+     */
+    @Override
+    public PageCursor openPageCursorForScanning( long id )
+    {
+        return openPageCursor( id, PF_SHARED_READ_LOCK | PF_READ_AHEAD );
+    }
+
+    private PageCursor openPageCursor( long id, int pfFlags )
     {
         try
         {
             long pageId = pageIdForRecord( id );
-            return pagedFile.io( pageId, PF_SHARED_READ_LOCK );
+            return pagedFile.io( pageId, pfFlags );
         }
         catch ( IOException e )
         {
@@ -1161,7 +1175,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
     @Override
     public <EXCEPTION extends Exception> void scanAllRecords( Visitor<RECORD,EXCEPTION> visitor ) throws EXCEPTION
     {
-        try ( PageCursor cursor = openPageCursorForReading( 0 ) )
+        try ( PageCursor cursor = openPageCursorForScanning( 0 ) )
         {
             RECORD record = newRecord();
             long highId = getHighId();
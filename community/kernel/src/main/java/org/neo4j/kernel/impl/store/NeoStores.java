@@ -43,7 +43,9 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.NeoStoresDiagnostics;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
 import org.neo4j.kernel.impl.store.counts.ReadOnlyCountsTracker;
 import org.neo4j.kernel.impl.store.format.CapabilityType;
 import org.neo4j.kernel.impl.store.format.FormatFamily;
@@ -245,7 +247,7 @@ public class NeoStores implements AutoCloseable
     {
         try
         {
-            CountsTracker counts = (CountsTracker) stores[StoreType.COUNTS.ordinal()];
+            CountsStore counts = (CountsStore) stores[StoreType.COUNTS.ordinal()];
             if ( counts != null )
             {
                 counts.rotate( getMetaDataStore().getLastCommittedTransactionId() );
@@ -423,9 +425,9 @@ public class NeoStores implements AutoCloseable
         return (SchemaStore) getStore( StoreType.SCHEMA );
     }
 
-    public CountsTracker getCounts()
+    public CountsStore getCounts()
     {
-        return (CountsTracker) getStore( StoreType.COUNTS );
+        return (CountsStore) getStore( StoreType.COUNTS );
     }
 
     private CountsTracker createWritableCountsTracker( DatabaseLayout databaseLayout )
@@ -439,6 +441,22 @@ public class NeoStores implements AutoCloseable
         return new ReadOnlyCountsTracker( logProvider, fileSystemAbstraction, pageCache, config, databaseLayout );
     }
 
+    private void deleteStaleCountsFiles( boolean readOnly, File... files )
+    {
+        if ( readOnly )
+        {
+            return;
+        }
+        for ( File file : files )
+        {
+            if ( fileSystemAbstraction.fileExists( file ) )
+            {
+                logProvider.getLog( getClass() ).warn( "Deleting counts store file %s, which isn't used with the current configuration.", file );
+                fileSystemAbstraction.deleteFile( file );
+            }
+        }
+    }
+
     private Iterable<CommonAbstractStore> instantiatedRecordStores()
     {
         Iterator<StoreType> storeTypes = new FilteringIterator<>( iterator( STORE_TYPES ), INSTANTIATED_RECORD_STORES );
@@ -623,12 +641,21 @@ public class NeoStores implements AutoCloseable
                 TokenStore.NAME_STORE_BLOCK_SIZE );
     }
 
-    CountsTracker createCountStore()
+    CountsStore createCountStore()
     {
         boolean readOnly = config.get( GraphDatabaseSettings.read_only );
-        CountsTracker counts = readOnly
-                               ? createReadOnlyCountsTracker( layout )
-                               : createWritableCountsTracker( layout );
+        CountsStore counts;
+        if ( config.get( GraphDatabaseSettings.counts_store_gbptree ) )
+        {
+            // Counts kept in the other format are stale, remove them to have them rebuilt if the setting is switched back
+            deleteStaleCountsFiles( readOnly, layout.countStoreA(), layout.countStoreB() );
+            counts = new GBPTreeCountsStore( logProvider, fileSystemAbstraction, pageCache, config, layout, readOnly );
+        }
+        else
+        {
+            deleteStaleCountsFiles( readOnly, layout.file( GBPTreeCountsStore.FILE_NAME ) );
+            counts = readOnly ? createReadOnlyCountsTracker( layout ) : createWritableCountsTracker( layout );
+        }
         NeoStores neoStores = this;
         counts.setInitializer( new DataInitializer<CountsAccessor.Updater>()
         {
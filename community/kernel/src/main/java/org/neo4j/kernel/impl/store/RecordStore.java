@@ -124,6 +124,16 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
      */
     PageCursor openPageCursorForReading( long id );
 
+    /**
+     * Opens a {@link PageCursor} like {@link #openPageCursorForReading(long)}, for reading many records in id order.
+     * The cursor reads ahead of the pages it faults in, see {@link org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD}.
+     * The caller is responsible for closing it when done with it.
+     *
+     * @param id cursor will initially be placed at the page containing this record id.
+     * @return PageCursor for reading records.
+     */
+    PageCursor openPageCursorForScanning( long id );
+
     /**
      * Reads a record from the store into {@code target}, see
      * {@link RecordStore#getRecord(long, AbstractBaseRecord, RecordLoad)}.
@@ -309,6 +319,12 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
             return actual.openPageCursorForReading( id );
         }
 
+        @Override
+        public PageCursor openPageCursorForScanning( long id )
+        {
+            return actual.openPageCursorForScanning( id );
+        }
+
         @Override
         public void getRecordByCursor( long id, R target, RecordLoad mode, PageCursor cursor ) throws InvalidRecordException
         {
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
+
+/**
+ * In-memory directory of the relationship groups of nodes with many relationship types, mapping each type to the id of
+ * the group of that type. Without it, finding the group of a type means walking the chain of groups of the node, which
+ * costs one random read per group.
+ * <p>
+ * A directory is published by a reader which has walked a chain of at least {@link #minTypes()} groups, and is removed
+ * whenever a group of its node is written. A reader takes a {@link #stamp(long) stamp} before walking the chain, and a
+ * directory whose stamp has changed by the time it's published, i.e. which may have been built from a chain that was
+ * being written to, is discarded. Ids of deleted groups are reused, so readers must verify the groups they find here.
+ */
+public class RelationshipGroupDirectory
+{
+    private static final int STRIPES = 1 << 10;
+    private static final long MAX_GROUPS = FeatureToggles.getLong( RelationshipGroupDirectory.class, "maxGroups", 1_000_000 );
+
+    private final int minTypes;
+    private final ConcurrentHashMap<Long,Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray( STRIPES );
+    private final AtomicLong groups = new AtomicLong();
+
+    /**
+     * @param minTypes number of groups a node must have to get a directory, or {@code 0} to not keep any directories.
+     */
+    public RelationshipGroupDirectory( int minTypes )
+    {
+        this.minTypes = minTypes;
+    }
+
+    public boolean isEnabled()
+    {
+        return minTypes > 0;
+    }
+
+    public int minTypes()
+    {
+        return minTypes;
+    }
+
+    /**
+     * @return the directory of the given node, or {@code null} if there is none.
+     */
+    public Entry get( long node )
+    {
+        return entries.get( node );
+    }
+
+    /**
+     * @return stamp to pass into {@link #put(long, long, int[], long[])} with a directory built after this call.
+     */
+    public long stamp( long node )
+    {
+        return stamps.get( stripe( node ) );
+    }
+
+    /**
+     * Publishes the directory of a node, unless the groups of that node may have changed since the given stamp was taken.
+     *
+     * @param types types of the groups, in the order of the chain, which is sorted by type.
+     * @param groupIds ids of the groups, in the same order as the types.
+     */
+    public void put( long node, long stamp, int[] types, long[] groupIds )
+    {
+        if ( !isSorted( types ) || groups.get() + types.length > MAX_GROUPS )
+        {
+            return;
+        }
+        Entry entry = new Entry( types, groupIds );
+        groups.addAndGet( types.length );
+        Entry previous = entries.put( node, entry );
+        if ( previous != null )
+        {
+            groups.addAndGet( -previous.types.length );
+        }
+        if ( stamps.get( stripe( node ) ) != stamp )
+        {
+            // A group of this node was written while the directory was built. That write may have removed the directory
+            // before it was published, so remove it again.
+            remove( node, entry );
+        }
+    }
+
+    /**
+     * Called after a group of the given node has been written.
+     */
+    public void invalidate( long node )
+    {
+        stamps.incrementAndGet( stripe( node ) );
+        Entry removed = entries.remove( node );
+        if ( removed != null )
+        {
+            groups.addAndGet( -removed.types.length );
+        }
+    }
+
+    private void remove( long node, Entry entry )
+    {
+        if ( entries.remove( node, entry ) )
+        {
+            groups.addAndGet( -entry.types.length );
+        }
+    }
+
+    private static int stripe( long node )
+    {
+        return (int) (node & (STRIPES - 1));
+    }
+
+    private static boolean isSorted( int[] types )
+    {
+        for ( int i = 1; i < types.length; i++ )
+        {
+            if ( types[i - 1] >= types[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static class Entry
+    {
+        private final int[] types;
+        private final long[] groupIds;
+
+        Entry( int[] types, long[] groupIds )
+        {
+            this.types = types;
+            this.groupIds = groupIds;
+        }
+
+        /**
+         * @return id of the group of the given type, or {@link org.neo4j.kernel.impl.store.record.AbstractBaseRecord#NO_ID}
+         * if the node has no group of that type.
+         */
+        public long groupId( int type )
+        {
+            int index = Arrays.binarySearch( types, type );
+            return index >= 0 ? groupIds[index] : NO_ID;
+        }
+    }
+}
@@ -35,6 +35,8 @@ public class RelationshipGroupStore extends CommonAbstractStore<RelationshipGrou
 {
     public static final String TYPE_DESCRIPTOR = "RelationshipGroupStore";
 
+    private final RelationshipGroupDirectory directory;
+
     public RelationshipGroupStore(
             String databaseName,
             File file,
@@ -49,6 +51,22 @@ public class RelationshipGroupStore extends CommonAbstractStore<RelationshipGrou
         super( databaseName, file, idFile, config, IdType.RELATIONSHIP_GROUP, idGeneratorFactory, pageCache, logProvider, TYPE_DESCRIPTOR,
                 recordFormats.relationshipGroup(), new IntStoreHeaderFormat( config.get( GraphDatabaseSettings.dense_node_threshold ) ),
                 recordFormats.storeVersion(), openOptions );
+        this.directory = new RelationshipGroupDirectory( config.get( GraphDatabaseSettings.relationship_group_directory_min_types ) );
+    }
+
+    @Override
+    public void updateRecord( RelationshipGroupRecord record )
+    {
+        super.updateRecord( record );
+        if ( directory.isEnabled() )
+        {
+            directory.invalidate( record.getOwningNode() );
+        }
+    }
+
+    public RelationshipGroupDirectory getDirectory()
+    {
+        return directory;
     }
 
     @Override
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.register.Register;
+
+/**
+ * The counts store as seen by the storage engine: counts are read through {@link CountsAccessor}, changed
+ * transactionally through {@link #apply(long)} and made durable by {@link #rotate(long)} as part of each check point.
+ *
+ * @see CountsTracker
+ * @see GBPTreeCountsStore
+ */
+public interface CountsStore extends CountsAccessor, Lifecycle
+{
+    /**
+     * @param initializer called to populate the store if its files are missing when the store is {@link #init() initialized}.
+     * @return this store, for convenience.
+     */
+    CountsStore setInitializer( DataInitializer<CountsAccessor.Updater> initializer );
+
+    /**
+     * @param txId the lowest transaction id that must be included in the snapshot created by the rotation.
+     * @return the highest transaction id that was included in the snapshot created by the rotation.
+     */
+    long rotate( long txId ) throws IOException;
+
+    /**
+     * @return the transaction id of the most recent durable snapshot of this store.
+     */
+    long txId();
+
+    Register.DoubleLongRegister get( CountsKey key, Register.DoubleLongRegister target );
+
+    /**
+     * @param txId id of the transaction whose count changes are about to be applied.
+     * @return an updater for the changes of that transaction, or {@link Optional#empty()} if the changes
+     * of that transaction are already included in this store, which is the case during recovery.
+     */
+    Optional<CountsAccessor.Updater> apply( long txId );
+
+    CountsAccessor.IndexStatsUpdater updateIndexCounts();
+
+    /**
+     * @param txId the transaction id which the new contents of the store will be associated with.
+     * @return an updater replacing all contents of this store once {@link CountsAccessor.Updater#close() closed}.
+     */
+    CountsAccessor.Updater reset( long txId );
+
+    Iterable<File> allFiles();
+
+    @Override
+    void init() throws IOException;
+
+    @Override
+    void start() throws IOException;
+
+    @Override
+    void shutdown() throws IOException;
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKeyType;
+
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexSampleKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexStatisticsKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.nodeKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relationshipKey;
+
+/**
+ * Keys in {@link CountsTreeLayout}, each key consists of the {@link CountsKeyType#code code} of the key type and two
+ * key type specific fields:
+ * <ul>
+ * <li>node count: label id, 0</li>
+ * <li>relationship count: start label id in the high and relationship type id in the low 32 bits, end label id</li>
+ * <li>index statistics and index sample: index id, 0</li>
+ * </ul>
+ */
+class CountsTreeKey implements CountsVisitor
+{
+    byte type;
+    long first;
+    long second;
+
+    CountsTreeKey()
+    {
+        clear();
+    }
+
+    /**
+     * Sets this key.
+     *
+     * @param type {@link CountsKeyType#code} of the key type.
+     * @param first first key type specific field.
+     * @param second second key type specific field.
+     * @return this key instance, for convenience.
+     */
+    final CountsTreeKey set( byte type, long first, long second )
+    {
+        this.type = type;
+        this.first = first;
+        this.second = second;
+        return this;
+    }
+
+    /**
+     * Sets this key to represent the given {@link CountsKey}.
+     *
+     * @param key the {@link CountsKey} to represent.
+     * @return this key instance, for convenience.
+     */
+    final CountsTreeKey set( CountsKey key )
+    {
+        key.accept( this, 0, 0 );
+        return this;
+    }
+
+    final void clear()
+    {
+        set( CountsKeyType.EMPTY.code, 0, 0 );
+    }
+
+    CountsKey toCountsKey()
+    {
+        switch ( CountsKeyType.value( type ) )
+        {
+        case ENTITY_NODE:
+            return nodeKey( first );
+        case ENTITY_RELATIONSHIP:
+            return relationshipKey( (int) (first >> Integer.SIZE), (int) first, second );
+        case INDEX_STATISTICS:
+            return indexStatisticsKey( first );
+        case INDEX_SAMPLE:
+            return indexSampleKey( first );
+        default:
+            throw new IllegalStateException( "Unexpected key type " + type );
+        }
+    }
+
+    @Override
+    public void visitNodeCount( int labelId, long count )
+    {
+        set( CountsKeyType.ENTITY_NODE.code, labelId, 0 );
+    }
+
+    @Override
+    public void visitRelationshipCount( int startLabelId, int typeId, int endLabelId, long count )
+    {
+        set( CountsKeyType.ENTITY_RELATIONSHIP.code, ((long) startLabelId << Integer.SIZE) | (typeId & 0xFFFFFFFFL), endLabelId );
+    }
+
+    @Override
+    public void visitIndexStatistics( long indexId, long updates, long size )
+    {
+        set( CountsKeyType.INDEX_STATISTICS.code, indexId, 0 );
+    }
+
+    @Override
+    public void visitIndexSample( long indexId, long unique, long size )
+    {
+        set( CountsKeyType.INDEX_SAMPLE.code, indexId, 0 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[type:" + type + ",first:" + first + ",second:" + second + "]";
+    }
+}
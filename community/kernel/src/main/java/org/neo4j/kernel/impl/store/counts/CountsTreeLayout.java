@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.index.internal.gbptree.ValueMerger;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * {@link Layout} for {@link GBPTree} used by {@link GBPTreeCountsStore}, with fixed size {@link CountsTreeKey keys}
+ * and {@link CountsTreeValue values}.
+ */
+class CountsTreeLayout extends Layout.Adapter<CountsTreeKey,CountsTreeValue>
+{
+    /**
+     * Name part of the {@link #identifier()} value.
+     */
+    private static final String IDENTIFIER_NAME = "CNT";
+
+    private static final int KEY_SIZE = Byte.BYTES + Long.BYTES + Long.BYTES;
+    private static final int VALUE_SIZE = Long.BYTES + Long.BYTES;
+
+    /**
+     * {@link ValueMerger} adding the new value, being a delta, to the existing value.
+     */
+    static final ValueMerger<CountsTreeKey,CountsTreeValue> ADD = ( existingKey, newKey, existingValue, newValue ) ->
+            existingValue.set( existingValue.first + newValue.first, existingValue.second + newValue.second );
+
+    /**
+     * Compares {@link CountsTreeKey}, giving ascending order of key type, then the key type specific fields.
+     */
+    @Override
+    public int compare( CountsTreeKey o1, CountsTreeKey o2 )
+    {
+        int comparison = Byte.compare( o1.type, o2.type );
+        if ( comparison == 0 )
+        {
+            comparison = Long.compare( o1.first, o2.first );
+            if ( comparison == 0 )
+            {
+                comparison = Long.compare( o1.second, o2.second );
+            }
+        }
+        return comparison;
+    }
+
+    @Override
+    public CountsTreeKey newKey()
+    {
+        return new CountsTreeKey();
+    }
+
+    @Override
+    public CountsTreeKey copyKey( CountsTreeKey key, CountsTreeKey into )
+    {
+        return into.set( key.type, key.first, key.second );
+    }
+
+    @Override
+    public CountsTreeValue newValue()
+    {
+        return new CountsTreeValue();
+    }
+
+    @Override
+    public int keySize( CountsTreeKey key )
+    {
+        return KEY_SIZE;
+    }
+
+    @Override
+    public int valueSize( CountsTreeValue value )
+    {
+        return VALUE_SIZE;
+    }
+
+    @Override
+    public void writeKey( PageCursor cursor, CountsTreeKey key )
+    {
+        cursor.putByte( key.type );
+        cursor.putLong( key.first );
+        cursor.putLong( key.second );
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, CountsTreeValue value )
+    {
+        cursor.putLong( value.first );
+        cursor.putLong( value.second );
+    }
+
+    @Override
+    public void readKey( PageCursor cursor, CountsTreeKey into, int keySize )
+    {
+        into.type = cursor.getByte();
+        into.first = cursor.getLong();
+        into.second = cursor.getLong();
+    }
+
+    @Override
+    public void readValue( PageCursor cursor, CountsTreeValue into, int valueSize )
+    {
+        into.first = cursor.getLong();
+        into.second = cursor.getLong();
+    }
+
+    @Override
+    public boolean fixedSize()
+    {
+        return true;
+    }
+
+    @Override
+    public long identifier()
+    {
+        return Layout.namedIdentifier( IDENTIFIER_NAME, KEY_SIZE );
+    }
+
+    @Override
+    public int majorVersion()
+    {
+        return 0;
+    }
+
+    @Override
+    public int minorVersion()
+    {
+        return 1;
+    }
+}
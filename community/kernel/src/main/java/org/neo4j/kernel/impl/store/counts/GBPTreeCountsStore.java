@@ -0,0 +1,719 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.eclipse.collections.api.map.primitive.MutableObjectLongMap;
+import org.eclipse.collections.api.map.primitive.ObjectLongMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectLongHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.BulkLoader;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.impl.store.kvstore.RotationTimeoutException;
+import org.neo4j.kernel.impl.util.ArrayQueueOutOfOrderSequence;
+import org.neo4j.kernel.impl.util.OutOfOrderSequence;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.register.Register;
+import org.neo4j.util.FeatureToggles;
+
+import static java.util.Collections.singletonList;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.counts_store_rotation_timeout;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.ignore;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexSampleKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexStatisticsKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.nodeKey;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relationshipKey;
+
+/**
+ * Counts store keeping its counts in a {@link GBPTree}, as an alternative to the {@link CountsTracker}.
+ *
+ * Transactions don't write to the tree. The count deltas of each applied transaction are kept in memory, keyed by
+ * transaction id, and reads add the sum of the pending deltas of a key to the value found in the tree.
+ * A {@link #rotate(long) check point} merges the deltas of all transactions up to the given transaction id into
+ * the tree and then check points the tree, with that transaction id in its header. Only the keys that changed since
+ * the previous check point are written, so the cost of a check point depends on the number of changed counts rather
+ * than the total number of counts. After a crash the tree comes back as of its last check point and recovery replays
+ * the transactions after the transaction id in the header; {@link #apply(long)} ignores the ones before it.
+ *
+ * Index statistics and samples aren't transactional, they are kept as absolute values until the next check point.
+ *
+ * A missing, corrupt or partially rebuilt tree is rebuilt from the {@link #setInitializer(DataInitializer) initializer},
+ * typically the {@link org.neo4j.kernel.impl.store.CountsComputer} which counts using multiple threads,
+ * and the result is bulk loaded into a new tree.
+ */
+public class GBPTreeCountsStore extends LifecycleAdapter implements CountsStore
+{
+    public static final String FILE_NAME = "neostore.counts.db";
+
+    private static final double FILL_FACTOR = FeatureToggles.getDouble( GBPTreeCountsStore.class, "fillFactor", 0.9 );
+    /**
+     * Transaction id in the header of a tree which hasn't been completely built yet.
+     */
+    private static final long NEEDS_REBUILD = -1;
+    private static final long[] NO_META = new long[0];
+    /**
+     * Updater of transactions which are already in the tree.
+     */
+    private static final CountsAccessor.Updater NO_UPDATES = new CountsAccessor.Updater()
+    {
+        @Override
+        public void incrementNodeCount( long labelId, long delta )
+        {
+        }
+
+        @Override
+        public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final File file;
+    private final Log log;
+    private final boolean readOnly;
+    private final long rotationTimeoutMillis;
+    private final CountsTreeLayout layout = new CountsTreeLayout();
+
+    /**
+     * Count deltas of applied transactions which aren't in the tree yet, by transaction id.
+     */
+    private final ConcurrentSkipListMap<Long,ObjectLongMap<CountsKey>> pendingTransactions = new ConcurrentSkipListMap<>();
+    /**
+     * Sum of the deltas in {@link #pendingTransactions}, by key. Keys whose deltas sum up to zero are removed.
+     */
+    private final ConcurrentHashMap<CountsKey,Long> pendingDeltas = new ConcurrentHashMap<>();
+    /**
+     * Index statistics and samples which changed since the last check point. Values are replaced, never modified.
+     */
+    private final ConcurrentHashMap<CountsKey,CountsTreeValue> pendingIndexCounts = new ConcurrentHashMap<>();
+    /**
+     * Held exclusively while a check point moves pending changes into the tree, so that readers never see
+     * those changes twice, or not at all.
+     */
+    private final StampedLock checkpointLock = new StampedLock();
+
+    private DataInitializer<CountsAccessor.Updater> initializer;
+    private volatile GBPTree<CountsTreeKey,CountsTreeValue> tree;
+    private volatile long txId;
+    private volatile OutOfOrderSequence appliedTransactions;
+
+    public GBPTreeCountsStore( LogProvider logProvider, FileSystemAbstraction fs, PageCache pageCache, Config config,
+            DatabaseLayout databaseLayout, boolean readOnly )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.file = databaseLayout.file( FILE_NAME );
+        this.log = logProvider.getLog( getClass() );
+        this.readOnly = readOnly;
+        this.rotationTimeoutMillis = config.get( counts_store_rotation_timeout ).toMillis();
+    }
+
+    @Override
+    public GBPTreeCountsStore setInitializer( DataInitializer<CountsAccessor.Updater> initializer )
+    {
+        this.initializer = initializer;
+        return this;
+    }
+
+    @Override
+    public void init() throws IOException
+    {
+        if ( fs.fileExists( file ) && !open() )
+        {
+            fs.deleteFile( file );
+        }
+        if ( tree == null && readOnly )
+        {
+            throw new IOException( "Counts store " + file + " is missing or incomplete and can't be rebuilt in read only mode" );
+        }
+        appliedTransactions = new ArrayQueueOutOfOrderSequence( txId, 200, NO_META );
+    }
+
+    /**
+     * @return {@code true} if the existing tree was opened, otherwise {@code false} if it was corrupt or incomplete.
+     */
+    private boolean open()
+    {
+        long[] headerTxId = {NEEDS_REBUILD};
+        GBPTree<CountsTreeKey,CountsTreeValue> opened;
+        try
+        {
+            opened = new GBPTree<>( pageCache, file, layout, 0, GBPTree.NO_MONITOR,
+                    headerData -> headerTxId[0] = headerData.remaining() >= Long.BYTES ? headerData.getLong() : NEEDS_REBUILD,
+                    header( NEEDS_REBUILD ), readOnly ? ignore() : immediate() );
+        }
+        catch ( RuntimeException e )
+        {
+            // Typically MetadataMismatchException or TreeInconsistencyException, but a corrupt file may fail in other ways too
+            log.warn( "Failed to open counts store " + file + ", it will be rebuilt.", e );
+            return false;
+        }
+
+        if ( headerTxId[0] == NEEDS_REBUILD )
+        {
+            log.warn( "Counts store " + file + " was not completely built, it will be rebuilt." );
+            closeTree( opened );
+            return false;
+        }
+        tree = opened;
+        txId = headerTxId[0];
+        return true;
+    }
+
+    private void rebuild()
+    {
+        try ( RebuildUpdater updater = new RebuildUpdater( initializer.initialVersion() ) )
+        {
+            initializer.initialize( updater );
+        }
+    }
+
+    /**
+     * A missing tree is rebuilt here rather than in {@link #init()}, so that it is built from the store as it
+     * looks after recovery. Recovered transactions are not applied to a store which doesn't exist yet.
+     */
+    @Override
+    public void start()
+    {
+        if ( tree == null )
+        {
+            if ( initializer == null )
+            {
+                throw new IllegalStateException( "Counts store " + file + " needs to be rebuilt, but no initializer is set" );
+            }
+            log.warn( "Missing counts store " + file + ", rebuilding it." );
+            rebuild();
+        }
+    }
+
+    @Override
+    public synchronized long rotate( long txId ) throws IOException
+    {
+        if ( readOnly )
+        {
+            return -1;
+        }
+        if ( tree == null )
+        {
+            // Check point at the end of recovery, before the store has been rebuilt
+            return this.txId;
+        }
+        awaitApplied( txId );
+
+        NavigableMap<Long,ObjectLongMap<CountsKey>> checkpointed = pendingTransactions.headMap( txId, true );
+        MutableObjectLongMap<CountsKey> deltas = new ObjectLongHashMap<>();
+        checkpointed.values().forEach( transaction -> transaction.forEachKeyValue( deltas::addToValue ) );
+        List<Map.Entry<CountsKey,CountsTreeValue>> indexCounts = new ArrayList<>( pendingIndexCounts.entrySet() );
+
+        long stamp = checkpointLock.writeLock();
+        try
+        {
+            try ( Writer<CountsTreeKey,CountsTreeValue> writer = tree.writer() )
+            {
+                CountsTreeKey treeKey = new CountsTreeKey();
+                CountsTreeValue treeValue = new CountsTreeValue();
+                // Keys are written in sorted order to make the tree updates touch as few pages as possible
+                for ( CountsKey key : deltas.keysView().toSortedList() )
+                {
+                    long delta = deltas.get( key );
+                    if ( delta != 0 )
+                    {
+                        writer.merge( treeKey.set( key ), treeValue.set( 0, delta ), CountsTreeLayout.ADD );
+                    }
+                }
+                for ( Map.Entry<CountsKey,CountsTreeValue> entry : indexCounts )
+                {
+                    writer.put( treeKey.set( entry.getKey() ), entry.getValue() );
+                }
+            }
+            deltas.forEachKeyValue( ( key, delta ) -> pendingDeltas.merge( key, -delta, GBPTreeCountsStore::sumOrNull ) );
+            indexCounts.forEach( entry -> pendingIndexCounts.remove( entry.getKey(), entry.getValue() ) );
+            checkpointed.clear();
+        }
+        finally
+        {
+            checkpointLock.unlockWrite( stamp );
+        }
+
+        long checkpointedTxId = Math.max( txId, this.txId );
+        tree.checkpoint( IOLimiter.UNLIMITED, header( checkpointedTxId ) );
+        this.txId = checkpointedTxId;
+        return checkpointedTxId;
+    }
+
+    private void awaitApplied( long txId ) throws IOException
+    {
+        OutOfOrderSequence applied = appliedTransactions;
+        try
+        {
+            applied.await( txId, rotationTimeoutMillis );
+        }
+        catch ( TimeoutException e )
+        {
+            throw new RotationTimeoutException( txId, applied.getHighestGapFreeNumber(), rotationTimeoutMillis );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException( "Counts store check point was interrupted." ).initCause( e );
+        }
+    }
+
+    @Override
+    public long txId()
+    {
+        return txId;
+    }
+
+    @Override
+    public Register.DoubleLongRegister get( CountsKey key, Register.DoubleLongRegister target )
+    {
+        long stamp = checkpointLock.tryOptimisticRead();
+        if ( stamp != 0 )
+        {
+            try
+            {
+                read( key, target );
+                if ( checkpointLock.validate( stamp ) )
+                {
+                    return target;
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                // A check point or reset may have changed, or closed and replaced, the tree while we read it without
+                // holding the lock. Only a failure seen without any such concurrent change is a real one.
+                if ( checkpointLock.validate( stamp ) )
+                {
+                    throw e;
+                }
+            }
+        }
+
+        stamp = checkpointLock.readLock();
+        try
+        {
+            read( key, target );
+        }
+        finally
+        {
+            checkpointLock.unlockRead( stamp );
+        }
+        return target;
+    }
+
+    private void read( CountsKey key, Register.DoubleLongRegister target )
+    {
+        CountsTreeValue value = pendingIndexCounts.get( key );
+        if ( value == null )
+        {
+            value = lookup( key );
+            Long delta = pendingDeltas.get( key );
+            if ( delta != null )
+            {
+                value.second += delta;
+            }
+        }
+        target.write( value.first, value.second );
+    }
+
+    private CountsTreeValue lookup( CountsKey key )
+    {
+        CountsTreeValue value = new CountsTreeValue();
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = tree.seekExact( new CountsTreeKey().set( key ) ) )
+        {
+            if ( seek.next() )
+            {
+                CountsTreeValue found = seek.get().value();
+                value.set( found.first, found.second );
+            }
+            return value;
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    @Override
+    public Register.DoubleLongRegister nodeCount( int labelId, Register.DoubleLongRegister target )
+    {
+        return get( nodeKey( labelId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister relationshipCount( int startLabelId, int typeId, int endLabelId, Register.DoubleLongRegister target )
+    {
+        return get( relationshipKey( startLabelId, typeId, endLabelId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister indexUpdatesAndSize( long indexId, Register.DoubleLongRegister target )
+    {
+        return get( indexStatisticsKey( indexId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister indexSample( long indexId, Register.DoubleLongRegister target )
+    {
+        return get( indexSampleKey( indexId ), target );
+    }
+
+    @Override
+    public Optional<CountsAccessor.Updater> apply( long txId )
+    {
+        if ( tree == null )
+        {
+            // Recovered transactions are already part of what the rebuild in start() will count
+            return Optional.empty();
+        }
+        return Optional.of( txId <= this.txId ? NO_UPDATES : new TransactionUpdater( txId ) );
+    }
+
+    @Override
+    public CountsAccessor.IndexStatsUpdater updateIndexCounts()
+    {
+        return new IndexStatsUpdater();
+    }
+
+    @Override
+    public CountsAccessor.Updater reset( long txId )
+    {
+        return new RebuildUpdater( txId );
+    }
+
+    @Override
+    public void accept( CountsVisitor visitor )
+    {
+        long stamp = checkpointLock.readLock();
+        try
+        {
+            Set<CountsKey> visited = new HashSet<>();
+            CountsTreeKey low = new CountsTreeKey().set( Byte.MIN_VALUE, Long.MIN_VALUE, Long.MIN_VALUE );
+            CountsTreeKey high = new CountsTreeKey().set( Byte.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE );
+            try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = tree.seek( low, high ) )
+            {
+                while ( seek.next() )
+                {
+                    CountsKey key = seek.get().key().toCountsKey();
+                    CountsTreeValue value = seek.get().value();
+                    visited.add( key );
+                    visit( visitor, key, value.first, value.second );
+                }
+            }
+            pendingDeltas.forEach( ( key, delta ) ->
+            {
+                if ( !visited.contains( key ) )
+                {
+                    visit( visitor, key, 0, 0 );
+                }
+            } );
+            pendingIndexCounts.forEach( ( key, value ) ->
+            {
+                if ( !visited.contains( key ) )
+                {
+                    visit( visitor, key, 0, 0 );
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+        finally
+        {
+            checkpointLock.unlockRead( stamp );
+        }
+    }
+
+    private void visit( CountsVisitor visitor, CountsKey key, long first, long second )
+    {
+        CountsTreeValue indexCounts = pendingIndexCounts.get( key );
+        if ( indexCounts != null )
+        {
+            first = indexCounts.first;
+            second = indexCounts.second;
+        }
+        else
+        {
+            second += pendingDeltas.getOrDefault( key, 0L );
+        }
+        if ( first != 0 || second != 0 )
+        {
+            key.accept( visitor, first, second );
+        }
+    }
+
+    @Override
+    public Iterable<File> allFiles()
+    {
+        return singletonList( file );
+    }
+
+    @Override
+    public void shutdown() throws IOException
+    {
+        if ( tree != null )
+        {
+            tree.close();
+            tree = null;
+        }
+    }
+
+    private synchronized void replaceContents( Map<CountsKey,CountsTreeValue> counts, long txId ) throws IOException
+    {
+        TreeMap<CountsTreeKey,CountsTreeValue> sorted = new TreeMap<>( layout );
+        counts.forEach( ( key, value ) ->
+        {
+            if ( !value.isZero() )
+            {
+                sorted.put( new CountsTreeKey().set( key ), value );
+            }
+        } );
+
+        long stamp = checkpointLock.writeLock();
+        try
+        {
+            if ( tree != null )
+            {
+                closeTree( tree );
+                tree = null;
+            }
+            fs.deleteFile( file );
+            tree = new GBPTree<>( pageCache, file, layout, 0, GBPTree.NO_MONITOR, GBPTree.NO_HEADER_READER,
+                    header( NEEDS_REBUILD ), immediate() );
+            try ( BulkLoader<CountsTreeKey,CountsTreeValue> bulkLoader = tree.bulkLoader( FILL_FACTOR ) )
+            {
+                sorted.forEach( bulkLoader::add );
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED, header( txId ) );
+
+            pendingTransactions.clear();
+            pendingDeltas.clear();
+            pendingIndexCounts.clear();
+            this.txId = txId;
+            appliedTransactions = new ArrayQueueOutOfOrderSequence( txId, 200, NO_META );
+        }
+        finally
+        {
+            checkpointLock.unlockWrite( stamp );
+        }
+    }
+
+    private void closeTree( GBPTree<CountsTreeKey,CountsTreeValue> tree )
+    {
+        try
+        {
+            tree.close();
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            log.warn( "Failed to close counts store " + file, e );
+        }
+    }
+
+    private static Consumer<PageCursor> header( long txId )
+    {
+        return cursor -> cursor.putLong( txId );
+    }
+
+    private static Long sumOrNull( Long a, Long b )
+    {
+        long sum = a + b;
+        return sum == 0 ? null : sum;
+    }
+
+    private static CountsTreeValue add( CountsTreeValue a, CountsTreeValue b )
+    {
+        return new CountsTreeValue().set( a.first + b.first, a.second + b.second );
+    }
+
+    /**
+     * Collects the count deltas of a single transaction and publishes them, along with the fact that the
+     * transaction has been applied, when closed.
+     */
+    private class TransactionUpdater implements CountsAccessor.Updater
+    {
+        private final long txId;
+        private final MutableObjectLongMap<CountsKey> deltas = new ObjectLongHashMap<>();
+        private boolean closed;
+
+        TransactionUpdater( long txId )
+        {
+            this.txId = txId;
+        }
+
+        @Override
+        public void incrementNodeCount( long labelId, long delta )
+        {
+            deltas.addToValue( nodeKey( labelId ), delta );
+        }
+
+        @Override
+        public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
+        {
+            deltas.addToValue( relationshipKey( startLabelId, typeId, endLabelId ), delta );
+        }
+
+        @Override
+        public void close()
+        {
+            // Schema transactions close their updater early, and then again when the transaction has been applied
+            if ( closed )
+            {
+                return;
+            }
+            closed = true;
+            if ( !deltas.isEmpty() )
+            {
+                pendingTransactions.put( txId, deltas );
+                deltas.forEachKeyValue( ( key, delta ) -> pendingDeltas.merge( key, delta, GBPTreeCountsStore::sumOrNull ) );
+            }
+            appliedTransactions.offer( txId, NO_META );
+        }
+    }
+
+    private class IndexStatsUpdater implements CountsAccessor.IndexStatsUpdater
+    {
+        @Override
+        public void replaceIndexUpdateAndSize( long indexId, long updates, long size )
+        {
+            pendingIndexCounts.put( indexStatisticsKey( indexId ), new CountsTreeValue().set( updates, size ) );
+        }
+
+        @Override
+        public void replaceIndexSample( long indexId, long unique, long size )
+        {
+            pendingIndexCounts.put( indexSampleKey( indexId ), new CountsTreeValue().set( unique, size ) );
+        }
+
+        @Override
+        public void incrementIndexUpdates( long indexId, long delta )
+        {
+            pendingIndexCounts.compute( indexStatisticsKey( indexId ), ( key, current ) ->
+            {
+                CountsTreeValue value = current != null ? current : lookup( key );
+                return new CountsTreeValue().set( value.first + delta, value.second );
+            } );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    /**
+     * Collects the complete contents of the store, possibly from multiple threads, and replaces the tree
+     * with them when closed.
+     */
+    private class RebuildUpdater implements CountsAccessor.Updater, CountsAccessor.IndexStatsUpdater
+    {
+        private final long txId;
+        private final ConcurrentHashMap<CountsKey,CountsTreeValue> counts = new ConcurrentHashMap<>();
+
+        RebuildUpdater( long txId )
+        {
+            this.txId = txId;
+        }
+
+        @Override
+        public void incrementNodeCount( long labelId, long delta )
+        {
+            counts.merge( nodeKey( labelId ), new CountsTreeValue().set( 0, delta ), GBPTreeCountsStore::add );
+        }
+
+        @Override
+        public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
+        {
+            counts.merge( relationshipKey( startLabelId, typeId, endLabelId ), new CountsTreeValue().set( 0, delta ), GBPTreeCountsStore::add );
+        }
+
+        @Override
+        public void replaceIndexUpdateAndSize( long indexId, long updates, long size )
+        {
+            counts.put( indexStatisticsKey( indexId ), new CountsTreeValue().set( updates, size ) );
+        }
+
+        @Override
+        public void replaceIndexSample( long indexId, long unique, long size )
+        {
+            counts.put( indexSampleKey( indexId ), new CountsTreeValue().set( unique, size ) );
+        }
+
+        @Override
+        public void incrementIndexUpdates( long indexId, long delta )
+        {
+            counts.merge( indexStatisticsKey( indexId ), new CountsTreeValue().set( delta, 0 ), GBPTreeCountsStore::add );
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                replaceContents( counts, txId );
+            }
+            catch ( IOException e )
+            {
+                throw new UnderlyingStorageException( e );
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.store.id.validation.IdValidator;
+
+import static org.neo4j.kernel.impl.store.id.ShardedFreeIdPool.NO_ID;
+
+/**
+ * An {@link IdGenerator} that hands out ids without synchronizing, for stores where many threads create records
+ * at the same time.
+ * <p>
+ * Where {@link IdGeneratorImpl} takes its monitor for every id, this generator carves out small ranges of new ids
+ * from an atomic high id, one range per thread, and hands out ids from the range of the calling thread. Free ids are
+ * kept in a {@link ShardedFreeIdPool lock-free pool}, which is refilled in batches from the id file, and which
+ * overflows into the id file when full. Only those batches, and the less frequent operations, synchronize on the
+ * {@link IdContainer}.
+ * <p>
+ * The id file is managed like for {@link IdGeneratorImpl}: it is marked as sticky while open, and written out with
+ * the high id and the free ids on {@link #close()}. Ids in the free pool and the unused parts of the per-thread ranges
+ * are free ids, and are written to the id file on close, so they are reused in the next session. What is left of the
+ * range of a thread that has died is put in the free pool when another thread reserves its first range, so that the
+ * ranges kept are bounded by the number of live threads using this generator. After a crash the id file is rebuilt
+ * from the store as usual, so an unclean shutdown only loses the reuse of those ids.
+ * <p>
+ * As for {@link IdGeneratorImpl}, this generator must not be used by other threads while it is being closed.
+ */
+public class ConcurrentIdGenerator implements IdGenerator
+{
+    /** Number of new ids each thread reserves from the high id at a time. */
+    static final int DEFAULT_RANGE_SIZE = 64;
+
+    private final long max;
+    private final IdType idType;
+    private final int grabSize;
+    private final int rangeSize;
+    private final boolean aggressiveReuse;
+
+    /** The id file. All access must be guarded by its monitor. */
+    private final IdContainer idContainer;
+    private final AtomicLong highId;
+    private final ShardedFreeIdPool freeIds;
+
+    /** Whether the id file may have free ids for us, which is then worth looking into when the free pool is empty. */
+    private volatile boolean idContainerHasReusableIds = true;
+
+    /**
+     * Incremented whenever the high id is set from the outside, which makes the threads drop what is left of their
+     * ranges, since someone else may have been using those ids.
+     */
+    private volatile long highIdEpoch;
+
+    /**
+     * The ranges of all threads that have used this generator, and whose ranges have not been reclaimed yet.
+     * The ranges do not reference this generator, so that a thread outliving it does not keep it, or its thread local,
+     * reachable.
+     */
+    private final Set<LocalRange> localRanges = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<LocalRange> localRange = ThreadLocal.withInitial( this::newLocalRange );
+
+    public ConcurrentIdGenerator( FileSystemAbstraction fs, File file, int grabSize, long max, boolean aggressiveReuse,
+            IdType idType, LongSupplier highId )
+    {
+        this( fs, file, grabSize, max, aggressiveReuse, idType, highId, DEFAULT_RANGE_SIZE,
+                Runtime.getRuntime().availableProcessors() );
+    }
+
+    ConcurrentIdGenerator( FileSystemAbstraction fs, File file, int grabSize, long max, boolean aggressiveReuse,
+            IdType idType, LongSupplier highId, int rangeSize, int freeIdShards )
+    {
+        this.max = max;
+        this.idType = idType;
+        this.grabSize = grabSize;
+        this.rangeSize = rangeSize;
+        this.aggressiveReuse = aggressiveReuse;
+        this.idContainer = new IdContainer( fs, file, grabSize, aggressiveReuse );
+        this.freeIds = new ShardedFreeIdPool( freeIdShards, Math.max( 16, grabSize / freeIdShards ) );
+
+        // See IdGeneratorImpl about when the high id supplier is called.
+        synchronized ( idContainer )
+        {
+            this.highId = new AtomicLong( idContainer.init() ? idContainer.getInitialHighId() : highId.getAsLong() );
+        }
+    }
+
+    /**
+     * Returns a free id from the free pool, or from the id file, if there are any. Otherwise returns the next new id
+     * from the range of the calling thread.
+     *
+     * @throws IllegalStateException if this id generator has been closed
+     */
+    @Override
+    public long nextId()
+    {
+        idContainer.assertStillOpen();
+        long id = freeIds.poll();
+        if ( id != NO_ID )
+        {
+            return id;
+        }
+        if ( idContainerHasReusableIds )
+        {
+            id = takeReusableIds();
+            if ( id != NO_ID )
+            {
+                return id;
+            }
+        }
+        return nextFromRange( localRange.get() );
+    }
+
+    @Override
+    public IdRange nextIdBatch( int size )
+    {
+        idContainer.assertStillOpen();
+        long[] reusableIds = new long[size];
+        int reusableCount = 0;
+        for ( long id; reusableCount < size && (id = freeIds.poll()) != NO_ID; )
+        {
+            reusableIds[reusableCount++] = id;
+        }
+        if ( reusableCount < size && idContainerHasReusableIds )
+        {
+            synchronized ( idContainer )
+            {
+                long[] ids = idContainer.getReusableIds( size - reusableCount );
+                System.arraycopy( ids, 0, reusableIds, reusableCount, ids.length );
+                reusableCount += ids.length;
+            }
+        }
+
+        int rangeLength = size - reusableCount;
+        long start;
+        do
+        {
+            start = highId.get();
+            IdValidator.assertIdWithinCapacity( idType, start + rangeLength, max );
+        }
+        while ( !highId.compareAndSet( start, start + rangeLength ) );
+        return new IdRange( reusableCount == size ? reusableIds : Arrays.copyOf( reusableIds, reusableCount ), start, rangeLength );
+    }
+
+    private long takeReusableIds()
+    {
+        synchronized ( idContainer )
+        {
+            idContainer.assertStillOpen();
+            long[] ids = idContainer.getReusableIds( grabSize );
+            if ( ids.length == 0 )
+            {
+                idContainerHasReusableIds = false;
+                return NO_ID;
+            }
+            for ( int i = 1; i < ids.length; i++ )
+            {
+                if ( !freeIds.offer( ids[i] ) )
+                {
+                    idContainer.freeId( ids[i] );
+                }
+            }
+            return ids[0];
+        }
+    }
+
+    private long nextFromRange( LocalRange range )
+    {
+        while ( true )
+        {
+            if ( range.next == range.end || range.epoch != highIdEpoch )
+            {
+                reserve( range );
+            }
+            long id = range.next++;
+            if ( !IdValidator.isReservedId( id ) )
+            {
+                return id;
+            }
+        }
+    }
+
+    private void reserve( LocalRange range )
+    {
+        range.epoch = highIdEpoch;
+        long start;
+        long stop;
+        do
+        {
+            start = highId.get();
+            IdValidator.assertIdWithinCapacity( idType, start, max );
+            long available = max - start;
+            stop = available < rangeSize ? start + available + 1 : start + rangeSize;
+        }
+        while ( !highId.compareAndSet( start, stop ) );
+        range.next = start;
+        range.end = stop;
+    }
+
+    /**
+     * Makes sure the next new id is at least the given id, the high id is never lowered. This drops the unused parts
+     * of the ranges the threads have reserved, since they may have been used by whoever is setting the high id,
+     * like recovery.
+     */
+    @Override
+    public synchronized void setHighId( long id )
+    {
+        IdValidator.assertIdWithinCapacity( idType, id, max );
+        highId.accumulateAndGet( id, Math::max );
+        highIdEpoch = highIdEpoch + 1;
+    }
+
+    @Override
+    public long getHighId()
+    {
+        return highId.get();
+    }
+
+    @Override
+    public long getHighestPossibleIdInUse()
+    {
+        return highId.get() - 1;
+    }
+
+    @Override
+    public void freeId( long id )
+    {
+        idContainer.assertStillOpen();
+
+        if ( IdValidator.isReservedId( id ) )
+        {
+            return;
+        }
+
+        if ( id < 0 || id >= highId.get() )
+        {
+            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + highId.get() );
+        }
+
+        // Without aggressive reuse, freed ids are only to be reused in the next session, so they go to the id file.
+        if ( aggressiveReuse && freeIds.offer( id ) )
+        {
+            return;
+        }
+        synchronized ( idContainer )
+        {
+            idContainer.freeId( id );
+            if ( aggressiveReuse )
+            {
+                idContainerHasReusableIds = true;
+            }
+        }
+    }
+
+    /**
+     * Writes the ids in the free pool, and the unused ids of the ranges of all threads, to the id file as free ids,
+     * and closes it, marking it as clean.
+     */
+    @Override
+    public void close()
+    {
+        synchronized ( idContainer )
+        {
+            if ( idContainer.isClosed() )
+            {
+                return;
+            }
+            for ( long id; (id = freeIds.poll()) != NO_ID; )
+            {
+                idContainer.freeId( id );
+            }
+            for ( LocalRange range : localRanges )
+            {
+                releaseRange( range, false );
+            }
+            localRanges.clear();
+            idContainer.close( highId.get() );
+        }
+    }
+
+    @Override
+    public long getNumberOfIdsInUse()
+    {
+        return highId.get() - getDefragCount();
+    }
+
+    @Override
+    public long getDefragCount()
+    {
+        long count = freeIds.size();
+        for ( LocalRange range : localRanges )
+        {
+            count += remaining( range );
+        }
+        synchronized ( idContainer )
+        {
+            return count + idContainer.getFreeIdCount();
+        }
+    }
+
+    @Override
+    public void delete()
+    {
+        synchronized ( idContainer )
+        {
+            idContainer.delete();
+        }
+    }
+
+    private LocalRange newLocalRange()
+    {
+        reclaimRangesOfDeadThreads();
+        LocalRange range = new LocalRange( Thread.currentThread() );
+        localRanges.add( range );
+        return range;
+    }
+
+    /**
+     * Puts what is left of the ranges of threads that have died in the free pool, and forgets about those ranges.
+     * Called once per thread, when it reserves its first range, which keeps the number of ranges bounded by the number
+     * of live threads without costing anything on the path of handing out ids.
+     */
+    private void reclaimRangesOfDeadThreads()
+    {
+        synchronized ( idContainer )
+        {
+            if ( idContainer.isClosed() )
+            {
+                return;
+            }
+            for ( LocalRange range : localRanges )
+            {
+                if ( !range.isOwnerAlive() && localRanges.remove( range ) )
+                {
+                    releaseRange( range, true );
+                }
+            }
+        }
+    }
+
+    /**
+     * Frees the unused ids of the given range, unless they have been dropped by {@link #setHighId(long)}.
+     * Must be called while holding the monitor of the {@link #idContainer}, and only for ranges no longer in use.
+     *
+     * @param toFreePool whether to offer the ids to the free pool first, for them to be reused in this session.
+     */
+    private void releaseRange( LocalRange range, boolean toFreePool )
+    {
+        if ( range.epoch == highIdEpoch )
+        {
+            for ( long id = range.next; id < range.end; id++ )
+            {
+                if ( !IdValidator.isReservedId( id ) && !(toFreePool && freeIds.offer( id )) )
+                {
+                    idContainer.freeId( id );
+                    if ( aggressiveReuse )
+                    {
+                        idContainerHasReusableIds = true;
+                    }
+                }
+            }
+        }
+        range.next = range.end;
+    }
+
+    private long remaining( LocalRange range )
+    {
+        return range.epoch == highIdEpoch ? range.end - range.next : 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConcurrentIdGenerator " + hashCode() + " [max=" + max + ", highId=" + highId.get() +
+                ", idContainer=" + idContainer + "]";
+    }
+
+    /**
+     * Range of new ids reserved by one thread. Only ever used by that thread, except on close, and once that thread
+     * has died.
+     */
+    private static final class LocalRange
+    {
+        private final WeakReference<Thread> owner;
+        private long next;
+        private long end;
+        private long epoch;
+
+        LocalRange( Thread owner )
+        {
+            this.owner = new WeakReference<>( owner );
+        }
+
+        boolean isOwnerAlive()
+        {
+            Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+    }
+}
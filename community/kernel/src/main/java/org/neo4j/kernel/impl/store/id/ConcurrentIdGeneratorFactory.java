@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import java.io.File;
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfigurationProvider;
+
+/**
+ * {@link IdGeneratorFactory} creating {@link ConcurrentIdGenerator concurrent id generators}.
+ */
+public class ConcurrentIdGeneratorFactory extends DefaultIdGeneratorFactory
+{
+    public ConcurrentIdGeneratorFactory( FileSystemAbstraction fs, IdTypeConfigurationProvider idTypeConfigurationProvider )
+    {
+        super( fs, idTypeConfigurationProvider );
+    }
+
+    @Override
+    protected IdGenerator instantiate( FileSystemAbstraction fs, File fileName, int grabSize, long maxValue,
+            boolean aggressiveReuse, IdType idType, LongSupplier highId )
+    {
+        return new ConcurrentIdGenerator( fs, fileName, grabSize, maxValue, aggressiveReuse, idType, highId );
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free pool of free ids, used by {@link ConcurrentIdGenerator} to hand out reusable ids without synchronization.
+ * <p>
+ * The pool is split into a power-of-two number of shards, and each thread prefers the shard picked by its thread id,
+ * only looking at the other shards when its own is full or empty. Each shard is a bounded array queue where
+ * producers and consumers claim slots with a compare-and-set on the tail and head counters, and where a per-slot
+ * sequence number tells whether a slot holds a value for the current lap. The pool is bounded, so
+ * {@link #offer(long)} may fail, in which case the caller keeps the id elsewhere.
+ */
+class ShardedFreeIdPool
+{
+    static final long NO_ID = IdContainer.NO_RESULT;
+
+    private final Shard[] shards;
+    private final int shardMask;
+
+    /**
+     * Number of ids in the pool. Only updated when ids go in or out of the pool, and read on every poll, which lets
+     * the common case of there being no free ids at all skip visiting the shards.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    ShardedFreeIdPool( int shards, int capacityPerShard )
+    {
+        int shardCount = powerOfTwoAtLeast( shards );
+        int shardCapacity = powerOfTwoAtLeast( capacityPerShard );
+        this.shards = new Shard[shardCount];
+        this.shardMask = shardCount - 1;
+        for ( int i = 0; i < shardCount; i++ )
+        {
+            this.shards[i] = new Shard( shardCapacity );
+        }
+    }
+
+    /**
+     * @return {@code true} if the id was added to the pool, or {@code false} if the pool was full.
+     */
+    boolean offer( long id )
+    {
+        int home = homeShard();
+        for ( int i = 0; i <= shardMask; i++ )
+        {
+            if ( shards[(home + i) & shardMask].offer( id ) )
+            {
+                count.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return an id from the pool, or {@link #NO_ID} if the pool was empty.
+     */
+    long poll()
+    {
+        if ( count.get() == 0 )
+        {
+            return NO_ID;
+        }
+        int home = homeShard();
+        for ( int i = 0; i <= shardMask; i++ )
+        {
+            long id = shards[(home + i) & shardMask].poll();
+            if ( id != NO_ID )
+            {
+                count.decrementAndGet();
+                return id;
+            }
+        }
+        return NO_ID;
+    }
+
+    long size()
+    {
+        return Math.max( 0, count.get() );
+    }
+
+    private int homeShard()
+    {
+        return (int) Thread.currentThread().getId() & shardMask;
+    }
+
+    private static int powerOfTwoAtLeast( int value )
+    {
+        int result = 1;
+        while ( result < value )
+        {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    private static final class Shard
+    {
+        private final long[] ids;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        Shard( int capacity )
+        {
+            this.ids = new long[capacity];
+            this.sequences = new AtomicLongArray( capacity );
+            this.mask = capacity - 1;
+            for ( int i = 0; i < capacity; i++ )
+            {
+                sequences.set( i, i );
+            }
+        }
+
+        boolean offer( long id )
+        {
+            long position = tail.get();
+            while ( true )
+            {
+                int slot = (int) (position & mask);
+                long difference = sequences.get( slot ) - position;
+                if ( difference == 0 )
+                {
+                    if ( tail.compareAndSet( position, position + 1 ) )
+                    {
+                        ids[slot] = id;
+                        // Publishes the id, see the read of the sequence in poll
+                        sequences.lazySet( slot, position + 1 );
+                        return true;
+                    }
+                }
+                else if ( difference < 0 )
+                {
+                    // The slot still holds an id from the previous lap, so we are full
+                    return false;
+                }
+                position = tail.get();
+            }
+        }
+
+        long poll()
+        {
+            long position = head.get();
+            while ( true )
+            {
+                int slot = (int) (position & mask);
+                long difference = sequences.get( slot ) - (position + 1);
+                if ( difference == 0 )
+                {
+                    if ( head.compareAndSet( position, position + 1 ) )
+                    {
+                        long id = ids[slot];
+                        // Hands the slot over to the next lap of offers
+                        sequences.lazySet( slot, position + mask + 1 );
+                        return id;
+                    }
+                }
+                else if ( difference < 0 )
+                {
+                    // Nothing has been published to this slot for this lap, so we are empty
+                    return NO_ID;
+                }
+                position = head.get();
+            }
+        }
+    }
+}
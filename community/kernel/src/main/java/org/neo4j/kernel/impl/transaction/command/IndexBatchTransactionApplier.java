@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.Supplier;
 
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -61,6 +63,7 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final SingleTransactionApplier transactionApplier;
     private final PropertyPhysicalToLogicalConverter indexUpdateConverter;
+    private final Executor labelUpdatesExecutor;
 
     private List<NodeLabelUpdate> labelUpdates;
     private IndexUpdates indexUpdates;
@@ -69,6 +72,18 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
             WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, RelationshipStore relationshipStore,
             PropertyPhysicalToLogicalConverter indexUpdateConverter )
     {
+        this( indexingService, labelScanStoreSync, indexUpdatesSync, nodeStore, relationshipStore, indexUpdateConverter, null );
+    }
+
+    /**
+     * @param labelUpdatesExecutor if not {@code null}, label updates are applied on this executor, concurrently with
+     * applying the index updates on the calling thread.
+     */
+    public IndexBatchTransactionApplier( IndexingService indexingService, WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync,
+            WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, RelationshipStore relationshipStore,
+            PropertyPhysicalToLogicalConverter indexUpdateConverter, Executor labelUpdatesExecutor )
+    {
+        this.labelUpdatesExecutor = labelUpdatesExecutor;
         this.indexingService = indexingService;
         this.labelScanStoreSync = labelScanStoreSync;
         this.indexUpdatesSync = indexUpdatesSync;
@@ -89,7 +104,9 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
         {
             // Updates are sorted according to node id here, an artifact of node commands being sorted
             // by node id when extracting from TransactionRecordState.
-            labelUpdatesApply = labelScanStoreSync.applyAsync( new LabelUpdateWork( labelUpdates ) );
+            LabelUpdateWork labelUpdateWork = new LabelUpdateWork( labelUpdates );
+            labelUpdatesApply = labelUpdatesExecutor == null ? labelScanStoreSync.applyAsync( labelUpdateWork )
+                                                             : applyOnExecutor( labelUpdateWork );
             labelUpdates = null;
         }
         if ( indexUpdates != null && indexUpdates.hasUpdates() )
@@ -118,6 +135,28 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
         }
     }
 
+    private AsyncApply applyOnExecutor( LabelUpdateWork labelUpdateWork )
+    {
+        FutureTask<Void> task = new FutureTask<>( () ->
+        {
+            labelScanStoreSync.apply( labelUpdateWork );
+            return null;
+        } );
+        labelUpdatesExecutor.execute( task );
+        return () ->
+        {
+            try
+            {
+                task.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new ExecutionException( e );
+            }
+        };
+    }
+
     @Override
     public void close() throws Exception
     {
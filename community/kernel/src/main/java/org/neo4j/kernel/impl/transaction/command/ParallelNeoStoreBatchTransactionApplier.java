@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.neo4j.helpers.Exceptions;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.storageengine.api.CommandVersion;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * A {@link NeoStoreBatchTransactionApplier} which applies the record commands of a transaction to the different
+ * record stores concurrently. Node, relationship, relationship group and property commands each update their own
+ * stores, including the dynamic record stores owned by those, so commands are partitioned by store and each partition
+ * is applied in log order by a single thread. Any other commands, like token and schema commands, are applied by the
+ * calling thread.
+ * <p>
+ * The whole transaction has been applied when {@link #startTx(CommandsToApply, LockGroup)} returns, such that the
+ * other appliers of the batch see the same store contents as when applying sequentially. Records are not partitioned
+ * any finer than by store, since dynamic records and secondary record units may move between records of the same
+ * store from one transaction to the next.
+ */
+public class ParallelNeoStoreBatchTransactionApplier extends NeoStoreBatchTransactionApplier
+{
+    private static final int NODES = 0;
+    private static final int RELATIONSHIPS = 1;
+    private static final int RELATIONSHIP_GROUPS = 2;
+    private static final int PROPERTIES = 3;
+
+    private final Executor executor;
+    private final int minRecordCommandsToPartition;
+
+    /**
+     * @param minRecordCommandsToPartition transactions with fewer record commands than this are applied sequentially,
+     * since handing them over to other threads would cost more than it gains.
+     */
+    public ParallelNeoStoreBatchTransactionApplier( CommandVersion version, NeoStores store, CacheAccessBackDoor cacheAccess,
+            LockService lockService, Executor executor, int minRecordCommandsToPartition )
+    {
+        super( version, store, cacheAccess, lockService );
+        this.executor = executor;
+        this.minRecordCommandsToPartition = minRecordCommandsToPartition;
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction, LockGroup lockGroup )
+    {
+        List<List<StorageCommand>> partitions = new ArrayList<>( PROPERTIES + 1 );
+        for ( int i = 0; i <= PROPERTIES; i++ )
+        {
+            partitions.add( new ArrayList<>() );
+        }
+        List<StorageCommand> otherCommands = new ArrayList<>();
+        try
+        {
+            transaction.accept( command ->
+            {
+                int partition = partitionOf( command );
+                ( partition == -1 ? otherCommands : partitions.get( partition ) ).add( command );
+                return false;
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+
+        int recordCommands = 0;
+        for ( List<StorageCommand> partition : partitions )
+        {
+            recordCommands += partition.size();
+        }
+        if ( recordCommands < minRecordCommandsToPartition )
+        {
+            return super.startTx( transaction, lockGroup );
+        }
+
+        List<FutureTask<Void>> tasks = new ArrayList<>( partitions.size() );
+        for ( List<StorageCommand> partition : partitions )
+        {
+            if ( !partition.isEmpty() )
+            {
+                FutureTask<Void> task = new FutureTask<>( () ->
+                {
+                    // Each partition gets its own lock group since lock groups aren't thread safe
+                    try ( LockGroup partitionLocks = new LockGroup() )
+                    {
+                        applyCommands( transaction, partition, partitionLocks );
+                    }
+                    return null;
+                } );
+                executor.execute( task );
+                tasks.add( task );
+            }
+        }
+        try
+        {
+            applyCommands( transaction, otherCommands, lockGroup );
+        }
+        finally
+        {
+            awaitPartitions( tasks );
+        }
+        return TransactionApplier.EMPTY;
+    }
+
+    private void applyCommands( CommandsToApply transaction, List<StorageCommand> commands, LockGroup lockGroup )
+    {
+        if ( commands.isEmpty() )
+        {
+            return;
+        }
+        try ( TransactionApplier applier = super.startTx( transaction, lockGroup ) )
+        {
+            for ( StorageCommand command : commands )
+            {
+                applier.visit( command );
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    private static void awaitPartitions( List<FutureTask<Void>> tasks )
+    {
+        Throwable failure = null;
+        for ( FutureTask<Void> task : tasks )
+        {
+            try
+            {
+                task.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failure = Exceptions.chain( failure, e );
+            }
+            catch ( ExecutionException e )
+            {
+                failure = Exceptions.chain( failure, e.getCause() );
+            }
+        }
+        if ( failure != null )
+        {
+            Exceptions.throwIfUnchecked( failure );
+            throw new UnderlyingStorageException( failure );
+        }
+    }
+
+    private static int partitionOf( StorageCommand command )
+    {
+        if ( command instanceof Command.NodeCommand )
+        {
+            return NODES;
+        }
+        if ( command instanceof Command.RelationshipCommand )
+        {
+            return RELATIONSHIPS;
+        }
+        if ( command instanceof Command.RelationshipGroupCommand )
+        {
+            return RELATIONSHIP_GROUPS;
+        }
+        if ( command instanceof Command.PropertyCommand )
+        {
+            return PROPERTIES;
+        }
+        return -1;
+    }
+}
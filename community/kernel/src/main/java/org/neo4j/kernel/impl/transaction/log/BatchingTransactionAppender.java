@@ -67,6 +67,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean compressCommands;
+    private final LogForceMonitor logForceMonitor;
 
     private FlushablePositionAwareChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -75,6 +77,15 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                databaseHealth, false, LogForceMonitor.NULL );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth, boolean compressCommands,
+            LogForceMonitor logForceMonitor )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
@@ -82,6 +93,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.explicitIndexTransactionOrdering = explicitIndexTransactionOrdering;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.compressCommands = compressCommands;
+        this.logForceMonitor = logForceMonitor;
     }
 
     @Override
@@ -89,14 +102,13 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         this.writer = logFile.getWriter();
         this.indexCommandDetector = new IndexCommandDetector();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer, compressCommands ) );
     }
 
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
-        // Assigned base tx id just to make compiler happy
-        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        long lastTransactionId;
         // Synchronized with logFile to get absolute control over concurrent rotations happening
         synchronized ( logFile )
         {
@@ -104,24 +116,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             databaseHealth.assertHealthy( IOException.class );
             try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
-                {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
-                    tx.commitment( commitment, transactionId );
-                    tx.logPosition( commitment.logPosition() );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
-                }
+                lastTransactionId = appendBatch( batch );
             }
         }
 
@@ -143,6 +138,38 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    /**
+     * Appends all transactions in the given batch to the log, without forcing it.
+     * Caller must hold the {@link LogFile} monitor.
+     *
+     * @param batch transactions to append.
+     * @return id of the last transaction in the batch.
+     */
+    long appendBatch( TransactionToApply batch ) throws IOException
+    {
+        // Assigned base tx id just to make compiler happy
+        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        // Append all transactions in this batch to the log under the same logFile monitor
+        TransactionToApply tx = batch;
+        while ( tx != null )
+        {
+            long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+            // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+            // id have already been generated by another entity we simply check that our id
+            // that we generated match that id. If it doesn't we've run into a problem we can't ´
+            // really recover from and would point to a bug somewhere.
+            matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+            TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
+            tx.commitment( commitment, transactionId );
+            tx.logPosition( commitment.logPosition() );
+            tx = tx.next();
+            lastTransactionId = transactionId;
+        }
+        return lastTransactionId;
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -160,7 +187,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
-    private void publishAsCommitted( TransactionToApply batch )
+    static void publishAsCommitted( TransactionToApply batch )
     {
         while ( batch != null )
         {
@@ -333,7 +360,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         LockSupport.parkNanos( this, parkTime );
     }
 
-    private void force() throws IOException
+    void force() throws IOException
     {
         // Empty buffer into writer. We want to synchronize with appenders somehow so that they
         // don't append while we're doing that. The way rotation is coordinated we can't synchronize
@@ -348,7 +375,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         // This allows other threads access to the buffer while the writer is being forced.
         try
         {
+            long forceStartNanos = System.nanoTime();
             flushable.flush();
+            logForceMonitor.logForced( System.nanoTime() - forceStartNanos );
         }
         catch ( ClosedChannelException ignored )
         {
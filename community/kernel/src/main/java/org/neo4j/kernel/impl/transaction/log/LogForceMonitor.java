@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+/**
+ * Notified about the transaction log being forced, for anyone wanting to react to how long that takes,
+ * e.g. when it competes for IO with other work in the database.
+ */
+public interface LogForceMonitor
+{
+    LogForceMonitor NULL = forceTimeNanos ->
+    {
+    };
+
+    /**
+     * Called after the transaction log has been forced.
+     *
+     * @param forceTimeNanos time it took to force the log, in nanoseconds.
+     */
+    void logForced( long forceTimeNanos );
+}
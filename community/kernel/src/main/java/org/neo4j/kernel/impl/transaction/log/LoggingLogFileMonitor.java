@@ -29,6 +29,7 @@ import org.neo4j.kernel.recovery.RecoveryStartInformationProvider;
 import org.neo4j.logging.Log;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class LoggingLogFileMonitor implements LogFileCreationMonitor,
         LogRotation.Monitor, RecoveryMonitor,
@@ -36,6 +37,7 @@ public class LoggingLogFileMonitor implements LogFileCreationMonitor,
 {
     private long firstTransactionRecovered = -1;
     private long lastTransactionRecovered;
+    private long recoveryStartTime;
     private final Log log;
 
     public LoggingLogFileMonitor( Log log )
@@ -46,6 +48,7 @@ public class LoggingLogFileMonitor implements LogFileCreationMonitor,
     @Override
     public void recoveryRequired( LogPosition startPosition )
     {
+        recoveryStartTime = System.nanoTime();
         log.info( "Recovery required from position " + startPosition );
     }
 
@@ -54,8 +57,10 @@ public class LoggingLogFileMonitor implements LogFileCreationMonitor,
     {
         if ( numberOfRecoveredTransactions != 0 )
         {
-            log.info( format( "Recovery completed. %d transactions, first:%d, last:%d recovered",
-                    numberOfRecoveredTransactions, firstTransactionRecovered, lastTransactionRecovered ) );
+            long recoveryTimeMillis = Math.max( 1, NANOSECONDS.toMillis( System.nanoTime() - recoveryStartTime ) );
+            log.info( format( "Recovery completed. %d transactions, first:%d, last:%d recovered in %d ms (%d transactions/s)",
+                    numberOfRecoveredTransactions, firstTransactionRecovered, lastTransactionRecovered, recoveryTimeMillis,
+                    numberOfRecoveredTransactions * 1000L / recoveryTimeMillis ) );
         }
         else
         {
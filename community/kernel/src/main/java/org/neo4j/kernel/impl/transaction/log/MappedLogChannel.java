@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.storageengine.api.ReadPastEndException;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.lang.System.arraycopy;
+
+/**
+ * A {@link ReadableLogChannel} reading rotated log versions straight from the memory mapped log files, instead of
+ * copying them through a read-ahead buffer. Rotated log versions are never appended to, so can be mapped as a whole.
+ * Reading continues through a regular {@link ReadAheadLogChannel} from the first log version which wasn't rotated
+ * when this channel was opened, or which can't be mapped.
+ * <p>
+ * Each mapped log file is unmapped as soon as reading moves on to the next log version, or this channel is closed.
+ */
+class MappedLogChannel implements ReadableLogChannel, PositionableChannel
+{
+    private final LogVersionBridge bridge;
+    private final long highestRotatedVersion;
+    private final ByteBuffer spanning = ByteBuffer.allocate( Long.BYTES );
+    private LogVersionedStoreChannel channel;
+    private ByteBuffer mapped;
+    private ByteBuffer inlined;
+    // Set when reading has reached log versions which aren't mapped, after which all reads go through it
+    private ReadAheadLogChannel unmapped;
+
+    private MappedLogChannel( PhysicalLogVersionedStoreChannel channel, ByteBuffer mapped, LogVersionBridge bridge,
+            long highestRotatedVersion )
+    {
+        this.channel = channel;
+        this.mapped = mapped;
+        this.bridge = bridge;
+        this.highestRotatedVersion = highestRotatedVersion;
+    }
+
+    /**
+     * Opens a reader at the given position, which is memory mapped if the log version of that position
+     * has been rotated.
+     *
+     * @param logFiles log files to read.
+     * @param position {@link LogPosition} to position the returned reader at.
+     * @return {@link ReadableLogChannel} capable of reading log data, starting from {@link LogPosition position}.
+     * @throws IOException on I/O error.
+     */
+    static ReadableLogChannel open( LogFiles logFiles, LogPosition position ) throws IOException
+    {
+        LogVersionBridge bridge = new ReaderLogVersionBridge( logFiles );
+        long highestRotatedVersion = logFiles.getHighestLogVersion() - 1;
+        PhysicalLogVersionedStoreChannel channel = logFiles.openForVersion( position.getLogVersion() );
+        try
+        {
+            channel.position( position.getByteOffset() );
+            ByteBuffer mapped = position.getLogVersion() <= highestRotatedVersion ? channel.map() : null;
+            if ( mapped == null )
+            {
+                return new ReadAheadLogChannel( channel, bridge );
+            }
+            return new MappedLogChannel( channel, mapped, bridge, highestRotatedVersion );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        return unmapped != null ? unmapped.get() : buffer( Byte.BYTES ).get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        return unmapped != null ? unmapped.getShort() : buffer( Short.BYTES ).getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        return unmapped != null ? unmapped.getInt() : buffer( Integer.BYTES ).getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        return unmapped != null ? unmapped.getLong() : buffer( Long.BYTES ).getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        return unmapped != null ? unmapped.getFloat() : buffer( Float.BYTES ).getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        return unmapped != null ? unmapped.getDouble() : buffer( Double.BYTES ).getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        int bytesGotten = 0;
+        if ( inlined != null )
+        {
+            bytesGotten = min( inlined.remaining(), length );
+            inlined.get( bytes, 0, bytesGotten );
+        }
+        while ( bytesGotten < length && unmapped == null )
+        {
+            if ( !mapped.hasRemaining() )
+            {
+                nextVersion();
+                continue;
+            }
+            int chunkSize = min( mapped.remaining(), length - bytesGotten );
+            mapped.get( bytes, bytesGotten, chunkSize );
+            bytesGotten += chunkSize;
+        }
+        if ( bytesGotten < length )
+        {
+            if ( bytesGotten == 0 )
+            {
+                unmapped.get( bytes, length );
+            }
+            else
+            {
+                byte[] rest = new byte[length - bytesGotten];
+                unmapped.get( rest, rest.length );
+                arraycopy( rest, 0, bytes, bytesGotten, rest.length );
+            }
+        }
+    }
+
+    @Override
+    public void inline( ByteBuffer content )
+    {
+        if ( unmapped != null )
+        {
+            unmapped.inline( content );
+        }
+        else
+        {
+            inlined = content;
+        }
+    }
+
+    @Override
+    public boolean isReadingInlined()
+    {
+        return unmapped != null ? unmapped.isReadingInlined() : inlined != null && inlined.hasRemaining();
+    }
+
+    @Override
+    public void setCurrentPosition( long byteOffset ) throws IOException
+    {
+        if ( unmapped != null )
+        {
+            unmapped.setCurrentPosition( byteOffset );
+            return;
+        }
+        inlined = null;
+        // Like positioning a file channel past its end, reading continues from the next log version
+        mapped.position( toIntExact( min( byteOffset, mapped.limit() ) ) );
+    }
+
+    @Override
+    public LogPositionMarker getCurrentPosition( LogPositionMarker positionMarker ) throws IOException
+    {
+        if ( unmapped != null )
+        {
+            return unmapped.getCurrentPosition( positionMarker );
+        }
+        positionMarker.mark( channel.getVersion(), mapped.position() );
+        return positionMarker;
+    }
+
+    @Override
+    public long getVersion()
+    {
+        return unmapped != null ? unmapped.getVersion() : channel.getVersion();
+    }
+
+    @Override
+    public byte getLogFormatVersion()
+    {
+        return unmapped != null ? unmapped.getLogFormatVersion() : channel.getLogFormatVersion();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        unmap();
+        if ( unmapped != null )
+        {
+            unmapped.close();
+        }
+        else
+        {
+            channel.close();
+        }
+    }
+
+    private ByteBuffer buffer( int requestedNumberOfBytes ) throws IOException
+    {
+        if ( inlined != null )
+        {
+            if ( inlined.hasRemaining() )
+            {
+                return inlined;
+            }
+            inlined = null;
+        }
+        if ( mapped.remaining() >= requestedNumberOfBytes )
+        {
+            return mapped;
+        }
+
+        // The requested bytes span into the next log version
+        spanning.clear();
+        while ( spanning.position() < requestedNumberOfBytes )
+        {
+            if ( unmapped != null )
+            {
+                spanning.put( unmapped.get() );
+            }
+            else if ( mapped.hasRemaining() )
+            {
+                spanning.put( mapped.get() );
+            }
+            else
+            {
+                nextVersion();
+            }
+        }
+        spanning.flip();
+        return spanning;
+    }
+
+    private void nextVersion() throws IOException
+    {
+        LogVersionedStoreChannel nextChannel = bridge.next( channel );
+        if ( nextChannel == channel )
+        {
+            throw ReadPastEndException.INSTANCE;
+        }
+        channel = nextChannel;
+        unmap();
+        ByteBuffer nextMapped = null;
+        if ( nextChannel.getVersion() <= highestRotatedVersion && nextChannel instanceof PhysicalLogVersionedStoreChannel )
+        {
+            nextMapped = ((PhysicalLogVersionedStoreChannel) nextChannel).map();
+        }
+        if ( nextMapped != null )
+        {
+            mapped = nextMapped;
+        }
+        else
+        {
+            unmapped = new ReadAheadLogChannel( nextChannel, bridge );
+        }
+    }
+
+    private void unmap()
+    {
+        ByteBuffer previous = mapped;
+        mapped = null;
+        if ( previous != null )
+        {
+            UnsafeUtil.invokeCleaner( previous );
+        }
+    }
+}
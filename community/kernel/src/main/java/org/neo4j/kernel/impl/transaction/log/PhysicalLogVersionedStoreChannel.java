@@ -22,13 +22,18 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+import org.neo4j.io.fs.StoreFileChannelUnwrapper;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 
+import static java.lang.Math.toIntExact;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 
@@ -209,4 +214,23 @@ public class PhysicalLogVersionedStoreChannel implements LogVersionedStoreChanne
     {
         force( false );
     }
+
+    /**
+     * Maps the whole log file, as it currently is, read-only into memory. The returned buffer is positioned
+     * at the current position of this channel.
+     *
+     * @return the mapped log file, or {@code null} if this log file can't be mapped.
+     * @throws IOException on I/O error.
+     */
+    MappedByteBuffer map() throws IOException
+    {
+        if ( !(delegateChannel instanceof StoreFileChannel) || delegateChannel.size() > Integer.MAX_VALUE )
+        {
+            return null;
+        }
+        FileChannel fileChannel = StoreFileChannelUnwrapper.unwrap( delegateChannel );
+        MappedByteBuffer mapped = fileChannel.map( FileChannel.MapMode.READ_ONLY, 0, fileChannel.size() );
+        mapped.position( toIntExact( position ) );
+        return mapped;
+    }
 }
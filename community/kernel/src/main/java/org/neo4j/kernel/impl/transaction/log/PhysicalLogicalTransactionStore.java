@@ -54,12 +54,25 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
     private final Monitors monitors;
     private final boolean failOnCorruptedLogFiles;
+    private final boolean memoryMappedReads;
     private LogFiles logFiles;
 
     public PhysicalLogicalTransactionStore( LogFiles logFiles,
             TransactionMetadataCache transactionMetadataCache,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors,
             boolean failOnCorruptedLogFiles )
+    {
+        this( logFiles, transactionMetadataCache, logEntryReader, monitors, failOnCorruptedLogFiles, false );
+    }
+
+    /**
+     * @param memoryMappedReads whether or not to read rotated log versions through memory mapped log files,
+     * see {@link MappedLogChannel}.
+     */
+    public PhysicalLogicalTransactionStore( LogFiles logFiles,
+            TransactionMetadataCache transactionMetadataCache,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors,
+            boolean failOnCorruptedLogFiles, boolean memoryMappedReads )
     {
         this.logFiles = logFiles;
         this.logFile = logFiles.getLogFile();
@@ -67,12 +80,13 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         this.logEntryReader = logEntryReader;
         this.monitors = monitors;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
+        this.memoryMappedReads = memoryMappedReads;
     }
 
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return new PhysicalTransactionCursor<>( logFile.getReader( position ), new VersionAwareLogEntryReader<>() );
+        return new PhysicalTransactionCursor<>( getReader( position ), new VersionAwareLogEntryReader<>() );
     }
 
     @Override
@@ -95,7 +109,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             if ( transactionMetadata != null )
             {
                 // we're good
-                ReadableLogChannel channel = logFile.getReader( transactionMetadata.getStartPosition() );
+                ReadableLogChannel channel = getReader( transactionMetadata.getStartPosition() );
                 return new PhysicalTransactionCursor<>( channel, logEntryReader );
             }
 
@@ -108,7 +122,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
                     new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
             logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
-            return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader );
+            return new PhysicalTransactionCursor<>( getReader( position ), logEntryReader );
         }
         catch ( FileNotFoundException e )
         {
@@ -120,6 +134,11 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         }
     }
 
+    private ReadableLogChannel getReader( LogPosition position ) throws IOException
+    {
+        return memoryMappedReads ? MappedLogChannel.open( logFiles, position ) : logFile.getReader( position );
+    }
+
     @Override
     public TransactionMetadata getMetadataFor( long transactionId ) throws IOException
     {
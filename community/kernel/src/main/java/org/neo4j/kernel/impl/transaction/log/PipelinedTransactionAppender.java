@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.util.IdOrderingQueue;
+import org.neo4j.kernel.internal.DatabaseHealth;
+
+/**
+ * A {@link BatchingTransactionAppender} where committers don't append to the log themselves, but hand their
+ * transactions over to a dedicated log writer thread. Committers push their batches onto a lock-free stack and park.
+ * The writer thread takes everything pushed so far, appends it to the log, forces the log once for all of it and
+ * then wakes the committers up. Committers never compete for the log file monitor or the force lock, which is
+ * where most of the time goes with many concurrent committers.
+ * <p>
+ * The writer can wait a while for more transactions to arrive before forcing, and forces at least once per
+ * a configured number of transactions.
+ */
+public class PipelinedTransactionAppender extends BatchingTransactionAppender
+{
+    private static final long WRITER_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+    private static final long COMMITTER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
+    private final LogFile logFile;
+    private final LogRotation logRotation;
+    private final DatabaseHealth databaseHealth;
+    private final ThreadFactory threadFactory;
+    private final long maxBatchDelayNanos;
+    private final int maxBatchSize;
+    private final Monitor monitor;
+
+    // Requests pushed by committers, most recent first.
+    private final AtomicReference<AppendRequest> pushedRequests = new AtomicReference<>();
+    // Requests taken by the writer thread and not yet appended, oldest first. Only accessed by the writer thread.
+    private final ArrayDeque<AppendRequest> queuedRequests = new ArrayDeque<>();
+    private final List<AppendRequest> writtenRequests = new ArrayList<>();
+    private int queuedTransactions;
+
+    private volatile boolean stopped;
+    private volatile Thread writerThread;
+
+    public PipelinedTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth,
+            ThreadFactory threadFactory, long maxBatchDelay, TimeUnit unit, int maxBatchSize, boolean compressCommands,
+            LogForceMonitor logForceMonitor, Monitor monitor )
+    {
+        super( logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                databaseHealth, compressCommands, logForceMonitor );
+        if ( maxBatchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Max batch size must be at least 1, was " + maxBatchSize );
+        }
+        this.logFile = logFiles.getLogFile();
+        this.logRotation = logRotation;
+        this.databaseHealth = databaseHealth;
+        this.threadFactory = threadFactory;
+        this.maxBatchDelayNanos = unit.toNanos( maxBatchDelay );
+        this.maxBatchSize = maxBatchSize;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+        stopped = false;
+        writerThread = threadFactory.newThread( this::writeLoop );
+        writerThread.start();
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        stopped = true;
+        Thread writer = writerThread;
+        if ( writer != null )
+        {
+            // The writer appends everything committers have pushed before it exits
+            LockSupport.unpark( writer );
+            writer.join();
+        }
+        super.stop();
+    }
+
+    @Override
+    public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        Thread writer = writerThread;
+        if ( stopped || writer == null )
+        {
+            throw new IllegalStateException( "Transaction log writer is not running" );
+        }
+
+        AppendRequest request = new AppendRequest( batch, logAppendEvent );
+        AppendRequest head;
+        do
+        {
+            head = pushedRequests.get();
+            request.next = head;
+        }
+        while ( !pushedRequests.compareAndSet( head, request ) );
+        LockSupport.unpark( writer );
+
+        try ( LogForceWaitEvent logForceWaitEvent = logAppendEvent.beginLogForceWait() )
+        {
+            while ( !request.done )
+            {
+                LockSupport.parkNanos( this, COMMITTER_PARK_NANOS );
+                if ( !request.done && !writer.isAlive() )
+                {
+                    throw new IllegalStateException( "Transaction log writer stopped before appending transaction" );
+                }
+            }
+        }
+        return request.lastTransactionIdOrThrow();
+    }
+
+    private void writeLoop()
+    {
+        while ( !stopped || pushedRequests.get() != null || !queuedRequests.isEmpty() )
+        {
+            takePushedRequests();
+            if ( queuedRequests.isEmpty() )
+            {
+                LockSupport.parkNanos( this, WRITER_IDLE_PARK_NANOS );
+                continue;
+            }
+            awaitMoreTransactions();
+            writeBatch();
+        }
+    }
+
+    private void takePushedRequests()
+    {
+        AppendRequest request = pushedRequests.getAndSet( null );
+        if ( request == null )
+        {
+            return;
+        }
+        // The stack is most recent first, so reverse it to queue requests in the order they arrived in
+        ArrayDeque<AppendRequest> arrived = new ArrayDeque<>();
+        for ( ; request != null; request = request.next )
+        {
+            arrived.addFirst( request );
+            queuedTransactions += request.transactions;
+        }
+        queuedRequests.addAll( arrived );
+    }
+
+    private void awaitMoreTransactions()
+    {
+        if ( maxBatchDelayNanos <= 0 )
+        {
+            return;
+        }
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        long remaining = maxBatchDelayNanos;
+        while ( queuedTransactions < maxBatchSize && remaining > 0 && !stopped )
+        {
+            // Committers unpark us when pushing, so we'll see them well before the deadline
+            LockSupport.parkNanos( this, remaining );
+            takePushedRequests();
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private void writeBatch()
+    {
+        int transactions = 0;
+        do
+        {
+            AppendRequest request = queuedRequests.poll();
+            writtenRequests.add( request );
+            transactions += request.transactions;
+        }
+        while ( !queuedRequests.isEmpty() && transactions + queuedRequests.peek().transactions <= maxBatchSize );
+        queuedTransactions -= transactions;
+
+        // All requests in this batch are parked, waiting for us, so it's fine to report on the event of one of them
+        LogAppendEvent logAppendEvent = writtenRequests.get( 0 ).logAppendEvent;
+        boolean appending = false;
+        try
+        {
+            synchronized ( logFile )
+            {
+                // Assert that kernel is healthy before making any changes
+                databaseHealth.assertHealthy( IOException.class );
+                appending = true;
+                try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+                {
+                    for ( AppendRequest request : writtenRequests )
+                    {
+                        request.lastTransactionId = appendBatch( request.batch );
+                    }
+                }
+            }
+
+            long forceStartNanos = System.nanoTime();
+            try ( LogForceEvent logForceEvent = logAppendEvent.beginLogForce() )
+            {
+                force();
+            }
+            monitor.batchForced( transactions, System.nanoTime() - forceStartNanos );
+
+            boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
+            logAppendEvent.setLogRotated( logRotated );
+
+            for ( AppendRequest request : writtenRequests )
+            {
+                publishAsCommitted( request.batch );
+                request.complete( null );
+            }
+        }
+        catch ( Throwable failure )
+        {
+            if ( appending && databaseHealth.isHealthy() )
+            {
+                // Some of the batch may already be in the log, or be durable but not published as committed,
+                // and transaction ids have been handed out to it. Nothing after this point can be trusted.
+                databaseHealth.panic( failure );
+            }
+            for ( AppendRequest request : writtenRequests )
+            {
+                if ( !request.done )
+                {
+                    request.complete( failure );
+                }
+            }
+        }
+        finally
+        {
+            writtenRequests.clear();
+        }
+    }
+
+    private static class AppendRequest
+    {
+        final TransactionToApply batch;
+        final LogAppendEvent logAppendEvent;
+        final Thread thread = Thread.currentThread();
+        final int transactions;
+        AppendRequest next;
+        long lastTransactionId;
+        Throwable failure;
+        volatile boolean done;
+
+        AppendRequest( TransactionToApply batch, LogAppendEvent logAppendEvent )
+        {
+            this.batch = batch;
+            this.logAppendEvent = logAppendEvent;
+            int count = 0;
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                count++;
+            }
+            this.transactions = count;
+        }
+
+        void complete( Throwable failure )
+        {
+            this.failure = failure;
+            done = true;
+            LockSupport.unpark( thread );
+        }
+
+        long lastTransactionIdOrThrow() throws IOException
+        {
+            if ( failure instanceof IOException )
+            {
+                throw (IOException) failure;
+            }
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            if ( failure != null )
+            {
+                throw new IOException( failure );
+            }
+            return lastTransactionId;
+        }
+    }
+
+    public interface Monitor
+    {
+        /**
+         * Called by the log writer thread after forcing the log for a batch of transactions.
+         *
+         * @param transactions number of transactions appended in the batch.
+         * @param forceTimeNanos time it took to force the log, in nanoseconds.
+         */
+        void batchForced( int transactions, long forceTimeNanos );
+    }
+}
@@ -43,6 +43,7 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
     protected T channel;
     private final ByteBuffer aheadBuffer;
     private final int readAheadSize;
+    private ByteBuffer inlined;
 
     public ReadAheadChannel( T channel )
     {
@@ -72,43 +73,37 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
     @Override
     public byte get() throws IOException
     {
-        ensureDataExists( 1 );
-        return aheadBuffer.get();
+        return buffer( 1 ).get();
     }
 
     @Override
     public short getShort() throws IOException
     {
-        ensureDataExists( 2 );
-        return aheadBuffer.getShort();
+        return buffer( 2 ).getShort();
     }
 
     @Override
     public int getInt() throws IOException
     {
-        ensureDataExists( 4 );
-        return aheadBuffer.getInt();
+        return buffer( 4 ).getInt();
     }
 
     @Override
     public long getLong() throws IOException
     {
-        ensureDataExists( 8 );
-        return aheadBuffer.getLong();
+        return buffer( 8 ).getLong();
     }
 
     @Override
     public float getFloat() throws IOException
     {
-        ensureDataExists( 4 );
-        return aheadBuffer.getFloat();
+        return buffer( 4 ).getFloat();
     }
 
     @Override
     public double getDouble() throws IOException
     {
-        ensureDataExists( 8 );
-        return aheadBuffer.getDouble();
+        return buffer( 8 ).getDouble();
     }
 
     @Override
@@ -117,6 +112,11 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
         assert length <= bytes.length;
 
         int bytesGotten = 0;
+        if ( inlined != null )
+        {
+            bytesGotten = min( inlined.remaining(), length );
+            inlined.get( bytes, 0, bytesGotten );
+        }
         while ( bytesGotten < length )
         {   // get max 1024 bytes at the time, so that ensureDataExists functions as it should
             int chunkSize = min( readAheadSize >> 2, length - bytesGotten );
@@ -132,6 +132,41 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
         channel.close();
     }
 
+    /**
+     * Makes the remaining bytes of {@code content} the next bytes to read from this channel, before continuing with
+     * the bytes after the current position. This is how the entries of a compressed log entry are read, in place
+     * of the compressed entry. The {@link #position() position} stays the same while reading inlined content and
+     * {@link #setCurrentPosition(long) changing it} discards any inlined content not read yet.
+     *
+     * @param content bytes to read next. Reads never span the end of inlined content and the bytes after it.
+     */
+    public void inline( ByteBuffer content )
+    {
+        inlined = content;
+    }
+
+    /**
+     * @return whether or not the next bytes are read from content given to {@link #inline(ByteBuffer)}.
+     */
+    public boolean isReadingInlined()
+    {
+        return inlined != null && inlined.hasRemaining();
+    }
+
+    private ByteBuffer buffer( int requestedNumberOfBytes ) throws IOException
+    {
+        if ( inlined != null )
+        {
+            if ( inlined.hasRemaining() )
+            {
+                return inlined;
+            }
+            inlined = null;
+        }
+        ensureDataExists( requestedNumberOfBytes );
+        return aheadBuffer;
+    }
+
     private void ensureDataExists( int requestedNumberOfBytes ) throws IOException
     {
         int remaining = aheadBuffer.remaining();
@@ -200,6 +235,7 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
     @Override
     public void setCurrentPosition( long byteOffset ) throws IOException
     {
+        inlined = null;
         long positionRelativeToAheadBuffer = byteOffset - (channel.position() - aheadBuffer.limit());
         if ( positionRelativeToAheadBuffer >= aheadBuffer.limit() || positionRelativeToAheadBuffer < 0 )
         {
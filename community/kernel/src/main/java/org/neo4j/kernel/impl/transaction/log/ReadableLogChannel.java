@@ -19,7 +19,21 @@
  */
 package org.neo4j.kernel.impl.transaction.log;
 
+import java.nio.ByteBuffer;
+
 public interface ReadableLogChannel
         extends ReadableClosablePositionAwareChannel, VersionableLog
 {
+    /**
+     * Makes the remaining bytes of {@code content} the next bytes to read from this channel.
+     * See {@link ReadAheadChannel#inline(ByteBuffer)}.
+     *
+     * @param content bytes to read next.
+     */
+    void inline( ByteBuffer content );
+
+    /**
+     * @return whether or not the next bytes are read from content given to {@link #inline(ByteBuffer)}.
+     */
+    boolean isReadingInlined();
 }
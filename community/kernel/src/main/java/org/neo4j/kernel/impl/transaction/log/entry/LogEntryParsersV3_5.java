@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+/**
+ * Parsers for {@link LogEntryVersion#V3_5}, which is only used for compressed command entries. All other entries
+ * are parsed by {@link LogEntryParsersV2_3}.
+ */
+public enum LogEntryParsersV3_5 implements LogEntryParser<LogEntry>
+{
+    COMPRESSED_COMMANDS
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int uncompressedLength = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    if ( uncompressedLength < 0 || compressedLength < 0 || compressedLength > Lz4BlockCodec.maxCompressedLength( uncompressedLength ) )
+                    {
+                        throw new IOException( "Invalid compressed commands entry lengths, uncompressed:" + uncompressedLength +
+                                ", compressed:" + compressedLength );
+                    }
+                    if ( !(channel instanceof ReadableLogChannel) )
+                    {
+                        throw new IOException( "Compressed commands can only be read from transaction log files, not from " + channel );
+                    }
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+                    byte[] uncompressed = new byte[uncompressedLength];
+                    Lz4BlockCodec.decompress( compressed, 0, compressedLength, uncompressed, uncompressedLength );
+                    // The decompressed command entries are read next, in place of this entry, which itself is skipped
+                    ((ReadableLogChannel) channel).inline( ByteBuffer.wrap( uncompressed ) );
+                    return null;
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+
+                @Override
+                public boolean skip()
+                {
+                    return true;
+                }
+            }
+}
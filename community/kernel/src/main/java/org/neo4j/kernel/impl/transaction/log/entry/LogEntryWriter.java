@@ -19,10 +19,13 @@
  */
 package org.neo4j.kernel.impl.transaction.log.entry;
 
+import java.io.Flushable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.io.ByteUnit;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.FlushableChannel;
@@ -31,23 +34,61 @@ import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.CHECK_POINT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.CURRENT;
 
 public class LogEntryWriter
 {
+    // Command entries taking up less than this aren't worth compressing
+    private static final int MIN_LENGTH_TO_COMPRESS = 256;
+    // Command entries are compressed in chunks of about this size, so that the serialized, or decompressed, form of the
+    // commands of a huge transaction is never buffered as a whole. The commands themselves are still all on heap, in
+    // the TransactionRepresentation being written.
+    static final int COMMANDS_CHUNK_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
     private final FlushableChannel channel;
     private final Visitor<StorageCommand,IOException> serializer;
+    private final int chunkSize;
+    private final CommandsBuffer commandsBuffer;
+    private final Visitor<StorageCommand,IOException> bufferSerializer;
+    private final Visitor<StorageCommand,IOException> chunkingSerializer;
+    private final Lz4BlockCodec compressor;
+    private byte[] compressed;
 
     /**
      * Create a writer that uses {@link LogEntryVersion#CURRENT} for versioning.
      * @param channel underlying channel
      */
     public LogEntryWriter( FlushableChannel channel )
+    {
+        this( channel, false );
+    }
+
+    /**
+     * Create a writer that uses {@link LogEntryVersion#CURRENT} for versioning.
+     * @param channel underlying channel
+     * @param compressCommands whether or not to write the command entries of each transaction as compressed
+     * entries, using {@link LogEntryVersion#V3_5}, when that makes them smaller. Commands are compressed in chunks of
+     * whole command entries, about {@link #COMMANDS_CHUNK_SIZE} bytes each. Such entries can only be read from
+     * transaction log files, i.e. through a {@link org.neo4j.kernel.impl.transaction.log.ReadableLogChannel}.
+     */
+    public LogEntryWriter( FlushableChannel channel, boolean compressCommands )
+    {
+        this( channel, compressCommands, COMMANDS_CHUNK_SIZE );
+    }
+
+    LogEntryWriter( FlushableChannel channel, boolean compressCommands, int chunkSize )
     {
         this.channel = channel;
         this.serializer = new StorageCommandSerializer( channel );
+        this.chunkSize = chunkSize;
+        this.commandsBuffer = compressCommands ? new CommandsBuffer() : null;
+        this.bufferSerializer = compressCommands ? new StorageCommandSerializer( commandsBuffer ) : null;
+        this.chunkingSerializer = compressCommands ? this::serializeChunked : null;
+        this.compressor = compressCommands ? new Lz4BlockCodec() : null;
+        this.compressed = compressCommands ? new byte[Lz4BlockCodec.maxCompressedLength( CommandsBuffer.INITIAL_SIZE )] : null;
     }
 
     protected void writeLogEntryHeader( byte type ) throws IOException
@@ -82,7 +123,48 @@ public class LogEntryWriter
 
     public void serialize( TransactionRepresentation tx ) throws IOException
     {
-        tx.accept( serializer );
+        if ( compressor == null )
+        {
+            tx.accept( serializer );
+            return;
+        }
+
+        commandsBuffer.clear();
+        tx.accept( chunkingSerializer );
+        writeBufferedCommands();
+    }
+
+    private boolean serializeChunked( StorageCommand command ) throws IOException
+    {
+        bufferSerializer.visit( command );
+        if ( commandsBuffer.length() >= chunkSize )
+        {
+            writeBufferedCommands();
+        }
+        return false;
+    }
+
+    private void writeBufferedCommands() throws IOException
+    {
+        byte[] commands = commandsBuffer.array();
+        int length = commandsBuffer.length();
+        commandsBuffer.clear();
+        if ( length >= MIN_LENGTH_TO_COMPRESS )
+        {
+            if ( compressed.length < Lz4BlockCodec.maxCompressedLength( length ) )
+            {
+                compressed = new byte[Lz4BlockCodec.maxCompressedLength( length )];
+            }
+            int compressedLength = compressor.compress( commands, length, compressed );
+            if ( compressedLength < length )
+            {
+                channel.put( LogEntryVersion.V3_5.byteCode() ).put( COMPRESSED_COMMANDS );
+                channel.putInt( length ).putInt( compressedLength ).put( compressed, compressedLength );
+                return;
+            }
+        }
+        // Not worth compressing, the buffered entries are written just like when not compressing
+        channel.put( commands, length );
     }
 
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
@@ -119,9 +201,106 @@ public class LogEntryWriter
         @Override
         public boolean visit( StorageCommand command ) throws IOException
         {
-            writeLogEntryHeader( COMMAND );
+            channel.put( CURRENT.byteCode() ).put( COMMAND );
             command.serialize( channel );
             return false;
         }
     }
+
+    /**
+     * Growing in-memory channel which command entries are serialized into before being compressed.
+     */
+    private static class CommandsBuffer implements FlushableChannel
+    {
+        static final int INITIAL_SIZE = 8192;
+
+        private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_SIZE );
+
+        void clear()
+        {
+            buffer.clear();
+        }
+
+        byte[] array()
+        {
+            return buffer.array();
+        }
+
+        int length()
+        {
+            return buffer.position();
+        }
+
+        private ByteBuffer ensureRoomFor( int bytes )
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                ByteBuffer grown = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.position() + bytes ) );
+                buffer.flip();
+                grown.put( buffer );
+                buffer = grown;
+            }
+            return buffer;
+        }
+
+        @Override
+        public Flushable prepareForFlush()
+        {
+            throw new UnsupportedOperationException( "Nothing to flush" );
+        }
+
+        @Override
+        public FlushableChannel put( byte value )
+        {
+            ensureRoomFor( Byte.BYTES ).put( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putShort( short value )
+        {
+            ensureRoomFor( Short.BYTES ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putInt( int value )
+        {
+            ensureRoomFor( Integer.BYTES ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putLong( long value )
+        {
+            ensureRoomFor( Long.BYTES ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putFloat( float value )
+        {
+            ensureRoomFor( Float.BYTES ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putDouble( double value )
+        {
+            ensureRoomFor( Double.BYTES ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel put( byte[] value, int length )
+        {
+            ensureRoomFor( length ).put( value, 0, length );
+            return this;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
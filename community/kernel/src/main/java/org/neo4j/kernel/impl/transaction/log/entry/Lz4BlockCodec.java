@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compresses and decompresses blocks of bytes using the LZ4 block format, see
+ * <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 block format</a>. Compression is a
+ * greedy single pass over the input with a small hash table of recently seen 4-byte sequences, which favours speed
+ * over compression ratio. Blocks compressed by this codec can be decompressed by any LZ4 block decompressor,
+ * and the other way around.
+ * <p>
+ * Instances keep the hash table between calls and are not thread safe.
+ */
+class Lz4BlockCodec
+{
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int RUN_MASK = 0xF;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_TRIGGER = 6;
+
+    // Position + 1 of the most recently seen 4-byte sequence per hash, 0 meaning none
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * @return max number of bytes {@link #compress(byte[], int, byte[])} can produce for the given number of bytes.
+     */
+    static int maxCompressedLength( int length )
+    {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses {@code length} bytes of {@code source} into {@code target}, which must be able to hold at least
+     * {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return number of bytes written to {@code target}.
+     */
+    int compress( byte[] source, int length, byte[] target )
+    {
+        Arrays.fill( hashTable, 0 );
+        int anchor = 0;
+        int out = 0;
+        if ( length > MF_LIMIT )
+        {
+            int matchLimit = length - LAST_LITERALS;
+            int lastMatchStart = length - MF_LIMIT;
+            int position = 0;
+            while ( position < lastMatchStart )
+            {
+                int sequence = readInt( source, position );
+                int hash = hash( sequence );
+                int reference = hashTable[hash] - 1;
+                hashTable[hash] = position + 1;
+                if ( reference < 0 || position - reference > MAX_DISTANCE || readInt( source, reference ) != sequence )
+                {
+                    // Step faster through data that doesn't seem to compress
+                    position += 1 + ((position - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+
+                int matchLength = MIN_MATCH;
+                while ( position + matchLength < matchLimit && source[reference + matchLength] == source[position + matchLength] )
+                {
+                    matchLength++;
+                }
+                out = writeSequence( source, anchor, position - anchor, position - reference, matchLength, target, out );
+                position += matchLength;
+                anchor = position;
+            }
+        }
+        return writeLastLiterals( source, anchor, length - anchor, target, out );
+    }
+
+    /**
+     * Decompresses {@code sourceLength} bytes of {@code source}, starting at {@code sourceOffset}, into exactly
+     * {@code targetLength} bytes of {@code target}.
+     *
+     * @throws IOException if the compressed block is malformed, or doesn't decompress into exactly {@code targetLength} bytes.
+     */
+    static void decompress( byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetLength ) throws IOException
+    {
+        int in = sourceOffset;
+        int end = sourceOffset + sourceLength;
+        int out = 0;
+        while ( true )
+        {
+            check( in < end );
+            int token = source[in++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if ( literalLength == RUN_MASK )
+            {
+                int lengthByte;
+                do
+                {
+                    check( in < end );
+                    lengthByte = source[in++] & 0xFF;
+                    literalLength += lengthByte;
+                }
+                while ( lengthByte == 0xFF );
+            }
+            check( literalLength <= end - in && literalLength <= targetLength - out );
+            System.arraycopy( source, in, target, out, literalLength );
+            in += literalLength;
+            out += literalLength;
+            if ( in == end )
+            {
+                // The last sequence only has literals
+                break;
+            }
+
+            check( end - in >= 2 );
+            int offset = (source[in] & 0xFF) | ((source[in + 1] & 0xFF) << 8);
+            in += 2;
+            check( offset > 0 && offset <= out );
+
+            int matchLength = token & RUN_MASK;
+            if ( matchLength == RUN_MASK )
+            {
+                int lengthByte;
+                do
+                {
+                    check( in < end );
+                    lengthByte = source[in++] & 0xFF;
+                    matchLength += lengthByte;
+                }
+                while ( lengthByte == 0xFF );
+            }
+            matchLength += MIN_MATCH;
+            check( matchLength <= targetLength - out );
+            int reference = out - offset;
+            if ( offset >= matchLength )
+            {
+                System.arraycopy( target, reference, target, out, matchLength );
+            }
+            else
+            {
+                // Overlapping match, i.e. a repeating pattern, must be copied byte by byte
+                for ( int i = 0; i < matchLength; i++ )
+                {
+                    target[out + i] = target[reference + i];
+                }
+            }
+            out += matchLength;
+        }
+        check( out == targetLength );
+    }
+
+    private static int writeSequence( byte[] source, int literalStart, int literalLength, int offset, int matchLength,
+            byte[] target, int out )
+    {
+        int tokenPosition = out++;
+        int token;
+        if ( literalLength >= RUN_MASK )
+        {
+            token = RUN_MASK << 4;
+            out = writeLength( literalLength - RUN_MASK, target, out );
+        }
+        else
+        {
+            token = literalLength << 4;
+        }
+        System.arraycopy( source, literalStart, target, out, literalLength );
+        out += literalLength;
+
+        target[out++] = (byte) offset;
+        target[out++] = (byte) (offset >>> 8);
+
+        int matchLengthCode = matchLength - MIN_MATCH;
+        if ( matchLengthCode >= RUN_MASK )
+        {
+            token |= RUN_MASK;
+            out = writeLength( matchLengthCode - RUN_MASK, target, out );
+        }
+        else
+        {
+            token |= matchLengthCode;
+        }
+        target[tokenPosition] = (byte) token;
+        return out;
+    }
+
+    private static int writeLastLiterals( byte[] source, int literalStart, int literalLength, byte[] target, int out )
+    {
+        if ( literalLength >= RUN_MASK )
+        {
+            target[out++] = (byte) (RUN_MASK << 4);
+            out = writeLength( literalLength - RUN_MASK, target, out );
+        }
+        else
+        {
+            target[out++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy( source, literalStart, target, out, literalLength );
+        return out + literalLength;
+    }
+
+    private static int writeLength( int length, byte[] target, int out )
+    {
+        while ( length >= 0xFF )
+        {
+            target[out++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        target[out++] = (byte) length;
+        return out;
+    }
+
+    private static int readInt( byte[] bytes, int position )
+    {
+        return (bytes[position] & 0xFF) | (bytes[position + 1] & 0xFF) << 8 | (bytes[position + 2] & 0xFF) << 16 | bytes[position + 3] << 24;
+    }
+
+    private static int hash( int sequence )
+    {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static void check( boolean condition ) throws IOException
+    {
+        if ( !condition )
+        {
+            throw new IOException( "Malformed LZ4 compressed block" );
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.PositionableChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.ReadPastEndException;
 
@@ -68,6 +69,7 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
             while ( true )
             {
                 channel.getCurrentPosition( positionMarker );
+                boolean inlined = channelIsReadingInlined( channel );
 
                 byte versionCode = channel.get();
                 byte typeCode = channel.get();
@@ -104,7 +106,9 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
                     e = withMessage( e, e.getMessage() + ". At position " + position +
                             " and entry version " + version );
 
-                    if ( channelSupportsPositioning( channel ) &&
+                    // Entries inlined from a compressed entry have no position of their own to skip from,
+                    // and skipping past the compressed entry would silently lose commands of a transaction
+                    if ( !inlined && channelSupportsPositioning( channel ) &&
                             invalidLogEntryHandler.handleInvalidEntry( e, position ) )
                     {
                         ((PositionableChannel)channel).setCurrentPosition( positionMarker.getByteOffset() + 1 );
@@ -131,4 +135,9 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
     {
         return channel instanceof PositionableChannel;
     }
+
+    private boolean channelIsReadingInlined( SOURCE channel )
+    {
+        return channel instanceof ReadableLogChannel && ((ReadableLogChannel) channel).isReadingInlined();
+    }
 }
@@ -19,16 +19,20 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.concurrent.Executor;
 import java.util.function.IntPredicate;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
 
 /**
  * Store scan view that will try to minimize amount of scanned nodes by using label scan store {@link LabelScanStore}
@@ -55,4 +59,18 @@ public class LabelScanViewNodeStoreScan<FAILURE extends Exception> extends Store
     {
         return new LabelScanViewIdIterator( labelScanStore.newReader(), labelIds );
     }
+
+    @Override
+    protected PageCursor openRecordCursor( RecordStore<NodeRecord> store )
+    {
+        // Labeled nodes may be few and far apart, don't read pages ahead of them
+        return store.openPageCursorForReading( 0 );
+    }
+
+    @Override
+    public boolean parallelize( int workers, Executor executor )
+    {
+        // Entity ids come from the label scan store rather than from ranges of the node store
+        return false;
+    }
 }
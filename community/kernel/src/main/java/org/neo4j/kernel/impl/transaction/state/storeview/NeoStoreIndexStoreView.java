@@ -35,7 +35,7 @@ import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
@@ -58,7 +58,7 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     protected final NodeStore nodeStore;
     protected final RelationshipStore relationshipStore;
     protected final LockService locks;
-    private final CountsTracker counts;
+    private final CountsStore counts;
 
     public NeoStoreIndexStoreView( LockService locks, NeoStores neoStores )
     {
@@ -21,14 +21,26 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
 
 import org.neo4j.collection.PrimitiveLongCollections;
 import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
@@ -44,20 +56,34 @@ import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
 
+import static java.lang.Math.min;
 import static java.util.Collections.emptyIterator;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
 
 public abstract class PropertyAwareEntityStoreScan<RECORD extends PrimitiveRecord, FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    public static final int PARTITION_SIZE = 100_000;
+    private static final int IDS_PER_PAUSE_CHECK = 100;
+
     private final RecordStore<RECORD> store;
     private volatile boolean continueScanning;
-    private long count;
+    private final LongAdder count = new LongAdder();
     private long totalCount;
     private final IntPredicate propertyKeyIdFilter;
     private final LongFunction<Lock> lockFunction;
     private final PropertyStore propertyStore;
     private final RECORD record;
 
+    // Only used when this scan is partitioned, see #parallelize.
+    // Scanning threads hold the read lock while processing entities, so holding the write lock means the scan is paused.
+    private int workers = 1;
+    private Executor partitionExecutor;
+    private final ReentrantReadWriteLock pauseLock = new ReentrantReadWriteLock();
+    private final AtomicReference<Runnable> pausedAction = new AtomicReference<>();
+    private final AtomicLong nextPartition = new AtomicLong();
+    private final List<Partition> activePartitions = new CopyOnWriteArrayList<>();
+    private volatile boolean completed;
+
     protected PropertyAwareEntityStoreScan( RecordStore<RECORD> store, PropertyStore propertyStore, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction )
     {
@@ -105,22 +131,222 @@ public abstract class PropertyAwareEntityStoreScan<RECORD extends PrimitiveRecor
     @Override
     public void run() throws FAILURE
     {
-        try ( PrimitiveLongResourceIterator entityIdIterator = getEntityIdIterator() )
+        continueScanning = true;
+        if ( workers > 1 )
+        {
+            runPartitioned();
+        }
+        else
         {
-            continueScanning = true;
-            while ( continueScanning && entityIdIterator.hasNext() )
+            try ( PrimitiveLongResourceIterator entityIdIterator = getEntityIdIterator();
+                  PageCursor cursor = openRecordCursor( store ) )
             {
-                long id = entityIdIterator.next();
-                try ( Lock ignored = lockFunction.apply( id ) )
+                while ( continueScanning && entityIdIterator.hasNext() )
                 {
-                    count++;
-                    if ( store.getRecord( id, this.record, FORCE ).inUse() )
+                    long id = entityIdIterator.next();
+                    try ( Lock ignored = lockFunction.apply( id ) )
                     {
-                        process( this.record );
+                        count.increment();
+                        store.getRecordByCursor( id, this.record, FORCE, cursor );
+                        if ( this.record.inUse() )
+                        {
+                            process( this.record );
+                        }
                     }
                 }
             }
         }
+        completed = true;
+    }
+
+    @Override
+    public boolean parallelize( int workers, Executor executor )
+    {
+        this.workers = Math.max( 1, workers );
+        this.partitionExecutor = executor;
+        return this.workers > 1;
+    }
+
+    @Override
+    public void runPaused( Runnable action )
+    {
+        if ( pauseLock.getReadHoldCount() > 0 )
+        {
+            // A scanning thread in the middle of its entities, leave it for when any of them gets in between entities
+            pausedAction.compareAndSet( null, action );
+        }
+        else
+        {
+            pauseLock.writeLock().lock();
+            try
+            {
+                action.run();
+            }
+            finally
+            {
+                pauseLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void runPartitioned() throws FAILURE
+    {
+        List<Future<Void>> scans = new ArrayList<>( workers - 1 );
+        Throwable failure = null;
+        try
+        {
+            for ( int i = 1; i < workers; i++ )
+            {
+                FutureTask<Void> scan = new FutureTask<>( () ->
+                {
+                    scanPartitions();
+                    return null;
+                } );
+                partitionExecutor.execute( scan );
+                scans.add( scan );
+            }
+            scanPartitions();
+        }
+        catch ( Throwable t )
+        {
+            failure = t;
+        }
+
+        for ( Future<Void> scan : scans )
+        {
+            try
+            {
+                scan.get();
+            }
+            catch ( ExecutionException e )
+            {
+                failure = Exceptions.chain( failure, e.getCause() );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                continueScanning = false;
+                failure = Exceptions.chain( failure, e );
+            }
+        }
+        if ( failure != null )
+        {
+            throwFailure( failure );
+        }
+    }
+
+    /**
+     * Claims and scans one partition of entity ids after the other until there are no more of them.
+     */
+    private void scanPartitions() throws FAILURE
+    {
+        Partition partition = new Partition();
+        RECORD partitionRecord = store.newRecord();
+        activePartitions.add( partition );
+        try ( PageCursor cursor = store.openPageCursorForScanning( 0 ) )
+        {
+            while ( continueScanning && claimNextPartition( partition ) )
+            {
+                long id = partition.from;
+                while ( continueScanning && id < partition.to )
+                {
+                    long pauseCheckId = min( id + IDS_PER_PAUSE_CHECK, partition.to );
+                    pauseLock.readLock().lock();
+                    try
+                    {
+                        for ( ; id < pauseCheckId; id++ )
+                        {
+                            try ( Lock ignored = lockFunction.apply( id ) )
+                            {
+                                partition.position = id;
+                                count.increment();
+                                store.getRecordByCursor( id, partitionRecord, FORCE, cursor );
+                                if ( partitionRecord.inUse() )
+                                {
+                                    process( partitionRecord );
+                                }
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        pauseLock.readLock().unlock();
+                    }
+                    runPausedAction();
+                }
+            }
+        }
+        catch ( Throwable t )
+        {
+            continueScanning = false;
+            throw t;
+        }
+        finally
+        {
+            activePartitions.remove( partition );
+        }
+    }
+
+    private boolean claimNextPartition( Partition partition )
+    {
+        pauseLock.readLock().lock();
+        try
+        {
+            long index = nextPartition.getAndIncrement();
+            long from = store.getNumberOfReservedLowIds() + index * PARTITION_SIZE;
+            // Entities created after this point, beyond the high id, are covered by the updates queued for them
+            long highId = store.getHighId();
+            partition.index = index;
+            partition.from = from;
+            partition.to = min( from + PARTITION_SIZE, highId );
+            partition.position = from - 1;
+            return from < highId;
+        }
+        finally
+        {
+            pauseLock.readLock().unlock();
+        }
+    }
+
+    private void runPausedAction()
+    {
+        Runnable action = pausedAction.getAndSet( null );
+        if ( action != null )
+        {
+            runPaused( action );
+        }
+    }
+
+    /**
+     * Whether or not the given entity has been processed by this partitioned scan. Must be called while the scan is paused.
+     */
+    private boolean isScanned( long id )
+    {
+        if ( completed )
+        {
+            return true;
+        }
+        long index = (id - store.getNumberOfReservedLowIds()) / PARTITION_SIZE;
+        if ( index >= nextPartition.get() )
+        {
+            return false;
+        }
+        for ( Partition partition : activePartitions )
+        {
+            if ( partition.index == index )
+            {
+                // Ids at or beyond the end of the partition were not in use when it was claimed and will not be visited
+                return id <= partition.position || id >= partition.to;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void throwFailure( Throwable failure ) throws FAILURE
+    {
+        Exceptions.throwIfUnchecked( failure );
+        throw (FAILURE) failure;
     }
 
     protected abstract void process( RECORD record ) throws FAILURE;
@@ -146,7 +372,7 @@ public abstract class PropertyAwareEntityStoreScan<RECORD extends PrimitiveRecor
     @Override
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update, long currentlyIndexedNodeId )
     {
-        if ( update.getEntityId() <= currentlyIndexedNodeId )
+        if ( workers > 1 ? isScanned( update.getEntityId() ) : update.getEntityId() <= currentlyIndexedNodeId )
         {
             updater.process( update );
         }
@@ -157,7 +383,7 @@ public abstract class PropertyAwareEntityStoreScan<RECORD extends PrimitiveRecor
     {
         if ( totalCount > 0 )
         {
-            return new PopulationProgress( count, totalCount );
+            return new PopulationProgress( count.sum(), totalCount );
         }
 
         // nothing to do 100% completed
@@ -169,6 +395,26 @@ public abstract class PropertyAwareEntityStoreScan<RECORD extends PrimitiveRecor
         return PrimitiveLongCollections.resourceIterator( new StoreIdIterator( store ), null );
     }
 
+    /**
+     * Opens the cursor that the records of the entities from {@link #getEntityIdIterator()} are read with. That is all
+     * entities, in id order, unless overridden, so the cursor reads ahead.
+     */
+    protected PageCursor openRecordCursor( RecordStore<RECORD> store )
+    {
+        return store.openPageCursorForScanning( 0 );
+    }
+
+    /**
+     * A range of entity ids claimed by one of the threads of a partitioned scan.
+     */
+    private static class Partition
+    {
+        long index = -1;
+        long from;
+        long to;
+        long position;
+    }
+
     protected class PropertyBlockIterator extends PrefetchingIterator<PropertyBlock>
     {
         private final Iterator<PropertyRecord> records;
@@ -25,6 +25,7 @@ import org.eclipse.collections.impl.map.mutable.primitive.SynchronizedLongObject
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.ByteUnit;
 import org.neo4j.memory.MemoryAllocationTracker;
@@ -56,6 +57,7 @@ public class CachingOffHeapBlockAllocator implements OffHeapBlockAllocator
     private static final int MAX_CACHED_BLOCKS = 128;
 
     private final SynchronizedLongObjectMap<BlockingQueue<MemoryBlock>> pool = new SynchronizedLongObjectMap<>( new LongObjectHashMap<>() );
+    private final AtomicLong cachedMemory = new AtomicLong();
     private volatile boolean released;
 
     @Override
@@ -76,6 +78,7 @@ public class CachingOffHeapBlockAllocator implements OffHeapBlockAllocator
         }
         else
         {
+            cachedMemory.addAndGet( -block.size );
             tracker.allocated( block.unalignedSize );
         }
         UnsafeUtil.setMemory( block.unalignedAddr, block.unalignedSize, (byte) 0 );
@@ -94,6 +97,7 @@ public class CachingOffHeapBlockAllocator implements OffHeapBlockAllocator
         final BlockingQueue<MemoryBlock> cached = pool.getIfAbsentPut( block.size, () -> new ArrayBlockingQueue<>( MAX_CACHED_BLOCKS ) );
         if ( cached.offer( block ) )
         {
+            cachedMemory.addAndGet( block.size );
             tracker.deallocated( block.unalignedSize );
         }
         else
@@ -106,12 +110,33 @@ public class CachingOffHeapBlockAllocator implements OffHeapBlockAllocator
     public void release()
     {
         released = true;
+        releaseCached();
+    }
+
+    /**
+     * Frees all the currently cached blocks.
+     */
+    public void releaseCached()
+    {
         pool.forEach( cached ->
         {
-            cached.forEach( block -> UnsafeUtil.free( block.unalignedAddr, block.unalignedSize ) );
+            MemoryBlock block;
+            while ( (block = cached.poll()) != null )
+            {
+                cachedMemory.addAndGet( -block.size );
+                UnsafeUtil.free( block.unalignedAddr, block.unalignedSize );
+            }
         } );
     }
 
+    /**
+     * @return number of bytes held by cached blocks, which are allocated but not in use.
+     */
+    public long cachedMemory()
+    {
+        return cachedMemory.get();
+    }
+
     private static MemoryBlock allocateNew( long size, MemoryAllocationTracker tracker )
     {
         final long unalignedSize = requirePositive( size ) + Long.BYTES - 1;
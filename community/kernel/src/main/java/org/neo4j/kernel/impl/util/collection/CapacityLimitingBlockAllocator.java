@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Block allocator decorator that limits the memory handed out, both in total and to every single transaction, i.e. per
+ * {@link MemoryAllocationTracker}. A limit of {@code 0} means unlimited. The total limit also covers the blocks cached
+ * by the underlying {@link CachingOffHeapBlockAllocator}, which are dropped from the cache before giving up on a block.
+ * <p>
+ * Blocks that would exceed a limit are instead mapped from a temporary file in the spill directory, given that they are
+ * at least {@link #MIN_SPILL_SIZE} big. Collections are allocated in blocks that double in size as they grow, so it's the
+ * largest parts of a big transaction state that end up on disk and are paged in and out by the OS, rather than the
+ * transaction failing. Smaller blocks exceeding a limit fail with {@link MemoryLimitExceededException}.
+ * <p>
+ * Spill files are deleted as soon as they are mapped, and unmapped as soon as their blocks are freed.
+ * <p>
+ * This class is thread safe.
+ */
+public class CapacityLimitingBlockAllocator implements OffHeapBlockAllocator, TransactionStateMemoryCounters
+{
+    /**
+     * Min size of blocks that are spilled to disk when exceeding a limit.
+     */
+    static final long MIN_SPILL_SIZE = ByteUnit.kibiBytes( 64 );
+
+    private final CachingOffHeapBlockAllocator delegate;
+    private final long maxMemory;
+    private final long maxTransactionMemory;
+    private final File spillDirectory;
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final AtomicLong spilledMemory = new AtomicLong();
+
+    /**
+     * @param delegate allocator of blocks within limits.
+     * @param maxMemory max number of bytes allocated by all transactions together, or {@code 0} for unlimited.
+     * @param maxTransactionMemory max number of bytes allocated by a single transaction, or {@code 0} for unlimited.
+     * @param spillDirectory directory of spill files, or {@code null} if blocks exceeding a limit should never be spilled.
+     */
+    public CapacityLimitingBlockAllocator( CachingOffHeapBlockAllocator delegate, long maxMemory, long maxTransactionMemory, File spillDirectory )
+    {
+        this.delegate = requireNonNull( delegate );
+        this.maxMemory = maxMemory;
+        this.maxTransactionMemory = maxTransactionMemory;
+        this.spillDirectory = spillDirectory;
+    }
+
+    @Override
+    public MemoryBlock allocate( long size, MemoryAllocationTracker tracker )
+    {
+        long transactionMemory = tracker.usedDirectMemory();
+        boolean withinTransactionLimit = maxTransactionMemory == 0 || transactionMemory + size <= maxTransactionMemory;
+        if ( withinTransactionLimit && (reserve( size ) || releaseCachedAndReserve( size )) )
+        {
+            try
+            {
+                return delegate.allocate( size, tracker );
+            }
+            catch ( Throwable t )
+            {
+                usedMemory.addAndGet( -size );
+                throw t;
+            }
+        }
+
+        if ( spillDirectory != null && size >= MIN_SPILL_SIZE && size <= Integer.MAX_VALUE )
+        {
+            return spill( size );
+        }
+        throw withinTransactionLimit ? new MemoryLimitExceededException( size, usedMemory.get(), maxMemory )
+                                     : new MemoryLimitExceededException( size, transactionMemory, maxTransactionMemory );
+    }
+
+    @Override
+    public void free( MemoryBlock block, MemoryAllocationTracker tracker )
+    {
+        if ( block instanceof SpilledMemoryBlock )
+        {
+            ((SpilledMemoryBlock) block).unmap();
+            spilledMemory.addAndGet( -block.size );
+            return;
+        }
+        delegate.free( block, tracker );
+        usedMemory.addAndGet( -block.size );
+    }
+
+    @Override
+    public void release()
+    {
+        delegate.release();
+    }
+
+    @Override
+    public long usedOffHeapMemory()
+    {
+        return usedMemory.get();
+    }
+
+    @Override
+    public long spilledMemory()
+    {
+        return spilledMemory.get();
+    }
+
+    private boolean reserve( long size )
+    {
+        long used;
+        do
+        {
+            used = usedMemory.get();
+            if ( maxMemory != 0 && used + delegate.cachedMemory() + size > maxMemory )
+            {
+                return false;
+            }
+        }
+        while ( !usedMemory.compareAndSet( used, used + size ) );
+        return true;
+    }
+
+    private boolean releaseCachedAndReserve( long size )
+    {
+        if ( delegate.cachedMemory() == 0 )
+        {
+            return false;
+        }
+        delegate.releaseCached();
+        return reserve( size );
+    }
+
+    private MemoryBlock spill( long size )
+    {
+        try
+        {
+            Files.createDirectories( spillDirectory.toPath() );
+            File spillFile = File.createTempFile( "tx-state-", ".spill", spillDirectory );
+            try ( FileChannel channel = FileChannel.open( spillFile.toPath(), READ, WRITE, DELETE_ON_CLOSE ) )
+            {
+                // A freshly mapped file reads as zeros, just like newly allocated blocks are expected to
+                MappedByteBuffer buffer = channel.map( READ_WRITE, 0, size );
+                spilledMemory.addAndGet( size );
+                return new SpilledMemoryBlock( buffer, size );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static class SpilledMemoryBlock extends MemoryBlock
+    {
+        // Keeps the mapping alive for as long as the block is in use
+        private MappedByteBuffer buffer;
+
+        SpilledMemoryBlock( MappedByteBuffer buffer, long size )
+        {
+            super( UnsafeUtil.getDirectByteBufferAddress( buffer ), size, UnsafeUtil.getDirectByteBufferAddress( buffer ), size );
+            this.buffer = buffer;
+        }
+
+        void unmap()
+        {
+            MappedByteBuffer mapped = buffer;
+            buffer = null;
+            if ( mapped != null )
+            {
+                UnsafeUtil.invokeCleaner( mapped );
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+/**
+ * Exposes how much memory the transaction state of all running transactions is using.
+ */
+public interface TransactionStateMemoryCounters
+{
+    TransactionStateMemoryCounters NONE = new TransactionStateMemoryCounters()
+    {
+        @Override
+        public long usedOffHeapMemory()
+        {
+            return 0;
+        }
+
+        @Override
+        public long spilledMemory()
+        {
+            return 0;
+        }
+    };
+
+    /**
+     * @return number of bytes of off-heap memory currently allocated for transaction state.
+     */
+    long usedOffHeapMemory();
+
+    /**
+     * @return number of bytes of transaction state currently spilled to temporary files.
+     */
+    long spilledMemory();
+}
@@ -109,6 +109,16 @@ public class DefaultRecoveryService implements RecoveryService
         logVersionRepository.setCurrentLogVersion( recoveredTransactionLogVersion );
     }
 
+    static TransactionToApply toApply( CommittedTransactionRepresentation transaction )
+    {
+        TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
+        long txId = transaction.getCommitEntry().getTxId();
+        TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
+        tx.commitment( NO_COMMITMENT, txId );
+        tx.logPosition( transaction.getStartEntry().getStartPosition() );
+        return tx;
+    }
+
     static class RecoveryVisitor implements RecoveryApplier
     {
         private final StorageEngine storageEngine;
@@ -123,12 +133,7 @@ public class DefaultRecoveryService implements RecoveryService
         @Override
         public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
         {
-            TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
-            long txId = transaction.getCommitEntry().getTxId();
-            TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
-            tx.commitment( NO_COMMITMENT, txId );
-            tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
+            storageEngine.apply( toApply( transaction ), mode );
             return false;
         }
 
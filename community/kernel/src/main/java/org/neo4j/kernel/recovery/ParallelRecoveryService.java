@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+/**
+ * {@link RecoveryService} which decodes the transaction log on a separate thread, ahead of the recovered transactions
+ * being applied, and which applies the recovered transactions to the store in batches, letting the storage engine
+ * apply each batch in parallel. Transactions changing the schema or creating tokens act as barriers; they are
+ * applied in a batch of their own, after all transactions before them have been applied.
+ * <p>
+ * Reverse recovery is done one transaction at a time, like in {@link DefaultRecoveryService}.
+ */
+public class ParallelRecoveryService extends DefaultRecoveryService
+{
+    private final StorageEngine storageEngine;
+    private final RecoveryMonitor recoveryMonitor;
+    private final int batchSize;
+    private final ThreadFactory logReaderThreadFactory;
+
+    public ParallelRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
+            TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
+            LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor,
+            RecoveryMonitor recoveryMonitor, int batchSize, ThreadFactory logReaderThreadFactory )
+    {
+        super( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository, monitor );
+        this.storageEngine = storageEngine;
+        this.recoveryMonitor = recoveryMonitor;
+        this.batchSize = batchSize;
+        this.logReaderThreadFactory = logReaderThreadFactory;
+    }
+
+    @Override
+    public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
+    {
+        return mode == RECOVERY ? new BatchingRecoveryVisitor( storageEngine, batchSize, recoveryMonitor ) : super.getRecoveryApplier( mode );
+    }
+
+    @Override
+    public TransactionCursor getTransactions( LogPosition position ) throws IOException
+    {
+        return new ReadAheadTransactionCursor( super.getTransactions( position ), batchSize, logReaderThreadFactory );
+    }
+
+    /**
+     * Collects visited transactions into batches, applying a batch when full, when reaching a transaction that changes
+     * the schema or creates tokens, and when closed. Transactions are therefore not necessarily applied when
+     * {@link #visit(CommittedTransactionRepresentation)} returns.
+     */
+    static class BatchingRecoveryVisitor implements RecoveryApplier
+    {
+        private final StorageEngine storageEngine;
+        private final int batchSize;
+        private final RecoveryMonitor monitor;
+        private TransactionToApply first;
+        private TransactionToApply last;
+        private int size;
+
+        BatchingRecoveryVisitor( StorageEngine storageEngine, int batchSize, RecoveryMonitor monitor )
+        {
+            this.storageEngine = storageEngine;
+            this.batchSize = batchSize;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+        {
+            boolean barrier = changesSchemaOrTokens( transaction );
+            if ( barrier )
+            {
+                applyBatch();
+            }
+            add( toApply( transaction ) );
+            if ( barrier || size >= batchSize )
+            {
+                applyBatch();
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            applyBatch();
+        }
+
+        private void add( TransactionToApply tx )
+        {
+            if ( first == null )
+            {
+                first = tx;
+            }
+            else
+            {
+                last.next( tx );
+            }
+            last = tx;
+            size++;
+        }
+
+        private void applyBatch() throws Exception
+        {
+            if ( first == null )
+            {
+                return;
+            }
+            TransactionToApply batch = first;
+            int batchedTransactions = size;
+            first = last = null;
+            size = 0;
+
+            long startTime = System.nanoTime();
+            storageEngine.apply( batch, RECOVERY );
+            long lastTxId = batch.transactionId();
+            while ( batch.next() != null )
+            {
+                batch = batch.next();
+                lastTxId = batch.transactionId();
+            }
+            monitor.batchRecovered( batchedTransactions, lastTxId, System.nanoTime() - startTime );
+        }
+
+        private static boolean changesSchemaOrTokens( CommittedTransactionRepresentation transaction ) throws IOException
+        {
+            return transaction.getTransactionRepresentation().accept(
+                    command -> command instanceof Command.SchemaRuleCommand || command instanceof Command.TokenCommand );
+        }
+    }
+}
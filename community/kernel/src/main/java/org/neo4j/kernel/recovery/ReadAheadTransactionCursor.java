@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import org.neo4j.helpers.Exceptions;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link TransactionCursor} which decodes the transactions of another cursor on a separate thread, ahead of them
+ * being asked for, such that decoding the log happens concurrently with applying the transactions read so far.
+ * A failure to decode a transaction is thrown from {@link #next()} when reaching that transaction.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private final TransactionCursor source;
+    private final BlockingQueue<ReadTransaction> readAhead;
+    private final Thread reader;
+    private volatile boolean closed;
+    private ReadTransaction current;
+
+    /**
+     * @param source cursor to decode transactions from. Only the reader thread uses it until this cursor is closed.
+     * @param capacity max number of decoded transactions to keep ahead of the transaction being visited.
+     * @param threadFactory for creating the reader thread.
+     */
+    ReadAheadTransactionCursor( TransactionCursor source, int capacity, ThreadFactory threadFactory )
+    {
+        this.source = source;
+        this.readAhead = new ArrayBlockingQueue<>( capacity );
+        this.reader = threadFactory.newThread( this::readAhead );
+        this.reader.start();
+    }
+
+    private void readAhead()
+    {
+        try
+        {
+            while ( source.next() )
+            {
+                if ( !hand( new ReadTransaction( source.get(), source.position(), null ) ) )
+                {
+                    return;
+                }
+            }
+            hand( new ReadTransaction( null, source.position(), null ) );
+        }
+        catch ( Throwable t )
+        {
+            hand( new ReadTransaction( null, null, t ) );
+        }
+    }
+
+    private boolean hand( ReadTransaction transaction )
+    {
+        try
+        {
+            while ( !closed )
+            {
+                if ( readAhead.offer( transaction, 100, MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( current != null && current.transaction == null )
+        {
+            // Reached the end of the log already
+            return false;
+        }
+
+        ReadTransaction next;
+        try
+        {
+            next = readAhead.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClosedByInterruptException();
+        }
+        if ( next.failure != null )
+        {
+            Exceptions.throwIfInstanceOf( next.failure, IOException.class );
+            Exceptions.throwIfUnchecked( next.failure );
+            throw new IOException( next.failure );
+        }
+        current = next;
+        return current.transaction != null;
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current == null ? null : current.transaction;
+    }
+
+    /**
+     * @return position after the most recently visited transaction, or after the last transaction in the log if
+     * {@link #next()} has returned {@code false}.
+     */
+    @Override
+    public LogPosition position()
+    {
+        return current == null ? null : current.position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        try
+        {
+            reader.join();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClosedByInterruptException();
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private static class ReadTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+
+        ReadTransaction( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
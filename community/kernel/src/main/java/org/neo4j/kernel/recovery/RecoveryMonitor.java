@@ -34,6 +34,18 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called when recovering in parallel, after applying a batch of recovered transactions to the store.
+     *
+     * @param numberOfTransactions number of transactions in the batch.
+     * @param lastTxId id of the last transaction in the batch.
+     * @param applyTimeNanos time it took to apply the batch.
+     */
+    default void batchRecovered( int numberOfTransactions, long lastTxId, long applyTimeNanos )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions )
     {
         //noop
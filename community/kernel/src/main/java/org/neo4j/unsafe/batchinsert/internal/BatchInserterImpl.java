@@ -124,7 +124,7 @@ import org.neo4j.kernel.impl.store.RelationshipTypeTokenStore;
 import org.neo4j.kernel.impl.store.SchemaStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
@@ -541,7 +541,7 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
 
     private void rebuildCounts()
     {
-        CountsTracker counts = neoStores.getCounts();
+        CountsStore counts = neoStores.getCounts();
         try
         {
             counts.start();
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.neo4j.storageengine.api.CommandsToApply;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConcurrentBatchTransactionApplierTest
+{
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final BatchTransactionApplier applier = mock( BatchTransactionApplier.class );
+    private final TransactionApplier txApplier = mock( TransactionApplier.class );
+    private final Set<Thread> applyingThreads = ConcurrentHashMap.newKeySet();
+
+    @After
+    public void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldApplyTransactionsInOrderOnExecutorBeforeClosing() throws Exception
+    {
+        // given
+        when( applier.startTx( any( CommandsToApply.class ) ) ).then( invocation ->
+        {
+            applyingThreads.add( Thread.currentThread() );
+            return txApplier;
+        } );
+        CommandsToApply tx1 = mock( CommandsToApply.class );
+        CommandsToApply tx2 = mock( CommandsToApply.class );
+        CommandsToApply tx3 = mock( CommandsToApply.class );
+
+        // when
+        try ( ConcurrentBatchTransactionApplier concurrentApplier = new ConcurrentBatchTransactionApplier( applier, executor ) )
+        {
+            for ( CommandsToApply tx : new CommandsToApply[]{tx1, tx2, tx3} )
+            {
+                try ( TransactionApplier applierOnThisThread = concurrentApplier.startTx( tx ) )
+                {
+                    assertSame( TransactionApplier.EMPTY, applierOnThisThread );
+                }
+            }
+        }
+
+        // then
+        InOrder inOrder = inOrder( applier, txApplier, tx1, tx2, tx3 );
+        inOrder.verify( applier ).startTx( tx1 );
+        inOrder.verify( tx1 ).accept( txApplier );
+        inOrder.verify( txApplier ).close();
+        inOrder.verify( applier ).startTx( tx2 );
+        inOrder.verify( tx2 ).accept( txApplier );
+        inOrder.verify( txApplier ).close();
+        inOrder.verify( applier ).startTx( tx3 );
+        inOrder.verify( tx3 ).accept( txApplier );
+        inOrder.verify( txApplier ).close();
+        inOrder.verify( applier ).close();
+        assertEquals( 1, applyingThreads.size() );
+        assertFalse( applyingThreads.contains( Thread.currentThread() ) );
+    }
+
+    @Test
+    public void shouldThrowFailureFromApplyingOnCloseAndStillCloseWrappedApplier() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "boom" );
+        when( applier.startTx( any( CommandsToApply.class ) ) ).thenReturn( txApplier );
+        CommandsToApply tx1 = mock( CommandsToApply.class );
+        CommandsToApply tx2 = mock( CommandsToApply.class );
+        doThrow( failure ).when( tx1 ).accept( txApplier );
+        ConcurrentBatchTransactionApplier concurrentApplier = new ConcurrentBatchTransactionApplier( applier, executor );
+        concurrentApplier.startTx( tx1 );
+        concurrentApplier.startTx( tx2 );
+
+        // when
+        try
+        {
+            concurrentApplier.close();
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+        verify( tx2, never() ).accept( any() );
+        verify( applier ).close();
+    }
+
+    @Test
+    public void shouldNotUseExecutorForEmptyBatch() throws Exception
+    {
+        // given
+        ExecutorService executor = mock( ExecutorService.class );
+
+        // when
+        new ConcurrentBatchTransactionApplier( applier, executor ).close();
+
+        // then
+        verify( executor, never() ).execute( any() );
+        verify( applier ).close();
+    }
+}
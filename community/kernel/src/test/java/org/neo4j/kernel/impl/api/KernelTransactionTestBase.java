@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
@@ -210,6 +211,12 @@ public class KernelTransactionTestBase
             return new LongObjectHashMap<>();
         }
 
+        @Override
+        public MutableLongLongMap newLongLongMap()
+        {
+            return OnHeapCollectionsFactory.INSTANCE.newLongLongMap();
+        }
+
         @Override
         public MemoryTracker getMemoryTracker()
         {
@@ -24,8 +24,11 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.helpers.collection.Iterables;
@@ -61,6 +64,7 @@ import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.api.index.IndexQueryHelper.add;
 import static org.neo4j.kernel.impl.api.index.BatchingMultipleIndexPopulator.AWAIT_TIMEOUT_MINUTES_NAME;
 import static org.neo4j.kernel.impl.api.index.BatchingMultipleIndexPopulator.BATCH_SIZE_NAME;
+import static org.neo4j.kernel.impl.api.index.BatchingMultipleIndexPopulator.SCAN_WORKERS_NAME;
 import static org.neo4j.kernel.impl.api.index.BatchingMultipleIndexPopulator.TASK_QUEUE_SIZE_NAME;
 import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
 import static org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.QUEUE_THRESHOLD_NAME;
@@ -79,6 +83,7 @@ public class BatchingMultipleIndexPopulatorTest
         clearProperty( TASK_QUEUE_SIZE_NAME );
         clearProperty( AWAIT_TIMEOUT_MINUTES_NAME );
         clearProperty( BATCH_SIZE_NAME );
+        clearProperty( SCAN_WORKERS_NAME );
     }
 
     @Test
@@ -321,6 +326,35 @@ public class BatchingMultipleIndexPopulatorTest
         verify( executor, atLeast( 5 ) ).execute( any( Runnable.class ) );
     }
 
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void partitionedScanBatchesAndSamplesUpdatesPerScanningThread() throws Exception
+    {
+        // given
+        setProperty( BATCH_SIZE_NAME, 2 );
+        setProperty( SCAN_WORKERS_NAME, 2 );
+        EntityUpdates update1 = nodeUpdates( 1, propertyId, "foo", labelId );
+        EntityUpdates update2 = nodeUpdates( 2, propertyId, "bar", labelId );
+        EntityUpdates update3 = nodeUpdates( 3, propertyId, "baz", labelId );
+        IndexStoreView storeView = mock( IndexStoreView.class );
+        when( storeView.visitNodes( any(), any(), any(), any(), anyBoolean() ) ).thenAnswer( invocation ->
+                new PartitionedIndexEntryUpdateScan( new EntityUpdates[]{update1, update2, update3}, invocation.getArgument( 2 ) ) );
+        BatchingMultipleIndexPopulator batchingPopulator = new BatchingMultipleIndexPopulator( storeView,
+                sameThreadExecutor(), NullLogProvider.getInstance(), mock( SchemaState.class ) );
+        IndexPopulator populator = addPopulator( batchingPopulator, index1 );
+
+        // when
+        batchingPopulator.indexAllEntities().run();
+
+        // then
+        verify( populator ).add( forUpdates( index1, update1, update2 ) );
+        verify( populator ).add( forUpdates( index1, update3 ) );
+        for ( IndexEntryUpdate<IndexDescriptor> update : forUpdates( index1, update1, update2, update3 ) )
+        {
+            verify( populator ).includeSample( update );
+        }
+    }
+
     private List<IndexEntryUpdate<IndexDescriptor>> forUpdates( IndexDescriptor index, EntityUpdates... updates )
     {
         return Iterables.asList(
@@ -446,4 +480,44 @@ public class BatchingMultipleIndexPopulatorTest
             return PopulationProgress.NONE;
         }
     }
+
+    /**
+     * Visits all but the last update from another thread before visiting the last one from the calling thread.
+     */
+    private static class PartitionedIndexEntryUpdateScan extends IndexEntryUpdateScan
+    {
+        PartitionedIndexEntryUpdateScan( EntityUpdates[] updates, Visitor<EntityUpdates,IndexPopulationFailedKernelException> visitor )
+        {
+            super( updates, visitor );
+        }
+
+        @Override
+        public boolean parallelize( int workers, Executor executor )
+        {
+            return workers > 1;
+        }
+
+        @Override
+        public void run() throws IndexPopulationFailedKernelException
+        {
+            FutureTask<Void> worker = new FutureTask<>( () ->
+            {
+                for ( int i = 0; i < updates.length - 1; i++ )
+                {
+                    visitor.visit( updates[i] );
+                }
+                return null;
+            } );
+            new Thread( worker ).start();
+            try
+            {
+                worker.get();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                throw new AssertionError( e );
+            }
+            visitor.visit( updates[updates.length - 1] );
+        }
+    }
 }
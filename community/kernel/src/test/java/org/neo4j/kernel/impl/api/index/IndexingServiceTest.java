@@ -1432,7 +1432,7 @@ public class IndexingServiceTest
                 indexMapReference, mock( IndexStoreView.class ), Collections.emptyList(),
                 mock( IndexSamplingController.class ), mock( TokenNameLookup.class ),
                 mock( JobScheduler.class ), mock( SchemaState.class ), mock( MultiPopulatorFactory.class ),
-                logProvider, IndexingService.NO_MONITOR );
+                logProvider, IndexingService.NO_MONITOR, false, false );
     }
 
     private static DependencyResolver buildIndexDependencies( IndexProvider provider )
@@ -36,6 +36,7 @@ import org.junit.runners.Parameterized;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -58,6 +59,7 @@ import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSetsImpl;
+import org.neo4j.storageengine.api.RelationshipVisitor;
 import org.neo4j.storageengine.api.StorageProperty;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.txstate.LongDiffSets;
@@ -483,6 +485,37 @@ public class TxStateTest
         assertTrue( state.relationshipIsAddedInThisTx( relId ) );
     }
 
+    @Test
+    public void shouldVisitCreatedRelationshipWithAndWithoutPropertyChanges()
+    {
+        // Given
+        state.relationshipDoCreate( 10, 1, 2, 3 );
+        state.relationshipDoCreate( 11, 4, 5, 6 );
+        state.relationshipDoReplaceProperty( 11, 7, Values.NO_VALUE, Values.of( "value" ) );
+        state.relationshipDoReplaceProperty( 12, 7, Values.of( "old" ), Values.of( "value" ) );
+
+        // Then
+        List<long[]> visited = new ArrayList<>();
+        RelationshipVisitor<RuntimeException> visitor = ( id, type, start, end ) -> visited.add( new long[]{id, type, start, end} );
+        assertTrue( state.relationshipVisit( 10, visitor ) );
+        assertTrue( state.getRelationshipState( 11 ).accept( visitor ) );
+        assertFalse( state.relationshipVisit( 12, visitor ) );
+        assertFalse( state.getRelationshipState( 12 ).accept( visitor ) );
+        assertTrue( state.getRelationshipState( 10 ).accept( visitor ) );
+        assertEquals( 3, visited.size() );
+        assertTrue( Arrays.equals( new long[]{10, 1, 2, 3}, visited.get( 0 ) ) );
+        assertTrue( Arrays.equals( new long[]{11, 4, 5, 6}, visited.get( 1 ) ) );
+        assertTrue( Arrays.equals( new long[]{10, 1, 2, 3}, visited.get( 2 ) ) );
+
+        // When
+        state.relationshipDoDeleteAddedInThisTx( 11 );
+
+        // Then
+        assertFalse( state.relationshipVisit( 11, visitor ) );
+        assertFalse( state.getRelationshipState( 11 ).accept( visitor ) );
+        assertTrue( state.relationshipVisit( 10, visitor ) );
+    }
+
     @Test
     public void shouldNotChangeRecordForCreatedAndDeletedNode() throws Exception
     {
@@ -30,6 +30,7 @@ import org.neo4j.index.internal.gbptree.Hit;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -55,7 +56,7 @@ public class NativeLabelScanReaderTest
                 hit( 1, 0b0000_0010__0000_1000L ),
                 hit( 3, 0b0010_0000__1010_0001L ),
                 null );
-        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) )
+        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ), eq( true ) ) )
                 .thenReturn( cursor );
         try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
         {
@@ -84,7 +85,7 @@ public class NativeLabelScanReaderTest
         when( cursor1.next() ).thenReturn( false );
         RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor2 = mock( RawCursor.class );
         when( cursor2.next() ).thenReturn( false );
-        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) ).thenReturn( cursor1, cursor2 );
+        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ), eq( true ) ) ).thenReturn( cursor1, cursor2 );
 
         // WHEN
         try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
@@ -120,7 +121,7 @@ public class NativeLabelScanReaderTest
         when( cursor1.next() ).thenReturn( false );
         RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor2 = mock( RawCursor.class );
         when( cursor2.next() ).thenReturn( false );
-        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) ).thenReturn( cursor1, cursor2 );
+        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ), eq( true ) ) ).thenReturn( cursor1, cursor2 );
 
         // WHEN
         try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
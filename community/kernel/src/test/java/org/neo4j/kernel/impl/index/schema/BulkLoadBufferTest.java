@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.values.storable.ValueGroup;
+import org.neo4j.values.storable.Values;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+
+public class BulkLoadBufferTest
+{
+    private static final IndexDescriptor DESCRIPTOR = TestIndexDescriptorFactory.forLabel( 42, 666 );
+
+    @Rule
+    public final PageCacheAndDependenciesRule storage = new PageCacheAndDependenciesRule();
+
+    private final NumberLayoutNonUnique layout = new NumberLayoutNonUnique();
+    private FileSystemAbstraction fs;
+    private File treeFile;
+
+    @Before
+    public void setUp()
+    {
+        fs = storage.fileSystem();
+        treeFile = storage.directory().file( "index" );
+    }
+
+    @Test
+    public void shouldBulkLoadEntriesKeptOnHeap() throws Exception
+    {
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> tree = tree() )
+        {
+            BulkLoadBuffer<NumberIndexKey,NativeIndexValue> buffer = new BulkLoadBuffer<>( tree, layout, fs, treeFile, 1_000, 4 );
+            assertTrue( buffer.add( updates( 0, 500 ) ) );
+            assertEquals( 0, runFileCount() );
+
+            assertTrue( buffer.flush().isEmpty() );
+
+            assertEquals( entityIds( 0, 500 ), scan( tree ) );
+        }
+    }
+
+    @Test
+    public void shouldMergeSpilledRunsInMultiplePassesIntoTree() throws Exception
+    {
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> tree = tree() )
+        {
+            BulkLoadBuffer<NumberIndexKey,NativeIndexValue> buffer = new BulkLoadBuffer<>( tree, layout, fs, treeFile, 10, 3 );
+            for ( int i = 0; i < 1_000; i += 50 )
+            {
+                assertTrue( buffer.add( updates( i, i + 50 ) ) );
+                // the same entries added twice should still only end up once in the tree
+                assertTrue( buffer.add( updates( i, i + 5 ) ) );
+            }
+            assertTrue( runFileCount() > 3 );
+
+            assertTrue( buffer.flush().isEmpty() );
+
+            assertEquals( entityIds( 0, 1_000 ), scan( tree ) );
+            assertEquals( 0, runFileCount() );
+        }
+    }
+
+    @Test
+    public void shouldHandBackDeferredUpdatesWhenFlushed() throws Exception
+    {
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> tree = tree() )
+        {
+            BulkLoadBuffer<NumberIndexKey,NativeIndexValue> buffer = new BulkLoadBuffer<>( tree, layout, fs, treeFile, 10, 2 );
+            assertTrue( buffer.add( updates( 0, 20 ) ) );
+            Collection<IndexEntryUpdate<IndexDescriptor>> deferred = updates( 20, 25 );
+            assertTrue( buffer.defer( deferred ) );
+            assertFalse( buffer.defer( updates( 25, 35 ) ) );
+
+            assertEquals( new ArrayList<>( deferred ), new ArrayList<>( buffer.flush() ) );
+            assertEquals( entityIds( 0, 20 ), scan( tree ) );
+
+            assertFalse( buffer.add( updates( 40, 41 ) ) );
+            assertFalse( buffer.defer( updates( 41, 42 ) ) );
+        }
+    }
+
+    @Test
+    public void shouldDeclineUpdatesOtherThanAdditions() throws Exception
+    {
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> tree = tree() )
+        {
+            BulkLoadBuffer<NumberIndexKey,NativeIndexValue> buffer = new BulkLoadBuffer<>( tree, layout, fs, treeFile, 10, 2 );
+            assertTrue( buffer.add( updates( 0, 5 ) ) );
+
+            assertFalse( buffer.add( singletonList( IndexEntryUpdate.remove( 3, DESCRIPTOR, Values.of( 3 ) ) ) ) );
+
+            buffer.flush();
+            assertEquals( entityIds( 0, 5 ), scan( tree ) );
+        }
+    }
+
+    @Test
+    public void shouldDeleteRunFilesWhenCleared() throws Exception
+    {
+        try ( GBPTree<NumberIndexKey,NativeIndexValue> tree = tree() )
+        {
+            BulkLoadBuffer<NumberIndexKey,NativeIndexValue> buffer = new BulkLoadBuffer<>( tree, layout, fs, treeFile, 10, 2 );
+            assertTrue( buffer.add( updates( 0, 100 ) ) );
+            assertTrue( runFileCount() > 0 );
+
+            buffer.clear();
+
+            assertEquals( 0, runFileCount() );
+        }
+    }
+
+    private GBPTree<NumberIndexKey,NativeIndexValue> tree()
+    {
+        return new GBPTree<>( storage.pageCache(), treeFile, layout, 0, NO_MONITOR, NO_HEADER_READER, NO_HEADER_WRITER, immediate() );
+    }
+
+    private static Collection<IndexEntryUpdate<IndexDescriptor>> updates( int fromEntityId, int toEntityId )
+    {
+        List<IndexEntryUpdate<IndexDescriptor>> updates = new ArrayList<>();
+        for ( int entityId = fromEntityId; entityId < toEntityId; entityId++ )
+        {
+            // values in reverse order of entity id, so that entries are added out of key order
+            updates.add( IndexEntryUpdate.add( entityId, DESCRIPTOR, Values.of( -entityId ) ) );
+        }
+        return updates;
+    }
+
+    private static List<Long> entityIds( int fromEntityId, int toEntityId )
+    {
+        List<Long> entityIds = new ArrayList<>();
+        for ( long entityId = toEntityId - 1; entityId >= fromEntityId; entityId-- )
+        {
+            entityIds.add( entityId );
+        }
+        return entityIds;
+    }
+
+    private List<Long> scan( GBPTree<NumberIndexKey,NativeIndexValue> tree ) throws IOException
+    {
+        NumberIndexKey from = layout.newKey();
+        from.initialize( Long.MIN_VALUE );
+        from.initValueAsLowest( ValueGroup.NUMBER );
+        NumberIndexKey to = layout.newKey();
+        to.initialize( Long.MAX_VALUE );
+        to.initValueAsHighest( ValueGroup.NUMBER );
+        List<Long> entityIds = new ArrayList<>();
+        try ( RawCursor<Hit<NumberIndexKey,NativeIndexValue>,IOException> seek = tree.seek( from, to ) )
+        {
+            while ( seek.next() )
+            {
+                entityIds.add( seek.get().key().getEntityId() );
+            }
+        }
+        return entityIds;
+    }
+
+    private int runFileCount()
+    {
+        File[] runFiles = fs.listFiles( treeFile.getParentFile(), ( dir, name ) -> name.startsWith( treeFile.getName() + ".run-" ) );
+        return runFiles == null ? 0 : runFiles.length;
+    }
+}
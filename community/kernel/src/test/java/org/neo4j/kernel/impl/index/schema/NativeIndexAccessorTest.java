@@ -344,6 +344,34 @@ public abstract class NativeIndexAccessorTest<KEY extends NativeIndexSingleValue
         assertEntityIdHits( EMPTY_LONG_ARRAY, result );
     }
 
+    @Test
+    public void shouldReturnMatchingEntriesForExactPredicateAndCountInMultiLevelTree() throws Exception
+    {
+        // given enough entries for the tree to grow internal nodes, which exact lookups may start their descent from
+        Iterator<IndexEntryUpdate<IndexDescriptor>> generator = layoutUtil.randomUpdateGenerator( random );
+        @SuppressWarnings( "unchecked" )
+        IndexEntryUpdate<IndexDescriptor>[] updates = new IndexEntryUpdate[2_000];
+        for ( int i = 0; i < updates.length; i++ )
+        {
+            updates[i] = generator.next();
+        }
+        processAll( updates );
+
+        // when
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            for ( IndexEntryUpdate<IndexDescriptor> update : updates )
+            {
+                // then
+                Value value = update.values()[0];
+                LongIterator result = query( reader, IndexQuery.exact( 0, value ) );
+                assertEntityIdHits( extractEntityIds( updates, in( value ) ), result );
+                assertEquals( 1, reader.countIndexedNodes( update.getEntityId(), update.values() ) );
+                assertEquals( 0, reader.countIndexedNodes( NON_EXISTENT_ENTITY_ID, update.values() ) );
+            }
+        }
+    }
+
     @Test
     public void shouldReturnMatchingEntriesForRangePredicateWithInclusiveStartAndExclusiveEnd() throws Exception
     {
@@ -21,8 +21,10 @@ package org.neo4j.kernel.impl.index.schema;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.api.index.IndexUpdater;
@@ -51,6 +53,49 @@ public abstract class NativeNonUniqueIndexPopulatorTest<KEY extends NativeIndexS
         verifyUpdates( updates );
     }
 
+    @Test
+    public void addShouldApplyUpdatesAddedTwiceOnce() throws Exception
+    {
+        // given
+        populator.create();
+        IndexEntryUpdate<IndexDescriptor>[] updates = layoutUtil.someUpdatesWithDuplicateValues();
+
+        // when
+        populator.add( Arrays.asList( updates ) );
+        populator.add( Arrays.asList( updates ) );
+
+        // then
+        populator.close( true );
+        verifyUpdates( updates );
+    }
+
+    @Test
+    public void addShouldApplyManyBatchesOfUpdates() throws Exception
+    {
+        // given
+        populator.create();
+        Iterator<IndexEntryUpdate<IndexDescriptor>> generator = layoutUtil.randomUpdateGenerator( random );
+        List<IndexEntryUpdate<IndexDescriptor>> updates = new ArrayList<>();
+
+        // when
+        for ( int i = 0; i < 50; i++ )
+        {
+            List<IndexEntryUpdate<IndexDescriptor>> batch = new ArrayList<>();
+            for ( int j = 0; j < 100; j++ )
+            {
+                batch.add( generator.next() );
+            }
+            populator.add( batch );
+            updates.addAll( batch );
+        }
+
+        // then
+        populator.close( true );
+        @SuppressWarnings( "unchecked" )
+        IndexEntryUpdate<IndexDescriptor>[] expected = updates.toArray( new IndexEntryUpdate[0] );
+        verifyUpdates( expected );
+    }
+
     @Test
     public void updaterShouldApplyDuplicateValues() throws Exception
     {
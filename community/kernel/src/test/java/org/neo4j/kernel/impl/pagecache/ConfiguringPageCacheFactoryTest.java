@@ -23,9 +23,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.List;
+
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCachePartition;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
@@ -38,7 +41,10 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_indexes_reserved;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_record_stores_max;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
 import static org.neo4j.kernel.impl.pagecache.PageSwapperFactoryForTesting.TEST_PAGESWAPPER_NAME;
@@ -121,6 +127,46 @@ public class ConfiguringPageCacheFactoryTest
         logProvider.assertContainsMessageContaining( TEST_PAGESWAPPER_NAME );
     }
 
+    @Test
+    public void mustAddConfiguredPartitions()
+    {
+        // Given
+        Config config = Config.defaults( stringMap(
+                pagecache_memory.name(), "8m",
+                pagecache_indexes_reserved.name(), "20",
+                pagecache_record_stores_max.name(), "70" ) );
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory( fsRule.get(), config,
+                PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, NullLog.getInstance(),
+                EmptyVersionContextSupplier.EMPTY );
+
+        // Then
+        try ( MuninnPageCache cache = (MuninnPageCache) factory.getOrCreatePageCache() )
+        {
+            List<PageCachePartition> partitions = cache.partitions();
+            assertThat( partitions.size(), is( 2 ) );
+            assertThat( partitions.get( 0 ).name(), is( "indexes" ) );
+            assertThat( partitions.get( 0 ).reservedPages(), is( cache.maxCachedPages() * 20 / 100 ) );
+            assertThat( partitions.get( 1 ).name(), is( "record_stores" ) );
+            assertThat( partitions.get( 1 ).maxPages(), is( cache.maxCachedPages() * 70 / 100 ) );
+        }
+    }
+
+    @Test
+    public void mustNotAddPartitionsByDefault()
+    {
+        Config config = Config.defaults( pagecache_memory, "8m" );
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory( fsRule.get(), config,
+                PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, NullLog.getInstance(),
+                EmptyVersionContextSupplier.EMPTY );
+
+        try ( MuninnPageCache cache = (MuninnPageCache) factory.getOrCreatePageCache() )
+        {
+            assertTrue( cache.partitions().isEmpty() );
+        }
+    }
+
     @Test( expected = IllegalArgumentException.class )
     public void mustThrowIfConfiguredPageSwapperCannotBeFound()
     {
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
+
+public class RelationshipGroupDirectoryTest
+{
+    private final RelationshipGroupDirectory directory = new RelationshipGroupDirectory( 2 );
+
+    @Test
+    public void shouldLookUpGroupsByType()
+    {
+        // given
+        directory.put( 5, directory.stamp( 5 ), new int[]{1, 3, 7}, new long[]{10, 30, 70} );
+
+        // when
+        RelationshipGroupDirectory.Entry entry = directory.get( 5 );
+
+        // then
+        assertNotNull( entry );
+        assertEquals( 10, entry.groupId( 1 ) );
+        assertEquals( 30, entry.groupId( 3 ) );
+        assertEquals( 70, entry.groupId( 7 ) );
+        assertEquals( NO_ID, entry.groupId( 2 ) );
+        assertEquals( NO_ID, entry.groupId( 8 ) );
+        assertNull( directory.get( 6 ) );
+    }
+
+    @Test
+    public void shouldRemoveDirectoryWhenGroupOfNodeIsWritten()
+    {
+        // given
+        directory.put( 5, directory.stamp( 5 ), new int[]{1, 3}, new long[]{10, 30} );
+
+        // when
+        directory.invalidate( 5 );
+
+        // then
+        assertNull( directory.get( 5 ) );
+    }
+
+    @Test
+    public void shouldNotPublishDirectoryBuiltWhileGroupOfNodeWasWritten()
+    {
+        // given
+        long stamp = directory.stamp( 5 );
+        directory.invalidate( 5 );
+
+        // when
+        directory.put( 5, stamp, new int[]{1, 3}, new long[]{10, 30} );
+
+        // then
+        assertNull( directory.get( 5 ) );
+    }
+
+    @Test
+    public void shouldNotPublishDirectoryOfUnsortedGroups()
+    {
+        // when
+        directory.put( 5, directory.stamp( 5 ), new int[]{3, 1}, new long[]{30, 10} );
+
+        // then
+        assertNull( directory.get( 5 ) );
+    }
+
+    @Test
+    public void shouldBeDisabledWithoutMinimumNumberOfTypes()
+    {
+        assertTrue( directory.isEnabled() );
+        assertFalse( new RelationshipGroupDirectory( 0 ).isEnabled() );
+    }
+}
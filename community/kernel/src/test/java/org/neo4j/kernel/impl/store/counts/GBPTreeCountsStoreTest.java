@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.impl.store.kvstore.RotationTimeoutException;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.register.Register;
+import org.neo4j.register.Registers;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GBPTreeCountsStoreTest
+{
+    private static final long BASE_TX_ID = FileVersion.INITIAL_TX_ID;
+
+    @Rule
+    public final PageCacheAndDependenciesRule storage = new PageCacheAndDependenciesRule();
+
+    private final AtomicInteger rebuilds = new AtomicInteger();
+
+    @Test
+    public void shouldReadAppliedChangesBeforeAndAfterCheckpoint() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        applyNodeCount( store, BASE_TX_ID + 1, 1, 5 );
+        applyRelationshipCount( store, BASE_TX_ID + 2, 1, 2, 3, 7 );
+
+        // then
+        assertNodeCount( store, 1, 5 );
+        assertRelationshipCount( store, 1, 2, 3, 7 );
+
+        // when
+        assertEquals( BASE_TX_ID + 2, store.rotate( BASE_TX_ID + 2 ) );
+        applyNodeCount( store, BASE_TX_ID + 3, 1, -2 );
+
+        // then
+        assertEquals( BASE_TX_ID + 2, store.txId() );
+        assertNodeCount( store, 1, 3 );
+        assertRelationshipCount( store, 1, 2, 3, 7 );
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldOnlyKeepCheckpointedChangesOverRestartAndIgnoreThemWhenReplayed() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        applyNodeCount( store, BASE_TX_ID + 1, 1, 5 );
+        applyNodeCount( store, BASE_TX_ID + 2, 1, 2 );
+        store.rotate( BASE_TX_ID + 1 );
+        applyNodeCount( store, BASE_TX_ID + 3, 1, 10 );
+        store.shutdown();
+
+        // when
+        store = openStore();
+
+        // then
+        assertEquals( BASE_TX_ID + 1, store.txId() );
+        applyNodeCount( store, BASE_TX_ID + 1, 1, 5 );
+        assertNodeCount( store, 1, 5 );
+
+        // and when replaying the transactions after the check point, like recovery does
+        applyNodeCount( store, BASE_TX_ID + 2, 1, 2 );
+        applyNodeCount( store, BASE_TX_ID + 3, 1, 10 );
+        store.rotate( BASE_TX_ID + 3 );
+
+        // then
+        assertNodeCount( store, 1, 17 );
+        assertEquals( 1, rebuilds.get() );
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldReplaceIndexCounts() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        try ( CountsAccessor.IndexStatsUpdater updater = store.updateIndexCounts() )
+        {
+            updater.replaceIndexUpdateAndSize( 4, 10, 100 );
+            updater.replaceIndexSample( 4, 50, 100 );
+        }
+        store.rotate( BASE_TX_ID );
+
+        // when
+        try ( CountsAccessor.IndexStatsUpdater updater = store.updateIndexCounts() )
+        {
+            updater.incrementIndexUpdates( 4, 5 );
+        }
+
+        // then
+        assertEquals( 15, store.indexUpdatesAndSize( 4, Registers.newDoubleLongRegister() ).readFirst() );
+        store.rotate( BASE_TX_ID );
+        store.shutdown();
+        store = openStore();
+        Register.DoubleLongRegister statistics = store.indexUpdatesAndSize( 4, Registers.newDoubleLongRegister() );
+        assertEquals( 15, statistics.readFirst() );
+        assertEquals( 100, statistics.readSecond() );
+        assertEquals( 50, store.indexSample( 4, Registers.newDoubleLongRegister() ).readFirst() );
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldTimeOutCheckpointWaitingForTransactionsToBeApplied() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore( Config.defaults( GraphDatabaseSettings.counts_store_rotation_timeout, "100ms" ) );
+        applyNodeCount( store, BASE_TX_ID + 2, 1, 5 );
+
+        // when
+        try
+        {
+            store.rotate( BASE_TX_ID + 2 );
+            fail( "Should have failed" );
+        }
+        catch ( RotationTimeoutException e )
+        {
+            // then good
+        }
+
+        // and when the gap is filled
+        applyNodeCount( store, BASE_TX_ID + 1, 1, 1 );
+        assertEquals( BASE_TX_ID + 2, store.rotate( BASE_TX_ID + 2 ) );
+        assertNodeCount( store, 1, 6 );
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldRebuildMissingStore() throws Exception
+    {
+        // when
+        GBPTreeCountsStore store = openStore();
+
+        // then
+        assertEquals( 1, rebuilds.get() );
+        assertEquals( BASE_TX_ID, store.txId() );
+        assertNodeCount( store, 0, 42 );
+        store.shutdown();
+
+        // and when
+        openStore().shutdown();
+
+        // then
+        assertEquals( 1, rebuilds.get() );
+    }
+
+    @Test
+    public void shouldRebuildCorruptStore() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        applyNodeCount( store, BASE_TX_ID + 1, 0, 1 );
+        store.rotate( BASE_TX_ID + 1 );
+        store.shutdown();
+        File file = storage.directory().databaseLayout().file( GBPTreeCountsStore.FILE_NAME );
+        try ( OutputStream out = storage.fileSystem().openAsOutputStream( file, false ) )
+        {
+            out.write( new byte[8192] );
+        }
+
+        // when
+        store = openStore();
+
+        // then
+        assertEquals( 2, rebuilds.get() );
+        assertNodeCount( store, 0, 42 );
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldReplaceAllContentsOnReset() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        applyNodeCount( store, BASE_TX_ID + 1, 1, 5 );
+        store.rotate( BASE_TX_ID + 1 );
+        applyNodeCount( store, BASE_TX_ID + 2, 2, 5 );
+
+        // when
+        try ( CountsAccessor.Updater updater = store.reset( BASE_TX_ID + 10 ) )
+        {
+            updater.incrementNodeCount( 3, 9 );
+        }
+
+        // then
+        assertEquals( BASE_TX_ID + 10, store.txId() );
+        assertNodeCount( store, 0, 0 );
+        assertNodeCount( store, 1, 0 );
+        assertNodeCount( store, 2, 0 );
+        assertNodeCount( store, 3, 9 );
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldReadConsistentlyWhileContentsAreReplaced() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        try ( CountsAccessor.Updater updater = store.reset( BASE_TX_ID + 1 ) )
+        {
+            updater.incrementNodeCount( 3, 9 );
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread( () ->
+        {
+            try
+            {
+                while ( !done.get() )
+                {
+                    assertNodeCount( store, 3, 9 );
+                }
+            }
+            catch ( Throwable t )
+            {
+                failure.set( t );
+            }
+        } );
+        reader.start();
+
+        // when
+        try
+        {
+            for ( int i = 2; i < 100 && failure.get() == null; i++ )
+            {
+                try ( CountsAccessor.Updater updater = store.reset( BASE_TX_ID + i ) )
+                {
+                    updater.incrementNodeCount( 3, 9 );
+                }
+            }
+        }
+        finally
+        {
+            done.set( true );
+            reader.join();
+        }
+
+        // then
+        if ( failure.get() != null )
+        {
+            throw new AssertionError( "Reader failed while the counts store contents were replaced", failure.get() );
+        }
+        store.shutdown();
+    }
+
+    @Test
+    public void shouldVisitCheckpointedAndPendingCounts() throws Exception
+    {
+        // given
+        GBPTreeCountsStore store = openStore();
+        applyNodeCount( store, BASE_TX_ID + 1, 1, 5 );
+        store.rotate( BASE_TX_ID + 1 );
+        applyNodeCount( store, BASE_TX_ID + 2, 1, 1 );
+        applyRelationshipCount( store, BASE_TX_ID + 3, -1, 2, -1, 3 );
+        applyNodeCount( store, BASE_TX_ID + 4, 0, -42 );
+
+        // when
+        Map<String,Long> visited = new HashMap<>();
+        store.accept( new CountsVisitor.Adapter()
+        {
+            @Override
+            public void visitNodeCount( int labelId, long count )
+            {
+                visited.put( "node:" + labelId, count );
+            }
+
+            @Override
+            public void visitRelationshipCount( int startLabelId, int typeId, int endLabelId, long count )
+            {
+                visited.put( "relationship:" + startLabelId + ":" + typeId + ":" + endLabelId, count );
+            }
+        } );
+
+        // then
+        Map<String,Long> expected = new HashMap<>();
+        expected.put( "node:1", 6L );
+        expected.put( "relationship:-1:2:-1", 3L );
+        assertEquals( expected, visited );
+        store.shutdown();
+    }
+
+    private GBPTreeCountsStore openStore() throws IOException
+    {
+        return openStore( Config.defaults() );
+    }
+
+    private GBPTreeCountsStore openStore( Config config ) throws IOException
+    {
+        GBPTreeCountsStore store = new GBPTreeCountsStore( NullLogProvider.getInstance(), storage.fileSystem(), storage.pageCache(), config,
+                storage.directory().databaseLayout(), false );
+        store.setInitializer( new DataInitializer<CountsAccessor.Updater>()
+        {
+            @Override
+            public void initialize( CountsAccessor.Updater updater )
+            {
+                rebuilds.incrementAndGet();
+                updater.incrementNodeCount( 0, 42 );
+            }
+
+            @Override
+            public long initialVersion()
+            {
+                return BASE_TX_ID;
+            }
+        } );
+        store.init();
+        store.start();
+        return store;
+    }
+
+    private static void applyNodeCount( CountsStore store, long txId, int labelId, long delta )
+    {
+        try ( CountsAccessor.Updater updater = store.apply( txId ).get() )
+        {
+            updater.incrementNodeCount( labelId, delta );
+        }
+    }
+
+    private static void applyRelationshipCount( CountsStore store, long txId, int startLabelId, int typeId, int endLabelId, long delta )
+    {
+        try ( CountsAccessor.Updater updater = store.apply( txId ).get() )
+        {
+            updater.incrementRelationshipCount( startLabelId, typeId, endLabelId, delta );
+        }
+    }
+
+    private static void assertNodeCount( CountsStore store, int labelId, long expected )
+    {
+        assertEquals( expected, store.nodeCount( labelId, Registers.newDoubleLongRegister() ).readSecond() );
+    }
+
+    private static void assertRelationshipCount( CountsStore store, int startLabelId, int typeId, int endLabelId, long expected )
+    {
+        assertEquals( expected, store.relationshipCount( startLabelId, typeId, endLabelId, Registers.newDoubleLongRegister() ).readSecond() );
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.kernel.impl.store.id.validation.IdCapacityExceededException;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentIdGeneratorTest
+{
+    @Rule
+    public final EphemeralFileSystemRule fsr = new EphemeralFileSystemRule();
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final File file = new File( "ids" );
+
+    @Test
+    public void shouldHandOutUniqueIdsFromManyThreads() throws Exception
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, Long.MAX_VALUE, true, IdType.NODE, () -> 0L, 16, 4 );
+        int threads = 8;
+        int idsPerThread = 10_000;
+
+        // when
+        List<long[]> allocated = allocateConcurrently( threads, () ->
+        {
+            long[] ids = new long[idsPerThread];
+            for ( int i = 0; i < idsPerThread; i++ )
+            {
+                ids[i] = idGenerator.nextId();
+                if ( i % 10 == 0 )
+                {
+                    idGenerator.freeId( ids[i] );
+                    ids[i] = -1;
+                }
+            }
+            return ids;
+        } );
+
+        // then
+        MutableLongSet seen = new LongHashSet();
+        for ( long[] ids : allocated )
+        {
+            for ( long id : ids )
+            {
+                if ( id != -1 )
+                {
+                    assertTrue( "Id " + id + " handed out twice", seen.add( id ) );
+                    assertTrue( id < idGenerator.getHighId() );
+                }
+            }
+        }
+        assertEquals( idGenerator.getHighId() - seen.size(), idGenerator.getDefragCount() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldHandOutUniqueIdBatchesFromManyThreads() throws Exception
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, Long.MAX_VALUE, true, IdType.NODE, () -> 0L, 16, 4 );
+
+        // when
+        List<long[]> allocated = allocateConcurrently( 4, () ->
+        {
+            long[] ids = new long[1_000];
+            for ( int i = 0; i < ids.length; )
+            {
+                IdRangeIterator iterator = idGenerator.nextIdBatch( 10 ).iterator();
+                for ( long id; (id = iterator.nextId()) != IdRangeIterator.VALUE_REPRESENTING_NULL && i < ids.length; )
+                {
+                    ids[i++] = id;
+                }
+                idGenerator.nextId();
+            }
+            return ids;
+        } );
+
+        // then
+        MutableLongSet seen = new LongHashSet();
+        for ( long[] ids : allocated )
+        {
+            for ( long id : ids )
+            {
+                assertTrue( "Id " + id + " handed out twice", seen.add( id ) );
+            }
+        }
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldReuseFreedIdsWithAggressiveReuse()
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, 100, true, IdType.NODE, () -> 0L, 16, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            idGenerator.nextId();
+        }
+
+        // when
+        idGenerator.freeId( 3 );
+
+        // then
+        assertEquals( 3, idGenerator.nextId() );
+        assertEquals( 10, idGenerator.nextId() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldOnlyReuseFreedIdsInNextSessionWithoutAggressiveReuse()
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L, 16, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            idGenerator.nextId();
+        }
+
+        // when
+        idGenerator.freeId( 3 );
+
+        // then
+        assertEquals( 10, idGenerator.nextId() );
+        idGenerator.close();
+        IdGenerator reloaded = new ConcurrentIdGenerator( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L, 16, 1 );
+        assertEquals( 3, reloaded.nextId() );
+        reloaded.close();
+    }
+
+    @Test
+    public void shouldWriteUnusedIdsOfReservedRangesToIdFileOnClose()
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L, 16, 1 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            idGenerator.nextId();
+        }
+        assertEquals( 16, idGenerator.getHighId() );
+        assertEquals( 5, idGenerator.getNumberOfIdsInUse() );
+
+        // when
+        idGenerator.close();
+
+        // then
+        IdGenerator reloaded = new IdGeneratorImpl( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L );
+        assertEquals( 16, reloaded.getHighId() );
+        assertEquals( 11, reloaded.getDefragCount() );
+        MutableLongSet reused = new LongHashSet();
+        for ( int i = 0; i < 11; i++ )
+        {
+            reused.add( reloaded.nextId() );
+        }
+        for ( long id = 0; id < 5; id++ )
+        {
+            assertFalse( reused.contains( id ) );
+        }
+        assertEquals( 16, reloaded.nextId() );
+        reloaded.close();
+    }
+
+    @Test
+    public void shouldDropReservedRangesWhenHighIdIsSet()
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, 1_000, false, IdType.NODE, () -> 0L, 16, 1 );
+        assertEquals( 0, idGenerator.nextId() );
+
+        // when
+        idGenerator.setHighId( 20 );
+
+        // then
+        assertEquals( 20, idGenerator.nextId() );
+        assertEquals( 36, idGenerator.getHighId() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldNeverLowerHighId()
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, 1_000, false, IdType.NODE, () -> 0L, 16, 1 );
+        assertEquals( 0, idGenerator.nextId() );
+
+        // when
+        idGenerator.setHighId( 10 );
+
+        // then
+        assertEquals( 16, idGenerator.getHighId() );
+        assertEquals( 16, idGenerator.nextId() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldReuseRemainingIdsOfRangeOfDeadThread() throws Exception
+    {
+        // given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 100, 1_000, false, IdType.NODE, () -> 0L, 16, 1 );
+        Thread thread = new Thread( idGenerator::nextId );
+        thread.start();
+        thread.join();
+        assertEquals( 16, idGenerator.getHighId() );
+
+        // when
+        MutableLongSet ids = new LongHashSet();
+        for ( int i = 0; i < 16; i++ )
+        {
+            ids.add( idGenerator.nextId() );
+        }
+
+        // then
+        for ( long id = 1; id < 17; id++ )
+        {
+            assertTrue( ids.contains( id ) );
+        }
+        assertEquals( 17, idGenerator.nextId() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldNeverHandOutReservedId()
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 1, Long.MAX_VALUE, false, IdType.NODE, () -> 0L, 16, 1 );
+
+        idGenerator.setHighId( IdGeneratorImpl.INTEGER_MINUS_ONE - 1 );
+
+        assertEquals( IdGeneratorImpl.INTEGER_MINUS_ONE - 1, idGenerator.nextId() );
+        assertEquals( IdGeneratorImpl.INTEGER_MINUS_ONE + 1, idGenerator.nextId() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void throwsWhenNextIdIsTooHigh()
+    {
+        long maxId = 10;
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new ConcurrentIdGenerator( fsr.get(), file, 1, maxId, false, IdType.NODE, () -> 0L, 4, 1 );
+
+        for ( long i = 0; i <= maxId; i++ )
+        {
+            assertEquals( i, idGenerator.nextId() );
+        }
+
+        expectedException.expect( IdCapacityExceededException.class );
+        expectedException.expectMessage( "Maximum id limit for NODE has been reached. Generated id 11 is out of " +
+                "permitted range [0, 10]." );
+        idGenerator.nextId();
+    }
+
+    private static List<long[]> allocateConcurrently( int threads, Callable<long[]> allocation )
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( allocation ) );
+            }
+            List<long[]> result = new ArrayList<>();
+            for ( Future<long[]> future : futures )
+            {
+                result.add( future.get() );
+            }
+            return result;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
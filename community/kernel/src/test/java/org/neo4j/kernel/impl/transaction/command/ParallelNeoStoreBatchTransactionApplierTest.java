@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.store.LabelTokenStore;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.storageengine.api.CommandVersion;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.locking.LockService.NO_LOCK_SERVICE;
+
+public class ParallelNeoStoreBatchTransactionApplierTest
+{
+    private final NeoStores neoStores = mock( NeoStores.class );
+    private final NodeStore nodeStore = mock( NodeStore.class );
+    private final RelationshipStore relationshipStore = mock( RelationshipStore.class );
+    private final PropertyStore propertyStore = mock( PropertyStore.class );
+    private final LabelTokenStore labelTokenStore = mock( LabelTokenStore.class );
+    private final Map<RecordStore<?>,List<Long>> updatedRecordsByStore = new ConcurrentHashMap<>();
+    private final Map<RecordStore<?>,Thread> updatingThreadByStore = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Before
+    public void setup()
+    {
+        when( neoStores.getNodeStore() ).thenReturn( nodeStore );
+        when( neoStores.getRelationshipStore() ).thenReturn( relationshipStore );
+        when( neoStores.getPropertyStore() ).thenReturn( propertyStore );
+        when( neoStores.getLabelTokenStore() ).thenReturn( labelTokenStore );
+        for ( RecordStore<?> store : asList( nodeStore, relationshipStore, propertyStore, labelTokenStore ) )
+        {
+            updatedRecordsByStore.put( store, new CopyOnWriteArrayList<>() );
+            doAnswer( invocation ->
+            {
+                updatedRecordsByStore.get( store ).add( invocation.<AbstractBaseRecord>getArgument( 0 ).getId() );
+                updatingThreadByStore.put( store, Thread.currentThread() );
+                return null;
+            } ).when( store ).updateRecord( any() );
+        }
+    }
+
+    @After
+    public void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldApplyRecordCommandsOfEachStoreInOrderAndOtherCommandsOnCallingThread() throws Exception
+    {
+        // given
+        List<StorageCommand> commands = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for ( long id = 9; id >= 0; id-- )
+        {
+            ids.add( id );
+            commands.add( new Command.NodeCommand( new NodeRecord( id ), new NodeRecord( id ) ) );
+            commands.add( new Command.RelationshipCommand( new RelationshipRecord( id ), new RelationshipRecord( id ) ) );
+            commands.add( new Command.PropertyCommand( new PropertyRecord( id ), new PropertyRecord( id ) ) );
+        }
+        commands.add( new Command.LabelTokenCommand( new LabelTokenRecord( 1 ), new LabelTokenRecord( 1 ) ) );
+
+        // when
+        TransactionApplier txApplier = newApplier( 1 ).startTx( transaction( commands ), new LockGroup() );
+
+        // then the whole transaction has been applied already
+        assertSame( TransactionApplier.EMPTY, txApplier );
+        assertEquals( ids, updatedRecordsByStore.get( nodeStore ) );
+        assertEquals( ids, updatedRecordsByStore.get( relationshipStore ) );
+        assertEquals( ids, updatedRecordsByStore.get( propertyStore ) );
+        assertEquals( 1, updatedRecordsByStore.get( labelTokenStore ).size() );
+        assertSame( Thread.currentThread(), updatingThreadByStore.get( labelTokenStore ) );
+        assertNotSame( Thread.currentThread(), updatingThreadByStore.get( nodeStore ) );
+    }
+
+    @Test
+    public void shouldApplySmallTransactionsSequentially() throws Exception
+    {
+        // given
+        List<StorageCommand> commands = new ArrayList<>();
+        commands.add( new Command.NodeCommand( new NodeRecord( 1 ), new NodeRecord( 1 ) ) );
+        commands.add( new Command.PropertyCommand( new PropertyRecord( 1 ), new PropertyRecord( 1 ) ) );
+        TransactionToApply transaction = transaction( commands );
+
+        // when
+        try ( TransactionApplier txApplier = newApplier( 10 ).startTx( transaction, new LockGroup() ) )
+        {
+            transaction.accept( txApplier );
+        }
+
+        // then
+        verify( nodeStore ).updateRecord( any() );
+        verify( propertyStore ).updateRecord( any() );
+        assertSame( Thread.currentThread(), updatingThreadByStore.get( nodeStore ) );
+        assertSame( Thread.currentThread(), updatingThreadByStore.get( propertyStore ) );
+    }
+
+    @Test
+    public void shouldThrowFailureToApplyPartitionAfterAllPartitionsHaveBeenApplied() throws Exception
+    {
+        // given
+        UnderlyingStorageException failure = new UnderlyingStorageException( "Failed to update node" );
+        doThrow( failure ).when( nodeStore ).updateRecord( any() );
+        List<StorageCommand> commands = new ArrayList<>();
+        commands.add( new Command.NodeCommand( new NodeRecord( 1 ), new NodeRecord( 1 ) ) );
+        commands.add( new Command.PropertyCommand( new PropertyRecord( 1 ), new PropertyRecord( 1 ) ) );
+
+        // when
+        try
+        {
+            newApplier( 1 ).startTx( transaction( commands ), new LockGroup() );
+            fail( "Should have failed" );
+        }
+        catch ( UnderlyingStorageException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+        assertEquals( 1, updatedRecordsByStore.get( propertyStore ).size() );
+    }
+
+    private ParallelNeoStoreBatchTransactionApplier newApplier( int minRecordCommandsToPartition )
+    {
+        return new ParallelNeoStoreBatchTransactionApplier( CommandVersion.AFTER, neoStores, mock( CacheAccessBackDoor.class ),
+                NO_LOCK_SERVICE, executor, minRecordCommandsToPartition );
+    }
+
+    private static TransactionToApply transaction( List<StorageCommand> commands )
+    {
+        return new TransactionToApply( new PhysicalTransactionRepresentation( commands ), 42 );
+    }
+}
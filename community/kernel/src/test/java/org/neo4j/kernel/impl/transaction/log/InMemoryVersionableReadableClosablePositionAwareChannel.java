@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction.log;
 
+import java.nio.ByteBuffer;
+
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LOG_VERSION;
 
 public class InMemoryVersionableReadableClosablePositionAwareChannel extends InMemoryClosableChannel implements
@@ -49,4 +51,16 @@ public class InMemoryVersionableReadableClosablePositionAwareChannel extends InM
     {
         return formatVersion;
     }
+
+    @Override
+    public void inline( ByteBuffer content )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isReadingInlined()
+    {
+        return false;
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.kernel.impl.store.record.Record.NO_LABELS_FIELD;
+import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.exhaust;
+import static org.neo4j.kernel.impl.transaction.log.LogPosition.start;
+
+public class MappedLogChannelTest
+{
+    private static final int TRANSACTIONS_PER_VERSION = 10;
+
+    private final DefaultFileSystemRule fs = new DefaultFileSystemRule();
+    private final TestDirectory directory = TestDirectory.testDirectory( fs );
+    private final LifeRule life = new LifeRule( true );
+
+    @Rule
+    public final RuleChain rules = RuleChain.outerRule( fs ).around( directory ).around( life );
+
+    private LogFiles logFiles;
+    private long txId = TransactionIdStore.BASE_TX_ID;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        logFiles = LogFilesBuilder.builder( directory.databaseLayout(), fs )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withTransactionIdStore( new SimpleTransactionIdStore() )
+                .build();
+        life.add( logFiles );
+    }
+
+    @Test
+    public void shouldReadAllTransactionsThroughRotatedAndCurrentLogVersions() throws Exception
+    {
+        // given
+        writeTransactions();
+        logFiles.getLogFile().rotate();
+        writeTransactions();
+        logFiles.getLogFile().rotate();
+        writeTransactions();
+
+        // when
+        CommittedTransactionRepresentation[] expected;
+        try ( TransactionCursor cursor = cursor( logFiles.getLogFile().getReader( start( 0 ) ) ) )
+        {
+            expected = exhaust( cursor );
+        }
+        ReadableLogChannel channel = MappedLogChannel.open( logFiles, start( 0 ) );
+        CommittedTransactionRepresentation[] transactions;
+        try ( TransactionCursor cursor = cursor( channel ) )
+        {
+            transactions = exhaust( cursor );
+        }
+
+        // then
+        assertThat( channel, instanceOf( MappedLogChannel.class ) );
+        assertEquals( 3 * TRANSACTIONS_PER_VERSION, transactions.length );
+        assertSameTransactions( expected, transactions );
+    }
+
+    @Test
+    public void shouldStartReadingFromPositionInRotatedLogVersion() throws Exception
+    {
+        // given
+        writeTransactions();
+        LogPosition position;
+        try ( PhysicalTransactionCursor<ReadableLogChannel> cursor = cursor( logFiles.getLogFile().getReader( start( 0 ) ) ) )
+        {
+            for ( int i = 0; i < TRANSACTIONS_PER_VERSION / 2; i++ )
+            {
+                cursor.next();
+            }
+            position = cursor.position();
+        }
+        logFiles.getLogFile().rotate();
+        writeTransactions();
+
+        // when
+        CommittedTransactionRepresentation[] transactions;
+        try ( TransactionCursor cursor = cursor( MappedLogChannel.open( logFiles, position ) ) )
+        {
+            transactions = exhaust( cursor );
+        }
+
+        // then
+        assertEquals( TRANSACTIONS_PER_VERSION + TRANSACTIONS_PER_VERSION / 2, transactions.length );
+        assertEquals( TransactionIdStore.BASE_TX_ID + TRANSACTIONS_PER_VERSION / 2 + 1,
+                transactions[0].getCommitEntry().getTxId() );
+    }
+
+    @Test
+    public void shouldRereadFromPositionSetInMappedLogVersion() throws Exception
+    {
+        // given
+        writeTransactions();
+        logFiles.getLogFile().rotate();
+        writeTransactions();
+
+        try ( ReadableLogChannel channel = MappedLogChannel.open( logFiles, start( 0 ) ) )
+        {
+            PhysicalTransactionCursor<ReadableLogChannel> cursor = cursor( channel );
+            cursor.next();
+            LogPosition position = cursor.position();
+            cursor.next();
+            CommittedTransactionRepresentation second = cursor.get();
+            cursor.next();
+
+            // when
+            ((PositionableChannel) channel).setCurrentPosition( position.getByteOffset() );
+
+            // then
+            cursor.next();
+            assertEquals( second.getCommitEntry(), cursor.get().getCommitEntry() );
+            assertEquals( 2 * TRANSACTIONS_PER_VERSION - 2, exhaust( cursor ).length );
+        }
+    }
+
+    @Test
+    public void shouldNotMapCurrentLogVersion() throws Exception
+    {
+        // given
+        writeTransactions();
+
+        // when
+        try ( ReadableLogChannel channel = MappedLogChannel.open( logFiles, start( 0 ) ) )
+        {
+            // then
+            assertThat( channel, instanceOf( ReadAheadLogChannel.class ) );
+        }
+    }
+
+    private static PhysicalTransactionCursor<ReadableLogChannel> cursor( ReadableLogChannel channel ) throws IOException
+    {
+        return new PhysicalTransactionCursor<>( channel, new VersionAwareLogEntryReader<>() );
+    }
+
+    private static void assertSameTransactions( CommittedTransactionRepresentation[] expected,
+            CommittedTransactionRepresentation[] actual )
+    {
+        assertEquals( expected.length, actual.length );
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            assertEquals( expected[i].getStartEntry(), actual[i].getStartEntry() );
+            assertEquals( expected[i].getCommitEntry(), actual[i].getCommitEntry() );
+            assertEquals( expected[i].getTransactionRepresentation().toString(),
+                    actual[i].getTransactionRepresentation().toString() );
+        }
+    }
+
+    private void writeTransactions() throws IOException
+    {
+        LogFile logFile = logFiles.getLogFile();
+        FlushablePositionAwareChannel channel = logFile.getWriter();
+        // Mix compressed and uncompressed command entries, which are read differently
+        TransactionLogWriter writer = new TransactionLogWriter( new LogEntryWriter( channel, true ) );
+        for ( int i = 0; i < TRANSACTIONS_PER_VERSION; i++ )
+        {
+            writer.append( tx( i % 2 == 0 ? 1 : 100 ), ++txId );
+        }
+        channel.prepareForFlush().flush();
+    }
+
+    private static TransactionRepresentation tx( int size )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < size; i++ )
+        {
+            commands.add( new Command.NodeCommand(
+                    new NodeRecord( i ),
+                    new NodeRecord( i ).initialize( true, i, false, i, NO_LABELS_FIELD.longValue() ) ) );
+        }
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( commands );
+        tx.setHeader( new byte[0], 0, 0, 0, 0, 0, 0 );
+        return tx;
+    }
+}
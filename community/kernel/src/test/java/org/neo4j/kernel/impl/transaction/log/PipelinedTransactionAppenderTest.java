@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.DatabasePanicEventGenerator;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.logging.NullLog;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.kernel.impl.util.IdOrderingQueue.BYPASS;
+
+public class PipelinedTransactionAppenderTest
+{
+    @Rule
+    public final LifeRule life = new LifeRule( true );
+
+    private final InMemoryVersionableReadableClosablePositionAwareChannel channel =
+            new InMemoryVersionableReadableClosablePositionAwareChannel();
+    private final DatabaseHealth databaseHealth = spy( new DatabaseHealth( mock( DatabasePanicEventGenerator.class ), NullLog.getInstance() ) );
+    private final LogFile logFile = mock( LogFile.class );
+    private final LogFiles logFiles = mock( TransactionLogFiles.class );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final TransactionMetadataCache positionCache = new TransactionMetadataCache( 10 );
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextTransactionId = new AtomicLong( 2 );
+
+    @Before
+    public void setUp()
+    {
+        when( logFiles.getLogFile() ).thenReturn( logFile );
+        when( transactionIdStore.nextCommittingTransactionId() ).then( invocation -> nextTransactionId.getAndIncrement() );
+    }
+
+    @Test
+    public void shouldAppendSingleTransaction() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        TransactionAppender appender = life.add( createTransactionAppender( 0, 10 ) );
+        TransactionRepresentation transaction = transaction( 0, new byte[]{1, 2, 5} );
+
+        // WHEN
+        long txId = appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+
+        // THEN
+        assertEquals( 2L, txId );
+        verify( transactionIdStore ).transactionCommitted( eq( 2L ), anyLong(), anyLong() );
+        final LogEntryReader<ReadableLogChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        try ( PhysicalTransactionCursor<ReadableLogChannel> reader =
+                      new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            reader.next();
+            TransactionRepresentation tx = reader.get().getTransactionRepresentation();
+            assertArrayEquals( transaction.additionalHeader(), tx.additionalHeader() );
+            assertEquals( transaction.getTimeCommitted(), tx.getTimeCommitted() );
+        }
+        assertEquals( 1, batchSizes.size() );
+        assertEquals( 1, batchSizes.get( 0 ).intValue() );
+    }
+
+    @Test
+    public void shouldAppendTransactionsFromConcurrentCommittersInBoundedBatches() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( new InMemoryClosableChannel( 1 << 20 ) );
+        int maxBatchSize = 3;
+        TransactionAppender appender = life.add( createTransactionAppender( TimeUnit.MILLISECONDS.toNanos( 20 ), maxBatchSize ) );
+        int committers = 8;
+        int transactionsPerCommitter = 20;
+        ExecutorService executor = Executors.newFixedThreadPool( committers );
+        Set<Long> transactionIds = ConcurrentHashMap.newKeySet();
+
+        // WHEN
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0; i < committers; i++ )
+            {
+                int committer = i;
+                futures.add( executor.submit( () ->
+                {
+                    for ( int j = 0; j < transactionsPerCommitter; j++ )
+                    {
+                        TransactionToApply tx = new TransactionToApply( transaction( committer, new byte[0] ) );
+                        assertTrue( transactionIds.add( appender.append( tx, LogAppendEvent.NULL ) ) );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // THEN
+        int total = committers * transactionsPerCommitter;
+        assertEquals( total, transactionIds.size() );
+        assertEquals( total, batchSizes.stream().mapToInt( Integer::intValue ).sum() );
+        for ( int batchSize : batchSizes )
+        {
+            assertTrue( "Batch of " + batchSize + " transactions", batchSize > 0 && batchSize <= maxBatchSize );
+        }
+    }
+
+    @Test
+    public void shouldPanicAndFailCommitterOnFailedForceLogToDisk() throws Exception
+    {
+        // GIVEN
+        FlushablePositionAwareChannel channel = spy( new InMemoryClosableChannel() );
+        IOException failure = new IOException( "Forces a failure" );
+        final Flushable flushable = mock( Flushable.class );
+        doAnswer( invocation ->
+        {
+            invocation.callRealMethod();
+            return flushable;
+        } ).when( channel ).prepareForFlush();
+        doThrow( failure ).when( flushable ).flush();
+        when( logFile.getWriter() ).thenReturn( channel );
+        TransactionAppender appender = life.add( createTransactionAppender( 0, 10 ) );
+
+        // WHEN
+        try
+        {
+            appender.append( new TransactionToApply( transaction( 0, new byte[0] ) ), LogAppendEvent.NULL );
+            fail( "Expected append to fail. Something is wrong with the test itself" );
+        }
+        catch ( IOException e )
+        {
+            // THEN
+            assertSame( failure, e );
+            verify( transactionIdStore, never() ).transactionClosed( anyLong(), anyLong(), anyLong() );
+            verify( transactionIdStore, never() ).transactionCommitted( anyLong(), anyLong(), anyLong() );
+            verify( databaseHealth ).panic( failure );
+        }
+    }
+
+    @Test
+    public void shouldPanicAndFailCommitterOnFailedAppendToLog() throws Exception
+    {
+        // GIVEN
+        InMemoryClosableChannel channel = spy( new InMemoryClosableChannel() );
+        RuntimeException failure = new RuntimeException( "Forces a failure" );
+        doThrow( failure ).when( channel ).putLong( anyLong() );
+        when( logFile.getWriter() ).thenReturn( channel );
+        TransactionAppender appender = life.add( createTransactionAppender( 0, 10 ) );
+
+        // WHEN
+        try
+        {
+            appender.append( new TransactionToApply( transaction( 0, new byte[0] ) ), LogAppendEvent.NULL );
+            fail( "Expected append to fail. Something is wrong with the test itself" );
+        }
+        catch ( RuntimeException e )
+        {
+            // THEN
+            assertSame( failure, e );
+            verify( transactionIdStore, never() ).transactionCommitted( anyLong(), anyLong(), anyLong() );
+            verify( databaseHealth ).panic( failure );
+        }
+    }
+
+    @Test
+    public void shouldKernelPanicIfTransactionIdsMismatch() throws Throwable
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        TransactionAppender appender = life.add( createTransactionAppender( 0, 10 ) );
+        TransactionToApply batch = new TransactionToApply( transaction( 0, new byte[0] ), 43L );
+
+        // WHEN
+        try
+        {
+            appender.append( batch, LogAppendEvent.NULL );
+            fail( "should have thrown " );
+        }
+        catch ( IllegalStateException ex )
+        {
+            // THEN
+            verify( databaseHealth ).panic( ex );
+        }
+    }
+
+    private PipelinedTransactionAppender createTransactionAppender( long maxBatchDelayNanos, int maxBatchSize )
+    {
+        return new PipelinedTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, BYPASS,
+                databaseHealth, Thread::new, maxBatchDelayNanos, TimeUnit.NANOSECONDS, maxBatchSize, false, LogForceMonitor.NULL,
+                ( transactions, forceTimeNanos ) -> batchSizes.add( transactions ) );
+    }
+
+    private TransactionRepresentation transaction( long nodeId, byte[] additionalHeader )
+    {
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( singleCreateNodeCommand( nodeId ) );
+        tx.setHeader( additionalHeader, 0, 0, 0, 1, 0, -1 );
+        return tx;
+    }
+
+    private Collection<StorageCommand> singleCreateNodeCommand( long id )
+    {
+        Collection<StorageCommand> commands = new ArrayList<>();
+        NodeRecord before = new NodeRecord( id );
+        NodeRecord after = new NodeRecord( id );
+        after.setInUse( true );
+        commands.add( new NodeCommand( before, after ) );
+        return commands;
+    }
+}
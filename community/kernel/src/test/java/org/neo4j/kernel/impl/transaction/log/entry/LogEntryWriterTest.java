@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageCommandReaderFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.PhysicalFlushableChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReaderTest.AcceptingInvalidLogEntryHandler;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.kernel.impl.store.record.Record.NO_LABELS_FIELD;
+
+public class LogEntryWriterTest
+{
+    @Rule
+    public final EphemeralFileSystemRule fileSystemRule = new EphemeralFileSystemRule();
+
+    @Test
+    public void shouldReadCompressedCommandsAsRegularCommandEntries() throws Exception
+    {
+        // given
+        List<TransactionRepresentation> transactions = new ArrayList<>();
+        for ( int size : new int[]{1, 500, 2, 10_000} )
+        {
+            transactions.add( tx( size ) );
+        }
+
+        // when
+        File file = write( "compressed", transactions, true );
+
+        // then
+        assertReadsBack( file, transactions );
+    }
+
+    @Test
+    public void shouldReadCommandsCompressedInChunksAsRegularCommandEntries() throws Exception
+    {
+        // given
+        List<TransactionRepresentation> transactions = new ArrayList<>();
+        for ( int size : new int[]{10_000, 3, 1_000} )
+        {
+            transactions.add( tx( size ) );
+        }
+
+        // when
+        File chunked = write( "chunked", transactions, true, 1024 );
+
+        // then
+        assertReadsBack( chunked, transactions );
+        long uncompressed = fs().getFileSize( write( "uncompressed", transactions, false ) );
+        assertTrue( "Expected " + fs().getFileSize( chunked ) + " < " + uncompressed, fs().getFileSize( chunked ) < uncompressed );
+    }
+
+    @Test
+    public void shouldWriteFewerBytesWhenCompressingCommands() throws Exception
+    {
+        // given
+        List<TransactionRepresentation> transactions = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            transactions.add( tx( 100 ) );
+        }
+
+        // when
+        long uncompressed = fs().getFileSize( write( "uncompressed", transactions, false ) );
+        long compressed = fs().getFileSize( write( "compressed", transactions, true ) );
+
+        // then
+        assertTrue( "Expected " + compressed + " < " + uncompressed, compressed < uncompressed );
+    }
+
+    @Test
+    public void shouldFailOnInvalidEntryInCompressedCommandsInsteadOfSkippingIt() throws Exception
+    {
+        // given a compressed entry holding garbage instead of command entries, starting with a known version
+        byte[] garbage = new byte[1_000];
+        Arrays.fill( garbage, (byte) 0x7F );
+        garbage[0] = LogEntryVersion.CURRENT.byteCode();
+        byte[] compressed = new byte[Lz4BlockCodec.maxCompressedLength( garbage.length )];
+        int compressedLength = new Lz4BlockCodec().compress( garbage, garbage.length, compressed );
+        File file = new File( "garbage" );
+        try ( PhysicalFlushableChannel channel = new PhysicalFlushableChannel( fs().open( file, OpenMode.READ_WRITE ) ) )
+        {
+            LogEntryWriter writer = new LogEntryWriter( channel, true );
+            writer.writeStartEntry( 0, 0, 0, 0, new byte[0] );
+            channel.put( LogEntryVersion.V3_5.byteCode() ).put( LogEntryByteCodes.COMPRESSED_COMMANDS );
+            channel.putInt( garbage.length ).putInt( compressedLength ).put( compressed, compressedLength );
+            writer.writeCommitEntry( 1, 0 );
+        }
+
+        // when
+        AcceptingInvalidLogEntryHandler invalidLogEntryHandler = new AcceptingInvalidLogEntryHandler();
+        VersionAwareLogEntryReader<ReadAheadLogChannel> reader =
+                new VersionAwareLogEntryReader<>( new RecordStorageCommandReaderFactory(), invalidLogEntryHandler );
+        try ( ReadAheadLogChannel channel = new ReadAheadLogChannel(
+                new PhysicalLogVersionedStoreChannel( fs().open( file, OpenMode.READ ), 0, LogEntryVersion.CURRENT.byteCode() ) ) )
+        {
+            assertTrue( reader.readLogEntry( channel ) instanceof LogEntryStart );
+            reader.readLogEntry( channel );
+            fail( "Should have failed reading garbage commands" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertEquals( 0, invalidLogEntryHandler.invalidEntryCalls );
+        }
+    }
+
+    private void assertReadsBack( File file, List<TransactionRepresentation> transactions ) throws IOException
+    {
+        try ( ReadAheadLogChannel channel = new ReadAheadLogChannel(
+                new PhysicalLogVersionedStoreChannel( fs().open( file, OpenMode.READ ), 0, LogEntryVersion.CURRENT.byteCode() ) ) )
+        {
+            VersionAwareLogEntryReader<ReadAheadLogChannel> reader = new VersionAwareLogEntryReader<>();
+            for ( TransactionRepresentation tx : transactions )
+            {
+                assertTrue( reader.readLogEntry( channel ) instanceof LogEntryStart );
+                tx.accept( command ->
+                {
+                    LogEntry entry = reader.readLogEntry( channel );
+                    assertEquals( LogEntryVersion.CURRENT, entry.getVersion() );
+                    assertEquals( command.toString(), ((LogEntryCommand) entry).getCommand().toString() );
+                    return false;
+                } );
+                assertTrue( reader.readLogEntry( channel ) instanceof LogEntryCommit );
+            }
+            assertNull( reader.readLogEntry( channel ) );
+        }
+    }
+
+    private File write( String name, List<TransactionRepresentation> transactions, boolean compressCommands )
+            throws IOException
+    {
+        return write( name, transactions, compressCommands, LogEntryWriter.COMMANDS_CHUNK_SIZE );
+    }
+
+    private File write( String name, List<TransactionRepresentation> transactions, boolean compressCommands, int chunkSize )
+            throws IOException
+    {
+        File file = new File( name );
+        try ( PhysicalFlushableChannel channel = new PhysicalFlushableChannel( fs().open( file, OpenMode.READ_WRITE ) ) )
+        {
+            LogEntryWriter writer = new LogEntryWriter( channel, compressCommands, chunkSize );
+            long txId = 1;
+            for ( TransactionRepresentation tx : transactions )
+            {
+                writer.writeStartEntry( 0, 0, 0, 0, new byte[0] );
+                writer.serialize( tx );
+                writer.writeCommitEntry( txId++, 0 );
+            }
+        }
+        return file;
+    }
+
+    private FileSystemAbstraction fs()
+    {
+        return fileSystemRule.get();
+    }
+
+    private static TransactionRepresentation tx( int size )
+    {
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < size; i++ )
+        {
+            commands.add( new Command.NodeCommand(
+                    new NodeRecord( i ),
+                    new NodeRecord( i ).initialize( true, i, false, i, NO_LABELS_FIELD.longValue() ) ) );
+        }
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( commands );
+        tx.setHeader( new byte[0], 0, 0, 0, 0, 0, 0 );
+        return tx;
+    }
+}
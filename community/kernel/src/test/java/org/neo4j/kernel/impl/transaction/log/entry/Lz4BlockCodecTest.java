@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Lz4BlockCodecTest
+{
+    @Rule
+    public final RandomRule random = new RandomRule();
+
+    private final Lz4BlockCodec codec = new Lz4BlockCodec();
+
+    @Test
+    public void shouldRoundTripRandomData() throws Exception
+    {
+        for ( int i = 0; i < 100; i++ )
+        {
+            byte[] data = new byte[random.nextInt( 10_000 )];
+            random.nextBytes( data );
+            assertRoundTrip( data );
+        }
+    }
+
+    @Test
+    public void shouldRoundTripAndCompressRepetitiveData() throws Exception
+    {
+        for ( int i = 0; i < 100; i++ )
+        {
+            // Few distinct short tokens, repeated, somewhat like serialized records
+            byte[] data = new byte[100 + random.nextInt( 100_000 )];
+            for ( int j = 0; j < data.length; j++ )
+            {
+                data[j] = (byte) (j % 37 < 20 ? 0 : random.nextInt( 4 ));
+            }
+            int compressedLength = assertRoundTrip( data );
+            assertTrue( compressedLength < data.length );
+        }
+    }
+
+    @Test
+    public void shouldRoundTripLongRunsAndSmallInputs() throws Exception
+    {
+        assertRoundTrip( new byte[0] );
+        assertRoundTrip( new byte[]{1} );
+        assertRoundTrip( new byte[13] );
+        assertRoundTrip( new byte[1_000_000] );
+        byte[] data = new byte[300];
+        Arrays.fill( data, 100, 200, (byte) 7 );
+        assertRoundTrip( data );
+    }
+
+    @Test
+    public void shouldFailOnMalformedInput()
+    {
+        byte[] data = new byte[1_000];
+        Arrays.fill( data, (byte) 5 );
+        byte[] compressed = new byte[Lz4BlockCodec.maxCompressedLength( data.length )];
+        int compressedLength = codec.compress( data, data.length, compressed );
+
+        assertMalformed( compressed, compressedLength - 1, data.length );
+        assertMalformed( compressed, compressedLength, data.length - 1 );
+        assertMalformed( compressed, compressedLength, data.length + 1 );
+        compressed[0] = (byte) 0xFF;
+        assertMalformed( compressed, compressedLength, data.length );
+    }
+
+    private int assertRoundTrip( byte[] data ) throws IOException
+    {
+        byte[] compressed = new byte[Lz4BlockCodec.maxCompressedLength( data.length )];
+        int compressedLength = codec.compress( data, data.length, compressed );
+        assertTrue( compressedLength <= compressed.length );
+
+        byte[] decompressed = new byte[data.length];
+        Lz4BlockCodec.decompress( compressed, 0, compressedLength, decompressed, decompressed.length );
+        assertArrayEquals( data, decompressed );
+        return compressedLength;
+    }
+
+    private static void assertMalformed( byte[] compressed, int compressedLength, int length )
+    {
+        try
+        {
+            Lz4BlockCodec.decompress( compressed, 0, compressedLength, new byte[length], length );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "Malformed LZ4 compressed block", e.getMessage() );
+        }
+    }
+}
@@ -20,12 +20,22 @@
 package org.neo4j.kernel.impl.transaction.state;
 
 import org.eclipse.collections.impl.block.factory.primitive.IntPredicates;
+import org.junit.After;
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
+import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.MultipleIndexUpdater;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.store.NodeStore;
@@ -34,20 +44,38 @@ import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.transaction.state.storeview.PropertyAwareEntityStoreScan;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.values.storable.Values;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.transaction.state.storeview.PropertyAwareEntityStoreScan.PARTITION_SIZE;
 
 public class PropertyAwareEntityStoreScanTest
 {
+    private static final long HIGH_ID = 3 * PARTITION_SIZE + 17;
+
     private final LockService locks = mock( LockService.class, RETURNS_MOCKS );
     private final NodeStore nodeStore = mock( NodeStore.class );
     private final PropertyStore propertyStore = mock( PropertyStore.class );
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutDownExecutor()
+    {
+        executor.shutdown();
+    }
 
     @Test
     public void shouldGiveBackCompletionPercentage()
@@ -56,11 +84,13 @@ public class PropertyAwareEntityStoreScanTest
         long total = 10;
         when( nodeStore.getHighId() ).thenReturn( total );
         NodeRecord emptyRecord = new NodeRecord( 0 );
-        NodeRecord inUseRecord = new NodeRecord( 42 );
-        inUseRecord.setInUse( true );
         when( nodeStore.newRecord() ).thenReturn( emptyRecord );
-        when( nodeStore.getRecord( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ) ) ).thenReturn( inUseRecord, inUseRecord, inUseRecord,
-                inUseRecord, inUseRecord, inUseRecord, inUseRecord, inUseRecord, inUseRecord, inUseRecord );
+        doAnswer( invocation ->
+        {
+            NodeRecord record = invocation.getArgument( 1 );
+            record.setInUse( true );
+            return null;
+        } ).when( nodeStore ).getRecordByCursor( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ), any() );
 
         final PercentageSupplier percentageSupplier = new PercentageSupplier();
 
@@ -92,6 +122,129 @@ public class PropertyAwareEntityStoreScanTest
         scan.run();
     }
 
+    @Test
+    public void partitionedScanMustProcessEveryEntityExactlyOnce()
+    {
+        givenNodesInUse( HIGH_ID );
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        TestScan scan = new TestScan( record ->
+        {
+            if ( !processed.add( record.getId() ) )
+            {
+                duplicates.incrementAndGet();
+            }
+        } );
+
+        assertTrue( scan.parallelize( 4, executor ) );
+        scan.run();
+
+        assertEquals( HIGH_ID, processed.size() );
+        assertEquals( 0, duplicates.get() );
+        assertEquals( HIGH_ID, scan.getProgress().getCompleted() );
+    }
+
+    @Test
+    public void partitionedScanMustOnlyAcceptUpdatesForScannedEntitiesWhilePaused()
+    {
+        givenNodesInUse( HIGH_ID );
+        long trigger = PARTITION_SIZE + 10;
+        long notYetScanned = 2 * PARTITION_SIZE - 1;
+        long beyondClaimedPartitions = 50 * PARTITION_SIZE;
+        MultipleIndexUpdater updater = mock( MultipleIndexUpdater.class );
+        AtomicInteger processing = new AtomicInteger();
+        AtomicBoolean pausedWhileProcessing = new AtomicBoolean();
+        TestScan[] scan = new TestScan[1];
+        scan[0] = new TestScan( record ->
+        {
+            processing.incrementAndGet();
+            if ( record.getId() == trigger )
+            {
+                scan[0].runPaused( () ->
+                {
+                    pausedWhileProcessing.set( processing.get() != 0 );
+                    scan[0].acceptUpdate( updater, update( trigger ), 0 );
+                    scan[0].acceptUpdate( updater, update( notYetScanned ), 0 );
+                    scan[0].acceptUpdate( updater, update( beyondClaimedPartitions ), 0 );
+                } );
+            }
+            processing.decrementAndGet();
+        } );
+
+        scan[0].parallelize( 4, executor );
+        scan[0].run();
+
+        assertFalse( pausedWhileProcessing.get() );
+        verify( updater ).process( update( trigger ) );
+        verify( updater, never() ).process( update( notYetScanned ) );
+        verify( updater, never() ).process( update( beyondClaimedPartitions ) );
+
+        // Once completed all updates are accepted
+        scan[0].acceptUpdate( updater, update( notYetScanned ), 0 );
+        verify( updater ).process( update( notYetScanned ) );
+    }
+
+    @Test
+    public void partitionedScanMustPropagateFailureFromAnyThread()
+    {
+        givenNodesInUse( HIGH_ID );
+        RuntimeException failure = new RuntimeException( "Failing" );
+        TestScan scan = new TestScan( record ->
+        {
+            if ( record.getId() == 2 * PARTITION_SIZE + 5 )
+            {
+                throw failure;
+            }
+        } );
+        scan.parallelize( 4, executor );
+
+        try
+        {
+            scan.run();
+        }
+        catch ( RuntimeException e )
+        {
+            assertSame( failure, e );
+            return;
+        }
+        fail( "Should have failed" );
+    }
+
+    private static IndexEntryUpdate<?> update( long entityId )
+    {
+        return IndexEntryUpdate.add( entityId, SchemaDescriptorFactory.forLabel( 0, 0 ), Values.of( entityId ) );
+    }
+
+    private void givenNodesInUse( long highId )
+    {
+        when( nodeStore.getHighId() ).thenReturn( highId );
+        when( nodeStore.newRecord() ).thenAnswer( invocation -> new NodeRecord( -1 ) );
+        doAnswer( invocation ->
+        {
+            NodeRecord record = invocation.getArgument( 1 );
+            record.setId( invocation.getArgument( 0 ) );
+            record.setInUse( true );
+            return null;
+        } ).when( nodeStore ).getRecordByCursor( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ), any() );
+    }
+
+    private class TestScan extends PropertyAwareEntityStoreScan<NodeRecord,RuntimeException>
+    {
+        private final Consumer<NodeRecord> processor;
+
+        TestScan( Consumer<NodeRecord> processor )
+        {
+            super( nodeStore, propertyStore, propertyKeyId -> true, id -> LockService.NO_LOCK );
+            this.processor = processor;
+        }
+
+        @Override
+        protected void process( NodeRecord record )
+        {
+            processor.accept( record );
+        }
+    }
+
     private static class PercentageSupplier implements Supplier<Float>
     {
         private StoreScan<?> storeScan;
@@ -48,6 +48,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
@@ -70,7 +71,6 @@ public class DynamicIndexStoreViewTest
         when( neoStores.getCounts() ).thenReturn( countStore );
         when( neoStores.getNodeStore() ).thenReturn( nodeStore );
         when( nodeStore.newRecord() ).thenReturn( nodeRecord );
-        when( nodeStore.getRecord( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ) ) ).thenReturn( nodeRecord );
     }
 
     @Test
@@ -96,7 +96,9 @@ public class DynamicIndexStoreViewTest
         storeScan.run();
 
         Mockito.verify( nodeStore, times( 8 ) )
-                .getRecord( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ) );
+                .getRecordByCursor( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ), any() );
+        Mockito.verify( nodeStore ).openPageCursorForReading( anyLong() );
+        Mockito.verify( nodeStore, never() ).openPageCursorForScanning( anyLong() );
     }
 
     @Test
@@ -118,7 +120,8 @@ public class DynamicIndexStoreViewTest
         storeScan.run();
 
         Mockito.verify( nodeStore, times( 20 ) )
-                .getRecord( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ) );
+                .getRecordByCursor( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ), any() );
+        Mockito.verify( nodeStore ).openPageCursorForScanning( anyLong() );
     }
 
     private DynamicIndexStoreView dynamicIndexStoreView()
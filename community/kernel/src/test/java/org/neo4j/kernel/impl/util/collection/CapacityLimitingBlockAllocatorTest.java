@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator.MemoryBlock;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.test.extension.DefaultFileSystemExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocator.MIN_SPILL_SIZE;
+import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.exchangeNativeAccessCheckEnabled;
+import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.getLong;
+import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.putLong;
+
+@ExtendWith( {DefaultFileSystemExtension.class, TestDirectoryExtension.class} )
+class CapacityLimitingBlockAllocatorTest
+{
+    @Inject
+    private TestDirectory testDirectory;
+
+    private final CachingOffHeapBlockAllocator delegate = new CachingOffHeapBlockAllocator();
+    private final MemoryAllocationTracker tracker = new LocalMemoryTracker();
+    private File spillDirectory;
+
+    @BeforeEach
+    void setUp()
+    {
+        spillDirectory = testDirectory.directory( "spill" );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        delegate.release();
+    }
+
+    @Test
+    void allocateWithinLimits()
+    {
+        CapacityLimitingBlockAllocator allocator = new CapacityLimitingBlockAllocator( delegate, MIN_SPILL_SIZE * 4, MIN_SPILL_SIZE * 4, spillDirectory );
+
+        MemoryBlock block = allocator.allocate( MIN_SPILL_SIZE, tracker );
+        assertEquals( MIN_SPILL_SIZE, allocator.usedOffHeapMemory() );
+        assertEquals( 0, allocator.spilledMemory() );
+
+        allocator.free( block, tracker );
+        assertEquals( 0, allocator.usedOffHeapMemory() );
+        assertEquals( 0, tracker.usedDirectMemory() );
+    }
+
+    @Test
+    void spillBlocksExceedingGlobalLimit()
+    {
+        CapacityLimitingBlockAllocator allocator = new CapacityLimitingBlockAllocator( delegate, MIN_SPILL_SIZE, 0, spillDirectory );
+        MemoryBlock inMemory = allocator.allocate( MIN_SPILL_SIZE, tracker );
+
+        MemoryBlock spilled = allocator.allocate( MIN_SPILL_SIZE * 2, tracker );
+        assertEquals( MIN_SPILL_SIZE, allocator.usedOffHeapMemory() );
+        assertEquals( MIN_SPILL_SIZE * 2, allocator.spilledMemory() );
+        assertEquals( MIN_SPILL_SIZE + Long.BYTES - 1, tracker.usedDirectMemory() );
+
+        // mapped memory isn't known to the native access checks
+        boolean nativeAccessCheckEnabled = exchangeNativeAccessCheckEnabled( false );
+        try
+        {
+            for ( long offset = 0; offset < spilled.size; offset += Long.BYTES )
+            {
+                assertEquals( 0, getLong( spilled.addr + offset ) );
+                putLong( spilled.addr + offset, offset );
+            }
+            for ( long offset = 0; offset < spilled.size; offset += Long.BYTES )
+            {
+                assertEquals( offset, getLong( spilled.addr + offset ) );
+            }
+        }
+        finally
+        {
+            exchangeNativeAccessCheckEnabled( nativeAccessCheckEnabled );
+        }
+        // spill files are deleted right away, the mapping keeps the data around
+        assertEquals( 0, spillDirectory.listFiles().length );
+
+        allocator.free( spilled, tracker );
+        allocator.free( inMemory, tracker );
+        assertEquals( 0, allocator.usedOffHeapMemory() );
+        assertEquals( 0, allocator.spilledMemory() );
+    }
+
+    @Test
+    void countCachedBlocksTowardsGlobalLimit()
+    {
+        CapacityLimitingBlockAllocator allocator = new CapacityLimitingBlockAllocator( delegate, MIN_SPILL_SIZE * 2, 0, spillDirectory );
+        allocator.free( allocator.allocate( MIN_SPILL_SIZE, tracker ), tracker );
+        assertEquals( 0, allocator.usedOffHeapMemory() );
+        assertEquals( MIN_SPILL_SIZE, delegate.cachedMemory() );
+
+        // the cached block is dropped to make room for a block of another size, rather than exceeding the limit
+        MemoryBlock block = allocator.allocate( MIN_SPILL_SIZE * 2, tracker );
+        assertEquals( MIN_SPILL_SIZE * 2, allocator.usedOffHeapMemory() );
+        assertEquals( 0, delegate.cachedMemory() );
+        assertEquals( 0, allocator.spilledMemory() );
+
+        allocator.free( block, tracker );
+        assertEquals( MIN_SPILL_SIZE * 2, delegate.cachedMemory() );
+    }
+
+    @Test
+    void spillBlocksExceedingTransactionLimit()
+    {
+        CapacityLimitingBlockAllocator allocator = new CapacityLimitingBlockAllocator( delegate, 0, MIN_SPILL_SIZE * 2, spillDirectory );
+        MemoryAllocationTracker otherTracker = new LocalMemoryTracker();
+        MemoryBlock first = allocator.allocate( MIN_SPILL_SIZE, tracker );
+
+        MemoryBlock spilled = allocator.allocate( MIN_SPILL_SIZE * 2, tracker );
+        MemoryBlock other = allocator.allocate( MIN_SPILL_SIZE * 2, otherTracker );
+        assertEquals( MIN_SPILL_SIZE * 3, allocator.usedOffHeapMemory() );
+        assertEquals( MIN_SPILL_SIZE * 2, allocator.spilledMemory() );
+
+        allocator.free( first, tracker );
+        allocator.free( spilled, tracker );
+        allocator.free( other, otherTracker );
+    }
+
+    @Test
+    void failSmallBlocksExceedingLimit()
+    {
+        CapacityLimitingBlockAllocator allocator = new CapacityLimitingBlockAllocator( delegate, MIN_SPILL_SIZE, 0, spillDirectory );
+        MemoryBlock block = allocator.allocate( MIN_SPILL_SIZE, tracker );
+
+        MemoryLimitExceededException e = assertThrows( MemoryLimitExceededException.class, () -> allocator.allocate( Long.BYTES, tracker ) );
+        assertEquals( Status.Transaction.TransactionMemoryLimit, e.status() );
+        assertEquals( MIN_SPILL_SIZE, allocator.usedOffHeapMemory() );
+
+        allocator.free( block, tracker );
+    }
+
+    @Test
+    void failBlocksExceedingLimitWithoutSpillDirectory()
+    {
+        CapacityLimitingBlockAllocator allocator = new CapacityLimitingBlockAllocator( delegate, 0, MIN_SPILL_SIZE, null );
+        MemoryBlock block = allocator.allocate( MIN_SPILL_SIZE, tracker );
+
+        assertThrows( MemoryLimitExceededException.class, () -> allocator.allocate( MIN_SPILL_SIZE * 2, tracker ) );
+        assertEquals( 0, allocator.spilledMemory() );
+
+        allocator.free( block, tracker );
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.recovery.ParallelRecoveryService.BatchingRecoveryVisitor;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+
+public class ParallelRecoveryServiceTest
+{
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+    private final List<List<Long>> appliedBatches = new ArrayList<>();
+
+    @Test
+    public void shouldApplyRecoveredTransactionsInBatches() throws Exception
+    {
+        // given
+        recordAppliedBatches();
+
+        // when
+        try ( BatchingRecoveryVisitor visitor = new BatchingRecoveryVisitor( storageEngine, 3, monitor ) )
+        {
+            for ( long txId = 2; txId <= 9; txId++ )
+            {
+                visitor.visit( transaction( txId, nodeCommand() ) );
+            }
+        }
+
+        // then
+        assertEquals( asList( asList( 2L, 3L, 4L ), asList( 5L, 6L, 7L ), asList( 8L, 9L ) ), appliedBatches );
+        verify( monitor ).batchRecovered( eq( 3 ), eq( 4L ), anyLong() );
+        verify( monitor ).batchRecovered( eq( 3 ), eq( 7L ), anyLong() );
+        verify( monitor ).batchRecovered( eq( 2 ), eq( 9L ), anyLong() );
+    }
+
+    @Test
+    public void shouldApplyTransactionsChangingTokensOnTheirOwn() throws Exception
+    {
+        // given
+        recordAppliedBatches();
+
+        // when
+        try ( BatchingRecoveryVisitor visitor = new BatchingRecoveryVisitor( storageEngine, 10, monitor ) )
+        {
+            visitor.visit( transaction( 2, nodeCommand() ) );
+            visitor.visit( transaction( 3, nodeCommand() ) );
+            visitor.visit( transaction( 4, new Command.LabelTokenCommand( new LabelTokenRecord( 1 ), new LabelTokenRecord( 1 ) ) ) );
+            visitor.visit( transaction( 5, nodeCommand() ) );
+        }
+
+        // then
+        assertEquals( asList( asList( 2L, 3L ), singletonList( 4L ), singletonList( 5L ) ), appliedBatches );
+    }
+
+    private void recordAppliedBatches() throws Exception
+    {
+        doAnswer( invocation ->
+        {
+            List<Long> batch = new ArrayList<>();
+            for ( TransactionToApply tx = invocation.getArgument( 0 ); tx != null; tx = tx.next() )
+            {
+                batch.add( tx.transactionId() );
+            }
+            appliedBatches.add( batch );
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), eq( RECOVERY ) );
+    }
+
+    private static StorageCommand nodeCommand()
+    {
+        return new Command.NodeCommand( new NodeRecord( 1 ), new NodeRecord( 1 ) );
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId, StorageCommand command )
+    {
+        LogEntryStart start = new LogEntryStart( 0, 0, 0L, txId - 1, null, LogPosition.UNSPECIFIED );
+        LogEntryCommit commit = new LogEntryCommit( txId, 0L );
+        return new CommittedTransactionRepresentation( start, new PhysicalTransactionRepresentation( singletonList( command ) ), commit );
+    }
+}
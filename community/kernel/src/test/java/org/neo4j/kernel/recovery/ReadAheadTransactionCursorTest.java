@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReadAheadTransactionCursorTest
+{
+    @Test
+    public void shouldVisitTransactionsAndPositionsOfSourceInOrder() throws Exception
+    {
+        // given
+        CommittedTransactionRepresentation[] transactions = new CommittedTransactionRepresentation[10];
+        for ( int i = 0; i < transactions.length; i++ )
+        {
+            transactions[i] = mock( CommittedTransactionRepresentation.class );
+        }
+        SourceCursor source = new SourceCursor( transactions, null );
+
+        // when
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, 2, Executors.defaultThreadFactory() ) )
+        {
+            // then
+            for ( int i = 0; i < transactions.length; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertSame( transactions[i], cursor.get() );
+                assertEquals( new LogPosition( 0, i + 1 ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, transactions.length ), cursor.position() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    public void shouldThrowFailureToReadWhenReachingIt() throws Exception
+    {
+        // given
+        CommittedTransactionRepresentation transaction = mock( CommittedTransactionRepresentation.class );
+        IOException failure = new IOException( "Corrupted log" );
+        SourceCursor source = new SourceCursor( new CommittedTransactionRepresentation[]{transaction}, failure );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, 10, Executors.defaultThreadFactory() ) )
+        {
+            assertTrue( cursor.next() );
+            assertSame( transaction, cursor.get() );
+
+            // when
+            cursor.next();
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+    }
+
+    @Test
+    public void shouldStopReadingAheadWhenClosed() throws Exception
+    {
+        // given
+        TransactionCursor source = mock( TransactionCursor.class );
+        when( source.next() ).thenReturn( true );
+
+        // when
+        new ReadAheadTransactionCursor( source, 1, Executors.defaultThreadFactory() ).close();
+
+        // then
+        verify( source ).close();
+    }
+
+    private static class SourceCursor implements TransactionCursor
+    {
+        private final CommittedTransactionRepresentation[] transactions;
+        private final IOException failure;
+        private int position;
+        private volatile boolean closed;
+
+        SourceCursor( CommittedTransactionRepresentation[] transactions, IOException failure )
+        {
+            this.transactions = transactions;
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( position < transactions.length )
+            {
+                position++;
+                return true;
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions[position - 1];
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, position );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -55,6 +55,7 @@ import org.neo4j.kernel.impl.locking.SimpleStatementLocksFactory;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.impl.store.id.ConcurrentIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdReuseEligibility;
@@ -104,7 +105,7 @@ public class CommunityEditionModule extends EditionModule
         idTypeConfigurationProvider = createIdTypeConfigurationProvider( config );
         eligibleForIdReuse = IdReuseEligibility.ALWAYS;
 
-        createIdComponents( platformModule, dependencies, createIdGeneratorFactory( fileSystem, idTypeConfigurationProvider ) );
+        createIdComponents( platformModule, dependencies, createIdGeneratorFactory( fileSystem, idTypeConfigurationProvider, config ) );
         dependencies.satisfyDependency( idGeneratorFactory );
         dependencies.satisfyDependency( idController );
 
@@ -210,6 +211,16 @@ public class CommunityEditionModule extends EditionModule
         return life.add( new KernelData( fileSystem, pageCache, storeDir, config, dataSourceManager ) );
     }
 
+    private IdGeneratorFactory createIdGeneratorFactory( FileSystemAbstraction fs,
+            IdTypeConfigurationProvider idTypeConfigurationProvider, Config config )
+    {
+        if ( config.get( GraphDatabaseSettings.concurrent_id_generators ) )
+        {
+            return new ConcurrentIdGeneratorFactory( fs, idTypeConfigurationProvider );
+        }
+        return createIdGeneratorFactory( fs, idTypeConfigurationProvider );
+    }
+
     protected IdGeneratorFactory createIdGeneratorFactory( FileSystemAbstraction fs,
             IdTypeConfigurationProvider idTypeConfigurationProvider )
     {
@@ -58,9 +58,10 @@ import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerMonitor;
 import org.neo4j.kernel.impl.transaction.state.DataSourceManager;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.CapacityLimitingBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
-import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator;
 import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.TransactionStateMemoryCounters;
 import org.neo4j.kernel.info.JvmChecker;
 import org.neo4j.kernel.info.JvmMetadataRepository;
 import org.neo4j.kernel.info.SystemDiagnostics;
@@ -197,7 +198,7 @@ public class PlatformModule
 
         versionContextSupplier = createCursorContextSupplier( config );
 
-        collectionsFactorySupplier = createCollectionsFactorySupplier( config, life );
+        collectionsFactorySupplier = createCollectionsFactorySupplier( config, life, dependencies );
 
         dependencies.satisfyDependency( versionContextSupplier );
         pageCache = dependencies.satisfyDependency( createPageCache( fileSystem, config, logging, tracers, versionContextSupplier ) );
@@ -343,15 +344,20 @@ public class PlatformModule
         return pageCache;
     }
 
-    private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, LifeSupport life )
+    private static CollectionsFactorySupplier createCollectionsFactorySupplier( Config config, LifeSupport life, Dependencies dependencies )
     {
         final GraphDatabaseSettings.TransactionStateMemoryAllocation allocation = config.get( GraphDatabaseSettings.tx_state_memory_allocation );
         switch ( allocation )
         {
         case ON_HEAP:
+            dependencies.satisfyDependency( TransactionStateMemoryCounters.NONE );
             return CollectionsFactorySupplier.ON_HEAP;
         case OFF_HEAP:
-            final OffHeapBlockAllocator sharedBlockAllocator = new CachingOffHeapBlockAllocator();
+            final CapacityLimitingBlockAllocator sharedBlockAllocator = new CapacityLimitingBlockAllocator( new CachingOffHeapBlockAllocator(),
+                    config.get( GraphDatabaseSettings.tx_state_max_off_heap_memory ),
+                    config.get( GraphDatabaseSettings.tx_state_max_transaction_off_heap_memory ),
+                    config.get( GraphDatabaseSettings.tx_state_spill_directory ) );
+            dependencies.satisfyDependency( sharedBlockAllocator );
             life.add( onShutdown( sharedBlockAllocator::release ) );
             return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
         default:
@@ -23,8 +23,10 @@ import sun.misc.Unsafe;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -68,6 +70,9 @@ public final class UnsafeUtil
 
     private static final Unsafe unsafe;
     private static final MethodHandle sharedStringConstructor;
+    private static final MethodHandle invokeCleaner;
+    private static final MethodHandle directByteBufferCleaner;
+    private static final MethodHandle cleanerClean;
     private static final String allowUnalignedMemoryAccessProperty =
             "org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.allowUnalignedMemoryAccess";
 
@@ -90,6 +95,9 @@ public final class UnsafeUtil
 
         MethodHandles.Lookup lookup = MethodHandles.lookup();
         sharedStringConstructor = getSharedStringConstructorMethodHandle( lookup );
+        invokeCleaner = getInvokeCleanerMethodHandle( lookup );
+        directByteBufferCleaner = invokeCleaner == null ? getDirectByteBufferCleanerMethodHandle( lookup ) : null;
+        cleanerClean = directByteBufferCleaner == null ? null : getCleanerCleanMethodHandle( lookup );
 
         Class<?> dbbClass = null;
         Constructor<?> ctor = null;
@@ -233,6 +241,50 @@ public final class UnsafeUtil
         }
     }
 
+    private static MethodHandle getInvokeCleanerMethodHandle( MethodHandles.Lookup lookup )
+    {
+        try
+        {
+            // Java 9 and later
+            MethodType type = MethodType.methodType( void.class, ByteBuffer.class );
+            return lookup.findVirtual( Unsafe.class, "invokeCleaner", type ).bindTo( unsafe );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
+    private static MethodHandle getDirectByteBufferCleanerMethodHandle( MethodHandles.Lookup lookup )
+    {
+        try
+        {
+            // Java 8, DirectByteBuffer.cleaner()
+            Method cleaner = Class.forName( "java.nio.DirectByteBuffer" ).getDeclaredMethod( "cleaner" );
+            cleaner.setAccessible( true );
+            return lookup.unreflect( cleaner ).asType( MethodType.methodType( Object.class, ByteBuffer.class ) );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
+    private static MethodHandle getCleanerCleanMethodHandle( MethodHandles.Lookup lookup )
+    {
+        try
+        {
+            // Java 8, sun.misc.Cleaner.clean()
+            Method clean = Class.forName( "sun.misc.Cleaner" ).getDeclaredMethod( "clean" );
+            clean.setAccessible( true );
+            return lookup.unreflect( clean ).asType( MethodType.methodType( void.class, Object.class ) );
+        }
+        catch ( Exception e )
+        {
+            return null;
+        }
+    }
+
     /**
      * Get the object-relative field offset.
      */
@@ -994,6 +1046,38 @@ public final class UnsafeUtil
         unsafe.putLong( dbb, directByteBufferAddressOffset, addr );
     }
 
+    /**
+     * Free the memory of the given direct, or memory mapped, byte buffer right away, instead of when it's garbage
+     * collected. For memory mapped buffers this unmaps the file region. The buffer must not be accessed afterwards.
+     * <p>
+     * This does nothing if the cleaner of the buffer cannot be accessed in this JVM, in which case the memory is freed
+     * when the buffer is garbage collected.
+     *
+     * @param dbb the direct byte buffer to free.
+     */
+    public static void invokeCleaner( ByteBuffer dbb )
+    {
+        try
+        {
+            if ( invokeCleaner != null )
+            {
+                invokeCleaner.invokeExact( dbb );
+            }
+            else if ( directByteBufferCleaner != null && cleanerClean != null )
+            {
+                Object cleaner = directByteBufferCleaner.invokeExact( dbb );
+                if ( cleaner != null )
+                {
+                    cleanerClean.invokeExact( cleaner );
+                }
+            }
+        }
+        catch ( Throwable e )
+        {
+            throw new LinkageError( "Cannot invoke the cleaner of the direct byte buffer", e );
+        }
+    }
+
     /**
      * Read the value of the address field in the (assumed to be) DirectByteBuffer.
      * <p>
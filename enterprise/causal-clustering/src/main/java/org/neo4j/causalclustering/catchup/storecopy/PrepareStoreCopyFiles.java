@@ -35,6 +35,7 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.kernel.NeoStoreDataSource;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 
 import static org.neo4j.io.fs.FileUtils.relativePath;
@@ -101,7 +102,8 @@ public class PrepareStoreCopyFiles implements AutoCloseable
     private static Predicate<StoreFileMetadata> isCountFile( DatabaseLayout databaseLayout )
     {
         return storeFileMetadata -> databaseLayout.countStoreB().equals( storeFileMetadata.file() ) ||
-                databaseLayout.countStoreA().equals( storeFileMetadata.file() );
+                databaseLayout.countStoreA().equals( storeFileMetadata.file() ) ||
+                databaseLayout.file( GBPTreeCountsStore.FILE_NAME ).equals( storeFileMetadata.file() );
     }
 
     private StoreResource toStoreResource( StoreFileMetadata storeFileMetadata ) throws IOException
@@ -115,7 +115,7 @@ import org.neo4j.kernel.impl.coreapi.CoreAPIAvailabilityGuard;
 import org.neo4j.kernel.impl.enterprise.EnterpriseConstraintSemantics;
 import org.neo4j.kernel.impl.enterprise.EnterpriseEditionModule;
 import org.neo4j.kernel.impl.enterprise.configuration.OnlineBackupSettings;
-import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.ConfigurableIOLimiter;
+import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter;
 import org.neo4j.kernel.impl.factory.StatementLocksFactorySelector;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.logging.LogService;
@@ -421,7 +421,7 @@ public class EnterpriseCoreEditionModule extends EditionModule
                 createKernelData( platformModule.fileSystem, platformModule.pageCache, platformModule.storeLayout.storeDirectory(),
                         config, platformModule.dataSourceManager, life ) );
 
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = AdaptiveIOLimiter.forCheckPointPolicy( platformModule.config, platformModule.monitors );
 
         headerInformationFactory = createHeaderInformationFactory();
 
@@ -112,7 +112,7 @@ import org.neo4j.kernel.impl.enterprise.EnterpriseConstraintSemantics;
 import org.neo4j.kernel.impl.enterprise.EnterpriseEditionModule;
 import org.neo4j.kernel.impl.enterprise.configuration.OnlineBackupSettings;
 import org.neo4j.kernel.impl.enterprise.id.EnterpriseIdTypeConfigurationProvider;
-import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.ConfigurableIOLimiter;
+import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter;
 import org.neo4j.kernel.impl.factory.ReadOnly;
 import org.neo4j.kernel.impl.factory.StatementLocksFactorySelector;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
@@ -157,7 +157,7 @@ public class EnterpriseReadReplicaEditionModule extends EditionModule
     {
         LogService logging = platformModule.logging;
 
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = AdaptiveIOLimiter.forCheckPointPolicy( platformModule.config, platformModule.monitors );
         platformModule.jobScheduler.setTopLevelGroupName( "ReadReplica " + myself );
 
         org.neo4j.kernel.impl.util.Dependencies dependencies = platformModule.dependencies;
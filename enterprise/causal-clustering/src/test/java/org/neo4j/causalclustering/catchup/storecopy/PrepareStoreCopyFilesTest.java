@@ -38,13 +38,17 @@ import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.kernel.NeoStoreDataSource;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileIndexListing;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileListing;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 import org.neo4j.test.rule.TestDirectory;
 
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.hasItems;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doAnswer;
@@ -121,6 +125,27 @@ public class PrepareStoreCopyFilesTest
         }
     }
 
+    @Test
+    public void shouldCopyCountsStoreFilesAtomicallyInsteadOfReplayingThem() throws Exception
+    {
+        // given
+        File store = databaseLayout.file( "a" );
+        File countsA = databaseLayout.countStoreA();
+        File countsB = databaseLayout.countStoreB();
+        File countsTree = databaseLayout.file( GBPTreeCountsStore.FILE_NAME );
+        setExpectedFiles( new StoreFileMetadata[]{new StoreFileMetadata( store, 1 ), new StoreFileMetadata( countsA, 1 ),
+                new StoreFileMetadata( countsB, 1 ), new StoreFileMetadata( countsTree, 1 )} );
+
+        // when
+        File[] files = prepareStoreCopyFiles.listReplayableFiles();
+        StoreResource[] atomicFilesSnapshot = prepareStoreCopyFiles.getAtomicFilesSnapshot();
+
+        // then
+        assertArrayEquals( new File[]{store}, files );
+        assertThat( asList( Arrays.stream( atomicFilesSnapshot ).map( StoreResource::path ).toArray( String[]::new ) ),
+                hasItems( countsA.getName(), countsB.getName(), countsTree.getName() ) );
+    }
+
     @Test
     public void shouldHandleEmptyDescriptors()
     {
@@ -149,7 +149,7 @@ import org.neo4j.kernel.impl.coreapi.CoreAPIAvailabilityGuard;
 import org.neo4j.kernel.impl.enterprise.EnterpriseConstraintSemantics;
 import org.neo4j.kernel.impl.enterprise.EnterpriseEditionModule;
 import org.neo4j.kernel.impl.enterprise.id.EnterpriseIdTypeConfigurationProvider;
-import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.ConfigurableIOLimiter;
+import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter;
 import org.neo4j.kernel.impl.factory.CanWrite;
 import org.neo4j.kernel.impl.factory.DatabaseInfo;
 import org.neo4j.kernel.impl.factory.GraphDatabaseFacade;
@@ -207,7 +207,7 @@ public class HighlyAvailableEditionModule extends EditionModule
 
     public HighlyAvailableEditionModule( final PlatformModule platformModule )
     {
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = AdaptiveIOLimiter.forCheckPointPolicy( platformModule.config, platformModule.monitors );
 
         final LifeSupport life = platformModule.life;
         life.add( platformModule.dataSourceManager );
@@ -40,7 +40,7 @@ import org.neo4j.kernel.enterprise.builtinprocs.EnterpriseBuiltInProcedures;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
 import org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings;
 import org.neo4j.kernel.impl.enterprise.id.EnterpriseIdTypeConfigurationProvider;
-import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.ConfigurableIOLimiter;
+import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter;
 import org.neo4j.kernel.impl.factory.StatementLocksFactorySelector;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.locking.Locks;
@@ -70,7 +70,7 @@ public class EnterpriseEditionModule extends CommunityEditionModule
     {
         super( platformModule );
         platformModule.dependencies.satisfyDependency( new IdBasedStoreEntityCounters( this.idGeneratorFactory ) );
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = AdaptiveIOLimiter.forCheckPointPolicy( platformModule.config, platformModule.monitors );
     }
 
     @Override
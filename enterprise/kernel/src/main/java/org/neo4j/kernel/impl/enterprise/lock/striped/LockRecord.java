@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.lock.striped;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+
+import java.util.Arrays;
+
+import static org.neo4j.kernel.impl.enterprise.lock.striped.LockTable.NO_CLIENT;
+
+/**
+ * The state of a single lock in the {@link LockTable}. Records are pooled by the table, and are only ever accessed
+ * while holding the monitor of the stripe they belong to.
+ * <p/>
+ * Shared holders are tracked in a bit set indexed by client id. Client ids are kept low by the lock manager, so the
+ * bit set rarely needs more than a couple of words, and it is kept around when the record is re-used.
+ */
+final class LockRecord
+{
+    int exclusiveOwner = NO_CLIENT;
+    int upgrader = NO_CLIENT;
+    int sharedHolderCount;
+    private long[] sharedHolders = new long[1];
+
+    /** Next record in the free list of the stripe, while this record is not in use. */
+    LockRecord nextFree;
+
+    void addSharedHolder( int client )
+    {
+        int word = client >>> 6;
+        if ( word >= sharedHolders.length )
+        {
+            sharedHolders = Arrays.copyOf( sharedHolders, Math.max( word + 1, sharedHolders.length << 1 ) );
+        }
+        long bit = 1L << client;
+        if ( (sharedHolders[word] & bit) == 0 )
+        {
+            sharedHolders[word] |= bit;
+            sharedHolderCount++;
+        }
+    }
+
+    boolean removeSharedHolder( int client )
+    {
+        int word = client >>> 6;
+        long bit = 1L << client;
+        if ( word >= sharedHolders.length || (sharedHolders[word] & bit) == 0 )
+        {
+            return false;
+        }
+        sharedHolders[word] &= ~bit;
+        sharedHolderCount--;
+        return true;
+    }
+
+    void collectSharedHolders( int excludedClient, MutableIntList into )
+    {
+        for ( int word = 0; word < sharedHolders.length; word++ )
+        {
+            long bits = sharedHolders[word];
+            while ( bits != 0 )
+            {
+                int client = (word << 6) + Long.numberOfTrailingZeros( bits );
+                if ( client != excludedClient )
+                {
+                    into.add( client );
+                }
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        if ( exclusiveOwner != NO_CLIENT )
+        {
+            sb.append( "ExclusiveLock[Client[" ).append( exclusiveOwner ).append( "]]" );
+        }
+        if ( sharedHolderCount > 0 )
+        {
+            sb.append( sb.length() > 0 ? ", " : "" ).append( "SharedLock[" );
+            String separator = "";
+            for ( int word = 0; word < sharedHolders.length; word++ )
+            {
+                long bits = sharedHolders[word];
+                while ( bits != 0 )
+                {
+                    sb.append( separator ).append( "Client[" ).append( (word << 6) + Long.numberOfTrailingZeros( bits ) ).append( ']' );
+                    separator = ", ";
+                    bits &= bits - 1;
+                }
+            }
+            sb.append( ']' );
+        }
+        if ( upgrader != NO_CLIENT )
+        {
+            sb.append( sb.length() > 0 ? ", " : "" ).append( "UpgradeRequest[Client[" ).append( upgrader ).append( "]]" );
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.lock.striped;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * The global lock table of the {@link StripedLockManager}.
+ * <p/>
+ * The table is split into a fixed number of stripes, each guarded by its own monitor. A stripe is an open-addressing
+ * hash table with linear probing, keyed by the primitive resource type id and resource id, and with backward-shift
+ * deletion so that no tombstones are left behind. The lock records are pooled per stripe and handed back to the pool
+ * when the last holder releases them, so acquiring and releasing locks does not allocate once the stripes have
+ * warmed up.
+ * <p/>
+ * Each record keeps the id of its exclusive owner, the ids of its shared holders and the id of the client that is
+ * waiting to acquire it exclusively, if any. A pending exclusive acquisition blocks new shared holders, such that
+ * writers waiting for readers to leave are not starved.
+ */
+final class LockTable
+{
+    static final int NO_CLIENT = -1;
+
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeShift;
+
+    LockTable( int numberOfStripes )
+    {
+        int stripeCount = 1;
+        while ( stripeCount < numberOfStripes )
+        {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        this.stripeShift = Integer.numberOfTrailingZeros( stripeCount );
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            stripes[i] = new Stripe( INITIAL_STRIPE_CAPACITY, stripeShift );
+        }
+    }
+
+    /**
+     * Try to add the given client as a shared holder of the lock. This succeeds unless another client holds the lock
+     * exclusively, or is waiting to acquire it exclusively. The exclusive owner of a lock may always add itself as a
+     * shared holder, which is what makes the lock downgrade to a shared lock when the exclusive lock is released.
+     *
+     * @return {@code true} if the client now holds the lock shared.
+     */
+    boolean tryAcquireShared( int typeId, long resourceId, int client )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            LockRecord record = stripe.getOrCreate( typeId, resourceId, hash >>> stripeShift );
+            if ( record.exclusiveOwner != client &&
+                 ((record.exclusiveOwner != NO_CLIENT) || (record.upgrader != NO_CLIENT && record.upgrader != client)) )
+            {
+                return false;
+            }
+            record.addSharedHolder( client );
+            return true;
+        }
+    }
+
+    /**
+     * Try to make the given client the exclusive owner of the lock. This succeeds if the lock has no other holders,
+     * and no other client is already waiting to acquire it exclusively.
+     *
+     * @param holdsShared whether the client is among the shared holders of the lock.
+     * @param claimUpgrade whether the client should register itself as waiting to acquire the lock exclusively, if it
+     * cannot be granted right away. Such a claim has to be {@link #cancelUpgrade(int, long, int) cancelled} if the client
+     * stops waiting without getting the lock.
+     * @return {@code true} if the client now holds the lock exclusively.
+     */
+    boolean tryAcquireExclusive( int typeId, long resourceId, int client, boolean holdsShared, boolean claimUpgrade )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            LockRecord record = stripe.getOrCreate( typeId, resourceId, hash >>> stripeShift );
+            if ( record.exclusiveOwner == NO_CLIENT )
+            {
+                int otherSharedHolders = record.sharedHolderCount - (holdsShared ? 1 : 0);
+                boolean upgradeAvailable = record.upgrader == NO_CLIENT || record.upgrader == client;
+                if ( otherSharedHolders == 0 && upgradeAvailable )
+                {
+                    record.exclusiveOwner = client;
+                    record.upgrader = NO_CLIENT;
+                    return true;
+                }
+                if ( claimUpgrade && upgradeAvailable )
+                {
+                    record.upgrader = client;
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Withdraw the claim the given client made for exclusively acquiring the lock, if any.
+     */
+    void cancelUpgrade( int typeId, long resourceId, int client )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( typeId, resourceId, hash >>> stripeShift );
+            if ( slot != -1 )
+            {
+                LockRecord record = stripe.records[slot];
+                if ( record.upgrader == client )
+                {
+                    record.upgrader = NO_CLIENT;
+                    stripe.removeIfUnused( slot );
+                }
+            }
+        }
+    }
+
+    void releaseShared( int typeId, long resourceId, int client )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            int slot = stripe.get( typeId, resourceId, hash >>> stripeShift );
+            LockRecord record = stripe.records[slot];
+            if ( !record.removeSharedHolder( client ) )
+            {
+                throw new IllegalStateException( "Client[" + client + "] is not a shared holder of " + record );
+            }
+            stripe.removeIfUnused( slot );
+        }
+    }
+
+    void releaseExclusive( int typeId, long resourceId, int client )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            int slot = stripe.get( typeId, resourceId, hash >>> stripeShift );
+            LockRecord record = stripe.records[slot];
+            if ( record.exclusiveOwner != client )
+            {
+                throw new IllegalStateException( "Client[" + client + "] is not the exclusive owner of " + record );
+            }
+            record.exclusiveOwner = NO_CLIENT;
+            stripe.removeIfUnused( slot );
+        }
+    }
+
+    /**
+     * Collect the ids of the clients that prevent the given client from acquiring the lock into the given list.
+     */
+    void collectBlockers( int typeId, long resourceId, boolean exclusive, int client, MutableIntList blockers )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( typeId, resourceId, hash >>> stripeShift );
+            if ( slot == -1 )
+            {
+                return;
+            }
+            LockRecord record = stripe.records[slot];
+            if ( record.exclusiveOwner != NO_CLIENT && record.exclusiveOwner != client )
+            {
+                blockers.add( record.exclusiveOwner );
+            }
+            if ( record.upgrader != NO_CLIENT && record.upgrader != client )
+            {
+                blockers.add( record.upgrader );
+            }
+            if ( exclusive )
+            {
+                record.collectSharedHolders( client, blockers );
+            }
+        }
+    }
+
+    /**
+     * @return a description of the holders of the given lock, or {@code null} if the lock is not held by anyone.
+     */
+    String describe( int typeId, long resourceId )
+    {
+        int hash = hash( typeId, resourceId );
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized ( stripe )
+        {
+            int slot = stripe.find( typeId, resourceId, hash >>> stripeShift );
+            return slot == -1 ? null : stripe.records[slot].toString();
+        }
+    }
+
+    void accept( Locks.Visitor visitor, ResourceType[] resourceTypes )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                for ( int slot = 0; slot < stripe.records.length; slot++ )
+                {
+                    LockRecord record = stripe.records[slot];
+                    if ( record != null )
+                    {
+                        visitor.visit( resourceTypes[stripe.typeIds[slot]], stripe.resourceIds[slot], record.toString(),
+                                0, System.identityHashCode( record ) );
+                    }
+                }
+            }
+        }
+    }
+
+    private static int hash( int typeId, long resourceId )
+    {
+        long h = (resourceId ^ ((long) typeId << 56)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * One stripe of the lock table. All access must be guarded by the monitor of the stripe.
+     */
+    private static final class Stripe
+    {
+        private final int shift;
+        private int[] typeIds;
+        private long[] resourceIds;
+        private LockRecord[] records;
+        private int mask;
+        private int size;
+
+        /** Released lock records, for re-use. Linked through {@link LockRecord#nextFree}. */
+        private LockRecord freeRecords;
+
+        Stripe( int capacity, int shift )
+        {
+            this.shift = shift;
+            allocate( capacity );
+        }
+
+        private void allocate( int capacity )
+        {
+            typeIds = new int[capacity];
+            resourceIds = new long[capacity];
+            records = new LockRecord[capacity];
+            mask = capacity - 1;
+        }
+
+        int find( int typeId, long resourceId, int hash )
+        {
+            for ( int slot = hash & mask; records[slot] != null; slot = (slot + 1) & mask )
+            {
+                if ( resourceIds[slot] == resourceId && typeIds[slot] == typeId )
+                {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int get( int typeId, long resourceId, int hash )
+        {
+            int slot = find( typeId, resourceId, hash );
+            if ( slot == -1 )
+            {
+                throw new IllegalStateException( "No lock held on resource " + typeId + "(" + resourceId + ")" );
+            }
+            return slot;
+        }
+
+        LockRecord getOrCreate( int typeId, long resourceId, int hash )
+        {
+            int slot = hash & mask;
+            for ( ; records[slot] != null; slot = (slot + 1) & mask )
+            {
+                if ( resourceIds[slot] == resourceId && typeIds[slot] == typeId )
+                {
+                    return records[slot];
+                }
+            }
+
+            LockRecord record = freeRecords;
+            if ( record != null )
+            {
+                freeRecords = record.nextFree;
+                record.nextFree = null;
+            }
+            else
+            {
+                record = new LockRecord();
+            }
+            typeIds[slot] = typeId;
+            resourceIds[slot] = resourceId;
+            records[slot] = record;
+            if ( ++size > (records.length >>> 1) )
+            {
+                grow();
+            }
+            return record;
+        }
+
+        void removeIfUnused( int slot )
+        {
+            LockRecord record = records[slot];
+            if ( record.exclusiveOwner != NO_CLIENT || record.upgrader != NO_CLIENT || record.sharedHolderCount != 0 )
+            {
+                return;
+            }
+            removeAt( slot );
+            record.nextFree = freeRecords;
+            freeRecords = record;
+        }
+
+        private void removeAt( int slot )
+        {
+            int hole = slot;
+            for ( int next = (slot + 1) & mask; records[next] != null; next = (next + 1) & mask )
+            {
+                int home = (hash( typeIds[next], resourceIds[next] ) >>> shift) & mask;
+                if ( ((next - home) & mask) >= ((next - hole) & mask) )
+                {
+                    typeIds[hole] = typeIds[next];
+                    resourceIds[hole] = resourceIds[next];
+                    records[hole] = records[next];
+                    hole = next;
+                }
+            }
+            records[hole] = null;
+            size--;
+        }
+
+        private void grow()
+        {
+            int[] oldTypeIds = typeIds;
+            long[] oldResourceIds = resourceIds;
+            LockRecord[] oldRecords = records;
+            allocate( oldRecords.length << 1 );
+            for ( int i = 0; i < oldRecords.length; i++ )
+            {
+                if ( oldRecords[i] != null )
+                {
+                    int slot = (hash( oldTypeIds[i], oldResourceIds[i] ) >>> shift) & mask;
+                    while ( records[slot] != null )
+                    {
+                        slot = (slot + 1) & mask;
+                    }
+                    typeIds[slot] = oldTypeIds[i];
+                    resourceIds[slot] = oldResourceIds[i];
+                    records[slot] = oldRecords[i];
+                }
+            }
+        }
+    }
+}
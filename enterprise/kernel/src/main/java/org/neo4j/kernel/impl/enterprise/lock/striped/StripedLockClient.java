@@ -0,0 +1,759 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.lock.striped;
+
+import org.eclipse.collections.api.block.procedure.primitive.LongProcedure;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.map.primitive.LongIntMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import org.neo4j.collection.pool.Pool;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.storageengine.api.lock.AcquireLockTimeoutException;
+import org.neo4j.storageengine.api.lock.LockTracer;
+import org.neo4j.storageengine.api.lock.LockWaitEvent;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.storageengine.api.lock.WaitStrategy;
+
+// Please note. Except separate test cases for particular classes related to community locking
+// see also LockingCompatibilityTestSuite test suite
+
+/**
+ * Client of the {@link StripedLockManager}.
+ * <p/>
+ * Like the Forseti client, this client tracks the locks it holds, and how many times it holds them, in primitive maps
+ * per resource type, and only goes to the global {@link LockTable} the first time a lock is acquired and the last time
+ * it is released. The maps are kept between uses of the client, so a client that is re-used by the pool does not
+ * allocate anything for the common case of acquiring and releasing uncontended locks.
+ * <p/>
+ * Holding an exclusive lock and then acquiring the same lock shared makes this client a shared holder of the lock in
+ * the lock table as well, which is how releasing the exclusive lock downgrades it to a shared lock.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    /** How many times to retry acquiring a lock between each traversal of the wait-for graph. */
+    private static final int DEADLOCK_DETECTION_INTERVAL = 100;
+
+    private final int clientId;
+    private final LockTable lockTable;
+    private final WaitStrategy<AcquireLockTimeoutException>[] waitStrategies;
+    private final Pool<StripedLockClient> clientPool;
+    private final IntFunction<StripedLockClient> clientById;
+    private final long lockAcquisitionTimeoutMillis;
+    private final Clock clock;
+
+    /** Resource type id -> resource id -> number of times we hold the lock. */
+    private final MutableLongIntMap[] sharedLockCounts;
+    private final MutableLongIntMap[] exclusiveLockCounts;
+
+    /** @see LockClientStateHolder */
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    private volatile boolean hasLocks;
+
+    private final ReleaseVisitor releaseVisitor = new ReleaseVisitor();
+
+    /**
+     * The lock this client is waiting for, if any. These fields are only written by the thread using this client,
+     * while {@link #waitStamp} is even, and are published by making it odd. Other clients read them when traversing
+     * the wait-for graph, and check that the stamp did not change while they did so.
+     */
+    private int waitingTypeId;
+    private long waitingResourceId;
+    private boolean waitingExclusive;
+    private volatile int waitStamp;
+
+    /** Scratch space for deadlock detection, re-used between traversals. */
+    private final MutableIntList blockers = new IntArrayList();
+    private final MutableIntList waitCycle = new IntArrayList();
+    private final MutableIntSet visited = new IntHashSet();
+
+    StripedLockClient( int id, LockTable lockTable, WaitStrategy<AcquireLockTimeoutException>[] waitStrategies,
+            Pool<StripedLockClient> clientPool, IntFunction<StripedLockClient> clientById,
+            long lockAcquisitionTimeoutMillis, Clock clock )
+    {
+        this.clientId = id;
+        this.lockTable = lockTable;
+        this.waitStrategies = waitStrategies;
+        this.clientPool = clientPool;
+        this.clientById = clientById;
+        this.lockAcquisitionTimeoutMillis = lockAcquisitionTimeoutMillis;
+        this.clock = clock;
+        this.sharedLockCounts = new MutableLongIntMap[waitStrategies.length];
+        this.exclusiveLockCounts = new MutableLongIntMap[waitStrategies.length];
+        for ( int i = 0; i < waitStrategies.length; i++ )
+        {
+            sharedLockCounts[i] = new LongIntHashMap();
+            exclusiveLockCounts[i] = new LongIntHashMap();
+        }
+    }
+
+    /**
+     * Reset current client state. Make it ready for next bunch of operations.
+     * Should be used before factory release client to public usage.
+     */
+    public void reset()
+    {
+        stateHolder.reset();
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+            throws AcquireLockTimeoutException
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap heldShareLocks = sharedLockCounts[typeId];
+            for ( long resourceId : resourceIds )
+            {
+                int heldCount = heldShareLocks.getIfAbsent( resourceId, -1 );
+                if ( heldCount != -1 )
+                {
+                    // We already have a lock on this, just increment our local reference counter.
+                    heldShareLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                    continue;
+                }
+
+                if ( !lockTable.tryAcquireShared( typeId, resourceId, clientId ) )
+                {
+                    awaitShared( tracer, resourceType, resourceId );
+                }
+                heldShareLocks.put( resourceId, 1 );
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+            throws AcquireLockTimeoutException
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap heldLocks = exclusiveLockCounts[typeId];
+            for ( long resourceId : resourceIds )
+            {
+                int heldCount = heldLocks.getIfAbsent( resourceId, -1 );
+                if ( heldCount != -1 )
+                {
+                    // We already have a lock on this, just increment our local reference counter.
+                    heldLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                    continue;
+                }
+
+                boolean holdsShared = sharedLockCounts[typeId].containsKey( resourceId );
+                if ( !lockTable.tryAcquireExclusive( typeId, resourceId, clientId, holdsShared, true ) )
+                {
+                    awaitExclusive( tracer, resourceType, resourceId, holdsShared );
+                }
+                heldLocks.put( resourceId, 1 );
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private void awaitShared( LockTracer tracer, ResourceType resourceType, long resourceId )
+    {
+        int typeId = resourceType.typeId();
+        long waitStartMillis = clock.millis();
+        startWaiting( typeId, resourceId, false );
+        try ( LockWaitEvent ignored = tracer.waitForLock( false, resourceType, resourceId ) )
+        {
+            int tries = 0;
+            do
+            {
+                assertValid( waitStartMillis, resourceType, resourceId );
+                waitFor( resourceType, resourceId, false, tries++ );
+            }
+            while ( !lockTable.tryAcquireShared( typeId, resourceId, clientId ) );
+        }
+        finally
+        {
+            stopWaiting();
+        }
+    }
+
+    private void awaitExclusive( LockTracer tracer, ResourceType resourceType, long resourceId, boolean holdsShared )
+    {
+        int typeId = resourceType.typeId();
+        long waitStartMillis = clock.millis();
+        boolean acquired = false;
+        startWaiting( typeId, resourceId, true );
+        try ( LockWaitEvent ignored = tracer.waitForLock( true, resourceType, resourceId ) )
+        {
+            int tries = 0;
+            do
+            {
+                assertValid( waitStartMillis, resourceType, resourceId );
+                waitFor( resourceType, resourceId, true, tries++ );
+                acquired = lockTable.tryAcquireExclusive( typeId, resourceId, clientId, holdsShared, true );
+            }
+            while ( !acquired );
+        }
+        finally
+        {
+            stopWaiting();
+            if ( !acquired )
+            {
+                // Let others have the lock before us, now that we are no longer waiting for it.
+                lockTable.cancelUpgrade( typeId, resourceId, clientId );
+            }
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap heldLocks = exclusiveLockCounts[typeId];
+            int heldCount = heldLocks.getIfAbsent( resourceId, -1 );
+            if ( heldCount != -1 )
+            {
+                // We already have a lock on this, just increment our local reference counter.
+                heldLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                return true;
+            }
+
+            boolean holdsShared = sharedLockCounts[typeId].containsKey( resourceId );
+            if ( lockTable.tryAcquireExclusive( typeId, resourceId, clientId, holdsShared, false ) )
+            {
+                heldLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        hasLocks = true;
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap heldShareLocks = sharedLockCounts[typeId];
+            int heldCount = heldShareLocks.getIfAbsent( resourceId, -1 );
+            if ( heldCount != -1 )
+            {
+                // We already have a lock on this, just increment our local reference counter.
+                heldShareLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                return true;
+            }
+
+            if ( lockTable.tryAcquireShared( typeId, resourceId, clientId ) )
+            {
+                heldShareLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap heldShareLocks = sharedLockCounts[typeId];
+            int heldCount = heldShareLocks.getIfAbsent( resourceId, -1 );
+            if ( heldCount != -1 )
+            {
+                // We already have a lock on this, just increment our local reference counter.
+                heldShareLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                return true;
+            }
+
+            if ( exclusiveLockCounts[typeId].containsKey( resourceId ) )
+            {
+                // We hold the lock exclusively, so the lock table will always let us in as a shared holder as well.
+                lockTable.tryAcquireShared( typeId, resourceId, clientId );
+                heldShareLocks.put( resourceId, 1 );
+                return true;
+            }
+
+            // We didn't hold a lock already, so we cannot re-enter.
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap heldLocks = exclusiveLockCounts[resourceType.typeId()];
+            int heldCount = heldLocks.getIfAbsent( resourceId, -1 );
+            if ( heldCount != -1 )
+            {
+                // We already have a lock on this, just increment our local reference counter.
+                heldLocks.put( resourceId, Math.incrementExact( heldCount ) );
+                return true;
+            }
+
+            // We didn't hold a lock already, so we cannot re-enter.
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap sharedLocks = sharedLockCounts[typeId];
+            for ( long resourceId : resourceIds )
+            {
+                if ( !releaseLocalLock( resourceType, resourceId, sharedLocks ) )
+                {
+                    lockTable.releaseShared( typeId, resourceId, clientId );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            int typeId = resourceType.typeId();
+            MutableLongIntMap exclusiveLocks = exclusiveLockCounts[typeId];
+            for ( long resourceId : resourceIds )
+            {
+                if ( !releaseLocalLock( resourceType, resourceId, exclusiveLocks ) )
+                {
+                    // If we also hold the lock shared, we remain a shared holder in the lock table.
+                    lockTable.releaseExclusive( typeId, resourceId, clientId );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    /** Release a lock locally, and return true if we still hold more references to that lock. */
+    private boolean releaseLocalLock( ResourceType type, long resourceId, MutableLongIntMap localLocks )
+    {
+        int lockCount = localLocks.removeKeyIfAbsent( resourceId, -1 );
+        if ( lockCount == -1 )
+        {
+            throw new IllegalStateException( this + " cannot release lock that it does not hold: " +
+                                             type + "[" + resourceId + "]." );
+        }
+
+        if ( lockCount > 1 )
+        {
+            localLocks.put( resourceId, lockCount - 1 );
+            return true;
+        }
+        return false;
+    }
+
+    private void releaseAllClientLocks()
+    {
+        releaseAll( exclusiveLockCounts, true );
+        releaseAll( sharedLockCounts, false );
+    }
+
+    private void releaseAll( MutableLongIntMap[] lockCounts, boolean exclusive )
+    {
+        for ( int typeId = 0; typeId < lockCounts.length; typeId++ )
+        {
+            MutableLongIntMap locks = lockCounts[typeId];
+            int size = locks.size();
+            if ( size > 0 )
+            {
+                locks.forEachKey( releaseVisitor.initialize( typeId, exclusive ) );
+                if ( size <= 32 )
+                {
+                    // If the map is small, its fast and nice to GC to clear it. However, if its large, it is
+                    // 1) Faster to simply allocate a new one and
+                    // 2) Safer, because we guard against clients getting giant maps over time
+                    locks.clear();
+                }
+                else
+                {
+                    lockCounts[typeId] = new LongIntHashMap();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // marking client as closed
+        if ( stateHolder.stopClient() )
+        {
+            // waiting for all operations to be completed
+            waitForAllClientsToLeave();
+            releaseAllLocks();
+        }
+    }
+
+    private void waitForAllClientsToLeave()
+    {
+        while ( stateHolder.hasActiveClients() )
+        {
+            try
+            {
+                Thread.sleep( 10 );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        waitForAllClientsToLeave();
+        releaseAllLocks();
+        clientPool.release( this );
+    }
+
+    private void releaseAllLocks()
+    {
+        if ( hasLocks )
+        {
+            releaseAllClientLocks();
+            hasLocks = false;
+        }
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return clientId;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( exclusiveLockCounts, locks, ActiveLock.Factory.EXCLUSIVE_LOCK );
+        collectActiveLocks( sharedLockCounts, locks, ActiveLock.Factory.SHARED_LOCK );
+        return locks.stream();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        return countLocks( exclusiveLockCounts ) + countLocks( sharedLockCounts );
+    }
+
+    private static void collectActiveLocks( LongIntMap[] counts, List<ActiveLock> locks, ActiveLock.Factory activeLock )
+    {
+        for ( int typeId = 0; typeId < counts.length; typeId++ )
+        {
+            LongIntMap lockCounts = counts[typeId];
+            if ( !lockCounts.isEmpty() )
+            {
+                ResourceType resourceType = ResourceTypes.fromId( typeId );
+                lockCounts.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+            }
+        }
+    }
+
+    private static long countLocks( LongIntMap[] lockCounts )
+    {
+        long count = 0;
+        for ( LongIntMap lockCount : lockCounts )
+        {
+            count += lockCount.size();
+        }
+        return count;
+    }
+
+    public int id()
+    {
+        return clientId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "StripedLockClient[%d]", clientId );
+    }
+
+    private void startWaiting( int typeId, long resourceId, boolean exclusive )
+    {
+        waitingTypeId = typeId;
+        waitingResourceId = resourceId;
+        waitingExclusive = exclusive;
+        waitStamp = waitStamp + 1;
+    }
+
+    private void stopWaiting()
+    {
+        waitStamp = waitStamp + 1;
+    }
+
+    private void waitFor( ResourceType type, long resourceId, boolean exclusive, int tries )
+    {
+        waitStrategies[type.typeId()].apply( tries );
+
+        if ( tries > 0 && tries % DEADLOCK_DETECTION_INTERVAL == 0 && isDeadlocked( type.typeId(), resourceId, exclusive ) )
+        {
+            String message = this + " can't acquire " + (exclusive ? "ExclusiveLock" : "SharedLock") + " on " + type +
+                             "(" + resourceId + "), because holders of that lock are waiting for " + this + ".\n" +
+                             " Lock: " + lockTable.describe( type.typeId(), resourceId ) + "\n" +
+                             " Wait cycle: " + describeWaitCycle();
+
+            // The wait-for graph changes while we traverse it, so take a deep breath and make sure the cycle is
+            // still there before acting upon it.
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 10 ) );
+            if ( isDeadlocked( type.typeId(), resourceId, exclusive ) )
+            {
+                throw new DeadlockDetectedException( message );
+            }
+        }
+    }
+
+    /**
+     * Look for a cycle in the wait-for graph that goes through this client, and decide if this client is the one
+     * that should break it.
+     */
+    private boolean isDeadlocked( int typeId, long resourceId, boolean exclusive )
+    {
+        blockers.clear();
+        waitCycle.clear();
+        visited.clear();
+        if ( !reachesThisClient( typeId, resourceId, exclusive, clientId ) )
+        {
+            return false;
+        }
+
+        // Every client in the cycle will eventually find it, and every one of them is waiting, so their lock counts
+        // do not change. Aborting the client with the fewest locks, or the highest id among those, thus means that
+        // exactly one client aborts.
+        long ourCount = activeLockCount();
+        for ( int i = 0; i < waitCycle.size(); i++ )
+        {
+            StripedLockClient other = clientById.apply( waitCycle.get( i ) );
+            if ( other != null )
+            {
+                long otherCount = other.activeLockCount();
+                if ( otherCount < ourCount || (otherCount == ourCount && other.clientId > clientId) )
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Depth-first traversal of the wait-for graph, starting with the clients blocking {@code waiter} from acquiring
+     * the given lock. The clients on the path to this client are left in {@link #waitCycle}.
+     */
+    private boolean reachesThisClient( int typeId, long resourceId, boolean exclusive, int waiter )
+    {
+        int from = blockers.size();
+        lockTable.collectBlockers( typeId, resourceId, exclusive, waiter, blockers );
+        int to = blockers.size();
+        try
+        {
+            for ( int i = from; i < to; i++ )
+            {
+                int blocker = blockers.get( i );
+                if ( blocker == clientId )
+                {
+                    return true;
+                }
+                StripedLockClient client = clientById.apply( blocker );
+                if ( client == null || !visited.add( blocker ) )
+                {
+                    continue;
+                }
+
+                int stamp = client.waitStamp;
+                if ( (stamp & 1) == 0 )
+                {
+                    // Not waiting for anything, so it will eventually release the lock we are waiting for.
+                    continue;
+                }
+                int blockerTypeId = client.waitingTypeId;
+                long blockerResourceId = client.waitingResourceId;
+                boolean blockerExclusive = client.waitingExclusive;
+                if ( client.waitStamp != stamp )
+                {
+                    continue;
+                }
+
+                waitCycle.add( blocker );
+                if ( reachesThisClient( blockerTypeId, blockerResourceId, blockerExclusive, blocker ) )
+                {
+                    return true;
+                }
+                waitCycle.removeAtIndex( waitCycle.size() - 1 );
+            }
+            return false;
+        }
+        finally
+        {
+            while ( blockers.size() > from )
+            {
+                blockers.removeAtIndex( blockers.size() - 1 );
+            }
+        }
+    }
+
+    private String describeWaitCycle()
+    {
+        StringBuilder sb = new StringBuilder().append( this );
+        for ( int i = 0; i < waitCycle.size(); i++ )
+        {
+            sb.append( " -> " ).append( "StripedLockClient[" ).append( waitCycle.get( i ) ).append( ']' );
+        }
+        return sb.append( " -> " ).append( this ).toString();
+    }
+
+    private void assertValid( long waitStartMillis, ResourceType resourceType, long resourceId )
+    {
+        assertNotStopped();
+        assertNotExpired( waitStartMillis, resourceType, resourceId );
+    }
+
+    private void assertNotStopped()
+    {
+        if ( stateHolder.isStopped() )
+        {
+            throw new LockClientStoppedException( this );
+        }
+    }
+
+    private void assertNotExpired( long waitStartMillis, ResourceType resourceType, long resourceId )
+    {
+        if ( lockAcquisitionTimeoutMillis > 0 )
+        {
+            if ( (lockAcquisitionTimeoutMillis + waitStartMillis) < clock.millis() )
+            {
+                throw new LockAcquisitionTimeoutException( resourceType, resourceId, lockAcquisitionTimeoutMillis );
+            }
+        }
+    }
+
+    /**
+     * Releases all locks of a resource type in the lock table, used when releasing all locks. Shared locks are
+     * released regardless of whether we also hold them exclusively, since we are then a shared holder in the lock
+     * table as well.
+     */
+    private class ReleaseVisitor implements LongProcedure
+    {
+        private int typeId;
+        private boolean exclusive;
+
+        private LongProcedure initialize( int typeId, boolean exclusive )
+        {
+            this.typeId = typeId;
+            this.exclusive = exclusive;
+            return this;
+        }
+
+        @Override
+        public void value( long resourceId )
+        {
+            if ( exclusive )
+            {
+                lockTable.releaseExclusive( typeId, resourceId, clientId );
+            }
+            else
+            {
+                lockTable.releaseShared( typeId, resourceId, clientId );
+            }
+        }
+    }
+}
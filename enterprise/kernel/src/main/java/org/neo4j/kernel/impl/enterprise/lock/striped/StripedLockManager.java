@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.lock.striped;
+
+import java.time.Clock;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.collection.pool.LinkedQueuePool;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.storageengine.api.lock.AcquireLockTimeoutException;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.storageengine.api.lock.WaitStrategy;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * A lock manager built around a pre-allocated, striped {@link LockTable}.
+ * <p/>
+ * Where {@link org.neo4j.kernel.impl.enterprise.lock.forseti.ForsetiLockManager Forseti} keeps a concurrent map of
+ * lock objects per resource type, and allocates boxed keys and lock objects for every lock it hands out, this lock
+ * manager keeps all locks in a single table that is split into stripes. Each stripe is guarded by a monitor and
+ * stores its locks in primitive arrays, re-using lock records between acquisitions. Taking an uncontended lock is
+ * thus a matter of entering one monitor and probing a small primitive table, without producing any garbage.
+ * <p/>
+ * <h2>Deadlock detection</h2>
+ * <p/>
+ * Clients publish the lock they are waiting for while they wait. Every so often a waiting client traverses the
+ * wait-for graph, starting with the clients blocking its own lock, then the clients blocking the locks those are
+ * waiting for, and so on. If the traversal finds its way back to the client, there is a cycle. Since the graph
+ * is read while it changes, a cycle is verified once more after a short pause before it is acted upon. Every client
+ * in a cycle will eventually find it, and the one holding the fewest locks is the one that aborts, with ties broken
+ * by aborting the client with the highest id.
+ */
+public class StripedLockManager implements Locks
+{
+    /**
+     * The number of stripes of the lock table. More stripes means less contention on the stripe monitors, but
+     * a larger up-front allocation.
+     */
+    private static final int STRIPES = FeatureToggles.getInteger( StripedLockManager.class, "stripes", 256 );
+
+    private final LockTable lockTable;
+
+    /** Reverse lookup resource types by id, used for introspection */
+    private final ResourceType[] resourceTypes;
+
+    private final StripedClientPool clientPool;
+
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        int maxResourceId = findMaxResourceId( resourceTypes );
+        this.lockTable = new LockTable( STRIPES );
+        this.resourceTypes = new ResourceType[maxResourceId];
+
+        /* Wait strategies per resource type */
+        WaitStrategy<AcquireLockTimeoutException>[] waitStrategies = new WaitStrategy[maxResourceId];
+        for ( ResourceType type : resourceTypes )
+        {
+            waitStrategies[type.typeId()] = type.waitStrategy();
+            this.resourceTypes[type.typeId()] = type;
+        }
+        clientPool = new StripedClientPool( config, clock, lockTable, waitStrategies );
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+
+        StripedLockClient client = clientPool.acquire();
+        client.reset();
+        return client;
+    }
+
+    @Override
+    public void accept( Visitor out )
+    {
+        lockTable.accept( out, resourceTypes );
+    }
+
+    private static int findMaxResourceId( ResourceType[] resourceTypes )
+    {
+        int max = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            max = Math.max( resourceType.typeId(), max );
+        }
+        return max + 1;
+    }
+
+    @Override
+    public void close()
+    {
+        this.closed = true;
+    }
+
+    private static class StripedClientPool extends LinkedQueuePool<StripedLockClient>
+    {
+        private final AtomicInteger clientIds = new AtomicInteger( 0 );
+
+        /**
+         * Re-use ids, since the lock table tracks shared holders in bit sets indexed by client id, so we want to keep
+         * them low.
+         */
+        private final Queue<Integer> unusedIds = new ConcurrentLinkedQueue<>();
+        private final ConcurrentMap<Integer,StripedLockClient> clientsById = new ConcurrentHashMap<>();
+        private final Config config;
+        private final Clock clock;
+        private final LockTable lockTable;
+        private final WaitStrategy<AcquireLockTimeoutException>[] waitStrategies;
+
+        StripedClientPool( Config config, Clock clock, LockTable lockTable,
+                WaitStrategy<AcquireLockTimeoutException>[] waitStrategies )
+        {
+            super( 128, null );
+            this.config = config;
+            this.clock = clock;
+            this.lockTable = lockTable;
+            this.waitStrategies = waitStrategies;
+        }
+
+        @Override
+        protected StripedLockClient create()
+        {
+            Integer id = unusedIds.poll();
+            if ( id == null )
+            {
+                id = clientIds.getAndIncrement();
+            }
+            long lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+            StripedLockClient client = new StripedLockClient( id, lockTable, waitStrategies, this,
+                    clientsById::get, lockAcquisitionTimeoutMillis, clock );
+            clientsById.put( id, client );
+            return client;
+        }
+
+        @Override
+        protected void dispose( StripedLockClient resource )
+        {
+            super.dispose( resource );
+            clientsById.remove( resource.id() );
+            unusedIds.offer( resource.id() );
+        }
+    }
+}
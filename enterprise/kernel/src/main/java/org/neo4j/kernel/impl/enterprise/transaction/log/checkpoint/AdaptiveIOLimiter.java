@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.function.ObjLongConsumer;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.transaction.log.LogForceMonitor;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * The {@link IOLimiter} of the 'adaptive' check-point policy, which continuously adjusts the IO budget of the
+ * check-pointer based on feedback from the database, instead of keeping it at the configured
+ * {@link GraphDatabaseSettings#check_point_iops_limit}:
+ * <ul>
+ * <li>While forcing the transaction log takes longer than
+ * {@link GraphDatabaseSettings#check_point_adaptive_log_force_latency_target}, on average, the check-pointer is
+ * competing with committing transactions for IO and its budget is halved.</li>
+ * <li>Otherwise its budget is increased in steps, up to the configured limit.</li>
+ * <li>While the last completed check-point started longer ago than
+ * {@link GraphDatabaseSettings#check_point_adaptive_recovery_window_target}, recovery after a crash would need to
+ * start too far back in the transaction log and the check-pointer isn't limited at all, until it has caught up.</li>
+ * </ul>
+ * The budget is adjusted at most once per {@link #ADJUSTMENT_INTERVAL_NANOS}, by whichever thread reports
+ * a log force or IOs after that.
+ */
+public class AdaptiveIOLimiter implements IOLimiter, LogForceMonitor, DefaultCheckPointerTracer.Monitor
+{
+    static final long ADJUSTMENT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+    static final int MIN_IOPS = 100;
+    private static final int UNLIMITED = -1;
+
+    private final ConfigurableIOLimiter limiter;
+    private final LongSupplier nanoClock;
+    private final long logForceLatencyTargetNanos;
+    private final long recoveryWindowTargetNanos;
+    private final AtomicLong forces = new AtomicLong();
+    private final AtomicLong forceTimeNanos = new AtomicLong();
+    private final AtomicLong completedIOs = new AtomicLong();
+    private final AtomicLong nextAdjustmentNanos;
+    private volatile int maxIops;
+    private volatile long lastCompletedCheckPointStartNanos;
+    private long lastAdjustmentNanos;
+    private volatile int budget;
+
+    /**
+     * @return the {@link IOLimiter} for the configured {@link GraphDatabaseSettings#check_point_policy}.
+     */
+    public static IOLimiter forCheckPointPolicy( Config config, Monitors monitors )
+    {
+        if ( !AdaptiveThresholdPolicy.NAME.equals( config.get( GraphDatabaseSettings.check_point_policy ) ) )
+        {
+            return new ConfigurableIOLimiter( config );
+        }
+        AdaptiveIOLimiter limiter = new AdaptiveIOLimiter( config, LockSupport::parkNanos, System::nanoTime );
+        monitors.addMonitorListener( limiter );
+        return limiter;
+    }
+
+    @VisibleForTesting
+    AdaptiveIOLimiter( Config config, ObjLongConsumer<Object> pauseNanos, LongSupplier nanoClock )
+    {
+        this.nanoClock = nanoClock;
+        this.logForceLatencyTargetNanos = config.get( GraphDatabaseSettings.check_point_adaptive_log_force_latency_target ).toNanos();
+        this.recoveryWindowTargetNanos = config.get( GraphDatabaseSettings.check_point_adaptive_recovery_window_target ).toNanos();
+        this.maxIops = maxIops( config.get( GraphDatabaseSettings.check_point_iops_limit ) );
+        this.budget = maxIops;
+        this.limiter = new ConfigurableIOLimiter( budget, pauseNanos );
+        long now = nanoClock.getAsLong();
+        this.lastCompletedCheckPointStartNanos = now;
+        this.lastAdjustmentNanos = now;
+        this.nextAdjustmentNanos = new AtomicLong( now + ADJUSTMENT_INTERVAL_NANOS );
+        config.registerDynamicUpdateListener( GraphDatabaseSettings.check_point_iops_limit,
+                ( prev, update ) -> maxIops = maxIops( update ) );
+    }
+
+    private static int maxIops( Integer configuredLimit )
+    {
+        return configuredLimit == null || configuredLimit < 1 ? UNLIMITED : max( MIN_IOPS, configuredLimit );
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        completedIOs.addAndGet( recentlyCompletedIOs );
+        maybeAdjust();
+        return limiter.maybeLimitIO( previousStamp, recentlyCompletedIOs, flushable );
+    }
+
+    @Override
+    public void disableLimit()
+    {
+        limiter.disableLimit();
+    }
+
+    @Override
+    public void enableLimit()
+    {
+        limiter.enableLimit();
+    }
+
+    @Override
+    public boolean isLimited()
+    {
+        return limiter.isLimited();
+    }
+
+    @Override
+    public void logForced( long forceTimeNanos )
+    {
+        forces.incrementAndGet();
+        this.forceTimeNanos.addAndGet( forceTimeNanos );
+        maybeAdjust();
+    }
+
+    @Override
+    public void lastCheckPointEventDuration( long millis )
+    {
+        lastCompletedCheckPointStartNanos = nanoClock.getAsLong() - TimeUnit.MILLISECONDS.toNanos( millis );
+    }
+
+    /**
+     * @return the current IO budget, in IOs per second, or a negative value if not limited.
+     */
+    int budget()
+    {
+        return budget;
+    }
+
+    private void maybeAdjust()
+    {
+        long now = nanoClock.getAsLong();
+        long next = nextAdjustmentNanos.get();
+        if ( now - next >= 0 && nextAdjustmentNanos.compareAndSet( next, now + ADJUSTMENT_INTERVAL_NANOS ) )
+        {
+            // Only the thread winning the race above gets here, until the next adjustment interval
+            adjust( now );
+        }
+    }
+
+    private synchronized void adjust( long now )
+    {
+        long intervalNanos = max( 1, now - lastAdjustmentNanos );
+        lastAdjustmentNanos = now;
+        long forceCount = forces.getAndSet( 0 );
+        long forceNanos = forceTimeNanos.getAndSet( 0 );
+        long ios = completedIOs.getAndSet( 0 );
+        int max = maxIops;
+
+        int newBudget;
+        if ( now - lastCompletedCheckPointStartNanos > recoveryWindowTargetNanos )
+        {
+            newBudget = UNLIMITED;
+        }
+        else if ( forceCount > 0 && forceNanos / forceCount > logForceLatencyTargetNanos )
+        {
+            // When not limited, start halving from the rate the check-pointer actually had
+            long current = budget == UNLIMITED ? ios * TimeUnit.SECONDS.toNanos( 1 ) / intervalNanos : budget;
+            newBudget = (int) max( MIN_IOPS, min( Integer.MAX_VALUE, current / 2 ) );
+        }
+        else if ( budget == UNLIMITED || (max != UNLIMITED && budget >= max) )
+        {
+            newBudget = max;
+        }
+        else
+        {
+            long increased = budget + max( MIN_IOPS, budget / 4 );
+            newBudget = max == UNLIMITED ? (int) min( Integer.MAX_VALUE, increased ) : (int) min( max, increased );
+        }
+
+        if ( newBudget != budget )
+        {
+            budget = newBudget;
+            limiter.updateConfiguration( newBudget );
+        }
+    }
+}
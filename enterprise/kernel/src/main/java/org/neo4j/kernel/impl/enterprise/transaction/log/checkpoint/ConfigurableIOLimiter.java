@@ -62,14 +62,22 @@ public class ConfigurableIOLimiter implements IOLimiter
     @VisibleForTesting
     ConfigurableIOLimiter( Config config, ObjLongConsumer<Object> pauseNanos )
     {
-        this.pauseNanos = pauseNanos;
-        Integer iops = config.get( GraphDatabaseSettings.check_point_iops_limit );
-        updateConfiguration( iops );
+        this( config.get( GraphDatabaseSettings.check_point_iops_limit ), pauseNanos );
         config.registerDynamicUpdateListener( GraphDatabaseSettings.check_point_iops_limit,
                 ( prev, update ) -> updateConfiguration( update ) );
     }
 
-    private void updateConfiguration( Integer iops )
+    /**
+     * Creates a limiter which isn't tied to the configuration, but instead has its limit set through
+     * {@link #updateConfiguration(Integer)}.
+     */
+    ConfigurableIOLimiter( Integer iops, ObjLongConsumer<Object> pauseNanos )
+    {
+        this.pauseNanos = pauseNanos;
+        updateConfiguration( iops );
+    }
+
+    void updateConfiguration( Integer iops )
     {
         long oldState;
         long newState;
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.io.pagecache.PagedFile.MAX_PAGE_HEAT;
+
+/**
+ * The format of the page cache profiles.
+ * <p>
+ * A profile starts with a magic number and a format version, followed by one group of page ids per heat level, from
+ * the hottest to the coldest. Each group lists the ids of the pages that had that heat when the profile was taken, in
+ * ascending order. The page ids are delta encoded as variable length integers, and every group is terminated by a
+ * zero. Since the pages in memory tend to cluster, this keeps the profiles small, and the ranking lets the warmer load
+ * the hottest pages first.
+ */
+final class HeatRankedProfileFormat
+{
+    private static final int MAGIC = 0x4E34_4850; // "N4HP"
+    private static final int VERSION = 1;
+    private static final int GROUP_TERMINATOR = 0;
+
+    private HeatRankedProfileFormat()
+    {
+    }
+
+    /**
+     * Write a profile of the pages of the given file, that are currently in memory.
+     * <p>
+     * The page cache is scanned once per heat level, rather than once in total, because this way the page ids do not
+     * have to be buffered up before they can be written out. Pages that change their heat in the meantime can end up
+     * in more than one group, or in none at all, but that is fine for a profile.
+     *
+     * @return the number of page ids written to the profile.
+     */
+    static long write( PagedFile file, OutputStream output ) throws IOException
+    {
+        output.write( MAGIC >>> 24 );
+        output.write( MAGIC >>> 16 );
+        output.write( MAGIC >>> 8 );
+        output.write( MAGIC );
+        output.write( VERSION );
+        GroupWriter writer = new GroupWriter( output );
+        for ( int heat = MAX_PAGE_HEAT; heat > 0; heat-- )
+        {
+            writer.heat = heat;
+            writer.previousPageId = -1;
+            file.visitPageHeat( writer );
+            writeVarLong( output, GROUP_TERMINATOR );
+        }
+        output.flush();
+        return writer.pageCount;
+    }
+
+    private static final class GroupWriter implements PagedFile.PageHeatVisitor
+    {
+        private final OutputStream output;
+        private int heat;
+        private long previousPageId;
+        private long pageCount;
+
+        GroupWriter( OutputStream output )
+        {
+            this.output = output;
+        }
+
+        @Override
+        public void visit( long filePageId, int heat ) throws IOException
+        {
+            if ( heat == this.heat )
+            {
+                // The page ids are visited in ascending order, so the deltas are always positive.
+                writeVarLong( output, filePageId - previousPageId );
+                previousPageId = filePageId;
+                pageCount++;
+            }
+        }
+    }
+
+    /**
+     * Reads a profile one heat group at a time, from the hottest group to the coldest.
+     */
+    static final class Reader
+    {
+        private final InputStream input;
+        private int heat;
+        private long previousPageId;
+        private boolean inGroup;
+
+        /**
+         * @throws IOException if the input is not a profile in a format this reader understands.
+         */
+        Reader( InputStream input ) throws IOException
+        {
+            this.input = input;
+            int magic = (readByte( input ) << 24) | (readByte( input ) << 16) | (readByte( input ) << 8) |
+                        readByte( input );
+            int version = readByte( input );
+            if ( magic != MAGIC || version != VERSION )
+            {
+                throw new IOException( "Not a heat ranked page cache profile, or an unsupported version of one." );
+            }
+            heat = MAX_PAGE_HEAT + 1;
+        }
+
+        /**
+         * Move on to the next heat group, skipping whatever remains of the current group.
+         *
+         * @return the heat of the pages in the new group, or zero if all groups have been read.
+         */
+        int nextGroup() throws IOException
+        {
+            while ( inGroup )
+            {
+                nextPageId();
+            }
+            if ( heat > 1 )
+            {
+                heat--;
+                previousPageId = -1;
+                inGroup = true;
+                return heat;
+            }
+            return 0;
+        }
+
+        /**
+         * @return the next page id in the current heat group, or -1 if the group has no more page ids.
+         */
+        long nextPageId() throws IOException
+        {
+            if ( !inGroup )
+            {
+                return -1;
+            }
+            long delta = readVarLong( input );
+            if ( delta == GROUP_TERMINATOR )
+            {
+                inGroup = false;
+                return -1;
+            }
+            previousPageId += delta;
+            return previousPageId;
+        }
+    }
+
+    private static void writeVarLong( OutputStream output, long value ) throws IOException
+    {
+        while ( (value & ~0x7FL) != 0 )
+        {
+            output.write( (int) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        output.write( (int) value );
+    }
+
+    private static long readVarLong( InputStream input ) throws IOException
+    {
+        long value = 0;
+        for ( int shift = 0; shift < Long.SIZE; shift += 7 )
+        {
+            int b = readByte( input );
+            value |= (long) (b & 0x7F) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+        throw new IOException( "Malformed variable length integer in page cache profile." );
+    }
+
+    private static int readByte( InputStream input ) throws IOException
+    {
+        int b = input.read();
+        if ( b == -1 )
+        {
+            throw new EOFException( "Unexpected end of page cache profile." );
+        }
+        return b;
+    }
+}
@@ -22,11 +22,13 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -42,19 +44,20 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.neo4j.graphdb.Resource;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
-import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileListing;
 import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 
 import static java.util.Comparator.naturalOrder;
-import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
-import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.MAX_PAGE_HEAT;
 
 /**
  * The page cache warmer profiles the page cache to figure out what data is in memory and what is not, and uses those
@@ -67,30 +70,38 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * The profiles are collected in the "profiles" directory, so it is easy to get rid of all of them, on the off chance
  * that something is wrong with them.
  * <p>
- * These cacheprof files are compressed bitmaps where each raised bit indicates that the page identified by the
- * bit-index was in memory.
+ * These cacheprof files are compressed lists of the pages that were in memory, ranked by how hot they were. See
+ * {@link HeatRankedProfileFormat}. When reheating, the hottest pages of all files are loaded first, then the second
+ * hottest, and so on, and the warmup stops early if it runs out of the configured time or page budget.
  */
 public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
 {
     public static final String SUFFIX_CACHEPROF = ".cacheprof";
 
     private static final int IO_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    // Runs of adjacent pages are split up into pieces of at most this many pages, so they can be loaded in parallel.
+    private static final int MAX_RUN_LENGTH = 64;
 
     private final FileSystemAbstraction fs;
     private final PageCache pageCache;
     private final JobScheduler scheduler;
     private final File databaseDirectory;
     private final ProfileRefCounts refCounts;
+    private final Config config;
+    private final PageCacheWarmerMonitor monitor;
     private volatile boolean stopped;
     private ExecutorService executor;
     private PageLoaderFactory pageLoaderFactory;
 
-    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory )
+    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory,
+            Config config, PageCacheWarmerMonitor monitor )
     {
         this.fs = fs;
         this.pageCache = pageCache;
         this.scheduler = scheduler;
         this.databaseDirectory = databaseDirectory;
+        this.config = config;
+        this.monitor = monitor;
         this.refCounts = new ProfileRefCounts();
     }
 
@@ -148,21 +159,26 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         {
             return OptionalLong.empty();
         }
-        long pagesLoaded = 0;
         List<PagedFile> files = pageCache.listExistingMappings();
         Profile[] existingProfiles = findExistingProfiles( files );
-        for ( PagedFile file : files )
+        List<FileWarmup> warmups = new ArrayList<>();
+        try
         {
-            try
-            {
-                pagesLoaded += reheat( file, existingProfiles );
-            }
-            catch ( FileIsNotMappedException ignore )
+            for ( PagedFile file : files )
             {
-                // The database is allowed to map and unmap files while we are trying to heat it up.
+                FileWarmup warmup = openWarmup( file, existingProfiles );
+                if ( warmup != null )
+                {
+                    warmups.add( warmup );
+                }
             }
+            return OptionalLong.of( reheat( warmups ) );
+        }
+        finally
+        {
+            IOUtils.closeAll( warmups );
+            pageCache.reportEvents();
         }
-        return OptionalLong.of( pagesLoaded );
     }
 
     /**
@@ -204,7 +220,28 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         return OptionalLong.of( pagesInMemory );
     }
 
-    private long reheat( PagedFile file, Profile[] existingProfiles ) throws IOException
+    private long reheat( List<FileWarmup> warmups ) throws IOException
+    {
+        WarmupBudget budget = new WarmupBudget(
+                config.get( GraphDatabaseSettings.pagecache_warmup_budget_pages ),
+                config.get( GraphDatabaseSettings.pagecache_warmup_budget_time ).toNanos() );
+        long pagesLoaded = 0;
+        // Load the hottest pages of all the files first, then the second hottest pages, and so on.
+        for ( int heat = MAX_PAGE_HEAT; heat > 0; heat-- )
+        {
+            for ( FileWarmup warmup : warmups )
+            {
+                pagesLoaded += warmup.loadNextGroup( budget );
+                if ( stopped || budget.isExhausted() )
+                {
+                    return pagesLoaded;
+                }
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private FileWarmup openWarmup( PagedFile file, Profile[] existingProfiles ) throws IOException
     {
         Optional<Profile> savedProfile = filterRelevant( existingProfiles, file )
                 .sorted( Comparator.reverseOrder() ) // Try most recent profile first.
@@ -213,37 +250,23 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
 
         if ( !savedProfile.isPresent() )
         {
-            return 0;
+            return null;
         }
 
         // The file contents checks out. Let's load it in.
-        long pagesLoaded = 0;
-        try ( InputStream input = savedProfile.get().read( fs );
-              PageLoader loader = pageLoaderFactory.getLoader( file ) )
+        InputStream input = savedProfile.get().read( fs );
+        try
         {
-            long pageId = 0;
-            int b;
-            while ( (b = input.read()) != -1 )
-            {
-                for ( int i = 0; i < 8; i++ )
-                {
-                    if ( stopped )
-                    {
-                        pageCache.reportEvents();
-                        return pagesLoaded;
-                    }
-                    if ( (b & 1) == 1 )
-                    {
-                        loader.load( pageId );
-                        pagesLoaded++;
-                    }
-                    b >>= 1;
-                    pageId++;
-                }
-            }
+            return new FileWarmup( file, input, new HeatRankedProfileFormat.Reader( input ),
+                    pageLoaderFactory.getLoader( file ) );
+        }
+        catch ( IOException ignore )
+        {
+            // Either the profile is in a format we don't understand, like the residency bitmaps of older versions, or
+            // the file has been unmapped. Either way, we cannot warm up this file, but we can still warm up the others.
+            IOUtils.closeAllSilently( input );
+            return null;
         }
-        pageCache.reportEvents();
-        return pagesLoaded;
     }
 
     private boolean verifyChecksum( Profile profile )
@@ -267,34 +290,15 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
 
     private long profile( PagedFile file, Profile[] existingProfiles ) throws IOException
     {
-        long pagesInMemory = 0;
+        long pagesInMemory;
         Profile nextProfile = filterRelevant( existingProfiles, file )
                 .max( naturalOrder() )
                 .map( Profile::next )
                 .orElse( Profile.first( file.file() ) );
 
-        try ( OutputStream output = nextProfile.write( fs );
-              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        try ( OutputStream output = nextProfile.write( fs ) )
         {
-            int stepper = 0;
-            int b = 0;
-            while ( cursor.next() )
-            {
-                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
-                {
-                    pagesInMemory++;
-                    b |= 1 << stepper;
-                }
-                stepper++;
-                if ( stepper == 8 )
-                {
-                    output.write( b );
-                    b = 0;
-                    stepper = 0;
-                }
-            }
-            output.write( b );
-            output.flush();
+            pagesInMemory = HeatRankedProfileFormat.write( file, output );
         }
 
         // Delete previous profile files.
@@ -330,4 +334,125 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
                          .flatMap( dir -> Profile.findProfilesInDirectory( fs, dir ) )
                          .toArray( Profile[]::new );
     }
+
+    /**
+     * Loads the pages of a single file, one heat group of its profile at a time.
+     */
+    private final class FileWarmup implements Closeable
+    {
+        private final PagedFile file;
+        private final InputStream input;
+        private final HeatRankedProfileFormat.Reader reader;
+        private final PageLoader loader;
+        private long pagesLoaded;
+        private boolean unmapped;
+
+        FileWarmup( PagedFile file, InputStream input, HeatRankedProfileFormat.Reader reader, PageLoader loader )
+        {
+            this.file = file;
+            this.input = input;
+            this.reader = reader;
+            this.loader = loader;
+        }
+
+        /**
+         * Load the pages in the next heat group of the profile, in runs of adjacent pages, until the group is done or
+         * the budget is exhausted.
+         *
+         * @return the number of pages loaded.
+         */
+        long loadNextGroup( WarmupBudget budget ) throws IOException
+        {
+            if ( unmapped || reader.nextGroup() == 0 )
+            {
+                return 0;
+            }
+            long pagesLoadedBefore = pagesLoaded;
+            try
+            {
+                long runStart = -1;
+                int runLength = 0;
+                long pageId;
+                while ( (pageId = reader.nextPageId()) != -1 )
+                {
+                    if ( runLength > 0 && runLength < MAX_RUN_LENGTH && pageId == runStart + runLength )
+                    {
+                        runLength++;
+                        continue;
+                    }
+                    if ( runLength > 0 && !loadRun( runStart, runLength, budget ) )
+                    {
+                        break;
+                    }
+                    runStart = pageId;
+                    runLength = 1;
+                }
+                if ( pageId == -1 && runLength > 0 )
+                {
+                    loadRun( runStart, runLength, budget );
+                }
+            }
+            catch ( FileIsNotMappedException ignore )
+            {
+                // The database is allowed to map and unmap files while we are trying to heat it up.
+                unmapped = true;
+            }
+            monitor.warmupProgress( file.file(), pagesLoaded );
+            return pagesLoaded - pagesLoadedBefore;
+        }
+
+        private boolean loadRun( long runStart, int runLength, WarmupBudget budget ) throws IOException
+        {
+            int pageCount = budget.take( runLength );
+            if ( stopped || pageCount == 0 )
+            {
+                return false;
+            }
+            loader.load( runStart, pageCount );
+            pagesLoaded += pageCount;
+            return pageCount == runLength;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            IOUtils.closeAll( loader, input );
+        }
+    }
+
+    /**
+     * Limits how many pages, and for how long, the warmup can load pages.
+     */
+    private static final class WarmupBudget
+    {
+        private final long deadlineNanos;
+        private final boolean hasDeadline;
+        private long pagesRemaining;
+
+        WarmupBudget( long maxPages, long maxNanos )
+        {
+            pagesRemaining = maxPages == 0 ? Long.MAX_VALUE : maxPages;
+            hasDeadline = maxNanos != 0;
+            deadlineNanos = System.nanoTime() + maxNanos;
+        }
+
+        /**
+         * @return the number of pages, up to the given count, that the budget allows to be loaded.
+         */
+        int take( int pageCount )
+        {
+            if ( isExhausted() )
+            {
+                return 0;
+            }
+            int taken = (int) Math.min( pageCount, pagesRemaining );
+            pagesRemaining -= taken;
+            return taken;
+        }
+
+        boolean isExhausted()
+        {
+            return pagesRemaining == 0 || (hasDeadline && System.nanoTime() - deadlineNanos >= 0);
+        }
+    }
 }
@@ -49,7 +49,8 @@ class PageCacheWarmerKernelExtension extends LifecycleAdapter
         this.availabilityGuard = availabilityGuard;
         this.dataSource = dataSource;
         this.config = config;
-        pageCacheWarmer = new PageCacheWarmer( fs, pageCache, scheduler, dataSource.getDatabaseLayout().databaseDirectory() );
+        pageCacheWarmer = new PageCacheWarmer( fs, pageCache, scheduler,
+                dataSource.getDatabaseLayout().databaseDirectory(), config, monitor );
         availabilityListener = new WarmupAvailabilityListener( scheduler, pageCacheWarmer, config, log, monitor );
     }
 
@@ -22,8 +22,11 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.io.File;
+
 public interface PageCacheWarmerMonitor
 {
     void warmupCompleted( long pagesLoaded );
+    void warmupProgress( File file, long pagesLoaded );
     void profileCompleted( long pagesInMemory );
 }
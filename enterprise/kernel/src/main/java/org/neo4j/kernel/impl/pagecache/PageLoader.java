@@ -27,5 +27,13 @@ import java.io.IOException;
 
 interface PageLoader extends Closeable
 {
-    void load( long pageId ) throws IOException;
+    /**
+     * Load a run of adjacent pages into the page cache, with as few and as large reads as possible.
+     *
+     * @see org.neo4j.io.pagecache.PagedFile#prefetch(long, int)
+     *
+     * @param startPageId the file page id of the first page in the run.
+     * @param pageCount the number of pages in the run.
+     */
+    void load( long startPageId, int pageCount ) throws IOException;
 }
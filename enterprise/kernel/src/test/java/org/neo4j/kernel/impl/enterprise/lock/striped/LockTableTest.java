@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.lock.striped;
+
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LockTableTest
+{
+    private static final int NODE = ResourceTypes.NODE.typeId();
+    private static final int RELATIONSHIP = ResourceTypes.RELATIONSHIP.typeId();
+
+    private final LockTable table = new LockTable( 4 );
+
+    @Test
+    public void shouldKeepResourceTypesApart()
+    {
+        assertTrue( table.tryAcquireExclusive( NODE, 1, 0, false, true ) );
+        assertTrue( table.tryAcquireExclusive( RELATIONSHIP, 1, 1, false, true ) );
+
+        assertFalse( table.tryAcquireShared( NODE, 1, 1 ) );
+        assertFalse( table.tryAcquireShared( RELATIONSHIP, 1, 0 ) );
+    }
+
+    @Test
+    public void shouldLetExclusiveOwnerJoinAsSharedHolder()
+    {
+        // given
+        assertTrue( table.tryAcquireExclusive( NODE, 1, 0, false, true ) );
+        assertTrue( table.tryAcquireShared( NODE, 1, 0 ) );
+
+        // when
+        table.releaseExclusive( NODE, 1, 0 );
+
+        // then the lock is downgraded to a shared lock
+        assertTrue( table.tryAcquireShared( NODE, 1, 1 ) );
+        assertFalse( table.tryAcquireExclusive( NODE, 1, 2, false, false ) );
+    }
+
+    @Test
+    public void shouldBlockNewSharedHoldersWhileUpgradeIsPending()
+    {
+        // given
+        assertTrue( table.tryAcquireShared( NODE, 1, 0 ) );
+        assertTrue( table.tryAcquireShared( NODE, 1, 1 ) );
+
+        // when
+        assertFalse( table.tryAcquireExclusive( NODE, 1, 0, true, true ) );
+
+        // then
+        assertFalse( table.tryAcquireShared( NODE, 1, 2 ) );
+        assertFalse( table.tryAcquireExclusive( NODE, 1, 1, true, true ) );
+        MutableIntList blockers = new IntArrayList();
+        table.collectBlockers( NODE, 1, true, 1, blockers );
+        assertEquals( IntArrayList.newListWith( 0, 0 ), blockers );
+
+        // and when
+        table.releaseShared( NODE, 1, 1 );
+
+        // then
+        assertTrue( table.tryAcquireExclusive( NODE, 1, 0, true, true ) );
+    }
+
+    @Test
+    public void shouldLetOthersInWhenUpgradeIsCancelled()
+    {
+        // given
+        assertTrue( table.tryAcquireShared( NODE, 1, 0 ) );
+        assertFalse( table.tryAcquireExclusive( NODE, 1, 1, false, true ) );
+        assertFalse( table.tryAcquireShared( NODE, 1, 2 ) );
+
+        // when
+        table.cancelUpgrade( NODE, 1, 1 );
+
+        // then
+        assertTrue( table.tryAcquireShared( NODE, 1, 2 ) );
+    }
+
+    @Test
+    public void shouldRemoveLocksOnceReleased()
+    {
+        assertTrue( table.tryAcquireShared( NODE, 1, 0 ) );
+        assertTrue( table.tryAcquireExclusive( NODE, 1, 0, true, true ) );
+        table.releaseExclusive( NODE, 1, 0 );
+        table.releaseShared( NODE, 1, 0 );
+
+        assertNull( table.describe( NODE, 1 ) );
+    }
+
+    @Test
+    public void shouldTrackManyLocksThroughGrowthAndRemoval()
+    {
+        // given a single stripe, so that everything collides and has to be probed for
+        LockTable table = new LockTable( 1 );
+        int count = 10_000;
+        for ( long id = 0; id < count; id++ )
+        {
+            assertTrue( table.tryAcquireExclusive( NODE, id, (int) (id % 100), false, true ) );
+        }
+
+        // when releasing every other lock
+        for ( long id = 0; id < count; id += 2 )
+        {
+            table.releaseExclusive( NODE, id, (int) (id % 100) );
+        }
+
+        // then
+        Map<Long,String> locks = new HashMap<>();
+        table.accept( ( ResourceType type, long id, String description, long waitTime, long identity ) ->
+                locks.put( id, description ), ResourceTypes.values() );
+        assertEquals( count / 2, locks.size() );
+        for ( long id = 0; id < count; id++ )
+        {
+            if ( id % 2 == 0 )
+            {
+                assertNull( table.describe( NODE, id ) );
+                assertTrue( table.tryAcquireShared( NODE, id, 100 ) );
+            }
+            else
+            {
+                assertEquals( "ExclusiveLock[Client[" + id % 100 + "]]", locks.get( id ) );
+                assertFalse( table.tryAcquireShared( NODE, id, 100 ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldTrackSharedHoldersWithHighClientIds()
+    {
+        assertTrue( table.tryAcquireShared( NODE, 1, 3 ) );
+        assertTrue( table.tryAcquireShared( NODE, 1, 200 ) );
+
+        MutableIntList blockers = new IntArrayList();
+        table.collectBlockers( NODE, 1, true, 7, blockers );
+        assertEquals( IntArrayList.newListWith( 3, 200 ), blockers );
+        assertEquals( "SharedLock[Client[3], Client[200]]", table.describe( NODE, 1 ) );
+
+        table.releaseShared( NODE, 1, 200 );
+        table.releaseShared( NODE, 1, 3 );
+        assertNull( table.describe( NODE, 1 ) );
+    }
+}
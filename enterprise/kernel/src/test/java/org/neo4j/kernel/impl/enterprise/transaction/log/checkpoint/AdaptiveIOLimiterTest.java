@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.monitoring.Monitors;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter.ADJUSTMENT_INTERVAL_NANOS;
+import static org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter.MIN_IOPS;
+
+public class AdaptiveIOLimiterTest
+{
+    private static final long LATENCY_TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+    private final AtomicLong clock = new AtomicLong();
+    private Config config;
+    private AdaptiveIOLimiter limiter;
+
+    private void createIOLimiter( int limit )
+    {
+        config = Config.defaults( stringMap(
+                GraphDatabaseSettings.check_point_iops_limit.name(), "" + limit,
+                GraphDatabaseSettings.check_point_adaptive_log_force_latency_target.name(), "10ms",
+                GraphDatabaseSettings.check_point_adaptive_recovery_window_target.name(), "1m" ) );
+        limiter = new AdaptiveIOLimiter( config, ( blocker, nanos ) -> {}, clock::get );
+    }
+
+    @Test
+    public void mustStartAtConfiguredLimit()
+    {
+        createIOLimiter( 1000 );
+        assertEquals( 1000, limiter.budget() );
+        assertTrue( limiter.isLimited() );
+    }
+
+    @Test
+    public void mustHalveBudgetWhileLogForcesAreSlow()
+    {
+        createIOLimiter( 1000 );
+
+        forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+        assertEquals( 500, limiter.budget() );
+        forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+        assertEquals( 250, limiter.budget() );
+        for ( int i = 0; i < 10; i++ )
+        {
+            forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+        }
+        assertEquals( MIN_IOPS, limiter.budget() );
+    }
+
+    @Test
+    public void mustIncreaseBudgetBackToConfiguredLimitWhileLogForcesAreFast()
+    {
+        createIOLimiter( 1000 );
+        forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+        forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+        assertEquals( 250, limiter.budget() );
+
+        forceLogOverNextInterval( LATENCY_TARGET_NANOS / 2 );
+        assertEquals( 350, limiter.budget() );
+        for ( int i = 0; i < 10; i++ )
+        {
+            forceLogOverNextInterval( LATENCY_TARGET_NANOS / 2 );
+        }
+        assertEquals( 1000, limiter.budget() );
+    }
+
+    @Test
+    public void mustNotAdjustMoreOftenThanTheAdjustmentInterval()
+    {
+        createIOLimiter( 1000 );
+        clock.addAndGet( ADJUSTMENT_INTERVAL_NANOS );
+        limiter.logForced( 2 * LATENCY_TARGET_NANOS );
+        assertEquals( 500, limiter.budget() );
+
+        limiter.logForced( 2 * LATENCY_TARGET_NANOS );
+        limiter.logForced( 2 * LATENCY_TARGET_NANOS );
+        assertEquals( 500, limiter.budget() );
+    }
+
+    @Test
+    public void mustHalveObservedIORateWhenUnlimitedAndLogForcesAreSlow()
+    {
+        createIOLimiter( -1 );
+        assertFalse( limiter.isLimited() );
+
+        // 4000 IOs during one second
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 4000, () -> {} );
+        forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+
+        assertEquals( 2000, limiter.budget() );
+        assertTrue( limiter.isLimited() );
+    }
+
+    @Test
+    public void mustLiftLimitWhileBehindRecoveryWindowTarget()
+    {
+        createIOLimiter( 1000 );
+        clock.addAndGet( TimeUnit.MINUTES.toNanos( 2 ) );
+
+        forceLogOverNextInterval( 2 * LATENCY_TARGET_NANOS );
+        assertFalse( limiter.isLimited() );
+
+        // A check-point which took 10 seconds just completed, so we've caught up
+        limiter.lastCheckPointEventDuration( TimeUnit.SECONDS.toMillis( 10 ) );
+        forceLogOverNextInterval( LATENCY_TARGET_NANOS / 2 );
+        assertEquals( 1000, limiter.budget() );
+        assertTrue( limiter.isLimited() );
+    }
+
+    @Test
+    public void mustFollowDynamicallyConfiguredLimit()
+    {
+        createIOLimiter( 1000 );
+        config.updateDynamicSetting( GraphDatabaseSettings.check_point_iops_limit.name(), "400", "test" );
+
+        forceLogOverNextInterval( LATENCY_TARGET_NANOS / 2 );
+        assertEquals( 400, limiter.budget() );
+    }
+
+    @Test
+    public void mustOnlyBeUsedWithAdaptivePolicy()
+    {
+        Monitors monitors = new Monitors();
+        assertThat( AdaptiveIOLimiter.forCheckPointPolicy( Config.defaults(), monitors ),
+                instanceOf( ConfigurableIOLimiter.class ) );
+        Config config = Config.defaults( GraphDatabaseSettings.check_point_policy, AdaptiveThresholdPolicy.NAME );
+        assertThat( AdaptiveIOLimiter.forCheckPointPolicy( config, monitors ), instanceOf( AdaptiveIOLimiter.class ) );
+    }
+
+    private void forceLogOverNextInterval( long forceTimeNanos )
+    {
+        clock.addAndGet( ADJUSTMENT_INTERVAL_NANOS );
+        limiter.logForced( forceTimeNanos );
+    }
+}
@@ -102,4 +102,21 @@ public class EnterpriseCheckPointThresholdTest extends CheckPointThresholdTestSu
         verifyTriggered( "continuous" );
         verifyNoMoreTriggers();
     }
+
+    @Test
+    public void adaptivePolicyMustAlwaysTriggerCheckPoints()
+    {
+        withPolicy( "adaptive" );
+        CheckPointThreshold threshold = createThreshold();
+        threshold.initialize( 2 );
+
+        assertThat( threshold.checkFrequencyMillis(), is( 0L ) );
+
+        assertTrue( threshold.isCheckPointingNeeded( 2, triggered ) );
+        threshold.checkPointHappened( 3 );
+        assertTrue( threshold.isCheckPointingNeeded( 3, triggered ) );
+        verifyTriggered( "continuous" );
+        verifyTriggered( "continuous" );
+        verifyNoMoreTriggers();
+    }
 }
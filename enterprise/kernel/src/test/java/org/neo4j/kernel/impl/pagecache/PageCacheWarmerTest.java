@@ -33,6 +33,7 @@ import org.junit.rules.RuleChain;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -42,6 +43,7 @@ import java.util.OptionalLong;
 import java.util.concurrent.ThreadLocalRandom;
 
 import org.neo4j.graphdb.Resource;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
@@ -49,6 +51,7 @@ import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.scheduler.CentralJobScheduler;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.scheduler.JobScheduler;
@@ -66,6 +69,8 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class PageCacheWarmerTest
 {
@@ -81,6 +86,8 @@ public class PageCacheWarmerTest
     private DefaultPageCursorTracerSupplier cursorTracer;
     private PageCacheRule.PageCacheConfig cfg;
     private File file;
+    private Config config;
+    private PageCacheWarmerMonitor monitor;
 
     @Before
     public void setUp() throws IOException
@@ -94,6 +101,8 @@ public class PageCacheWarmerTest
         cfg = PageCacheRule.config().withTracer( cacheTracer ).withCursorTracerSupplier( cursorTracer );
         file = new File( testDirectory.databaseDir(), "a" );
         fs.create( file );
+        config = Config.defaults();
+        monitor = mock( PageCacheWarmerMonitor.class );
     }
 
     @After
@@ -102,6 +111,11 @@ public class PageCacheWarmerTest
         life.shutdown();
     }
 
+    private PageCacheWarmer createWarmer( PageCache pageCache )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir(), config, monitor );
+    }
+
     private void clearTracerCounts()
     {
         cursorTracer.get().init( PageCacheTracer.NULL );
@@ -115,7 +129,7 @@ public class PageCacheWarmerTest
         try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
               PagedFile ignore = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.stop();
             assertSame( OptionalLong.empty(), warmer.reheat() );
@@ -128,7 +142,7 @@ public class PageCacheWarmerTest
         try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
               PagedFile ignore = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.stop();
             assertSame( OptionalLong.empty(), warmer.profile() );
@@ -143,7 +157,7 @@ public class PageCacheWarmerTest
                 PagedFile include = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE );
                 PagedFile ignore = pageCache.map( ignoredFile, pageCache.pageSize(), StandardOpenOption.CREATE ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.profile();
 
@@ -164,7 +178,7 @@ public class PageCacheWarmerTest
         try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
               PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.stop();
             warmer.start();
@@ -185,7 +199,7 @@ public class PageCacheWarmerTest
         try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
               PagedFile ignore = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.reheat();
         }
         cursorTracer.get().reportEvents();
@@ -204,7 +218,7 @@ public class PageCacheWarmerTest
                 assertTrue( writer.next( 3 ) );
             }
             pf.flushAndForce();
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.profile();
         }
@@ -214,7 +228,7 @@ public class PageCacheWarmerTest
         try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
               PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.reheat();
 
@@ -251,7 +265,7 @@ public class PageCacheWarmerTest
                 }
             }
             pf.flushAndForce();
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.profile();
         }
 
@@ -260,12 +274,14 @@ public class PageCacheWarmerTest
         try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
               PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
         {
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.reheat();
 
+            // Runs of adjacent pages are loaded with read-ahead, so not every page is loaded by its own page fault.
             pageCache.reportEvents();
-            assertThat( cacheTracer.faults(), is( initialFaults + pageIds.length ) );
+            long faults = cacheTracer.faults();
+            assertThat( faults + cacheTracer.readAheadPages(), is( initialFaults + pageIds.length ) );
 
             try ( PageCursor reader = pf.io( 0, PagedFile.PF_SHARED_READ_LOCK ) )
             {
@@ -277,7 +293,67 @@ public class PageCacheWarmerTest
 
             // No additional faults must have been reported.
             pageCache.reportEvents();
-            assertThat( cacheTracer.faults(), is( initialFaults + pageIds.length ) );
+            assertThat( cacheTracer.faults(), is( faults ) );
+        }
+    }
+
+    @Test
+    public void reheatMustLoadHottestPagesFirstAndStopWhenBudgetIsExhausted() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 1 ) );
+                assertTrue( writer.next( 3 ) );
+            }
+            // Make page 3 hotter than page 1.
+            for ( int i = 0; i < PagedFile.MAX_PAGE_HEAT; i++ )
+            {
+                try ( PageCursor reader = pf.io( 3, PagedFile.PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( reader.next() );
+                }
+            }
+            pf.flushAndForce();
+            PageCacheWarmer warmer = createWarmer( pageCache );
+            warmer.start();
+            assertThat( warmer.profile(), is( OptionalLong.of( 2 ) ) );
+        }
+
+        config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_budget_pages, "1" );
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = createWarmer( pageCache );
+            warmer.start();
+            assertThat( warmer.reheat(), is( OptionalLong.of( 1 ) ) );
+
+            try ( PageCursor reader = pf.io( 0, PagedFile.PF_SHARED_READ_LOCK | PagedFile.PF_NO_FAULT ) )
+            {
+                assertTrue( reader.next( 3 ) );
+                assertThat( reader.getCurrentPageId(), is( 3L ) );
+                assertTrue( reader.next( 1 ) );
+                assertThat( reader.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+            }
+            verify( monitor ).warmupProgress( file, 1 );
+        }
+    }
+
+    @Test
+    public void reheatMustIgnoreProfilesInUnknownFormat() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( OutputStream output = Profile.first( file ).write( fs ) )
+            {
+                output.write( new byte[]{(byte) 0b1010, 0, 0, 0, 0, 0} ); // An old residency bitmap profile.
+            }
+            PageCacheWarmer warmer = createWarmer( pageCache );
+            warmer.start();
+            assertThat( warmer.reheat(), is( OptionalLong.of( 0 ) ) );
         }
     }
 
@@ -294,7 +370,7 @@ public class PageCacheWarmerTest
                 assertTrue( writer.next( 3 ) );
             }
             pf.flushAndForce();
-            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            PageCacheWarmer warmer = createWarmer( pageCache );
             warmer.start();
             warmer.profile();
             warmer.profile();
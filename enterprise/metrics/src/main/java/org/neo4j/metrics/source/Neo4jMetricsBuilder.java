@@ -27,6 +27,7 @@ import com.codahale.metrics.MetricRegistry;
 import java.util.function.Supplier;
 
 import org.neo4j.causalclustering.core.consensus.CoreMetaData;
+import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.ha.cluster.member.ClusterMembers;
@@ -40,6 +41,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerMonitor;
 import org.neo4j.kernel.impl.transaction.state.DataSourceManager;
 import org.neo4j.kernel.impl.transaction.stats.TransactionCounters;
+import org.neo4j.kernel.impl.util.collection.TransactionStateMemoryCounters;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.metrics.MetricsSettings;
@@ -53,8 +55,10 @@ import org.neo4j.metrics.source.db.BoltMetrics;
 import org.neo4j.metrics.source.db.CheckPointingMetrics;
 import org.neo4j.metrics.source.db.CypherMetrics;
 import org.neo4j.metrics.source.db.EntityCountMetrics;
+import org.neo4j.metrics.source.db.LogAppendMetrics;
 import org.neo4j.metrics.source.db.LogRotationMetrics;
 import org.neo4j.metrics.source.db.PageCacheMetrics;
+import org.neo4j.metrics.source.db.PageCacheWarmupMetrics;
 import org.neo4j.metrics.source.db.TransactionMetrics;
 import org.neo4j.metrics.source.jvm.GCMetrics;
 import org.neo4j.metrics.source.jvm.MemoryBuffersMetrics;
@@ -78,8 +82,12 @@ public class Neo4jMetricsBuilder
 
         TransactionCounters transactionCounters();
 
+        TransactionStateMemoryCounters transactionStateMemoryCounters();
+
         PageCacheCounters pageCacheCounters();
 
+        PageCache pageCache();
+
         Supplier<ClusterMembers> clusterMembers();
 
         Supplier<CoreMetaData> raft();
@@ -105,13 +113,16 @@ public class Neo4jMetricsBuilder
         if ( config.get( MetricsSettings.neoTxEnabled ) )
         {
             life.add( new TransactionMetrics( registry, databaseDependencySupplier( TransactionIdStore.class ),
-                    dependencies.transactionCounters() ) );
+                    dependencies.transactionCounters(), dependencies.transactionStateMemoryCounters() ) );
+            life.add( new LogAppendMetrics( registry, dependencies.monitors() ) );
             result = true;
         }
 
         if ( config.get( MetricsSettings.neoPageCacheEnabled ) )
         {
-            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters() ) );
+            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters(),
+                    dependencies.pageCache() ) );
+            life.add( new PageCacheWarmupMetrics( registry, dependencies.monitors(), kernelContext.directory() ) );
             result = true;
         }
 
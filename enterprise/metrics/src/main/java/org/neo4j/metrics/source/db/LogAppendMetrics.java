@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.transaction.log.PipelinedTransactionAppender;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database Transaction Log Append Metrics" )
+public class LogAppendMetrics extends LifecycleAdapter
+{
+    private static final String LOG_APPEND_PREFIX = "neo4j.log_append";
+
+    @Documented( "The total number of batches the transaction log writer has appended and forced so far" )
+    public static final String LOG_APPEND_BATCHES = name( LOG_APPEND_PREFIX, "batches" );
+    @Documented( "The total number of transactions the transaction log writer has appended and forced so far" )
+    public static final String LOG_APPEND_BATCHED_TRANSACTIONS = name( LOG_APPEND_PREFIX, "batched_transactions" );
+    @Documented( "The number of transactions in the most recently forced batch" )
+    public static final String LOG_APPEND_LAST_BATCH_SIZE = name( LOG_APPEND_PREFIX, "last_batch_size" );
+    @Documented( "The total time, in microseconds, spent forcing the transaction log so far" )
+    public static final String LOG_APPEND_FORCE_TOTAL_TIME = name( LOG_APPEND_PREFIX, "force_total_time" );
+    @Documented( "The time, in microseconds, it took to force the transaction log for the most recent batch" )
+    public static final String LOG_APPEND_LAST_FORCE_TIME = name( LOG_APPEND_PREFIX, "last_force_time" );
+
+    private final MetricRegistry registry;
+    private final Monitors monitors;
+    private final AppendMonitor monitor = new AppendMonitor();
+
+    public LogAppendMetrics( MetricRegistry registry, Monitors monitors )
+    {
+        this.registry = registry;
+        this.monitors = monitors;
+    }
+
+    @Override
+    public void start()
+    {
+        monitors.addMonitorListener( monitor );
+        registry.register( LOG_APPEND_BATCHES, (Gauge<Long>) monitor.batches::get );
+        registry.register( LOG_APPEND_BATCHED_TRANSACTIONS, (Gauge<Long>) monitor.transactions::get );
+        registry.register( LOG_APPEND_LAST_BATCH_SIZE, (Gauge<Long>) monitor.lastBatchSize::get );
+        registry.register( LOG_APPEND_FORCE_TOTAL_TIME, (Gauge<Long>) monitor.forceTotalTimeMicros::get );
+        registry.register( LOG_APPEND_LAST_FORCE_TIME, (Gauge<Long>) monitor.lastForceTimeMicros::get );
+    }
+
+    @Override
+    public void stop()
+    {
+        monitors.removeMonitorListener( monitor );
+        registry.remove( LOG_APPEND_BATCHES );
+        registry.remove( LOG_APPEND_BATCHED_TRANSACTIONS );
+        registry.remove( LOG_APPEND_LAST_BATCH_SIZE );
+        registry.remove( LOG_APPEND_FORCE_TOTAL_TIME );
+        registry.remove( LOG_APPEND_LAST_FORCE_TIME );
+    }
+
+    private static class AppendMonitor implements PipelinedTransactionAppender.Monitor
+    {
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong transactions = new AtomicLong();
+        private final AtomicLong lastBatchSize = new AtomicLong();
+        private final AtomicLong forceTotalTimeMicros = new AtomicLong();
+        private final AtomicLong lastForceTimeMicros = new AtomicLong();
+
+        @Override
+        public void batchForced( int transactions, long forceTimeNanos )
+        {
+            long forceTimeMicros = TimeUnit.NANOSECONDS.toMicros( forceTimeNanos );
+            batches.incrementAndGet();
+            this.transactions.addAndGet( transactions );
+            lastBatchSize.set( transactions );
+            forceTotalTimeMicros.addAndGet( forceTimeMicros );
+            lastForceTimeMicros.set( forceTimeMicros );
+        }
+    }
+}
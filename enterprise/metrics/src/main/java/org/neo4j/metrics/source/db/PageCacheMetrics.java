@@ -25,6 +25,12 @@ package org.neo4j.metrics.source.db;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.impl.muninn.PageCachePartition;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.kernel.impl.annotations.Documented;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
@@ -54,14 +60,35 @@ public class PageCacheMetrics extends LifecycleAdapter
     public static final String PC_HIT_RATIO = name( PAGE_CACHE_PREFIX, "hit_ratio" );
     @Documented( "The ratio of number of used pages to total number of available pages" )
     public static final String PC_USAGE_RATIO = name( PAGE_CACHE_PREFIX, "usage_ratio" );
+    @Documented( "The total number of pages admitted on probation by the scan resistant eviction policy" )
+    public static final String PC_PROBATIONARY_ADMISSIONS = name( PAGE_CACHE_PREFIX, "probationary_admissions" );
+    @Documented( "The total number of page faults that were recognised as re-references of recently evicted pages " +
+                 "by the scan resistant eviction policy" )
+    public static final String PC_GHOST_HITS = name( PAGE_CACHE_PREFIX, "ghost_hits" );
+    @Documented( "The total number of pages faulted in ahead of sequential page cursors" )
+    public static final String PC_READ_AHEAD_PAGES = name( PAGE_CACHE_PREFIX, "read_ahead_pages" );
+    @Documented( "The total number of read-ahead pages that were used by the cursor that read them" )
+    public static final String PC_READ_AHEAD_HITS = name( PAGE_CACHE_PREFIX, "read_ahead_hits" );
+    @Documented( "The total number of read-ahead pages that were not used by the cursor that read them" )
+    public static final String PC_READ_AHEAD_WASTE = name( PAGE_CACHE_PREFIX, "read_ahead_waste" );
+
+    // The partition metrics are named after the configured page cache partitions, such as
+    // neo4j.page_cache.partition.indexes.resident_pages.
+    private static final String PC_PARTITION_PREFIX = name( PAGE_CACHE_PREFIX, "partition" );
+    private static final String PC_PARTITION_RESIDENT_PAGES = "resident_pages";
+    private static final String PC_PARTITION_RESERVED_PAGES = "reserved_pages";
+    private static final String PC_PARTITION_MAX_PAGES = "max_pages";
 
     private final MetricRegistry registry;
     private final PageCacheCounters pageCacheCounters;
+    private final List<PageCachePartition> partitions;
 
-    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters )
+    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters, PageCache pageCache )
     {
         this.registry = registry;
         this.pageCacheCounters = pageCacheCounters;
+        this.partitions = pageCache instanceof MuninnPageCache ? ((MuninnPageCache) pageCache).partitions()
+                                                               : Collections.emptyList();
     }
 
     @Override
@@ -76,6 +103,18 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
         registry.register( PC_HIT_RATIO, (Gauge<Double>) pageCacheCounters::hitRatio );
         registry.register( PC_USAGE_RATIO, (Gauge<Double>) pageCacheCounters::usageRatio );
+        registry.register( PC_PROBATIONARY_ADMISSIONS, (Gauge<Long>) pageCacheCounters::probationaryAdmissions );
+        registry.register( PC_GHOST_HITS, (Gauge<Long>) pageCacheCounters::ghostHits );
+        registry.register( PC_READ_AHEAD_PAGES, (Gauge<Long>) pageCacheCounters::readAheadPages );
+        registry.register( PC_READ_AHEAD_HITS, (Gauge<Long>) pageCacheCounters::readAheadHits );
+        registry.register( PC_READ_AHEAD_WASTE, (Gauge<Long>) pageCacheCounters::readAheadWaste );
+        for ( PageCachePartition partition : partitions )
+        {
+            String prefix = name( PC_PARTITION_PREFIX, partition.name() );
+            registry.register( name( prefix, PC_PARTITION_RESIDENT_PAGES ), (Gauge<Long>) partition::residentPages );
+            registry.register( name( prefix, PC_PARTITION_RESERVED_PAGES ), (Gauge<Long>) partition::reservedPages );
+            registry.register( name( prefix, PC_PARTITION_MAX_PAGES ), (Gauge<Long>) partition::maxPages );
+        }
     }
 
     @Override
@@ -90,5 +129,17 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_EVICTION_EXCEPTIONS );
         registry.remove( PC_HIT_RATIO );
         registry.remove( PC_USAGE_RATIO );
+        registry.remove( PC_PROBATIONARY_ADMISSIONS );
+        registry.remove( PC_GHOST_HITS );
+        registry.remove( PC_READ_AHEAD_PAGES );
+        registry.remove( PC_READ_AHEAD_HITS );
+        registry.remove( PC_READ_AHEAD_WASTE );
+        for ( PageCachePartition partition : partitions )
+        {
+            String prefix = name( PC_PARTITION_PREFIX, partition.name() );
+            registry.remove( name( prefix, PC_PARTITION_RESIDENT_PAGES ) );
+            registry.remove( name( prefix, PC_PARTITION_RESERVED_PAGES ) );
+            registry.remove( name( prefix, PC_PARTITION_MAX_PAGES ) );
+        }
     }
 }
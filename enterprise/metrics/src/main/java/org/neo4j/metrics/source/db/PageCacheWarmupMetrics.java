@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmerMonitor;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database PageCache Warmup Metrics" )
+public class PageCacheWarmupMetrics extends LifecycleAdapter
+{
+    private static final String WARMUP_PREFIX = "neo4j.page_cache.warmup";
+
+    @Documented( "The total number of pages loaded by the page cache warmup" )
+    public static final String WARMUP_PAGES_LOADED = name( WARMUP_PREFIX, "pages_loaded" );
+    @Documented( "The total number of pages found in memory by the last page cache profile" )
+    public static final String WARMUP_PAGES_PROFILED = name( WARMUP_PREFIX, "pages_profiled" );
+    // The per-file metrics are named after the paths of the files being warmed up, relative to the store directory, such as
+    // neo4j.page_cache.warmup.file.graph.db.neostore.nodestore.db.pages_loaded. Index files of different providers
+    // share names, like index-1, so their names alone are not enough.
+    private static final String WARMUP_FILE_PREFIX = name( WARMUP_PREFIX, "file" );
+    private static final String WARMUP_FILE_PAGES_LOADED = "pages_loaded";
+
+    private final MetricRegistry registry;
+    private final Monitors monitors;
+    private final File storeDir;
+    private final WarmupMonitor monitor = new WarmupMonitor();
+
+    public PageCacheWarmupMetrics( MetricRegistry registry, Monitors monitors, File storeDir )
+    {
+        this.registry = registry;
+        this.monitors = monitors;
+        this.storeDir = storeDir;
+    }
+
+    @Override
+    public void start()
+    {
+        monitors.addMonitorListener( monitor );
+        registry.register( WARMUP_PAGES_LOADED, (Gauge<Long>) monitor.pagesLoaded::get );
+        registry.register( WARMUP_PAGES_PROFILED, (Gauge<Long>) monitor.pagesProfiled::get );
+    }
+
+    @Override
+    public void stop()
+    {
+        monitors.removeMonitorListener( monitor );
+        registry.remove( WARMUP_PAGES_LOADED );
+        registry.remove( WARMUP_PAGES_PROFILED );
+        for ( String filePath : monitor.filePagesLoaded.keySet() )
+        {
+            registry.remove( fileMetricName( filePath ) );
+        }
+        monitor.filePagesLoaded.clear();
+    }
+
+    private static String fileMetricName( String filePath )
+    {
+        return name( WARMUP_FILE_PREFIX, filePath, WARMUP_FILE_PAGES_LOADED );
+    }
+
+    private String filePath( File file )
+    {
+        Path path;
+        try
+        {
+            path = Paths.get( FileUtils.relativePath( storeDir, file ) );
+        }
+        catch ( IOException e )
+        {
+            // Not a file in the store directory, use its whole path
+            Path absolutePath = file.getAbsoluteFile().toPath();
+            path = absolutePath.subpath( 0, absolutePath.getNameCount() );
+        }
+        return path.toString().replace( File.separatorChar, '.' );
+    }
+
+    private class WarmupMonitor implements PageCacheWarmerMonitor
+    {
+        private final AtomicLong pagesLoaded = new AtomicLong();
+        private final AtomicLong pagesProfiled = new AtomicLong();
+        private final Map<String,AtomicLong> filePagesLoaded = new ConcurrentHashMap<>();
+
+        @Override
+        public void warmupCompleted( long pagesLoaded )
+        {
+            this.pagesLoaded.set( pagesLoaded );
+        }
+
+        @Override
+        public void warmupProgress( File file, long pagesLoaded )
+        {
+            filePagesLoaded.computeIfAbsent( filePath( file ), filePath ->
+            {
+                AtomicLong counter = new AtomicLong();
+                registry.register( fileMetricName( filePath ), (Gauge<Long>) counter::get );
+                return counter;
+            } ).set( pagesLoaded );
+        }
+
+        @Override
+        public void profileCompleted( long pagesInMemory )
+        {
+            pagesProfiled.set( pagesInMemory );
+        }
+    }
+}
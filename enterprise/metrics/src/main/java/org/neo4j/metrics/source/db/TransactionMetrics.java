@@ -30,6 +30,7 @@ import java.util.function.Supplier;
 import org.neo4j.kernel.impl.annotations.Documented;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.stats.TransactionCounters;
+import org.neo4j.kernel.impl.util.collection.TransactionStateMemoryCounters;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 import static com.codahale.metrics.MetricRegistry.name;
@@ -77,16 +78,24 @@ public class TransactionMetrics extends LifecycleAdapter
     @Documented( "The ID of the last closed transaction" )
     public static final String LAST_CLOSED_TX_ID = name( TRANSACTION_PREFIX, "last_closed_tx_id" );
 
+    @Documented( "The amount of off-heap memory, in bytes, currently allocated for transaction state" )
+    public static final String TX_STATE_OFF_HEAP_MEMORY = name( TRANSACTION_PREFIX, "tx_state_off_heap_memory" );
+    @Documented( "The amount of transaction state, in bytes, currently spilled to disk due to exceeding the off-heap memory limits" )
+    public static final String TX_STATE_SPILLED_MEMORY = name( TRANSACTION_PREFIX, "tx_state_spilled_memory" );
+
     private final MetricRegistry registry;
     private final TransactionCounters transactionCounters;
+    private final TransactionStateMemoryCounters transactionStateMemoryCounters;
     private final Supplier<TransactionIdStore> transactionIdStore;
 
     public TransactionMetrics( MetricRegistry registry,
-            Supplier<TransactionIdStore> transactionIdStore, TransactionCounters transactionCounters )
+            Supplier<TransactionIdStore> transactionIdStore, TransactionCounters transactionCounters,
+            TransactionStateMemoryCounters transactionStateMemoryCounters )
     {
         this.registry = registry;
         this.transactionIdStore = transactionIdStore;
         this.transactionCounters = transactionCounters;
+        this.transactionStateMemoryCounters = transactionStateMemoryCounters;
     }
 
     @Override
@@ -121,6 +130,9 @@ public class TransactionMetrics extends LifecycleAdapter
                 transactionIdStore.get().getLastCommittedTransactionId() );
         registry.register( LAST_CLOSED_TX_ID, (Gauge<Long>) () ->
                 transactionIdStore.get().getLastClosedTransactionId() );
+
+        registry.register( TX_STATE_OFF_HEAP_MEMORY, (Gauge<Long>) transactionStateMemoryCounters::usedOffHeapMemory );
+        registry.register( TX_STATE_SPILLED_MEMORY, (Gauge<Long>) transactionStateMemoryCounters::spilledMemory );
     }
 
     @Override
@@ -147,5 +159,8 @@ public class TransactionMetrics extends LifecycleAdapter
 
         registry.remove( LAST_COMMITTED_TX_ID );
         registry.remove( LAST_CLOSED_TX_ID );
+
+        registry.remove( TX_STATE_OFF_HEAP_MEMORY );
+        registry.remove( TX_STATE_SPILLED_MEMORY );
     }
 }
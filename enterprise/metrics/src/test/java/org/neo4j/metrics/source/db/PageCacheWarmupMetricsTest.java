@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.io.File;
+
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmerMonitor;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.kernel.monitoring.Monitors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PageCacheWarmupMetricsTest
+{
+    private final MetricRegistry registry = new MetricRegistry();
+    private final Monitors monitors = new Monitors();
+    private final LifeSupport life = new LifeSupport();
+
+    @Test
+    public void shouldKeepSeparateProgressForFilesWithTheSameName()
+    {
+        // given
+        File storeDir = new File( "store" ).getAbsoluteFile();
+        File databaseDir = new File( storeDir, "graph.db" );
+        File nativeIndex = new File( databaseDir, "schema/index/native-btree-1.0/1/index-1" );
+        File luceneIndex = new File( databaseDir, "schema/index/lucene-native-2.0/1/index-1" );
+        life.add( new PageCacheWarmupMetrics( registry, monitors, storeDir ) );
+        life.start();
+
+        // when
+        PageCacheWarmerMonitor monitor = monitors.newMonitor( PageCacheWarmerMonitor.class );
+        monitor.warmupProgress( nativeIndex, 3 );
+        monitor.warmupProgress( luceneIndex, 5 );
+
+        // then
+        assertEquals( 3L, pagesLoaded( "graph.db.schema.index.native-btree-1.0.1.index-1" ) );
+        assertEquals( 5L, pagesLoaded( "graph.db.schema.index.lucene-native-2.0.1.index-1" ) );
+
+        life.shutdown();
+        assertTrue( registry.getGauges().isEmpty() );
+    }
+
+    private long pagesLoaded( String filePath )
+    {
+        Gauge<?> gauge = registry.getGauges().get( "neo4j.page_cache.warmup.file." + filePath + ".pages_loaded" );
+        return (Long) gauge.getValue();
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.causalclustering.core.CausalClusteringSettings;
@@ -118,6 +119,11 @@ public class PageCacheWarmupCcIT extends PageCacheWarmupTestSupport
                 warmupLatch.release();
             }
 
+            @Override
+            public void warmupProgress( File file, long pagesLoaded )
+            {
+            }
+
             @Override
             public void profileCompleted( long pagesInMemory )
             {
@@ -22,6 +22,7 @@
  */
 package org.neo4j.kernel;
 
+import java.io.File;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -90,6 +91,11 @@ class PageCacheWarmupTestSupport
         {
         }
 
+        @Override
+        public void warmupProgress( File file, long pagesLoaded )
+        {
+        }
+
         @Override
         public void profileCompleted( long pagesInMemory )
         {
@@ -113,6 +119,11 @@ class PageCacheWarmupTestSupport
         {
         }
 
+        @Override
+        public void warmupProgress( File file, long pagesLoaded )
+        {
+        }
+
         @Override
         public void profileCompleted( long pagesInMemory )
         {